@@ -309,7 +309,7 @@ public class ZeusApplication {
 	
 	@RequestMapping("/getAccounts")
 	@ResponseBody
-	public ResultVO getAccounts(String token) {
+	public ResultVO getAccounts(String token, Long version) {
 
 		ResultVO result = new ResultVO();
 		
@@ -318,13 +318,18 @@ public class ZeusApplication {
 			return result;
 		}
 		
-		result.setData(tradingService.getAccounts());
+		// 携带版本号时只返回该版本之后的变更
+		if(version != null) {
+			result.setData(tradingService.getAccountChanges(version));
+		}else {
+			result.setData(tradingService.getAccounts());
+		}
 		return result;
 	}
 	
 	@RequestMapping("/getTrades")
 	@ResponseBody
-	public ResultVO getTrades(String token) {
+	public ResultVO getTrades(String token, Long version) {
 
 		ResultVO result = new ResultVO();
 		
@@ -332,13 +337,18 @@ public class ZeusApplication {
 			result.setResultCode(ResultVO.ERROR);
 			return result;
 		}
-		result.setData(tradingService.getTrades());
+		// 携带版本号时只返回该版本之后的变更
+		if(version != null) {
+			result.setData(tradingService.getTradeChanges(version));
+		}else {
+			result.setData(tradingService.getTrades());
+		}
 		return result;
 	}
 	
 	@RequestMapping("/getOrders")
 	@ResponseBody
-	public ResultVO getOrders(String token) {
+	public ResultVO getOrders(String token, Long version) {
 
 		ResultVO result = new ResultVO();
 		
@@ -347,7 +357,12 @@ public class ZeusApplication {
 			return result;
 		}
 
-		result.setData(tradingService.getOrders());
+		// 携带版本号时只返回该版本之后的变更
+		if(version != null) {
+			result.setData(tradingService.getOrderChanges(version));
+		}else {
+			result.setData(tradingService.getOrders());
+		}
 		return result;
 	}
 	
@@ -368,7 +383,7 @@ public class ZeusApplication {
 	
 	@RequestMapping("/getPositions")
 	@ResponseBody
-	public ResultVO getPositions(String token) {
+	public ResultVO getPositions(String token, Long version) {
 
 		ResultVO result = new ResultVO();
 		
@@ -377,7 +392,12 @@ public class ZeusApplication {
 			return result;
 		}
 
-		result.setData(tradingService.getPositions());
+		// 携带版本号时只返回该版本之后的变更
+		if(version != null) {
+			result.setData(tradingService.getPositionChanges(version));
+		}else {
+			result.setData(tradingService.getPositions());
+		}
 		return result;
 	}
 	
@@ -411,6 +431,20 @@ public class ZeusApplication {
 		return result;
 	}
 	
+	@RequestMapping("/getLatencies")
+	@ResponseBody
+	public ResultVO getLatencies(String token) {
+
+		ResultVO result = new ResultVO();
+		
+		if(!tokenService.validate(token)) {
+			result.setResultCode(ResultVO.ERROR);
+			return result;
+		}
+		result.setData(tradingService.getLatencies());
+		return result;
+	}
+	
     @Bean  
     public SocketIOServer socketIOServer(@Value("${rt.web.socketio.host}")String host,@Value("${rt.web.socketio.port}") Integer port) {  
         com.corundumstudio.socketio.Configuration config = new com.corundumstudio.socketio.Configuration();  
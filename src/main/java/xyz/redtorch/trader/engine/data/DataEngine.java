@@ -8,6 +8,7 @@ import xyz.redtorch.trader.base.BaseConfig;
 import xyz.redtorch.trader.base.RtConstant;
 import xyz.redtorch.trader.entity.Bar;
 import xyz.redtorch.trader.entity.Tick;
+import xyz.redtorch.utils.CloseableIterator;
 import xyz.redtorch.utils.MongoDBClient;
 /**
  * @author sun0x00@gmail.com
@@ -24,6 +25,31 @@ public interface DataEngine {
 
 	List<Tick> loadTickDataList(DateTime startDateTime, DateTime endDateTime, String rtSymbol);
 
+	/**
+	 * 流式读取[startDateTime,endDateTime]区间的Bar数据,按时间升序,使用完毕必须关闭
+	 * 
+	 * @param fieldList 需要的字段,为null时读取全部字段,实现可以返回多于fieldList的字段
+	 */
+	CloseableIterator<Bar> openBarIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList);
+
+	/**
+	 * 流式读取[startDateTime,endDateTime]区间的Tick数据,按时间升序,使用完毕必须关闭
+	 * 
+	 * @param fieldList 需要的字段,为null时读取全部字段,实现可以返回多于fieldList的字段
+	 */
+	CloseableIterator<Tick> openTickIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList);
+
+	/**
+	 * 统计[startDateTime,endDateTime]区间的Bar数据条数
+	 */
+	long countBarData(DateTime startDateTime, DateTime endDateTime, String rtSymbol);
+
+	/**
+	 * 统计[startDateTime,endDateTime]区间的Tick数据条数
+	 */
+	long countTickData(DateTime startDateTime, DateTime endDateTime, String rtSymbol);
 
 	MongoDBClient getMdDBClient();
 
@@ -0,0 +1,135 @@
+package xyz.redtorch.trader.engine.data.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.joda.time.DateTime;
+
+import xyz.redtorch.trader.engine.data.DataEngine;
+import xyz.redtorch.trader.entity.Bar;
+import xyz.redtorch.trader.entity.Tick;
+import xyz.redtorch.utils.CloseableIterator;
+import xyz.redtorch.utils.MongoDBClient;
+
+/**
+ * 只读行情缓存数据引擎,用于多个回测并行运行时共享行情数据
+ *
+ * 相同的查询(合约+起止时间)只访问一次数据库,并发的相同查询会等待第一次查询完成;
+ * 返回的列表不可修改,列表中的Tick和Bar由所有回测共享,使用方不能修改其内容
+ *
+ * @author sun0x00@gmail.com
+ */
+public class CachedDataEngineImpl implements DataEngine {
+
+	private static Logger log = LoggerFactory.getLogger(CachedDataEngineImpl.class);
+
+	private final DataEngine dataEngine;
+
+	private final Map<String, Future<List<Bar>>> barDataCacheMap = new ConcurrentHashMap<>();
+	private final Map<String, Future<List<Tick>>> tickDataCacheMap = new ConcurrentHashMap<>();
+
+	/**
+	 * @param dataEngine 实际读取数据的引擎
+	 */
+	public CachedDataEngineImpl(DataEngine dataEngine) {
+		this.dataEngine = dataEngine;
+	}
+
+	@Override
+	public List<Bar> loadBarDataList(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return getOrLoad(barDataCacheMap, cacheKey(startDateTime, endDateTime, rtSymbol), () -> {
+			List<Bar> barList = dataEngine.loadBarDataList(startDateTime, endDateTime, rtSymbol);
+			return Collections.unmodifiableList(barList);
+		});
+	}
+
+	@Override
+	public List<Tick> loadTickDataList(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return getOrLoad(tickDataCacheMap, cacheKey(startDateTime, endDateTime, rtSymbol), () -> {
+			List<Tick> tickList = dataEngine.loadTickDataList(startDateTime, endDateTime, rtSymbol);
+			for (Tick tick : tickList) {
+				// 提前计算延迟初始化的字段,共享后只读
+				tick.getDateTime();
+				tick.getActionTime();
+			}
+			return Collections.unmodifiableList(tickList);
+		});
+	}
+
+	@Override
+	public CloseableIterator<Bar> openBarIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList) {
+		// 缓存完整数据,忽略fieldList
+		return CloseableIterator.of(loadBarDataList(startDateTime, endDateTime, rtSymbol));
+	}
+
+	@Override
+	public CloseableIterator<Tick> openTickIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList) {
+		return CloseableIterator.of(loadTickDataList(startDateTime, endDateTime, rtSymbol));
+	}
+
+	private static String cacheKey(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return rtSymbol + "|" + startDateTime.getMillis() + "|" + endDateTime.getMillis();
+	}
+
+	private <T> List<T> getOrLoad(Map<String, Future<List<T>>> cacheMap, String key, Callable<List<T>> loader) {
+		Future<List<T>> future = cacheMap.get(key);
+		if (future == null) {
+			FutureTask<List<T>> futureTask = new FutureTask<>(loader);
+			future = cacheMap.putIfAbsent(key, futureTask);
+			if (future == null) {
+				future = futureTask;
+				futureTask.run();
+			}
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.error("读取缓存数据被中断,{}", key, e);
+		} catch (ExecutionException e) {
+			// 加载失败不缓存,下次重新加载
+			cacheMap.remove(key, future);
+			log.error("加载缓存数据发生异常,{}", key, e);
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void clear() {
+		barDataCacheMap.clear();
+		tickDataCacheMap.clear();
+	}
+
+	@Override
+	public long countBarData(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return dataEngine.countBarData(startDateTime, endDateTime, rtSymbol);
+	}
+
+	@Override
+	public long countTickData(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return dataEngine.countTickData(startDateTime, endDateTime, rtSymbol);
+	}
+
+	@Override
+	public MongoDBClient getMdDBClient() {
+		return dataEngine.getMdDBClient();
+	}
+
+	@Override
+	public MongoDBClient getDefaultDBClient() {
+		return dataEngine.getDefaultDBClient();
+	}
+
+}
@@ -0,0 +1,102 @@
+package xyz.redtorch.trader.engine.data.impl;
+
+import java.util.function.Function;
+
+import org.joda.time.DateTime;
+
+/**
+ * 列式行情游标,按天依次打开文件,逐行读取时不创建对象
+ *
+ * 用法:
+ * <pre>
+ * int closeColumn = ColumnarMdLayout.BAR.getColumnIndex("close");
+ * while (cursor.next()) {
+ *     long timestamp = cursor.getTimestamp();
+ *     double close = cursor.getDouble(closeColumn);
+ * }
+ * </pre>
+ *
+ * 非线程安全
+ *
+ * @author sun0x00@gmail.com
+ */
+public class ColumnarMdCursor<T> {
+
+	private final long startTimestamp;
+	private final long endTimestamp;
+	private final Function<DateTime, ColumnarMdFile<T>> dayFileLoader;
+
+	private DateTime nextDay; // 下一个要打开的日期
+	private final DateTime lastDay;
+
+	private ColumnarMdFile<T> file;
+	private int row;
+	private int endRow;
+
+	/**
+	 * @param startDateTime 开始时间(包含)
+	 * @param endDateTime 结束时间(包含)
+	 * @param dayFileLoader 按日期(零点)获取当日文件,无数据时可返回null
+	 */
+	ColumnarMdCursor(DateTime startDateTime, DateTime endDateTime, Function<DateTime, ColumnarMdFile<T>> dayFileLoader) {
+		this.startTimestamp = startDateTime.getMillis();
+		this.endTimestamp = endDateTime.getMillis();
+		this.dayFileLoader = dayFileLoader;
+		this.nextDay = startDateTime.withTimeAtStartOfDay();
+		this.lastDay = endDateTime.withTimeAtStartOfDay();
+	}
+
+	/**
+	 * 移动到下一行
+	 *
+	 * @return 没有更多数据时返回false
+	 */
+	public boolean next() {
+		if (file != null && row + 1 < endRow) {
+			row++;
+			return true;
+		}
+		while (!nextDay.isAfter(lastDay)) {
+			ColumnarMdFile<T> dayFile = dayFileLoader.apply(nextDay);
+			nextDay = nextDay.plusDays(1);
+			if (dayFile == null) {
+				continue;
+			}
+			int fromRow = dayFile.lowerBound(startTimestamp);
+			int toRow = dayFile.upperBound(endTimestamp);
+			if (fromRow < toRow) {
+				file = dayFile;
+				row = fromRow;
+				endRow = toRow;
+				return true;
+			}
+		}
+		file = null;
+		return false;
+	}
+
+	public long getTimestamp() {
+		return file.getTimestamp(row);
+	}
+
+	public long getLong(int column) {
+		return file.getLong(column, row);
+	}
+
+	public double getDouble(int column) {
+		return file.getDouble(column, row);
+	}
+
+	public int getInt(int column) {
+		return file.getInt(column, row);
+	}
+
+	/**
+	 * 读取当前行为对象
+	 *
+	 * @return
+	 */
+	public T read() {
+		return file.read(row);
+	}
+}
@@ -0,0 +1,94 @@
+package xyz.redtorch.trader.engine.data.impl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 单个列式行情文件的只读视图,数据直接从缓冲区(通常为MappedByteBuffer)读取,不创建行对象
+ *
+ * @author sun0x00@gmail.com
+ */
+public class ColumnarMdFile<T> {
+
+	private final ColumnarMdLayout<T> layout;
+	private final ByteBuffer buffer;
+	private final int rowCount;
+	private final String[] headers;
+	private final int[] columnOffsets;
+
+	ColumnarMdFile(ColumnarMdLayout<T> layout, ByteBuffer buffer, int rowCount, String[] headers,
+			int[] columnOffsets) {
+		this.layout = layout;
+		this.buffer = buffer;
+		this.rowCount = rowCount;
+		this.headers = headers;
+		this.columnOffsets = columnOffsets;
+	}
+
+	public ColumnarMdLayout<T> getLayout() {
+		return layout;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	String[] getHeaders() {
+		return headers;
+	}
+
+	public long getTimestamp(int row) {
+		return buffer.getLong(columnOffsets[0] + (row << 3));
+	}
+
+	public long getLong(int column, int row) {
+		return buffer.getLong(columnOffsets[column] + (row << 3));
+	}
+
+	public double getDouble(int column, int row) {
+		return buffer.getDouble(columnOffsets[column] + (row << 3));
+	}
+
+	public int getInt(int column, int row) {
+		return buffer.getInt(columnOffsets[column] + (row << 2));
+	}
+
+	/**
+	 * 第一个时间戳不小于timestamp的行号,全部小于时返回rowCount
+	 *
+	 * @param timestamp
+	 * @return
+	 */
+	public int lowerBound(long timestamp) {
+		int low = 0;
+		int high = rowCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (getTimestamp(mid) < timestamp) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * 第一个时间戳大于timestamp的行号,全部不大于时返回rowCount
+	 *
+	 * @param timestamp
+	 * @return
+	 */
+	public int upperBound(long timestamp) {
+		return timestamp == Long.MAX_VALUE ? rowCount : lowerBound(timestamp + 1);
+	}
+
+	/**
+	 * 读取一行为对象
+	 *
+	 * @param row
+	 * @return
+	 */
+	public T read(int row) {
+		return layout.read(this, row);
+	}
+}
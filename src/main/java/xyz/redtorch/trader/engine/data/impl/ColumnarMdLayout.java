@@ -0,0 +1,355 @@
+package xyz.redtorch.trader.engine.data.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.apache.commons.lang3.StringUtils;
+import org.joda.time.DateTime;
+
+import xyz.redtorch.trader.base.RtConstant;
+import xyz.redtorch.trader.entity.Bar;
+import xyz.redtorch.trader.entity.Tick;
+
+/**
+ * 本地列式行情文件布局
+ *
+ * 文件由文件头和定长列组成,文件头保存接口、代码、交易所、rtSymbol等每个文件相同的字段,
+ * 之后每一列的全部行连续存放;第0列固定为epoch毫秒时间戳,行按时间戳升序排列
+ *
+ * @author sun0x00@gmail.com
+ */
+public class ColumnarMdLayout<T> {
+
+	private static final int MAGIC = 0x52544D44; // RTMD
+	private static final int VERSION = 1;
+
+	public static final int TYPE_LONG = 0;
+	public static final int TYPE_DOUBLE = 1;
+	public static final int TYPE_INT = 2;
+
+	/**
+	 * 列定义
+	 */
+	public static class Column<T> {
+		private final String name;
+		private final int type;
+		private ToLongFunction<T> longGetter;
+		private ObjLongConsumer<T> longSetter;
+		private ToDoubleFunction<T> doubleGetter;
+		private ObjDoubleConsumer<T> doubleSetter;
+		private ToIntFunction<T> intGetter;
+		private ObjIntConsumer<T> intSetter;
+
+		private Column(String name, int type) {
+			this.name = name;
+			this.type = type;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getType() {
+			return type;
+		}
+
+		public int getWidth() {
+			return type == TYPE_INT ? 4 : 8;
+		}
+	}
+
+	private final int layoutType;
+	private final Supplier<T> factory;
+	private final List<Column<T>> columnList = new ArrayList<>();
+	private final List<Function<T, String>> headerGetterList = new ArrayList<>();
+	private final List<BiConsumer<T, String>> headerSetterList = new ArrayList<>();
+
+	private ColumnarMdLayout(int layoutType, Supplier<T> factory) {
+		this.layoutType = layoutType;
+		this.factory = factory;
+	}
+
+	private ColumnarMdLayout<T> header(Function<T, String> getter, BiConsumer<T, String> setter) {
+		headerGetterList.add(getter);
+		headerSetterList.add(setter);
+		return this;
+	}
+
+	private ColumnarMdLayout<T> longColumn(String name, ToLongFunction<T> getter, ObjLongConsumer<T> setter) {
+		Column<T> column = new Column<>(name, TYPE_LONG);
+		column.longGetter = getter;
+		column.longSetter = setter;
+		columnList.add(column);
+		return this;
+	}
+
+	private ColumnarMdLayout<T> doubleColumn(String name, ToDoubleFunction<T> getter, ObjDoubleConsumer<T> setter) {
+		Column<T> column = new Column<>(name, TYPE_DOUBLE);
+		column.doubleGetter = getter;
+		column.doubleSetter = setter;
+		columnList.add(column);
+		return this;
+	}
+
+	private ColumnarMdLayout<T> intColumn(String name, ToIntFunction<T> getter, ObjIntConsumer<T> setter) {
+		Column<T> column = new Column<>(name, TYPE_INT);
+		column.intGetter = getter;
+		column.intSetter = setter;
+		columnList.add(column);
+		return this;
+	}
+
+	/**
+	 * Tick布局,actionTime和dateTime由时间戳生成
+	 */
+	public static final ColumnarMdLayout<Tick> TICK = new ColumnarMdLayout<Tick>(0, Tick::new)
+			.header(Tick::getGatewayID, Tick::setGatewayID)
+			.header(Tick::getSymbol, Tick::setSymbol)
+			.header(Tick::getExchange, Tick::setExchange)
+			.header(Tick::getRtSymbol, Tick::setRtSymbol)
+			.longColumn("actionTimestamp", Tick::getActionTimestamp, Tick::setActionTimestamp)
+			.doubleColumn("lastPrice", Tick::getLastPrice, Tick::setLastPrice)
+			.doubleColumn("openInterest", Tick::getOpenInterest, Tick::setOpenInterest)
+			.longColumn("preOpenInterest", Tick::getPreOpenInterest, Tick::setPreOpenInterest)
+			.doubleColumn("preClosePrice", Tick::getPreClosePrice, Tick::setPreClosePrice)
+			.doubleColumn("preSettlePrice", Tick::getPreSettlePrice, Tick::setPreSettlePrice)
+			.doubleColumn("openPrice", Tick::getOpenPrice, Tick::setOpenPrice)
+			.doubleColumn("highPrice", Tick::getHighPrice, Tick::setHighPrice)
+			.doubleColumn("lowPrice", Tick::getLowPrice, Tick::setLowPrice)
+			.doubleColumn("upperLimit", Tick::getUpperLimit, Tick::setUpperLimit)
+			.doubleColumn("lowerLimit", Tick::getLowerLimit, Tick::setLowerLimit)
+			.doubleColumn("bidPrice1", Tick::getBidPrice1, Tick::setBidPrice1)
+			.doubleColumn("bidPrice2", Tick::getBidPrice2, Tick::setBidPrice2)
+			.doubleColumn("bidPrice3", Tick::getBidPrice3, Tick::setBidPrice3)
+			.doubleColumn("bidPrice4", Tick::getBidPrice4, Tick::setBidPrice4)
+			.doubleColumn("bidPrice5", Tick::getBidPrice5, Tick::setBidPrice5)
+			.doubleColumn("bidPrice6", Tick::getBidPrice6, Tick::setBidPrice6)
+			.doubleColumn("bidPrice7", Tick::getBidPrice7, Tick::setBidPrice7)
+			.doubleColumn("bidPrice8", Tick::getBidPrice8, Tick::setBidPrice8)
+			.doubleColumn("bidPrice9", Tick::getBidPrice9, Tick::setBidPrice9)
+			.doubleColumn("bidPrice10", Tick::getBidPrice10, Tick::setBidPrice10)
+			.doubleColumn("askPrice1", Tick::getAskPrice1, Tick::setAskPrice1)
+			.doubleColumn("askPrice2", Tick::getAskPrice2, Tick::setAskPrice2)
+			.doubleColumn("askPrice3", Tick::getAskPrice3, Tick::setAskPrice3)
+			.doubleColumn("askPrice4", Tick::getAskPrice4, Tick::setAskPrice4)
+			.doubleColumn("askPrice5", Tick::getAskPrice5, Tick::setAskPrice5)
+			.doubleColumn("askPrice6", Tick::getAskPrice6, Tick::setAskPrice6)
+			.doubleColumn("askPrice7", Tick::getAskPrice7, Tick::setAskPrice7)
+			.doubleColumn("askPrice8", Tick::getAskPrice8, Tick::setAskPrice8)
+			.doubleColumn("askPrice9", Tick::getAskPrice9, Tick::setAskPrice9)
+			.doubleColumn("askPrice10", Tick::getAskPrice10, Tick::setAskPrice10)
+			.intColumn("tradingDay", tick -> dayToInt(tick.getTradingDay()),
+					(tick, value) -> tick.setTradingDay(intToDay(value)))
+			.intColumn("actionDay", tick -> dayToInt(tick.getActionDay()),
+					(tick, value) -> tick.setActionDay(intToDay(value)))
+			.intColumn("status", Tick::getStatus, Tick::setStatus)
+			.intColumn("lastVolume", Tick::getLastVolume, Tick::setLastVolume)
+			.intColumn("volume", Tick::getVolume, Tick::setVolume)
+			.intColumn("bidVolume1", Tick::getBidVolume1, Tick::setBidVolume1)
+			.intColumn("bidVolume2", Tick::getBidVolume2, Tick::setBidVolume2)
+			.intColumn("bidVolume3", Tick::getBidVolume3, Tick::setBidVolume3)
+			.intColumn("bidVolume4", Tick::getBidVolume4, Tick::setBidVolume4)
+			.intColumn("bidVolume5", Tick::getBidVolume5, Tick::setBidVolume5)
+			.intColumn("bidVolume6", Tick::getBidVolume6, Tick::setBidVolume6)
+			.intColumn("bidVolume7", Tick::getBidVolume7, Tick::setBidVolume7)
+			.intColumn("bidVolume8", Tick::getBidVolume8, Tick::setBidVolume8)
+			.intColumn("bidVolume9", Tick::getBidVolume9, Tick::setBidVolume9)
+			.intColumn("bidVolume10", Tick::getBidVolume10, Tick::setBidVolume10)
+			.intColumn("askVolume1", Tick::getAskVolume1, Tick::setAskVolume1)
+			.intColumn("askVolume2", Tick::getAskVolume2, Tick::setAskVolume2)
+			.intColumn("askVolume3", Tick::getAskVolume3, Tick::setAskVolume3)
+			.intColumn("askVolume4", Tick::getAskVolume4, Tick::setAskVolume4)
+			.intColumn("askVolume5", Tick::getAskVolume5, Tick::setAskVolume5)
+			.intColumn("askVolume6", Tick::getAskVolume6, Tick::setAskVolume6)
+			.intColumn("askVolume7", Tick::getAskVolume7, Tick::setAskVolume7)
+			.intColumn("askVolume8", Tick::getAskVolume8, Tick::setAskVolume8)
+			.intColumn("askVolume9", Tick::getAskVolume9, Tick::setAskVolume9)
+			.intColumn("askVolume10", Tick::getAskVolume10, Tick::setAskVolume10);
+
+	/**
+	 * Bar布局,actionTime与BarGenerator一致,由dateTime生成
+	 */
+	public static final ColumnarMdLayout<Bar> BAR = new ColumnarMdLayout<Bar>(1, Bar::new)
+			.header(Bar::getGatewayID, Bar::setGatewayID)
+			.header(Bar::getSymbol, Bar::setSymbol)
+			.header(Bar::getExchange, Bar::setExchange)
+			.header(Bar::getRtSymbol, Bar::setRtSymbol)
+			.longColumn("dateTime", bar -> bar.getDateTime().getMillis(), (bar, value) -> {
+				DateTime dateTime = new DateTime(value);
+				bar.setDateTime(dateTime);
+				bar.setActionTime(dateTime.toString(RtConstant.T_FORMAT_WITH_MS_Formatter));
+			})
+			.doubleColumn("open", bar -> toDouble(bar.getOpen()), Bar::setOpen)
+			.doubleColumn("high", bar -> toDouble(bar.getHigh()), Bar::setHigh)
+			.doubleColumn("low", bar -> toDouble(bar.getLow()), Bar::setLow)
+			.doubleColumn("close", bar -> toDouble(bar.getClose()), Bar::setClose)
+			.doubleColumn("openInterest", bar -> toDouble(bar.getOpenInterest()), Bar::setOpenInterest)
+			.intColumn("volume", bar -> bar.getVolume() == null ? 0 : bar.getVolume(), Bar::setVolume)
+			.intColumn("tradingDay", bar -> dayToInt(bar.getTradingDay()),
+					(bar, value) -> bar.setTradingDay(intToDay(value)))
+			.intColumn("actionDay", bar -> dayToInt(bar.getActionDay()),
+					(bar, value) -> bar.setActionDay(intToDay(value)));
+
+	private static double toDouble(Double value) {
+		return value == null ? 0d : value;
+	}
+
+	private static int dayToInt(String day) {
+		return StringUtils.isNumeric(day) ? Integer.parseInt(day) : 0;
+	}
+
+	private static String intToDay(int value) {
+		return value == 0 ? null : String.valueOf(value);
+	}
+
+	public List<Column<T>> getColumnList() {
+		return Collections.unmodifiableList(columnList);
+	}
+
+	/**
+	 * 按名称查找列序号,未找到返回-1
+	 *
+	 * @param name
+	 * @return
+	 */
+	public int getColumnIndex(String name) {
+		for (int i = 0; i < columnList.size(); i++) {
+			if (columnList.get(i).name.equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 编码为文件内容,dataList必须按时间戳升序排列
+	 *
+	 * @param dataList
+	 * @return
+	 */
+	public ByteBuffer encode(List<T> dataList) {
+		int rowCount = dataList.size();
+		T first = rowCount > 0 ? dataList.get(0) : null;
+
+		List<byte[]> headerBytesList = new ArrayList<>();
+		int headerSize = 4 * 5;
+		for (Function<T, String> headerGetter : headerGetterList) {
+			String value = first == null ? null : headerGetter.apply(first);
+			byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+			headerBytesList.add(bytes);
+			headerSize += 2 + bytes.length;
+		}
+		headerSize = align(headerSize);
+
+		int rowWidth = 0;
+		for (Column<T> column : columnList) {
+			rowWidth += column.getWidth();
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(headerSize + rowWidth * rowCount).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(layoutType);
+		buffer.putInt(columnList.size());
+		buffer.putInt(rowCount);
+		for (byte[] bytes : headerBytesList) {
+			buffer.putShort((short) bytes.length);
+			buffer.put(bytes);
+		}
+		buffer.position(headerSize);
+
+		for (Column<T> column : columnList) {
+			for (T data : dataList) {
+				if (column.type == TYPE_LONG) {
+					buffer.putLong(column.longGetter.applyAsLong(data));
+				} else if (column.type == TYPE_DOUBLE) {
+					buffer.putDouble(column.doubleGetter.applyAsDouble(data));
+				} else {
+					buffer.putInt(column.intGetter.applyAsInt(data));
+				}
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * 读取文件内容
+	 *
+	 * @param buffer
+	 * @return
+	 * @throws IOException
+	 *             文件格式与当前布局不一致
+	 */
+	public ColumnarMdFile<T> decode(ByteBuffer buffer) throws IOException {
+		buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.remaining() < 4 * 5 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+				|| buffer.getInt(8) != layoutType || buffer.getInt(12) != columnList.size()) {
+			throw new IOException("文件格式与布局不一致");
+		}
+		int rowCount = buffer.getInt(16);
+
+		String[] headers = new String[headerGetterList.size()];
+		int position = 4 * 5;
+		for (int i = 0; i < headers.length; i++) {
+			int length = buffer.getShort(position);
+			byte[] bytes = new byte[length];
+			for (int j = 0; j < length; j++) {
+				bytes[j] = buffer.get(position + 2 + j);
+			}
+			headers[i] = length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+			position += 2 + length;
+		}
+
+		int[] columnOffsets = new int[columnList.size()];
+		int offset = align(position);
+		for (int i = 0; i < columnOffsets.length; i++) {
+			columnOffsets[i] = offset;
+			offset += columnList.get(i).getWidth() * rowCount;
+		}
+		if (offset > buffer.limit()) {
+			throw new IOException("文件长度不足");
+		}
+		return new ColumnarMdFile<>(this, buffer, rowCount, headers, columnOffsets);
+	}
+
+	/**
+	 * 读取一行为对象
+	 */
+	T read(ColumnarMdFile<T> file, int row) {
+		T data = factory.get();
+		String[] headers = file.getHeaders();
+		for (int i = 0; i < headers.length; i++) {
+			headerSetterList.get(i).accept(data, headers[i]);
+		}
+		for (int i = 0; i < columnList.size(); i++) {
+			Column<T> column = columnList.get(i);
+			if (column.type == TYPE_LONG) {
+				column.longSetter.accept(data, file.getLong(i, row));
+			} else if (column.type == TYPE_DOUBLE) {
+				column.doubleSetter.accept(data, file.getDouble(i, row));
+			} else {
+				column.intSetter.accept(data, file.getInt(i, row));
+			}
+		}
+		return data;
+	}
+
+	private static int align(int size) {
+		return (size + 7) & ~7;
+	}
+}
@@ -1,6 +1,5 @@
 package xyz.redtorch.trader.engine.data.impl;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -9,16 +8,19 @@ import xyz.redtorch.trader.base.RtConstant;
 import xyz.redtorch.trader.engine.data.DataEngine;
 import xyz.redtorch.trader.entity.Bar;
 import xyz.redtorch.trader.entity.Tick;
-import xyz.redtorch.utils.MongoDBUtil;
+import xyz.redtorch.utils.BeanCodec;
+import xyz.redtorch.utils.CloseableIterator;
 import xyz.redtorch.utils.MongoDBClient;
 
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.mongodb.BasicDBObject;
+import com.mongodb.client.model.Projections;
 /**
  * @author sun0x00@gmail.com
  */
@@ -33,6 +35,14 @@ public class DataEngineImpl implements DataEngine {
 	private MongoDBClient mdDBClient;
 	private MongoDBClient defaultDBClient;
 
+	private final Bson dateTimeSort = new BasicDBObject("dateTime", 1);
+	// 行情游标每批读取条数
+	private final int findBatchSize = BaseConfig.rtConfig.getInt("mongodb.instance.md.find.batch.size", 1000);
+	// 行情集合都有dateTime索引时可以指定使用该索引,避免查询计划选择错误
+	private final Bson dateTimeHint = BaseConfig.rtConfig.getBoolean("mongodb.instance.md.find.hint", false)
+			? new BasicDBObject("dateTime", 1)
+			: null;
+
 	public DataEngineImpl() throws Exception {
 
 		String mdMongoHost = BaseConfig.rtConfig.getString("mongodb.instance.md.host");
@@ -76,22 +86,11 @@ public class DataEngineImpl implements DataEngine {
 				startDateTime.toString(RtConstant.DT_FORMAT_WITH_MS_Formatter),
 				endDateTime.toString(RtConstant.DT_FORMAT_WITH_MS_Formatter));
 		long startTime = System.currentTimeMillis();
-		Document filter = new Document();
-		filter.append("dateTime", new Document("$gte", startDateTime.toDate()).append("$lte", endDateTime.toDate()));
-
-		BasicDBObject sort = new BasicDBObject();
-		sort.append("dateTime", 1);
-		List<Document> documentList = mdDBClient.find(minuteDBName, rtSymbol, filter, sort);
-
 		List<Bar> barList = new ArrayList<>();
-		for (Document document : documentList) {
-			Bar bar = new Bar();
-			try {
-				bar = MongoDBUtil.documentToBean(document, bar);
-			} catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-				log.error("查询Bar数据转换发生错误,Document-", document.toJson(), e);
+		try (CloseableIterator<Bar> barIterator = openBarIterator(startDateTime, endDateTime, rtSymbol, null)) {
+			while (barIterator.hasNext()) {
+				barList.add(barIterator.next());
 			}
-			barList.add(bar);
 		}
 		
 		log.info("加载Bar数据完成，合约{}，共{}条,耗时{}ms", rtSymbol, barList.size(),System.currentTimeMillis() - startTime);
@@ -104,25 +103,58 @@ public class DataEngineImpl implements DataEngine {
 				startDateTime.toString(RtConstant.DT_FORMAT_WITH_MS_Formatter),
 				endDateTime.toString(RtConstant.DT_FORMAT_WITH_MS_Formatter));
 		long startTime = System.currentTimeMillis();
-		Document filter = new Document();
-		filter.append("dateTime", new Document("$gte", startDateTime.toDate()).append("$lte", endDateTime.toDate()));
-
-		BasicDBObject sort = new BasicDBObject();
-		sort.append("dateTime", 1);
-		List<Document> documentList = mdDBClient.find(tickDBName, rtSymbol, filter, sort);
-
 		List<Tick> tickList = new ArrayList<>();
-		for (Document document : documentList) {
-			Tick tick = new Tick();
-			try {
-				tick = MongoDBUtil.documentToBean(document, tick);
-			} catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-				log.error("查询Tick数据转换发生错误,Document-", document.toJson(), e);
+		try (CloseableIterator<Tick> tickIterator = openTickIterator(startDateTime, endDateTime, rtSymbol, null)) {
+			while (tickIterator.hasNext()) {
+				tickList.add(tickIterator.next());
 			}
-			tickList.add(tick);
 		}
 		log.info("加载Tick数据完成，合约{}，共{}条,耗时{}ms", rtSymbol, tickList.size(),System.currentTimeMillis() - startTime);
 		return tickList;
 	}
 
+	@Override
+	public CloseableIterator<Bar> openBarIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList) {
+		Document filter = dateTimeFilter(startDateTime, endDateTime);
+		return CloseableIterator.of(mdDBClient.findCursor(minuteDBName, rtSymbol, filter, dateTimeSort,
+				projection(fieldList), dateTimeHint, findBatchSize, BeanCodec.of(Bar.class)));
+	}
+
+	@Override
+	public CloseableIterator<Tick> openTickIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList) {
+		Document filter = dateTimeFilter(startDateTime, endDateTime);
+		return CloseableIterator.of(mdDBClient.findCursor(tickDBName, rtSymbol, filter, dateTimeSort,
+				projection(fieldList), dateTimeHint, findBatchSize, BeanCodec.of(Tick.class)));
+	}
+
+	@Override
+	public long countBarData(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return mdDBClient.count(minuteDBName, rtSymbol, dateTimeFilter(startDateTime, endDateTime));
+	}
+
+	@Override
+	public long countTickData(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return mdDBClient.count(tickDBName, rtSymbol, dateTimeFilter(startDateTime, endDateTime));
+	}
+
+	private static Document dateTimeFilter(DateTime startDateTime, DateTime endDateTime) {
+		Document filter = new Document();
+		filter.append("dateTime", new Document("$gte", startDateTime.toDate()).append("$lte", endDateTime.toDate()));
+		return filter;
+	}
+
+	private static Bson projection(List<String> fieldList) {
+		if (fieldList == null || fieldList.isEmpty()) {
+			return null;
+		}
+		// 排序字段必须返回
+		List<String> includeFieldList = new ArrayList<>(fieldList);
+		if (!includeFieldList.contains("dateTime")) {
+			includeFieldList.add("dateTime");
+		}
+		return Projections.fields(Projections.include(includeFieldList), Projections.excludeId());
+	}
+
 }
@@ -0,0 +1,307 @@
+package xyz.redtorch.trader.engine.data.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.redtorch.trader.base.BaseConfig;
+import xyz.redtorch.trader.base.RtConstant;
+import xyz.redtorch.trader.engine.data.DataEngine;
+import xyz.redtorch.trader.entity.Bar;
+import xyz.redtorch.trader.entity.Tick;
+import xyz.redtorch.utils.CloseableIterator;
+import xyz.redtorch.utils.MongoDBClient;
+
+/**
+ * 本地列式行情数据引擎
+ *
+ * 每个合约每天一个文件,路径为 {目录}/{tick|bar}/{rtSymbol}/{yyyyMMdd}.rtmd,通过MappedByteBuffer读取;
+ * 本地没有文件时从被包装的数据引擎(MongoDB)加载当天数据,当天已经结束的才写入文件,当天及以后的数据每次都重新加载;
+ * 没有数据的日期(周末、节假日)同样写入0行的文件作为标记,之后不再访问数据库;
+ * 补录数据后须通过invalidate删除对应日期的文件,开启校验时每个文件在进程内首次读取前与数据库中当天的条数比较一次,
+ * 不一致时重新生成文件
+ *
+ * 日期按默认时区划分,与DataEngineImpl设置的UTC一致
+ *
+ * @author sun0x00@gmail.com
+ */
+public class LocalDataEngineImpl implements DataEngine {
+
+	private static Logger log = LoggerFactory.getLogger(LocalDataEngineImpl.class);
+
+	private static final String FILE_SUFFIX = ".rtmd";
+
+	private final DataEngine dataEngine;
+	private final File tickDir;
+	private final File barDir;
+	private final boolean verify;
+	private final Set<String> verifiedPathSet = ConcurrentHashMap.newKeySet(); // 本进程内已校验过的文件
+
+	/**
+	 * @param dataEngine 本地没有数据时使用的数据引擎
+	 * @param localDir 本地文件目录
+	 */
+	public LocalDataEngineImpl(DataEngine dataEngine, String localDir) {
+		this.dataEngine = dataEngine;
+		this.tickDir = new File(localDir, "tick");
+		this.barDir = new File(localDir, "bar");
+		this.verify = BaseConfig.rtConfig.getBoolean("rt.md.local.verify", false);
+	}
+
+	/**
+	 * 配置了rt.md.local.dir时使用本地列式行情包装数据引擎,否则原样返回
+	 *
+	 * @param dataEngine
+	 * @return
+	 */
+	public static DataEngine wrapIfConfigured(DataEngine dataEngine) {
+		String localDir = BaseConfig.rtConfig.getString("rt.md.local.dir", "");
+		if (StringUtils.isBlank(localDir)) {
+			return dataEngine;
+		}
+		log.info("使用本地列式行情,目录{}", localDir);
+		return new LocalDataEngineImpl(dataEngine, localDir);
+	}
+
+	@Override
+	public List<Bar> loadBarDataList(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		ColumnarMdCursor<Bar> cursor = openBarCursor(startDateTime, endDateTime, rtSymbol);
+		List<Bar> barList = new ArrayList<>();
+		while (cursor.next()) {
+			barList.add(cursor.read());
+		}
+		return barList;
+	}
+
+	@Override
+	public List<Tick> loadTickDataList(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		ColumnarMdCursor<Tick> cursor = openTickCursor(startDateTime, endDateTime, rtSymbol);
+		List<Tick> tickList = new ArrayList<>();
+		while (cursor.next()) {
+			tickList.add(cursor.read());
+		}
+		return tickList;
+	}
+
+	@Override
+	public CloseableIterator<Bar> openBarIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList) {
+		return iterator(openBarCursor(startDateTime, endDateTime, rtSymbol));
+	}
+
+	@Override
+	public CloseableIterator<Tick> openTickIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList) {
+		return iterator(openTickCursor(startDateTime, endDateTime, rtSymbol));
+	}
+
+	private static <T> CloseableIterator<T> iterator(ColumnarMdCursor<T> cursor) {
+		return new CloseableIterator<T>() {
+			private boolean hasNext = cursor.next();
+
+			@Override
+			public boolean hasNext() {
+				return hasNext;
+			}
+
+			@Override
+			public T next() {
+				if (!hasNext) {
+					throw new NoSuchElementException();
+				}
+				T data = cursor.read();
+				hasNext = cursor.next();
+				return data;
+			}
+
+			@Override
+			public void close() {
+				// 映射文件由GC释放
+			}
+		};
+	}
+
+	/**
+	 * 打开Bar游标,[startDateTime,endDateTime]
+	 *
+	 * @param startDateTime
+	 * @param endDateTime
+	 * @param rtSymbol
+	 * @return
+	 */
+	public ColumnarMdCursor<Bar> openBarCursor(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return new ColumnarMdCursor<>(startDateTime, endDateTime, day -> getDayFile(ColumnarMdLayout.BAR, barDir,
+				rtSymbol, day, () -> dataEngine.loadBarDataList(day, day.plusDays(1).minusMillis(1), rtSymbol),
+				() -> dataEngine.countBarData(day, day.plusDays(1).minusMillis(1), rtSymbol)));
+	}
+
+	/**
+	 * 打开Tick游标,[startDateTime,endDateTime]
+	 *
+	 * @param startDateTime
+	 * @param endDateTime
+	 * @param rtSymbol
+	 * @return
+	 */
+	public ColumnarMdCursor<Tick> openTickCursor(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return new ColumnarMdCursor<>(startDateTime, endDateTime, day -> getDayFile(ColumnarMdLayout.TICK, tickDir,
+				rtSymbol, day, () -> dataEngine.loadTickDataList(day, day.plusDays(1).minusMillis(1), rtSymbol),
+				() -> dataEngine.countTickData(day, day.plusDays(1).minusMillis(1), rtSymbol)));
+	}
+
+	/**
+	 * 删除[startDateTime,endDateTime]区间内合约的本地Tick和Bar文件,下次读取时从数据库重新生成
+	 *
+	 * @param startDateTime
+	 * @param endDateTime
+	 * @param rtSymbol
+	 * @return 删除的文件数
+	 */
+	public int invalidate(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		int deletedCount = 0;
+		for (DateTime day = startDateTime.withTimeAtStartOfDay(); !day.isAfter(endDateTime); day = day.plusDays(1)) {
+			for (File dir : new File[] { tickDir, barDir }) {
+				File file = getFile(dir, rtSymbol, day);
+				verifiedPathSet.remove(file.getPath());
+				try {
+					if (Files.deleteIfExists(file.toPath())) {
+						deletedCount++;
+					}
+				} catch (IOException e) {
+					log.error("删除本地行情文件发生错误,文件{}", file.getAbsolutePath(), e);
+				}
+			}
+		}
+		log.info("删除本地行情文件,合约{},共{}个", rtSymbol, deletedCount);
+		return deletedCount;
+	}
+
+	private static File getFile(File dir, String rtSymbol, DateTime day) {
+		return new File(new File(dir, rtSymbol), day.toString(RtConstant.D_FORMAT_INT_Formatter) + FILE_SUFFIX);
+	}
+
+	private <T> ColumnarMdFile<T> getDayFile(ColumnarMdLayout<T> layout, File dir, String rtSymbol, DateTime day,
+			Supplier<List<T>> dayDataLoader, LongSupplier dayDataCounter) {
+		File file = getFile(dir, rtSymbol, day);
+		if (file.isFile()) {
+			try {
+				ColumnarMdFile<T> mdFile = layout.decode(map(file));
+				if (!verify || verifiedPathSet.contains(file.getPath()) || isUpToDate(mdFile, file, dayDataCounter)) {
+					verifiedPathSet.add(file.getPath());
+					return mdFile;
+				}
+			} catch (IOException e) {
+				log.warn("本地行情文件无法读取,重新加载,文件{}", file.getAbsolutePath(), e);
+			}
+		}
+
+		List<T> dataList = dayDataLoader.get();
+		ByteBuffer buffer = layout.encode(dataList);
+		// 当天尚未结束,数据可能不完整,不写入文件;已结束但没有数据的日期写入0行文件作为标记
+		if (day.plusDays(1).isAfterNow()) {
+			try {
+				return layout.decode(buffer);
+			} catch (IOException e) {
+				log.error("本地行情数据解码失败,合约{}", rtSymbol, e);
+				return null;
+			}
+		}
+		try {
+			write(file, buffer);
+			// 刚从数据库生成,无需再校验
+			verifiedPathSet.add(file.getPath());
+			return layout.decode(map(file));
+		} catch (IOException e) {
+			log.error("写入本地行情文件发生错误,文件{}", file.getAbsolutePath(), e);
+			try {
+				return layout.decode(buffer);
+			} catch (IOException ioe) {
+				return null;
+			}
+		}
+	}
+
+	private static boolean isUpToDate(ColumnarMdFile<?> mdFile, File file, LongSupplier dayDataCounter) {
+		long count;
+		try {
+			count = dayDataCounter.getAsLong();
+		} catch (RuntimeException e) {
+			log.warn("统计数据库行情条数发生错误,使用本地文件{}", file.getAbsolutePath(), e);
+			return true;
+		}
+		if (count != mdFile.getRowCount()) {
+			log.info("本地行情文件{}共{}条,数据库中共{}条,重新生成", file.getAbsolutePath(), mdFile.getRowCount(), count);
+			return false;
+		}
+		return true;
+	}
+
+	private static MappedByteBuffer map(File file) throws IOException {
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+				FileChannel fileChannel = randomAccessFile.getChannel()) {
+			// 关闭通道后映射仍然有效
+			return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+		}
+	}
+
+	private static void write(File file, ByteBuffer buffer) throws IOException {
+		File parentDir = file.getParentFile();
+		if (!parentDir.isDirectory() && !parentDir.mkdirs() && !parentDir.isDirectory()) {
+			throw new IOException("创建文件夹失败" + parentDir.getAbsolutePath());
+		}
+		// 先写入临时文件再替换,避免读取到写入一半的文件
+		File tmpFile = File.createTempFile(file.getName(), ".tmp", parentDir);
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(tmpFile, "rw");
+				FileChannel fileChannel = randomAccessFile.getChannel()) {
+			ByteBuffer writeBuffer = buffer.duplicate();
+			while (writeBuffer.hasRemaining()) {
+				fileChannel.write(writeBuffer);
+			}
+		}
+		try {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			Files.deleteIfExists(tmpFile.toPath());
+			throw e;
+		}
+	}
+
+	@Override
+	public long countBarData(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return dataEngine.countBarData(startDateTime, endDateTime, rtSymbol);
+	}
+
+	@Override
+	public long countTickData(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
+		return dataEngine.countTickData(startDateTime, endDateTime, rtSymbol);
+	}
+
+	@Override
+	public MongoDBClient getMdDBClient() {
+		return dataEngine.getMdDBClient();
+	}
+
+	@Override
+	public MongoDBClient getDefaultDBClient() {
+		return dataEngine.getDefaultDBClient();
+	}
+
+}
@@ -4,6 +4,7 @@ package xyz.redtorch.trader.engine.event;
  */
 public interface EventConstant {
 	public final static String EVENT_TICK = "E_TICK|";
+	public final static String EVENT_BAR = "E_BAR|";
 	public final static String EVENT_TRADE = "E_TRADE|";
 	public final static String EVENT_ORDER = "E_ORDER|";
 	public final static String EVENT_POSITION = "E_POSITION|";;
@@ -23,4 +23,18 @@ public interface EventEngine{
      * @param eventData 事件数据
      */
     void emit(String event, EventData eventData);
+
+    /**
+     * 获取事件键,不存在时创建;通过此方法获取的事件键会一直驻留,适合高频事件的发送方缓存
+     * @param event 事件，一般是事件类型+ID
+     * @return
+     */
+    EventKey getEventKey(String event);
+
+    /**
+     * 通过事件键发送事件,不需要拼接字符串和查找注册表
+     * @param eventKey 事件键
+     * @param eventData 事件数据
+     */
+    void emit(EventKey eventKey, EventData eventData);
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package xyz.redtorch.trader.engine.event;
+
+/**
+ * 事件键,由事件引擎统一创建并驻留
+ *
+ * 高频事件(如Tick)的发送方可以缓存事件键,发送时直接读取其监听数组快照,避免每次拼接字符串和计算哈希
+ *
+ * @author sun0x00@gmail.com
+ */
+public final class EventKey {
+
+	private static final EventListener[] EMPTY_LISTENERS = new EventListener[0];
+
+	private final int index;
+	private final String event;
+
+	// 监听数组快照,只允许整体替换,不允许修改元素
+	private volatile EventListener[] listeners = EMPTY_LISTENERS;
+
+	public EventKey(int index, String event) {
+		this.index = index;
+		this.event = event;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public String getEvent() {
+		return event;
+	}
+
+	public EventListener[] getListeners() {
+		return listeners;
+	}
+
+	public void setListeners(EventListener[] listeners) {
+		this.listeners = listeners == null ? EMPTY_LISTENERS : listeners;
+	}
+
+	@Override
+	public int hashCode() {
+		return index;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return this == obj;
+	}
+
+	@Override
+	public String toString() {
+		return event;
+	}
+}
@@ -0,0 +1,28 @@
+package xyz.redtorch.trader.engine.event;
+
+/**
+ * 事件队列,每个事件消费者(主引擎、策略引擎、策略、SocketIO转发)各自持有一个,由独立线程消费
+ * 
+ * @author sun0x00@gmail.com
+ */
+public interface EventQueue {
+
+	/**
+	 * 放入事件,可由多个线程同时调用
+	 * @param eventData
+	 */
+	void add(EventData eventData);
+
+	/**
+	 * 取出事件,队列为空时等待,只允许消费线程调用
+	 * @return
+	 * @throws InterruptedException
+	 */
+	EventData take() throws InterruptedException;
+
+	/**
+	 * 当前队列深度
+	 * @return
+	 */
+	int size();
+}
@@ -1,27 +1,39 @@
 package xyz.redtorch.trader.engine.event.impl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import xyz.redtorch.trader.engine.event.EventData;
 import xyz.redtorch.trader.engine.event.EventEngine;
+import xyz.redtorch.trader.engine.event.EventKey;
 import xyz.redtorch.trader.engine.event.EventListener;
 /**
+ * 事件引擎
+ *
+ * 监听注册表采用写时复制(Copy-On-Write)方式维护,每个事件键持有一个不可变的监听数组快照,
+ * emit仅做一次volatile读取并遍历数组,不加锁也不创建迭代器;注册和删除在锁内生成新的数组快照替换旧值,
+ * 因此其他线程(例如策略发单时注册委托监听)并发修改注册表不会影响正在进行的事件分发
+ *
  * @author sun0x00@gmail.com
  */
 public class EventEngineImpl implements EventEngine{
 
 	private Logger log = LoggerFactory.getLogger(EventEngineImpl.class);
-	private Map<String,LinkedHashSet<EventListener>> registeredEventMap = new HashMap<>();
 
-	
+	private static final EventListener[] EMPTY_LISTENERS = new EventListener[0];
+
+	private final AtomicInteger eventKeyIndex = new AtomicInteger(0);
+	private final Map<String,EventKey> eventKeyMap = new ConcurrentHashMap<>();
+	// 通过getEventKey获取的事件键可能被发送方缓存,监听清空后也不能删除
+	private final Set<String> residentEventSet = ConcurrentHashMap.newKeySet();
+
+
 	@Override
 	public void registerListener(String event, EventListener eventListener) {
 		addOrRemoveListener(event, eventListener, true);
@@ -35,72 +47,99 @@ public class EventEngineImpl implements EventEngine{
 
 	@Override
 	public void emit(String event, EventData eventData) {
-		LinkedHashSet<EventListener> registeredListener;
-		if(registeredEventMap.containsKey(event)) {
-			registeredListener = registeredEventMap.get(event);
-			for(EventListener listener: registeredListener) {
-				try {
-					listener.onEvent(eventData);
-				}catch (Exception e) {
-					log.error("事件引擎捕获到异常,事件类型:{},事件:{}",eventData.getEventType(),event,e);
-				}
-			}
-		}else {
+		EventKey eventKey = eventKeyMap.get(event);
+		if(eventKey == null) {
 			//log.debug("未能找到此事件对应的监听实例Event:{}", event);
+			return;
+		}
+		emit(eventKey, eventData);
+	}
+
+	@Override
+	public EventKey getEventKey(String event) {
+		EventKey eventKey = eventKeyMap.get(event);
+		if(eventKey == null || !residentEventSet.contains(event)) {
+			synchronized (this) {
+				eventKey = getOrCreateEventKey(event);
+				residentEventSet.add(event);
+			}
+		}
+		return eventKey;
+	}
+
+	@Override
+	public void emit(EventKey eventKey, EventData eventData) {
+		EventListener[] registeredListeners = eventKey.getListeners();
+		for(int i = 0; i < registeredListeners.length; i++) {
+			try {
+				registeredListeners[i].onEvent(eventData);
+			}catch (Exception e) {
+				log.error("事件引擎捕获到异常,事件类型:{},事件:{}",eventData.getEventType(),eventKey.getEvent(),e);
+			}
 		}
-		
-		
 	}
-	
 
-	
+
+	private EventKey getOrCreateEventKey(String event) {
+		EventKey eventKey = eventKeyMap.get(event);
+		if(eventKey == null) {
+			eventKey = new EventKey(eventKeyIndex.getAndIncrement(), event);
+			eventKeyMap.put(event, eventKey);
+		}
+		return eventKey;
+	}
+
 	private synchronized void addOrRemoveListener(String event, EventListener eventListener, boolean add) {
 		if(add) {
-			LinkedHashSet<EventListener> registeredListener;
-			if(registeredEventMap.containsKey(event)) {
-				registeredListener = registeredEventMap.get(event);
-			}else {
-				registeredListener = new LinkedHashSet<>();
+			EventKey eventKey = getOrCreateEventKey(event);
+			EventListener[] registeredListeners = eventKey.getListeners();
+			if(indexOf(registeredListeners, eventListener) >= 0) {
+				return;
 			}
-			registeredListener.add(eventListener);
-			registeredEventMap.put(event, registeredListener);
+			// 追加到末尾,保持注册顺序
+			EventListener[] newListeners = Arrays.copyOf(registeredListeners, registeredListeners.length + 1);
+			newListeners[registeredListeners.length] = eventListener;
+			eventKey.setListeners(newListeners);
 		}else {
 			if (event == null) {
-				List<String> removeEventList = new ArrayList<>();
-				for(Entry<String, LinkedHashSet<EventListener>> entry: registeredEventMap.entrySet()) {
-					String keyEvent = entry.getKey();
-					LinkedHashSet<EventListener> registeredListener = entry.getValue();
-					if(registeredListener.contains(eventListener)) {
-						removeEventList.add(keyEvent);
-					}
-				}
-				
-				for(String removeEvent: removeEventList) {
-					LinkedHashSet<EventListener> registeredListener;
-					if(registeredEventMap.containsKey(removeEvent)) {
-						registeredListener = registeredEventMap.get(removeEvent);
-						if(registeredListener.contains(eventListener)) {
-							registeredListener.remove(eventListener);
-						}
-						if(registeredListener.isEmpty()) {
-							registeredEventMap.remove(event);
-						}
-					}
+				for(EventKey eventKey: eventKeyMap.values()) {
+					removeFromSnapshot(eventKey, eventListener);
 				}
-				
 			}else {
-				LinkedHashSet<EventListener> registeredListener;
-				if(registeredEventMap.containsKey(event)) {
-					registeredListener = registeredEventMap.get(event);
-					if(registeredListener.contains(eventListener)) {
-						registeredListener.remove(eventListener);
-					}
-					if(registeredListener.isEmpty()) {
-						registeredEventMap.remove(event);
-					}
+				EventKey eventKey = eventKeyMap.get(event);
+				if(eventKey != null) {
+					removeFromSnapshot(eventKey, eventListener);
 				}
 			}
 		}
 	}
 
+	private void removeFromSnapshot(EventKey eventKey, EventListener eventListener) {
+		EventListener[] registeredListeners = eventKey.getListeners();
+		int index = indexOf(registeredListeners, eventListener);
+		if(index < 0) {
+			return;
+		}
+		if(registeredListeners.length == 1) {
+			eventKey.setListeners(EMPTY_LISTENERS);
+			if(!residentEventSet.contains(eventKey.getEvent())) {
+				eventKeyMap.remove(eventKey.getEvent());
+			}
+			return;
+		}
+		EventListener[] newListeners = new EventListener[registeredListeners.length - 1];
+		System.arraycopy(registeredListeners, 0, newListeners, 0, index);
+		System.arraycopy(registeredListeners, index + 1, newListeners, index, registeredListeners.length - index - 1);
+		eventKey.setListeners(newListeners);
+	}
+
+	private static int indexOf(EventListener[] registeredListeners, EventListener eventListener) {
+		for(int i = 0; i < registeredListeners.length; i++) {
+			if(registeredListeners[i].equals(eventListener)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 }
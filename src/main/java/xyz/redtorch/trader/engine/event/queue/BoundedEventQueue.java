@@ -0,0 +1,206 @@
+package xyz.redtorch.trader.engine.event.queue;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import xyz.redtorch.trader.engine.event.EventConstant;
+import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.EventQueue;
+
+/**
+ * 有界事件队列,容量只约束Tick事件
+ *
+ * 队列达到容量后按溢出策略处理新到达的Tick;委托、成交等其他事件永远不会被丢弃,也不会阻塞生产者
+ *
+ * @author sun0x00@gmail.com
+ */
+public class BoundedEventQueue implements EventQueue {
+
+	/**
+	 * 溢出策略
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * 合并,同一事件(接口+合约)在队列中只保留最新的一个Tick,队列仍满时丢弃最早的Tick
+		 */
+		CONFLATE,
+		/**
+		 * 丢弃队列中最早的Tick
+		 */
+		DROP_OLDEST,
+		/**
+		 * 阻塞生产者,超时后丢弃新到达的Tick
+		 */
+		BLOCK
+	}
+
+	private final int capacity;
+	private final OverflowPolicy overflowPolicy;
+	private final long blockTimeoutNanos;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+
+	private final ArrayDeque<EventData> eventDataQueue = new ArrayDeque<>();
+	// 合并模式下队列中每个事件只占一个位置,取出时替换为此处记录的最新Tick
+	private final Map<String, EventData> pendingTickMap = new HashMap<>();
+
+	private volatile int depth = 0; // 队列深度
+	private volatile int highWaterMark = 0; // 队列深度最高值
+	private volatile long conflatedTickCount = 0L; // 被合并的Tick数量
+	private volatile long droppedTickCount = 0L; // 被丢弃的Tick数量
+
+	/**
+	 * @param capacity 容量,必须大于0
+	 * @param overflowPolicy 溢出策略
+	 * @param blockTimeoutMillis 阻塞模式下生产者最长等待时间,毫秒
+	 */
+	public BoundedEventQueue(int capacity, OverflowPolicy overflowPolicy, long blockTimeoutMillis) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("队列容量必须大于0");
+		}
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.CONFLATE : overflowPolicy;
+		this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+	}
+
+	@Override
+	public void add(EventData eventData) {
+		boolean isTick = EventConstant.EVENT_TICK.equals(eventData.getEventType());
+		lock.lock();
+		try {
+			if (isTick) {
+				if (!offerTick(eventData)) {
+					return;
+				}
+			} else {
+				eventDataQueue.addLast(eventData);
+			}
+			updateDepth();
+			notEmpty.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// 调用时必须持有锁,返回false表示新Tick被合并或丢弃
+	private boolean offerTick(EventData eventData) {
+		if (overflowPolicy == OverflowPolicy.CONFLATE) {
+			if (pendingTickMap.containsKey(eventData.getEvent())) {
+				pendingTickMap.put(eventData.getEvent(), eventData);
+				conflatedTickCount++;
+				return false;
+			}
+		}
+
+		if (eventDataQueue.size() >= capacity) {
+			if (overflowPolicy == OverflowPolicy.BLOCK) {
+				long nanos = blockTimeoutNanos;
+				while (eventDataQueue.size() >= capacity) {
+					if (nanos <= 0L) {
+						droppedTickCount++;
+						return false;
+					}
+					try {
+						nanos = notFull.awaitNanos(nanos);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						droppedTickCount++;
+						return false;
+					}
+				}
+			} else if (!removeOldestTick()) {
+				// 队列中没有Tick可以丢弃,丢弃新到达的Tick
+				droppedTickCount++;
+				return false;
+			}
+		}
+
+		if (overflowPolicy == OverflowPolicy.CONFLATE) {
+			pendingTickMap.put(eventData.getEvent(), eventData);
+		}
+		eventDataQueue.addLast(eventData);
+		return true;
+	}
+
+	// 调用时必须持有锁
+	private boolean removeOldestTick() {
+		Iterator<EventData> iterator = eventDataQueue.iterator();
+		while (iterator.hasNext()) {
+			EventData queuedEventData = iterator.next();
+			if (EventConstant.EVENT_TICK.equals(queuedEventData.getEventType())) {
+				iterator.remove();
+				if (overflowPolicy == OverflowPolicy.CONFLATE) {
+					pendingTickMap.remove(queuedEventData.getEvent());
+				}
+				droppedTickCount++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public EventData take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (eventDataQueue.isEmpty()) {
+				notEmpty.await();
+			}
+			EventData eventData = eventDataQueue.pollFirst();
+			if (overflowPolicy == OverflowPolicy.CONFLATE
+					&& EventConstant.EVENT_TICK.equals(eventData.getEventType())) {
+				EventData latestEventData = pendingTickMap.remove(eventData.getEvent());
+				if (latestEventData != null) {
+					eventData = latestEventData;
+				}
+			}
+			updateDepth();
+			notFull.signal();
+			return eventData;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// 调用时必须持有锁
+	private void updateDepth() {
+		int size = eventDataQueue.size();
+		depth = size;
+		if (size > highWaterMark) {
+			highWaterMark = size;
+		}
+	}
+
+	@Override
+	public int size() {
+		return depth;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public int getHighWaterMark() {
+		return highWaterMark;
+	}
+
+	public long getConflatedTickCount() {
+		return conflatedTickCount;
+	}
+
+	public long getDroppedTickCount() {
+		return droppedTickCount;
+	}
+
+}
@@ -0,0 +1,81 @@
+package xyz.redtorch.trader.engine.event.queue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import xyz.redtorch.trader.engine.event.EventConstant;
+import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.EventQueue;
+import xyz.redtorch.trader.entity.Tick;
+
+/**
+ * Tick合并事件队列,适用于只关心最新行情的消费者(界面推送、持仓盈亏计算)
+ *
+ * 同一接口同一合约在队列中只占一个位置,消费者取出时得到的是最新的Tick,
+ * 消费者处理缓慢时Tick不会堆积;其他事件原样按顺序进入被包装的队列
+ *
+ * 放入Tick只做一次ConcurrentHashMap写入,仅当该合约没有待处理的Tick时才写入被包装的队列,
+ * 因此行情回调线程的开销与消费者的处理速度无关
+ *
+ * @author sun0x00@gmail.com
+ */
+public class ConflatingEventQueue implements EventQueue {
+
+	private final EventQueue eventDataQueue;
+
+	// gatewayID -> rtSymbol -> 最新的Tick事件
+	private final Map<String, Map<String, EventData>> latestTickMap = new ConcurrentHashMap<>();
+
+	private volatile long conflatedTickCount = 0L;
+
+	/**
+	 * @param eventDataQueue 被包装的队列,用于保存事件顺序
+	 */
+	public ConflatingEventQueue(EventQueue eventDataQueue) {
+		this.eventDataQueue = eventDataQueue;
+	}
+
+	@Override
+	public void add(EventData eventData) {
+		if (EventConstant.EVENT_TICK.equals(eventData.getEventType())) {
+			Tick tick = (Tick) eventData.getEventObj();
+			Map<String, EventData> gatewayTickMap = latestTickMap.get(tick.getGatewayID());
+			if (gatewayTickMap == null) {
+				gatewayTickMap = latestTickMap.computeIfAbsent(tick.getGatewayID(), k -> new ConcurrentHashMap<>());
+			}
+			// 已有待处理的Tick时只替换,不再占用队列位置
+			if (gatewayTickMap.put(tick.getRtSymbol(), eventData) != null) {
+				conflatedTickCount++;
+				return;
+			}
+		}
+		eventDataQueue.add(eventData);
+	}
+
+	@Override
+	public EventData take() throws InterruptedException {
+		EventData eventData = eventDataQueue.take();
+		if (EventConstant.EVENT_TICK.equals(eventData.getEventType())) {
+			Tick tick = (Tick) eventData.getEventObj();
+			EventData latestEventData = latestTickMap.get(tick.getGatewayID()).remove(tick.getRtSymbol());
+			if (latestEventData != null) {
+				return latestEventData;
+			}
+		}
+		return eventData;
+	}
+
+	@Override
+	public int size() {
+		return eventDataQueue.size();
+	}
+
+	/**
+	 * 被合并的Tick数量,多个行情线程同时写入时为近似值
+	 * @return
+	 */
+	public long getConflatedTickCount() {
+		return conflatedTickCount;
+	}
+
+}
@@ -0,0 +1,58 @@
+package xyz.redtorch.trader.engine.event.queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.redtorch.trader.base.BaseConfig;
+import xyz.redtorch.trader.engine.event.EventQueue;
+import xyz.redtorch.trader.engine.event.queue.RingBufferEventQueue.WaitStrategy;
+
+/**
+ * 根据RtConfig.properties中的配置创建事件队列
+ * 
+ * @author sun0x00@gmail.com
+ */
+public class EventQueueFactory {
+
+	private static Logger log = LoggerFactory.getLogger(EventQueueFactory.class);
+
+	public final static String QUEUE_TYPE_LINKED = "linked";
+	public final static String QUEUE_TYPE_RING = "ring";
+
+	private final static String queueType = BaseConfig.rtConfig.getString("rt.event.queue.type", QUEUE_TYPE_LINKED);
+	private final static int ringBufferSize = BaseConfig.rtConfig.getInt("rt.event.queue.ring.size", 65536);
+	private final static String ringWaitStrategy = BaseConfig.rtConfig.getString("rt.event.queue.ring.wait.strategy",
+			WaitStrategy.PARK.name());
+
+	/**
+	 * 创建事件队列
+	 * @return
+	 */
+	public static EventQueue createEventQueue() {
+		if (QUEUE_TYPE_RING.equalsIgnoreCase(queueType)) {
+			WaitStrategy waitStrategy;
+			try {
+				waitStrategy = WaitStrategy.valueOf(ringWaitStrategy.trim().toUpperCase());
+			} catch (Exception e) {
+				log.error("无法识别的环形缓冲区等待策略{},使用PARK", ringWaitStrategy);
+				waitStrategy = WaitStrategy.PARK;
+			}
+			return new RingBufferEventQueue(ringBufferSize, waitStrategy);
+		} else if (!QUEUE_TYPE_LINKED.equalsIgnoreCase(queueType)) {
+			log.error("无法识别的事件队列类型{},使用linked", queueType);
+		}
+		return new LinkedEventQueue();
+	}
+
+	/**
+	 * 创建事件队列
+	 * @param conflateTick 是否合并Tick,只保留每个合约最新的Tick
+	 * @return
+	 */
+	public static EventQueue createEventQueue(boolean conflateTick) {
+		if (conflateTick) {
+			return new ConflatingEventQueue(createEventQueue());
+		}
+		return createEventQueue();
+	}
+}
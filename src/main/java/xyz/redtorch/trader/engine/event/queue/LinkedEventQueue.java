@@ -0,0 +1,32 @@
+package xyz.redtorch.trader.engine.event.queue;
+
+import java.util.concurrent.LinkedBlockingQueue;
+
+import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.EventQueue;
+
+/**
+ * 基于LinkedBlockingQueue的事件队列,无容量限制
+ * 
+ * @author sun0x00@gmail.com
+ */
+public class LinkedEventQueue implements EventQueue {
+
+	private LinkedBlockingQueue<EventData> eventDataQueue = new LinkedBlockingQueue<>();
+
+	@Override
+	public void add(EventData eventData) {
+		eventDataQueue.add(eventData);
+	}
+
+	@Override
+	public EventData take() throws InterruptedException {
+		return eventDataQueue.take();
+	}
+
+	@Override
+	public int size() {
+		return eventDataQueue.size();
+	}
+
+}
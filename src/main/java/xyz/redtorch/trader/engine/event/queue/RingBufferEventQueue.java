@@ -0,0 +1,165 @@
+package xyz.redtorch.trader.engine.event.queue;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.EventQueue;
+
+/**
+ * 环形缓冲区事件队列(参考Disruptor)
+ *
+ * 槽位数组在创建时一次性分配,放入事件不再创建链表节点也不加锁;
+ * 生产者通过CAS领取序号,每个槽位记录已发布的轮次,消费者以自身序号作为屏障,只读取已发布的槽位;
+ * 缓冲区写满时生产者等待消费者追上,容量是有界的
+ *
+ * 事件引擎允许多个线程同时发送事件(行情回调、交易回调、策略线程等),因此生产端按多生产者实现,消费端只允许一个线程
+ *
+ * @author sun0x00@gmail.com
+ */
+public class RingBufferEventQueue implements EventQueue {
+
+	/**
+	 * 消费者等待策略
+	 */
+	public enum WaitStrategy {
+		/**
+		 * 忙等,延迟最低,独占一个CPU核心
+		 */
+		BUSY_SPIN,
+		/**
+		 * 自旋后让出CPU
+		 */
+		YIELD,
+		/**
+		 * 自旋、让出CPU后短暂休眠,CPU占用最低
+		 */
+		PARK
+	}
+
+	private static final int SPIN_TRIES = 100;
+	private static final long PARK_NANOS = 50_000L;
+
+	private final int bufferSize;
+	private final int indexMask;
+	private final int indexShift;
+	private final EventData[] entries;
+	// 每个槽位已发布的轮次,用于多生产者情况下判断槽位是否可读
+	private final AtomicIntegerArray availableBuffer;
+
+	private final WaitStrategy waitStrategy;
+
+	// 生产者已领取的最大序号
+	private final AtomicLong producerCursor = new AtomicLong(-1L);
+	// 消费者已处理的最大序号,同时作为生产者的门控序号
+	private final AtomicLong consumerSequence = new AtomicLong(-1L);
+	// 生产者缓存的门控序号,减少对consumerSequence的读取
+	private volatile long cachedGatingSequence = -1L;
+
+	/**
+	 * @param bufferSize 槽位数量,必须是2的幂
+	 * @param waitStrategy 消费者等待策略
+	 */
+	public RingBufferEventQueue(int bufferSize, WaitStrategy waitStrategy) {
+		if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+			throw new IllegalArgumentException("环形缓冲区大小必须是2的幂,当前值:" + bufferSize);
+		}
+		this.bufferSize = bufferSize;
+		this.indexMask = bufferSize - 1;
+		this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+		this.entries = new EventData[bufferSize];
+		this.availableBuffer = new AtomicIntegerArray(bufferSize);
+		for (int i = 0; i < bufferSize; i++) {
+			availableBuffer.set(i, -1);
+		}
+		this.waitStrategy = waitStrategy == null ? WaitStrategy.PARK : waitStrategy;
+	}
+
+	@Override
+	public void add(EventData eventData) {
+		long sequence = next();
+		int index = (int) sequence & indexMask;
+		entries[index] = eventData;
+		// 发布,写入轮次之后消费者才可见
+		availableBuffer.lazySet(index, (int) (sequence >>> indexShift));
+	}
+
+	@Override
+	public EventData take() throws InterruptedException {
+		long sequence = consumerSequence.get() + 1;
+		int index = (int) sequence & indexMask;
+		int flag = (int) (sequence >>> indexShift);
+		int counter = 0;
+		while (availableBuffer.get(index) != flag) {
+			counter = idle(counter);
+		}
+		EventData eventData = entries[index];
+		entries[index] = null;
+		consumerSequence.lazySet(sequence);
+		return eventData;
+	}
+
+	@Override
+	public int size() {
+		return (int) (producerCursor.get() - consumerSequence.get());
+	}
+
+	/**
+	 * 获取容量
+	 * @return
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	// 领取下一个序号,缓冲区已满时等待消费者
+	private long next() {
+		long current;
+		long next;
+		do {
+			current = producerCursor.get();
+			next = current + 1;
+			long wrapPoint = next - bufferSize;
+			if (wrapPoint > cachedGatingSequence) {
+				long gatingSequence = consumerSequence.get();
+				if (wrapPoint > gatingSequence) {
+					LockSupport.parkNanos(1);
+					continue;
+				}
+				cachedGatingSequence = gatingSequence;
+			}
+			if (producerCursor.compareAndSet(current, next)) {
+				break;
+			}
+		} while (true);
+		return next;
+	}
+
+	private int idle(int counter) throws InterruptedException {
+		// 与BlockingQueue.take一致,抛出异常时清除中断状态
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		switch (waitStrategy) {
+		case BUSY_SPIN:
+			return counter;
+		case YIELD:
+			if (counter < SPIN_TRIES) {
+				return counter + 1;
+			}
+			Thread.yield();
+			return counter;
+		default:
+			if (counter < SPIN_TRIES) {
+				return counter + 1;
+			} else if (counter < SPIN_TRIES * 2) {
+				Thread.yield();
+				return counter + 1;
+			}
+			LockSupport.parkNanos(PARK_NANOS);
+			return counter;
+		}
+	}
+
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import xyz.redtorch.trader.engine.data.DataEngine;
 import xyz.redtorch.trader.engine.event.EventEngine;
 import xyz.redtorch.trader.engine.event.EventListener;
+import xyz.redtorch.trader.engine.main.VersionedStateStore.StateChanges;
 import xyz.redtorch.trader.entity.Account;
 import xyz.redtorch.trader.entity.CancelOrderReq;
 import xyz.redtorch.trader.entity.Contract;
@@ -180,6 +181,13 @@ public interface MainEngine extends EventListener{
 	 * @return
 	 */
 	List<Position> getPositions();
+
+	/**
+	 * 获取指定版本之后的持仓变更,版本号小于等于0时返回全部持仓
+	 * @param version 上一次获取到的版本号
+	 * @return
+	 */
+	StateChanges<Position> getPositionChanges(long version);
 	
 	/**
 	 * 更新委托请求
@@ -194,18 +202,39 @@ public interface MainEngine extends EventListener{
 	 */
 	List<Account> getAccounts();
 
+	/**
+	 * 获取指定版本之后的账户变更,版本号小于等于0时返回全部账户
+	 * @param version 上一次获取到的版本号
+	 * @return
+	 */
+	StateChanges<Account> getAccountChanges(long version);
+
 	/**
 	 * 获取所有成交
 	 * @return
 	 */
 	List<Trade> getTrades();
 
+	/**
+	 * 获取指定版本之后的成交变更,版本号小于等于0时返回全部成交
+	 * @param version 上一次获取到的版本号
+	 * @return
+	 */
+	StateChanges<Trade> getTradeChanges(long version);
+
 	/**
 	 * 获取所有委托
 	 * @return
 	 */
 	List<Order> getOrders();
 
+	/**
+	 * 获取指定版本之后的委托变更,版本号小于等于0时返回全部委托
+	 * @param version 上一次获取到的版本号
+	 * @return
+	 */
+	StateChanges<Order> getOrderChanges(long version);
+
 	/**
 	 * 获取所有活动委托
 	 * @return
@@ -0,0 +1,246 @@
+package xyz.redtorch.trader.engine.main;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+import xyz.redtorch.trader.base.BaseConfig;
+
+/**
+ * 带版本号的状态存储,用于主引擎维护合约、委托、成交、账户、持仓等状态
+ *
+ * 每次写入或删除都分配一个递增的版本号,写入方之间加锁,读取方不加锁,不会阻塞事件线程;
+ * 按版本号维护变更索引,读取某版本之后的变更只需遍历变更部分,被删除的键以墓碑记录保留在索引中;
+ * 墓碑记录超过保留时间后在写入时清理,请求的版本早于已清理的版本时返回全量数据
+ *
+ * @author sun0x00@gmail.com
+ */
+public class VersionedStateStore<V> {
+
+	private final Map<String, VersionedValue<V>> valueMap = new ConcurrentHashMap<>();
+	// 版本号 -> 键,每个键只保留最新版本
+	private final ConcurrentSkipListMap<Long, String> changeIndexMap = new ConcurrentSkipListMap<>();
+
+	private long nextVersion = 0L; // 只在写锁内修改
+	private volatile long version = 0L; // 已经完成写入的最大版本号
+
+	private final long tombstoneRetention; // 墓碑记录保留时间,毫秒
+	private final ArrayDeque<Tombstone> tombstoneQueue = new ArrayDeque<>(); // 按版本号升序,只在写锁内访问
+	private volatile long compactedVersion = 0L; // 小于等于此版本的墓碑记录可能已被清理
+
+	public VersionedStateStore() {
+		this(BaseConfig.rtConfig.getInt("rt.state.tombstone.retention", 60000));
+	}
+
+	/**
+	 * @param tombstoneRetention 墓碑记录保留时间,毫秒,客户端两次读取变更的间隔应小于此值
+	 */
+	public VersionedStateStore(long tombstoneRetention) {
+		this.tombstoneRetention = tombstoneRetention;
+	}
+
+	/**
+	 * 写入
+	 * @param key
+	 * @param value
+	 */
+	public synchronized void put(String key, V value) {
+		update(key, value);
+	}
+
+	/**
+	 * 删除
+	 * @param key
+	 */
+	public synchronized void remove(String key) {
+		VersionedValue<V> versionedValue = valueMap.get(key);
+		if (versionedValue != null && versionedValue.value != null) {
+			update(key, null);
+		}
+	}
+
+	/**
+	 * 删除满足条件的值
+	 * @param filter
+	 */
+	public synchronized void removeIf(Predicate<V> filter) {
+		for (Map.Entry<String, VersionedValue<V>> entry : valueMap.entrySet()) {
+			V value = entry.getValue().value;
+			if (value != null && filter.test(value)) {
+				update(entry.getKey(), null);
+			}
+		}
+	}
+
+	private void update(String key, V value) {
+		long newVersion = ++nextVersion;
+		VersionedValue<V> oldVersionedValue = valueMap.put(key, new VersionedValue<>(value, newVersion));
+		if (oldVersionedValue != null) {
+			changeIndexMap.remove(oldVersionedValue.version);
+		}
+		changeIndexMap.put(newVersion, key);
+		version = newVersion;
+
+		long now = System.currentTimeMillis();
+		if (value == null) {
+			tombstoneQueue.addLast(new Tombstone(key, newVersion, now));
+		}
+		compactTombstones(now);
+	}
+
+	private void compactTombstones(long now) {
+		Tombstone tombstone;
+		while ((tombstone = tombstoneQueue.peekFirst()) != null && now - tombstone.removedTime >= tombstoneRetention) {
+			tombstoneQueue.pollFirst();
+			VersionedValue<V> versionedValue = valueMap.get(tombstone.key);
+			// 删除后又被写入的键不清理
+			if (versionedValue != null && versionedValue.version == tombstone.version) {
+				// 先推进清理版本,读取方据此判断是否需要返回全量数据
+				compactedVersion = tombstone.version;
+				valueMap.remove(tombstone.key);
+				changeIndexMap.remove(tombstone.version);
+			}
+		}
+	}
+
+	public V get(String key) {
+		VersionedValue<V> versionedValue = valueMap.get(key);
+		return versionedValue == null ? null : versionedValue.value;
+	}
+
+	public boolean containsKey(String key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * 获取全部值的快照
+	 * @return
+	 */
+	public List<V> values() {
+		List<V> values = new ArrayList<>(valueMap.size());
+		for (VersionedValue<V> versionedValue : valueMap.values()) {
+			if (versionedValue.value != null) {
+				values.add(versionedValue.value);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * 当前版本号
+	 * @return
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * 获取指定版本之后的变更,版本号小于等于0或早于已清理的墓碑记录时返回全部数据
+	 *
+	 * 返回结果中的版本号可作为下一次调用的参数;在读取期间再次被修改的键会出现在下一次的变更中
+	 * @param sinceVersion
+	 * @return
+	 */
+	public StateChanges<V> getChanges(long sinceVersion) {
+		long currentVersion = version;
+		StateChanges<V> stateChanges = new StateChanges<>();
+		stateChanges.setVersion(currentVersion);
+		if (sinceVersion <= 0) {
+			stateChanges.setFull(true);
+			stateChanges.setUpdated(values());
+			return stateChanges;
+		}
+		List<V> updated = new ArrayList<>();
+		List<String> removedKeys = new ArrayList<>();
+		for (Map.Entry<Long, String> entry : changeIndexMap.subMap(sinceVersion, false, currentVersion, true)
+				.entrySet()) {
+			VersionedValue<V> versionedValue = valueMap.get(entry.getValue());
+			// 读取期间已被再次修改,留到下一次
+			if (versionedValue == null || versionedValue.version != entry.getKey()) {
+				continue;
+			}
+			if (versionedValue.value == null) {
+				removedKeys.add(entry.getValue());
+			} else {
+				updated.add(versionedValue.value);
+			}
+		}
+		// 读取期间清理了请求版本之后的墓碑记录,删除可能遗漏,改为返回全量数据
+		if (sinceVersion < compactedVersion) {
+			stateChanges.setFull(true);
+			stateChanges.setUpdated(values());
+			return stateChanges;
+		}
+		stateChanges.setUpdated(updated);
+		stateChanges.setRemovedKeys(removedKeys);
+		return stateChanges;
+	}
+
+	private static class Tombstone {
+		final String key;
+		final long version;
+		final long removedTime;
+
+		Tombstone(String key, long version, long removedTime) {
+			this.key = key;
+			this.version = version;
+			this.removedTime = removedTime;
+		}
+	}
+
+	private static class VersionedValue<V> {
+		final V value; // 为null时表示已删除
+		final long version;
+
+		VersionedValue(V value, long version) {
+			this.value = value;
+			this.version = version;
+		}
+	}
+
+	/**
+	 * 状态变更
+	 */
+	public static class StateChanges<V> {
+		private long version; // 变更截止的版本号
+		private boolean full; // 是否为全量数据
+		private List<V> updated = new ArrayList<>(); // 新增或修改的值
+		private List<String> removedKeys = new ArrayList<>(); // 被删除的键
+
+		public long getVersion() {
+			return version;
+		}
+
+		public void setVersion(long version) {
+			this.version = version;
+		}
+
+		public boolean isFull() {
+			return full;
+		}
+
+		public void setFull(boolean full) {
+			this.full = full;
+		}
+
+		public List<V> getUpdated() {
+			return updated;
+		}
+
+		public void setUpdated(List<V> updated) {
+			this.updated = updated;
+		}
+
+		public List<String> getRemovedKeys() {
+			return removedKeys;
+		}
+
+		public void setRemovedKeys(List<String> removedKeys) {
+			this.removedKeys = removedKeys;
+		}
+	}
+}
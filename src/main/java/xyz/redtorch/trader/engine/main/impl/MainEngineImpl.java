@@ -2,13 +2,13 @@ package xyz.redtorch.trader.engine.main.impl;
 
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -16,15 +16,21 @@ import org.slf4j.LoggerFactory;
 
 import com.alibaba.fastjson.JSON;
 
+import xyz.redtorch.trader.base.BaseConfig;
 import xyz.redtorch.trader.base.RtConstant;
 import xyz.redtorch.trader.engine.data.DataEngine;
 import xyz.redtorch.trader.engine.data.impl.DataEngineImpl;
+import xyz.redtorch.trader.engine.data.impl.LocalDataEngineImpl;
 import xyz.redtorch.trader.engine.event.EventConstant;
 import xyz.redtorch.trader.engine.event.EventData;
 import xyz.redtorch.trader.engine.event.EventEngine;
+import xyz.redtorch.trader.engine.event.EventQueue;
 import xyz.redtorch.trader.engine.event.impl.EventEngineImpl;
+import xyz.redtorch.trader.engine.event.queue.EventQueueFactory;
 import xyz.redtorch.trader.engine.main.MainEngine;
 import xyz.redtorch.trader.engine.main.MainDataUtil;
+import xyz.redtorch.trader.engine.main.VersionedStateStore;
+import xyz.redtorch.trader.engine.main.VersionedStateStore.StateChanges;
 import xyz.redtorch.trader.entity.Account;
 import xyz.redtorch.trader.entity.CancelOrderReq;
 import xyz.redtorch.trader.entity.Contract;
@@ -49,7 +55,9 @@ public class MainEngineImpl implements MainEngine {
 	
 	private static Logger log = LoggerFactory.getLogger(MainEngineImpl.class);
 
-	LinkedBlockingQueue<EventData> eventDataQueue = new LinkedBlockingQueue<>();
+	// 主引擎的Tick仅用于更新持仓盈亏,可以配置为只处理最新的Tick
+	EventQueue eventDataQueue = EventQueueFactory
+			.createEventQueue(BaseConfig.rtConfig.getBoolean("rt.main.tick.conflate", false));
 
 	private EventEngine eventEngine;
 	private DataEngine dataEngine;
@@ -57,14 +65,17 @@ public class MainEngineImpl implements MainEngine {
 	private MainDataUtil mainDataUtil;
 
 	private Map<String, Gateway> gatewayMap = new HashMap<>();
-	private Map<String, Contract> contractMap = new HashMap<>();
-
-	private Map<String, Order> orderMap = new HashMap<>();
-	private Map<String, Order> workingOrderMap = new HashMap<>();
-	private Map<String, Trade> tradeMap = new HashMap<>();
-	private Map<String, Account> accountMap = new HashMap<>();
-	private Map<String, LocalPositionDetail> localPositionDetailMap = new HashMap<>();
-	private Map<String, Position> positionMap = new HashMap<>();
+	// 以下状态由主引擎线程写入,REST等线程读取,读取不加锁
+	private VersionedStateStore<Contract> contractStore = new VersionedStateStore<>();
+
+	private VersionedStateStore<Order> orderStore = new VersionedStateStore<>();
+	private VersionedStateStore<Order> workingOrderStore = new VersionedStateStore<>();
+	private VersionedStateStore<Trade> tradeStore = new VersionedStateStore<>();
+	private VersionedStateStore<Account> accountStore = new VersionedStateStore<>();
+	private Map<String, LocalPositionDetail> localPositionDetailMap = new ConcurrentHashMap<>();
+	// rtSymbol到持仓详细的索引,数组整体替换,onTick遍历时不加锁也不创建对象
+	private Map<String, LocalPositionDetail[]> rtSymbolLocalPositionDetailsMap = new ConcurrentHashMap<>();
+	private VersionedStateStore<Position> positionStore = new VersionedStateStore<>();
 	private List<LogData> logDataList = new ArrayList<>();
 	
 	private Map<String, HashSet<SubscribeReq>> subscribeReqSetMap = new HashMap<>();
@@ -74,7 +85,7 @@ public class MainEngineImpl implements MainEngine {
 		this.eventEngine = new EventEngineImpl();
 		try {
 			log.info("数据引擎初始化");
-			dataEngine  = new DataEngineImpl();
+			dataEngine  = LocalDataEngineImpl.wrapIfConfigured(new DataEngineImpl());
 			mainDataUtil = new MainDataUtilImpl(dataEngine);
 		}catch (Exception e) {
 			log.error("数据引擎初始化失败,程序退出",e);
@@ -174,10 +185,10 @@ public class MainEngineImpl implements MainEngine {
 	}
 
 	private void onContract(Contract contract) {
-		contractMap.put(contract.getSymbol(), contract); // 常规代码不包含交易所，可能会合约导致重复
-		contractMap.put(contract.getRtSymbol(), contract); // 多个接口同一个交易所之间的代码可能重复
-		contractMap.put(contract.getSymbol() + "." + contract.getGatewayID(), contract);
-		contractMap.put(contract.getRtSymbol() + "." + contract.getGatewayID(), contract);
+		contractStore.put(contract.getSymbol(), contract); // 常规代码不包含交易所，可能会合约导致重复
+		contractStore.put(contract.getRtSymbol(), contract); // 多个接口同一个交易所之间的代码可能重复
+		contractStore.put(contract.getSymbol() + "." + contract.getGatewayID(), contract);
+		contractStore.put(contract.getRtSymbol() + "." + contract.getGatewayID(), contract);
 		
 		// 补充要素,修正CTP重连时Trade先于Contract到达导致的要素缺失
 		String exchange = contract.getExchange(); 
@@ -196,17 +207,15 @@ public class MainEngineImpl implements MainEngine {
 	}
 
 	private void onAccount(Account account) {
-		accountMap.put(account.getRtAccountID(), account);
+		accountStore.put(account.getRtAccountID(), account);
 	}
 
 	private void onOrder(Order order) {
-		orderMap.put(order.getRtOrderID(), order);
+		orderStore.put(order.getRtOrderID(), order);
 		if(RtConstant.STATUS_FINISHED.contains(order.getStatus())){
-			if(workingOrderMap.containsKey(order.getRtOrderID())){
-				workingOrderMap.remove(order.getRtOrderID());
-			}
+			workingOrderStore.remove(order.getRtOrderID());
 		}else {
-			workingOrderMap.put(order.getRtOrderID(), order);
+			workingOrderStore.put(order.getRtOrderID(), order);
 		}
 		
 		LocalPositionDetail localPositionDetail= getLocalPositionDetail(order.getRtSymbol(),order.getGatewayID());
@@ -216,7 +225,7 @@ public class MainEngineImpl implements MainEngine {
 	private void onTrade(Trade trade) {
 		LocalPositionDetail localPositionDetail= getLocalPositionDetail(trade.getRtSymbol(),trade.getGatewayID());
 		localPositionDetail.updateTrade(trade);
-		tradeMap.put(trade.getRtTradeID(), trade);
+		tradeStore.put(trade.getRtTradeID(), trade);
 	}
 
 	private void onPosition(Position position) {
@@ -228,7 +237,7 @@ public class MainEngineImpl implements MainEngine {
 		LocalPositionDetail localPositionDetail= getLocalPositionDetail(rtSymbol,position.getGatewayID());
 		localPositionDetail.updatePosition(position);
 		
-		positionMap.put(position.getRtPositionName(), position);
+		positionStore.put(position.getRtPositionName(), position);
 	
 	}
 
@@ -238,9 +247,10 @@ public class MainEngineImpl implements MainEngine {
 		//localPositionDetail.updateLastPrice(tick.getLastPrice());
 		
 		// 更新所有相同rtSymbol的持仓盈亏
-		for(LocalPositionDetail  localPositionDetail:getLocalPositionDetails()) {
-			if(localPositionDetail.getRtSymbol().equals(tick.getRtSymbol())) {
-				localPositionDetail.updateLastPrice(tick.getLastPrice());
+		LocalPositionDetail[] localPositionDetails = rtSymbolLocalPositionDetailsMap.get(tick.getRtSymbol());
+		if(localPositionDetails != null) {
+			for(int i = 0; i < localPositionDetails.length; i++) {
+				localPositionDetails[i].updateLastPrice(tick.getLastPrice());
 			}
 		}
 	
@@ -252,7 +262,7 @@ public class MainEngineImpl implements MainEngine {
 			log.error("查询合约不允许使用空字符串或null");
 			return null;
 		} else {
-			return contractMap.get(rtSymbol);
+			return contractStore.get(rtSymbol);
 		}
 	}
 
@@ -265,33 +275,48 @@ public class MainEngineImpl implements MainEngine {
 			log.error("查询合约,gatewayID不允许使用空字符串或null");
 			return null;
 		} else {
-			return contractMap.get(rtSymbol + "." + gatewayID);
+			return contractStore.get(rtSymbol + "." + gatewayID);
 		}
 	}
 
 	@Override
 	public List<Contract> getContracts() {
-		return new ArrayList<Contract>(contractMap.values());
+		return contractStore.values();
 	}
 	
 	@Override
 	public List<Account> getAccounts() {
-		return new ArrayList<Account>(accountMap.values());
+		return accountStore.values();
+	}
+
+	@Override
+	public StateChanges<Account> getAccountChanges(long version) {
+		return accountStore.getChanges(version);
 	}
 
 	@Override
 	public List<Order> getOrders() {
-		return new ArrayList<Order>(orderMap.values());
+		return orderStore.values();
+	}
+
+	@Override
+	public StateChanges<Order> getOrderChanges(long version) {
+		return orderStore.getChanges(version);
 	}
 	
 	@Override
 	public List<Order> getWorkingOrders() {
-		return new ArrayList<Order>(workingOrderMap.values());
+		return workingOrderStore.values();
 	}
 
 	@Override
 	public List<Trade> getTrades() {
-		return new ArrayList<Trade>(tradeMap.values());
+		return tradeStore.values();
+	}
+
+	@Override
+	public StateChanges<Trade> getTradeChanges(long version) {
+		return tradeStore.getChanges(version);
 	}
 	
 	@Override
@@ -301,7 +326,12 @@ public class MainEngineImpl implements MainEngine {
 	
 	@Override
 	public List<Position> getPositions() {
-		return new ArrayList<>(positionMap.values());
+		return positionStore.values();
+	}
+
+	@Override
+	public StateChanges<Position> getPositionChanges(long version) {
+		return positionStore.getChanges(version);
 	}
 
 	@Override
@@ -331,11 +361,36 @@ public class MainEngineImpl implements MainEngine {
 			LocalPositionDetail localPositionDetail = new LocalPositionDetail(gatewayID,gatewayDisplayName, exchange, rtSymbol, symbol, contractName,contractSize);
 			
 			localPositionDetailMap.put(positionDetailKey, localPositionDetail);
+			addToRtSymbolIndex(localPositionDetail);
 			return localPositionDetail;
 		}
 		
 	}
 
+	private synchronized void addToRtSymbolIndex(LocalPositionDetail localPositionDetail) {
+		LocalPositionDetail[] localPositionDetails = rtSymbolLocalPositionDetailsMap.get(localPositionDetail.getRtSymbol());
+		if(localPositionDetails == null) {
+			localPositionDetails = new LocalPositionDetail[] {localPositionDetail};
+		}else {
+			localPositionDetails = Arrays.copyOf(localPositionDetails, localPositionDetails.length + 1);
+			localPositionDetails[localPositionDetails.length - 1] = localPositionDetail;
+		}
+		rtSymbolLocalPositionDetailsMap.put(localPositionDetail.getRtSymbol(), localPositionDetails);
+	}
+
+	private synchronized void removeFromRtSymbolIndex(String gatewayID) {
+		for(Map.Entry<String, LocalPositionDetail[]> entry: rtSymbolLocalPositionDetailsMap.entrySet()) {
+			LocalPositionDetail[] localPositionDetails = Arrays.stream(entry.getValue())
+					.filter(localPositionDetail -> !localPositionDetail.getGatewayID().equals(gatewayID))
+					.toArray(LocalPositionDetail[]::new);
+			if(localPositionDetails.length == 0) {
+				rtSymbolLocalPositionDetailsMap.remove(entry.getKey());
+			}else if(localPositionDetails.length != entry.getValue().length) {
+				entry.setValue(localPositionDetails);
+			}
+		}
+	}
+
 	@Override
 	public String sendOrder(OrderReq orderReq) {
 		Gateway gateway = getGateway(orderReq.getGatewayID());
@@ -382,7 +437,7 @@ public class MainEngineImpl implements MainEngine {
 
 	@Override
 	public Order getOrder(String rtOrderID) {
-		return orderMap.get(rtOrderID);
+		return orderStore.get(rtOrderID);
 	}
 
 	@Override
@@ -469,22 +524,23 @@ public class MainEngineImpl implements MainEngine {
 			gatewayMap.remove(gatewayID);
 			
 			// 删除账户缓存
-			accountMap = accountMap.entrySet().stream().filter(map -> !map.getValue().getGatewayID().equals(gatewayID)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+			accountStore.removeIf(account -> account.getGatewayID().equals(gatewayID));
 			
 			// 删除持仓详细缓存
-			localPositionDetailMap = localPositionDetailMap.entrySet().stream().filter(map -> !map.getValue().getGatewayID().equals(gatewayID)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+			localPositionDetailMap.values().removeIf(localPositionDetail -> localPositionDetail.getGatewayID().equals(gatewayID));
+			removeFromRtSymbolIndex(gatewayID);
 			
 			// 删除持仓缓存
-			positionMap = positionMap.entrySet().stream().filter(map -> !map.getValue().getGatewayID().equals(gatewayID)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+			positionStore.removeIf(position -> position.getGatewayID().equals(gatewayID));
 			
 			// 删除委托缓存
-			orderMap = orderMap.entrySet().stream().filter(map -> !map.getValue().getGatewayID().equals(gatewayID)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+			orderStore.removeIf(order -> order.getGatewayID().equals(gatewayID));
 			
 			// 删除成交缓存
-			tradeMap = tradeMap.entrySet().stream().filter(map -> !map.getValue().getGatewayID().equals(gatewayID)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+			tradeStore.removeIf(trade -> trade.getGatewayID().equals(gatewayID));
 			
 			// 删除为完成委托缓存
-			workingOrderMap = workingOrderMap.entrySet().stream().filter(map -> !map.getValue().getGatewayID().equals(gatewayID)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+			workingOrderStore.removeIf(order -> order.getGatewayID().equals(gatewayID));
 					
 		} else {
 			log.warn("接口{}不存在,断开无效", gatewayID);
@@ -533,10 +589,7 @@ public class MainEngineImpl implements MainEngine {
 			gateway.connect();
 			// 重新订阅之前的合约
 			if(subscribeReqSetMap.containsKey(gatewayID)) {
-				HashSet<SubscribeReq> subscribeReqSet = subscribeReqSetMap.get(gatewayID);
-				for(SubscribeReq subscribeReq :subscribeReqSet) {
-					gateway.subscribe(subscribeReq);
-				}
+				gateway.subscribe(subscribeReqSetMap.get(gatewayID));
 			}
 			gatewayMap.put(gateway.getGatewayID(), gateway);
 
@@ -31,6 +31,8 @@ public class OrderReq  implements Serializable{
 	private String optionType; // 期权类型
 	private String lastTradeDateOrContractMonth; // 合约月,IB专用
 	private String multiplier; // 乘数,IB专用
+
+	private transient long originNanos; // 触发发单的行情被接口收到时的System.nanoTime(),用于延迟统计,不持久化
 	public String getGatewayID() {
 		return gatewayID;
 	}
@@ -127,6 +129,12 @@ public class OrderReq  implements Serializable{
 	public void setMultiplier(String multiplier) {
 		this.multiplier = multiplier;
 	}
+	public long getOriginNanos() {
+		return originNanos;
+	}
+	public void setOriginNanos(long originNanos) {
+		this.originNanos = originNanos;
+	}
 
 	
 }
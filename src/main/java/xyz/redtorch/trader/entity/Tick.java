@@ -4,7 +4,16 @@ import java.io.Serializable;
 
 import org.joda.time.DateTime;
 
+import xyz.redtorch.trader.base.RtConstant;
+
 /**
+ * 行情Tick
+ *
+ * 数值字段使用基本类型存储,创建和读写不产生装箱对象;属性名称和Bean读写方法与原先保持一致,
+ * 调用方通过自动装箱/拆箱仍可按Double、Integer使用
+ *
+ * 行情接口只设置actionTimestamp,actionTime和dateTime在第一次读取时生成
+ *
  * @author sun0x00@gmail.com
  */
 public class Tick implements Serializable{
@@ -23,70 +32,72 @@ public class Tick implements Serializable{
     private String actionDay;        // 业务发生日
     private String actionTime;       // 时间(HHMMSSmmm)
     private DateTime dateTime;
+    private long actionTimestamp;    // 业务发生时间,epoch毫秒
+    private transient long receivedNanos; // 行情接口收到行情的System.nanoTime(),用于延迟统计,不持久化
 
-	private Integer status; // 状态
+	private int status; // 状态
 
 	// 成交数据
-	private Double lastPrice = 0d; // 最新成交价
-	private Integer lastVolume = 0; // 最新成交量
-	private Integer volume = 0; // 今天总成交量
-	private Double openInterest = 0d; // 持仓量
+	private double lastPrice; // 最新成交价
+	private int lastVolume; // 最新成交量
+	private int volume; // 今天总成交量
+	private double openInterest; // 持仓量
 
-	private Long preOpenInterest = 0L;// 昨持仓
-	private Double preClosePrice = 0d; // 前收盘价
-	private Double preSettlePrice = 0d; // 昨结算
+	private long preOpenInterest;// 昨持仓
+	private double preClosePrice; // 前收盘价
+	private double preSettlePrice; // 昨结算
 
 	// 常规行情
-	private Double openPrice = 0d; // 今日开盘价
-	private Double highPrice = 0d; // 今日最高价
-	private Double lowPrice = 0d; // 今日最低价
+	private double openPrice; // 今日开盘价
+	private double highPrice; // 今日最高价
+	private double lowPrice; // 今日最低价
 
-	private Double upperLimit = 0d; // 涨停价
-	private Double lowerLimit = 0d; // 跌停价
+	private double upperLimit; // 涨停价
+	private double lowerLimit; // 跌停价
 
-	private Double bidPrice1 = 0d;
-	private Double bidPrice2 = 0d;
-	private Double bidPrice3 = 0d;
-	private Double bidPrice4 = 0d;
-	private Double bidPrice5 = 0d;
-	private Double bidPrice6 = 0d;
-	private Double bidPrice7 = 0d;
-	private Double bidPrice8 = 0d;
-	private Double bidPrice9 = 0d;
-	private Double bidPrice10 = 0d;
+	private double bidPrice1;
+	private double bidPrice2;
+	private double bidPrice3;
+	private double bidPrice4;
+	private double bidPrice5;
+	private double bidPrice6;
+	private double bidPrice7;
+	private double bidPrice8;
+	private double bidPrice9;
+	private double bidPrice10;
 
-	private Double askPrice1 = 0d;
-	private Double askPrice2 = 0d;
-	private Double askPrice3 = 0d;
-	private Double askPrice4 = 0d;
-	private Double askPrice5 = 0d;
-	private Double askPrice6 = 0d;
-	private Double askPrice7 = 0d;
-	private Double askPrice8 = 0d;
-	private Double askPrice9 = 0d;
-	private Double askPrice10 = 0d;
+	private double askPrice1;
+	private double askPrice2;
+	private double askPrice3;
+	private double askPrice4;
+	private double askPrice5;
+	private double askPrice6;
+	private double askPrice7;
+	private double askPrice8;
+	private double askPrice9;
+	private double askPrice10;
 
-	private Integer bidVolume1 = 0;
-	private Integer bidVolume2 = 0;
-	private Integer bidVolume3 = 0;
-	private Integer bidVolume4 = 0;
-	private Integer bidVolume5 = 0;
-	private Integer bidVolume6 = 0;
-	private Integer bidVolume7 = 0;
-	private Integer bidVolume8 = 0;
-	private Integer bidVolume9 = 0;
-	private Integer bidVolume10 = 0;
+	private int bidVolume1;
+	private int bidVolume2;
+	private int bidVolume3;
+	private int bidVolume4;
+	private int bidVolume5;
+	private int bidVolume6;
+	private int bidVolume7;
+	private int bidVolume8;
+	private int bidVolume9;
+	private int bidVolume10;
 
-	private Integer askVolume1 = 0;
-	private Integer askVolume2 = 0;
-	private Integer askVolume3 = 0;
-	private Integer askVolume4 = 0;
-	private Integer askVolume5 = 0;
-	private Integer askVolume6 = 0;
-	private Integer askVolume7 = 0;
-	private Integer askVolume8 = 0;
-	private Integer askVolume9 = 0;
-	private Integer askVolume10 = 0;
+	private int askVolume1;
+	private int askVolume2;
+	private int askVolume3;
+	private int askVolume4;
+	private int askVolume5;
+	private int askVolume6;
+	private int askVolume7;
+	private int askVolume8;
+	private int askVolume9;
+	private int askVolume10;
 	public String getGatewayID() {
 		return gatewayID;
 	}
@@ -124,333 +135,500 @@ public class Tick implements Serializable{
 		this.actionDay = actionDay;
 	}
 	public String getActionTime() {
+		if (actionTime == null && actionTimestamp != 0L) {
+			actionTime = getDateTime().toString(RtConstant.T_FORMAT_WITH_MS_INT_Formatter);
+		}
 		return actionTime;
 	}
 	public void setActionTime(String actionTime) {
 		this.actionTime = actionTime;
 	}
 	public DateTime getDateTime() {
+		if (dateTime == null && actionTimestamp != 0L) {
+			dateTime = new DateTime(actionTimestamp);
+		}
 		return dateTime;
 	}
 	public void setDateTime(DateTime dateTime) {
 		this.dateTime = dateTime;
 	}
-	public Integer getStatus() {
+	public long getActionTimestamp() {
+		// 数据库中较早的数据没有此字段
+		if (actionTimestamp == 0L && dateTime != null) {
+			return dateTime.getMillis();
+		}
+		return actionTimestamp;
+	}
+	/**
+	 * 设置业务发生时间,actionTime和dateTime会在读取时根据此值重新生成
+	 * @param actionTimestamp
+	 */
+	public void setActionTimestamp(long actionTimestamp) {
+		this.actionTimestamp = actionTimestamp;
+		this.actionTime = null;
+		this.dateTime = null;
+	}
+	public long getReceivedNanos() {
+		return receivedNanos;
+	}
+	public void setReceivedNanos(long receivedNanos) {
+		this.receivedNanos = receivedNanos;
+	}
+	public int getStatus() {
 		return status;
 	}
-	public void setStatus(Integer status) {
+	public void setStatus(int status) {
 		this.status = status;
 	}
-	public Double getLastPrice() {
+	public double getLastPrice() {
 		return lastPrice;
 	}
-	public void setLastPrice(Double lastPrice) {
+	public void setLastPrice(double lastPrice) {
 		this.lastPrice = lastPrice;
 	}
-	public Integer getLastVolume() {
+	public int getLastVolume() {
 		return lastVolume;
 	}
-	public void setLastVolume(Integer lastVolume) {
+	public void setLastVolume(int lastVolume) {
 		this.lastVolume = lastVolume;
 	}
-	public Integer getVolume() {
+	public int getVolume() {
 		return volume;
 	}
-	public void setVolume(Integer volume) {
+	public void setVolume(int volume) {
 		this.volume = volume;
 	}
-	public Double getOpenInterest() {
+	public double getOpenInterest() {
 		return openInterest;
 	}
-	public void setOpenInterest(Double openInterest) {
+	public void setOpenInterest(double openInterest) {
 		this.openInterest = openInterest;
 	}
-	public Long getPreOpenInterest() {
+	public long getPreOpenInterest() {
 		return preOpenInterest;
 	}
-	public void setPreOpenInterest(Long preOpenInterest) {
+	public void setPreOpenInterest(long preOpenInterest) {
 		this.preOpenInterest = preOpenInterest;
 	}
-	public Double getPreClosePrice() {
+	public double getPreClosePrice() {
 		return preClosePrice;
 	}
-	public void setPreClosePrice(Double preClosePrice) {
+	public void setPreClosePrice(double preClosePrice) {
 		this.preClosePrice = preClosePrice;
 	}
-	public Double getPreSettlePrice() {
+	public double getPreSettlePrice() {
 		return preSettlePrice;
 	}
-	public void setPreSettlePrice(Double preSettlePrice) {
+	public void setPreSettlePrice(double preSettlePrice) {
 		this.preSettlePrice = preSettlePrice;
 	}
-	public Double getOpenPrice() {
+	public double getOpenPrice() {
 		return openPrice;
 	}
-	public void setOpenPrice(Double openPrice) {
+	public void setOpenPrice(double openPrice) {
 		this.openPrice = openPrice;
 	}
-	public Double getHighPrice() {
+	public double getHighPrice() {
 		return highPrice;
 	}
-	public void setHighPrice(Double highPrice) {
+	public void setHighPrice(double highPrice) {
 		this.highPrice = highPrice;
 	}
-	public Double getLowPrice() {
+	public double getLowPrice() {
 		return lowPrice;
 	}
-	public void setLowPrice(Double lowPrice) {
+	public void setLowPrice(double lowPrice) {
 		this.lowPrice = lowPrice;
 	}
-	public Double getUpperLimit() {
+	public double getUpperLimit() {
 		return upperLimit;
 	}
-	public void setUpperLimit(Double upperLimit) {
+	public void setUpperLimit(double upperLimit) {
 		this.upperLimit = upperLimit;
 	}
-	public Double getLowerLimit() {
+	public double getLowerLimit() {
 		return lowerLimit;
 	}
-	public void setLowerLimit(Double lowerLimit) {
+	public void setLowerLimit(double lowerLimit) {
 		this.lowerLimit = lowerLimit;
 	}
-	public Double getBidPrice1() {
+	public double getBidPrice1() {
 		return bidPrice1;
 	}
-	public void setBidPrice1(Double bidPrice1) {
+	public void setBidPrice1(double bidPrice1) {
 		this.bidPrice1 = bidPrice1;
 	}
-	public Double getBidPrice2() {
+	public double getBidPrice2() {
 		return bidPrice2;
 	}
-	public void setBidPrice2(Double bidPrice2) {
+	public void setBidPrice2(double bidPrice2) {
 		this.bidPrice2 = bidPrice2;
 	}
-	public Double getBidPrice3() {
+	public double getBidPrice3() {
 		return bidPrice3;
 	}
-	public void setBidPrice3(Double bidPrice3) {
+	public void setBidPrice3(double bidPrice3) {
 		this.bidPrice3 = bidPrice3;
 	}
-	public Double getBidPrice4() {
+	public double getBidPrice4() {
 		return bidPrice4;
 	}
-	public void setBidPrice4(Double bidPrice4) {
+	public void setBidPrice4(double bidPrice4) {
 		this.bidPrice4 = bidPrice4;
 	}
-	public Double getBidPrice5() {
+	public double getBidPrice5() {
 		return bidPrice5;
 	}
-	public void setBidPrice5(Double bidPrice5) {
+	public void setBidPrice5(double bidPrice5) {
 		this.bidPrice5 = bidPrice5;
 	}
-	public Double getBidPrice6() {
+	public double getBidPrice6() {
 		return bidPrice6;
 	}
-	public void setBidPrice6(Double bidPrice6) {
+	public void setBidPrice6(double bidPrice6) {
 		this.bidPrice6 = bidPrice6;
 	}
-	public Double getBidPrice7() {
+	public double getBidPrice7() {
 		return bidPrice7;
 	}
-	public void setBidPrice7(Double bidPrice7) {
+	public void setBidPrice7(double bidPrice7) {
 		this.bidPrice7 = bidPrice7;
 	}
-	public Double getBidPrice8() {
+	public double getBidPrice8() {
 		return bidPrice8;
 	}
-	public void setBidPrice8(Double bidPrice8) {
+	public void setBidPrice8(double bidPrice8) {
 		this.bidPrice8 = bidPrice8;
 	}
-	public Double getBidPrice9() {
+	public double getBidPrice9() {
 		return bidPrice9;
 	}
-	public void setBidPrice9(Double bidPrice9) {
+	public void setBidPrice9(double bidPrice9) {
 		this.bidPrice9 = bidPrice9;
 	}
-	public Double getBidPrice10() {
+	public double getBidPrice10() {
 		return bidPrice10;
 	}
-	public void setBidPrice10(Double bidPrice10) {
+	public void setBidPrice10(double bidPrice10) {
 		this.bidPrice10 = bidPrice10;
 	}
-	public Double getAskPrice1() {
+	public double getAskPrice1() {
 		return askPrice1;
 	}
-	public void setAskPrice1(Double askPrice1) {
+	public void setAskPrice1(double askPrice1) {
 		this.askPrice1 = askPrice1;
 	}
-	public Double getAskPrice2() {
+	public double getAskPrice2() {
 		return askPrice2;
 	}
-	public void setAskPrice2(Double askPrice2) {
+	public void setAskPrice2(double askPrice2) {
 		this.askPrice2 = askPrice2;
 	}
-	public Double getAskPrice3() {
+	public double getAskPrice3() {
 		return askPrice3;
 	}
-	public void setAskPrice3(Double askPrice3) {
+	public void setAskPrice3(double askPrice3) {
 		this.askPrice3 = askPrice3;
 	}
-	public Double getAskPrice4() {
+	public double getAskPrice4() {
 		return askPrice4;
 	}
-	public void setAskPrice4(Double askPrice4) {
+	public void setAskPrice4(double askPrice4) {
 		this.askPrice4 = askPrice4;
 	}
-	public Double getAskPrice5() {
+	public double getAskPrice5() {
 		return askPrice5;
 	}
-	public void setAskPrice5(Double askPrice5) {
+	public void setAskPrice5(double askPrice5) {
 		this.askPrice5 = askPrice5;
 	}
-	public Double getAskPrice6() {
+	public double getAskPrice6() {
 		return askPrice6;
 	}
-	public void setAskPrice6(Double askPrice6) {
+	public void setAskPrice6(double askPrice6) {
 		this.askPrice6 = askPrice6;
 	}
-	public Double getAskPrice7() {
+	public double getAskPrice7() {
 		return askPrice7;
 	}
-	public void setAskPrice7(Double askPrice7) {
+	public void setAskPrice7(double askPrice7) {
 		this.askPrice7 = askPrice7;
 	}
-	public Double getAskPrice8() {
+	public double getAskPrice8() {
 		return askPrice8;
 	}
-	public void setAskPrice8(Double askPrice8) {
+	public void setAskPrice8(double askPrice8) {
 		this.askPrice8 = askPrice8;
 	}
-	public Double getAskPrice9() {
+	public double getAskPrice9() {
 		return askPrice9;
 	}
-	public void setAskPrice9(Double askPrice9) {
+	public void setAskPrice9(double askPrice9) {
 		this.askPrice9 = askPrice9;
 	}
-	public Double getAskPrice10() {
+	public double getAskPrice10() {
 		return askPrice10;
 	}
-	public void setAskPrice10(Double askPrice10) {
+	public void setAskPrice10(double askPrice10) {
 		this.askPrice10 = askPrice10;
 	}
-	public Integer getBidVolume1() {
+	public int getBidVolume1() {
 		return bidVolume1;
 	}
-	public void setBidVolume1(Integer bidVolume1) {
+	public void setBidVolume1(int bidVolume1) {
 		this.bidVolume1 = bidVolume1;
 	}
-	public Integer getBidVolume2() {
+	public int getBidVolume2() {
 		return bidVolume2;
 	}
-	public void setBidVolume2(Integer bidVolume2) {
+	public void setBidVolume2(int bidVolume2) {
 		this.bidVolume2 = bidVolume2;
 	}
-	public Integer getBidVolume3() {
+	public int getBidVolume3() {
 		return bidVolume3;
 	}
-	public void setBidVolume3(Integer bidVolume3) {
+	public void setBidVolume3(int bidVolume3) {
 		this.bidVolume3 = bidVolume3;
 	}
-	public Integer getBidVolume4() {
+	public int getBidVolume4() {
 		return bidVolume4;
 	}
-	public void setBidVolume4(Integer bidVolume4) {
+	public void setBidVolume4(int bidVolume4) {
 		this.bidVolume4 = bidVolume4;
 	}
-	public Integer getBidVolume5() {
+	public int getBidVolume5() {
 		return bidVolume5;
 	}
-	public void setBidVolume5(Integer bidVolume5) {
+	public void setBidVolume5(int bidVolume5) {
 		this.bidVolume5 = bidVolume5;
 	}
-	public Integer getBidVolume6() {
+	public int getBidVolume6() {
 		return bidVolume6;
 	}
-	public void setBidVolume6(Integer bidVolume6) {
+	public void setBidVolume6(int bidVolume6) {
 		this.bidVolume6 = bidVolume6;
 	}
-	public Integer getBidVolume7() {
+	public int getBidVolume7() {
 		return bidVolume7;
 	}
-	public void setBidVolume7(Integer bidVolume7) {
+	public void setBidVolume7(int bidVolume7) {
 		this.bidVolume7 = bidVolume7;
 	}
-	public Integer getBidVolume8() {
+	public int getBidVolume8() {
 		return bidVolume8;
 	}
-	public void setBidVolume8(Integer bidVolume8) {
+	public void setBidVolume8(int bidVolume8) {
 		this.bidVolume8 = bidVolume8;
 	}
-	public Integer getBidVolume9() {
+	public int getBidVolume9() {
 		return bidVolume9;
 	}
-	public void setBidVolume9(Integer bidVolume9) {
+	public void setBidVolume9(int bidVolume9) {
 		this.bidVolume9 = bidVolume9;
 	}
-	public Integer getBidVolume10() {
+	public int getBidVolume10() {
 		return bidVolume10;
 	}
-	public void setBidVolume10(Integer bidVolume10) {
+	public void setBidVolume10(int bidVolume10) {
 		this.bidVolume10 = bidVolume10;
 	}
-	public Integer getAskVolume1() {
+	public int getAskVolume1() {
 		return askVolume1;
 	}
-	public void setAskVolume1(Integer askVolume1) {
+	public void setAskVolume1(int askVolume1) {
 		this.askVolume1 = askVolume1;
 	}
-	public Integer getAskVolume2() {
+	public int getAskVolume2() {
 		return askVolume2;
 	}
-	public void setAskVolume2(Integer askVolume2) {
+	public void setAskVolume2(int askVolume2) {
 		this.askVolume2 = askVolume2;
 	}
-	public Integer getAskVolume3() {
+	public int getAskVolume3() {
 		return askVolume3;
 	}
-	public void setAskVolume3(Integer askVolume3) {
+	public void setAskVolume3(int askVolume3) {
 		this.askVolume3 = askVolume3;
 	}
-	public Integer getAskVolume4() {
+	public int getAskVolume4() {
 		return askVolume4;
 	}
-	public void setAskVolume4(Integer askVolume4) {
+	public void setAskVolume4(int askVolume4) {
 		this.askVolume4 = askVolume4;
 	}
-	public Integer getAskVolume5() {
+	public int getAskVolume5() {
 		return askVolume5;
 	}
-	public void setAskVolume5(Integer askVolume5) {
+	public void setAskVolume5(int askVolume5) {
 		this.askVolume5 = askVolume5;
 	}
-	public Integer getAskVolume6() {
+	public int getAskVolume6() {
 		return askVolume6;
 	}
-	public void setAskVolume6(Integer askVolume6) {
+	public void setAskVolume6(int askVolume6) {
 		this.askVolume6 = askVolume6;
 	}
-	public Integer getAskVolume7() {
+	public int getAskVolume7() {
 		return askVolume7;
 	}
-	public void setAskVolume7(Integer askVolume7) {
+	public void setAskVolume7(int askVolume7) {
 		this.askVolume7 = askVolume7;
 	}
-	public Integer getAskVolume8() {
+	public int getAskVolume8() {
 		return askVolume8;
 	}
-	public void setAskVolume8(Integer askVolume8) {
+	public void setAskVolume8(int askVolume8) {
 		this.askVolume8 = askVolume8;
 	}
-	public Integer getAskVolume9() {
+	public int getAskVolume9() {
 		return askVolume9;
 	}
-	public void setAskVolume9(Integer askVolume9) {
+	public void setAskVolume9(int askVolume9) {
 		this.askVolume9 = askVolume9;
 	}
-	public Integer getAskVolume10() {
+	public int getAskVolume10() {
 		return askVolume10;
 	}
-	public void setAskVolume10(Integer askVolume10) {
+	public void setAskVolume10(int askVolume10) {
 		this.askVolume10 = askVolume10;
 	}
+
+	/**
+	 * 从另一个Tick复制全部字段,用于复用已有对象
+	 * @param tick
+	 */
+	public void copyFrom(Tick tick) {
+		this.gatewayID = tick.gatewayID;
+		this.symbol = tick.symbol;
+		this.exchange = tick.exchange;
+		this.rtSymbol = tick.rtSymbol;
+		this.tradingDay = tick.tradingDay;
+		this.actionDay = tick.actionDay;
+		this.actionTime = tick.actionTime;
+		this.dateTime = tick.dateTime;
+		this.actionTimestamp = tick.actionTimestamp;
+		this.receivedNanos = tick.receivedNanos;
+		this.status = tick.status;
+		this.lastPrice = tick.lastPrice;
+		this.lastVolume = tick.lastVolume;
+		this.volume = tick.volume;
+		this.openInterest = tick.openInterest;
+		this.preOpenInterest = tick.preOpenInterest;
+		this.preClosePrice = tick.preClosePrice;
+		this.preSettlePrice = tick.preSettlePrice;
+		this.openPrice = tick.openPrice;
+		this.highPrice = tick.highPrice;
+		this.lowPrice = tick.lowPrice;
+		this.upperLimit = tick.upperLimit;
+		this.lowerLimit = tick.lowerLimit;
+		this.bidPrice1 = tick.bidPrice1;
+		this.bidPrice2 = tick.bidPrice2;
+		this.bidPrice3 = tick.bidPrice3;
+		this.bidPrice4 = tick.bidPrice4;
+		this.bidPrice5 = tick.bidPrice5;
+		this.bidPrice6 = tick.bidPrice6;
+		this.bidPrice7 = tick.bidPrice7;
+		this.bidPrice8 = tick.bidPrice8;
+		this.bidPrice9 = tick.bidPrice9;
+		this.bidPrice10 = tick.bidPrice10;
+		this.askPrice1 = tick.askPrice1;
+		this.askPrice2 = tick.askPrice2;
+		this.askPrice3 = tick.askPrice3;
+		this.askPrice4 = tick.askPrice4;
+		this.askPrice5 = tick.askPrice5;
+		this.askPrice6 = tick.askPrice6;
+		this.askPrice7 = tick.askPrice7;
+		this.askPrice8 = tick.askPrice8;
+		this.askPrice9 = tick.askPrice9;
+		this.askPrice10 = tick.askPrice10;
+		this.bidVolume1 = tick.bidVolume1;
+		this.bidVolume2 = tick.bidVolume2;
+		this.bidVolume3 = tick.bidVolume3;
+		this.bidVolume4 = tick.bidVolume4;
+		this.bidVolume5 = tick.bidVolume5;
+		this.bidVolume6 = tick.bidVolume6;
+		this.bidVolume7 = tick.bidVolume7;
+		this.bidVolume8 = tick.bidVolume8;
+		this.bidVolume9 = tick.bidVolume9;
+		this.bidVolume10 = tick.bidVolume10;
+		this.askVolume1 = tick.askVolume1;
+		this.askVolume2 = tick.askVolume2;
+		this.askVolume3 = tick.askVolume3;
+		this.askVolume4 = tick.askVolume4;
+		this.askVolume5 = tick.askVolume5;
+		this.askVolume6 = tick.askVolume6;
+		this.askVolume7 = tick.askVolume7;
+		this.askVolume8 = tick.askVolume8;
+		this.askVolume9 = tick.askVolume9;
+		this.askVolume10 = tick.askVolume10;
+	}
+
+	/**
+	 * 清空全部字段,用于对象池回收
+	 */
+	public void reset() {
+		this.gatewayID = null;
+		this.symbol = null;
+		this.exchange = null;
+		this.rtSymbol = null;
+		this.tradingDay = null;
+		this.actionDay = null;
+		this.actionTime = null;
+		this.dateTime = null;
+		this.actionTimestamp = 0L;
+		this.receivedNanos = 0L;
+		this.status = 0;
+		this.lastPrice = 0d;
+		this.lastVolume = 0;
+		this.volume = 0;
+		this.openInterest = 0d;
+		this.preOpenInterest = 0L;
+		this.preClosePrice = 0d;
+		this.preSettlePrice = 0d;
+		this.openPrice = 0d;
+		this.highPrice = 0d;
+		this.lowPrice = 0d;
+		this.upperLimit = 0d;
+		this.lowerLimit = 0d;
+		this.bidPrice1 = 0d;
+		this.bidPrice2 = 0d;
+		this.bidPrice3 = 0d;
+		this.bidPrice4 = 0d;
+		this.bidPrice5 = 0d;
+		this.bidPrice6 = 0d;
+		this.bidPrice7 = 0d;
+		this.bidPrice8 = 0d;
+		this.bidPrice9 = 0d;
+		this.bidPrice10 = 0d;
+		this.askPrice1 = 0d;
+		this.askPrice2 = 0d;
+		this.askPrice3 = 0d;
+		this.askPrice4 = 0d;
+		this.askPrice5 = 0d;
+		this.askPrice6 = 0d;
+		this.askPrice7 = 0d;
+		this.askPrice8 = 0d;
+		this.askPrice9 = 0d;
+		this.askPrice10 = 0d;
+		this.bidVolume1 = 0;
+		this.bidVolume2 = 0;
+		this.bidVolume3 = 0;
+		this.bidVolume4 = 0;
+		this.bidVolume5 = 0;
+		this.bidVolume6 = 0;
+		this.bidVolume7 = 0;
+		this.bidVolume8 = 0;
+		this.bidVolume9 = 0;
+		this.bidVolume10 = 0;
+		this.askVolume1 = 0;
+		this.askVolume2 = 0;
+		this.askVolume3 = 0;
+		this.askVolume4 = 0;
+		this.askVolume5 = 0;
+		this.askVolume6 = 0;
+		this.askVolume7 = 0;
+		this.askVolume8 = 0;
+		this.askVolume9 = 0;
+		this.askVolume10 = 0;
+	}
 }
@@ -1,6 +1,8 @@
 package xyz.redtorch.trader.gateway;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Set;
 
 import xyz.redtorch.trader.engine.event.EventEngine;
 import xyz.redtorch.trader.entity.Account;
@@ -39,6 +41,12 @@ public interface Gateway {
 	 * @param subscribeReq
 	 */
 	void subscribe(SubscribeReq subscribeReq);
+
+	/**
+	 * 批量订阅,已经订阅的合约会被忽略
+	 * @param subscribeReqs
+	 */
+	void subscribe(Collection<SubscribeReq> subscribeReqs);
 	
 	/**
 	 * 退订
@@ -77,6 +85,12 @@ public interface Gateway {
 	 * @param position
 	 */
 	void emitPositon(Position position);
+
+	/**
+	 * 发送一次持仓查询的全部结果,只对变化的持仓发送持仓事件,并定期全量发送
+	 * @param positions
+	 */
+	void emitPositions(Collection<Position> positions);
 	
 	/**
 	 * 发送账户事件
@@ -149,6 +163,12 @@ public interface Gateway {
 	 * @return
 	 */
 	HashSet<String> getSubscribedSymbols();
+
+	/**
+	 * 获取已经收到订阅成功回报的合约符号,即实际有行情推送的合约
+	 * @return
+	 */
+	Set<String> getConfirmedSubscribedSymbols();
 	
 	/**
 	 * 返回接口状态
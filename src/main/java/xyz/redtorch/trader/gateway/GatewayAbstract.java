@@ -1,20 +1,25 @@
 package xyz.redtorch.trader.gateway;
 
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import xyz.redtorch.trader.base.BaseConfig;
 import xyz.redtorch.trader.engine.event.EventConstant;
 import xyz.redtorch.trader.engine.event.EventData;
 import xyz.redtorch.trader.engine.event.EventEngine;
+import xyz.redtorch.trader.engine.event.EventKey;
 import xyz.redtorch.trader.entity.Account;
 import xyz.redtorch.trader.entity.Contract;
 import xyz.redtorch.trader.entity.Order;
 import xyz.redtorch.trader.entity.Position;
+import xyz.redtorch.trader.entity.SubscribeReq;
 import xyz.redtorch.trader.entity.Tick;
 import xyz.redtorch.trader.entity.Trade;
 import xyz.redtorch.utils.CommonUtil;
@@ -31,12 +36,29 @@ public abstract class GatewayAbstract implements Gateway{
 	protected String gatewayLogInfo;
 
 	protected GatewaySetting gatewaySetting;
+
+	protected GatewayLatency gatewayLatency;
 	
 	public EventEngine eventEngine;
 
 	protected HashSet<String> subscribedSymbols = new HashSet<>();
+	// 已经收到订阅成功回报的合约
+	protected Set<String> confirmedSubscribedSymbols = ConcurrentHashMap.newKeySet();
+
+	// Tick事件键缓存,key为rtSymbol,value依次为[接口+合约, 合约, 全部]三级事件键
+	private Map<String, EventKey[]> tickEventKeysMap = new ConcurrentHashMap<>();
+
+	// 连接时注册定时查询,关闭时注销,未注册时为null
+	private volatile GatewayQueryScheduler.QueryState queryState;
+
+	// 上次查询到的账户和持仓,用于判断查询结果是否变化
+	private volatile Account lastAccount;
+	private Map<String, Position> lastPositionMap = new ConcurrentHashMap<>();
 
-	Timer timer = new Timer();
+	// 持仓全量刷新间隔,毫秒
+	private final long positionFullRefreshInterval = BaseConfig.rtConfig
+			.getInt("rt.gateway.position.full.refresh.interval", 60000);
+	private long lastPositionFullRefreshMillis = 0L;
 	
 	public GatewayAbstract(GatewaySetting gatewaySetting, EventEngine eventEngine){
 		this.eventEngine = eventEngine;
@@ -44,16 +66,54 @@ public abstract class GatewayAbstract implements Gateway{
 		this.gatewayID = gatewaySetting.getGatewayID();
 		this.gatewayDisplayName = gatewaySetting.getGatewayDisplayName();
 		this.gatewayLogInfo = "GatewayID:" + gatewayID + " GatewayDisplayName:" + gatewayDisplayName+" ";
+		this.gatewayLatency = GatewayLatency.get(gatewayID);
 		log.info(gatewayLogInfo+"初始化");
-		timer.schedule(new QueryTimerTask(), new Date(), 1000);
-
 	}
 	
+	/**
+	 * 注册账户和持仓定时查询,已注册时忽略,由connect调用
+	 */
+	protected synchronized void registerQuery() {
+		if (queryState == null) {
+			queryState = GatewayQueryScheduler.getInstance().register(this);
+		}
+	}
+	
+	/**
+	 * 注销账户和持仓定时查询,由close调用
+	 */
+	protected synchronized void unregisterQuery() {
+		if (queryState != null) {
+			GatewayQueryScheduler.getInstance().unregister(queryState);
+			queryState = null;
+		}
+	}
+	
+	/**
+	 * 获取接口延迟统计
+	 * @return
+	 */
+	public GatewayLatency getGatewayLatency() {
+		return gatewayLatency;
+	}
+
 	@Override
 	public HashSet<String> getSubscribedSymbols() {
 		return subscribedSymbols;
 	}
 
+	@Override
+	public Set<String> getConfirmedSubscribedSymbols() {
+		return confirmedSubscribedSymbols;
+	}
+
+	@Override
+	public void subscribe(Collection<SubscribeReq> subscribeReqs) {
+		for (SubscribeReq subscribeReq : subscribeReqs) {
+			subscribe(subscribeReq);
+		}
+	}
+
 	@Override
 	public EventEngine getEventEngine() {
 		return eventEngine;
@@ -81,6 +141,11 @@ public abstract class GatewayAbstract implements Gateway{
 
 	@Override
 	public void emitPositon(Position position) {
+		Position lastPosition = lastPositionMap.put(position.getRtPositionName(), position);
+		GatewayQueryScheduler.QueryState queryState = this.queryState;
+		if (queryState != null && isPositionChanged(lastPosition, position)) {
+			queryState.markPositionChanged();
+		}
 		String event = EventConstant.EVENT_POSITION;
 		EventData eventData = new EventData();
 		eventData.setEvent(event);
@@ -91,8 +156,64 @@ public abstract class GatewayAbstract implements Gateway{
 		
 	}
 
+	@Override
+	public void emitPositions(Collection<Position> positions) {
+		long nowMillis = System.currentTimeMillis();
+		boolean fullRefresh = nowMillis - lastPositionFullRefreshMillis >= positionFullRefreshInterval;
+		if (fullRefresh) {
+			lastPositionFullRefreshMillis = nowMillis;
+		}
+
+		Set<String> rtPositionNameSet = new HashSet<>();
+		for (Position position : positions) {
+			rtPositionNameSet.add(position.getRtPositionName());
+			if (fullRefresh || isPositionChanged(lastPositionMap.get(position.getRtPositionName()), position)) {
+				emitPositon(position);
+			}
+		}
+
+		// 本次查询中消失的持仓发送一次清零的持仓,之后不再发送
+		for (Position lastPosition : new ArrayList<>(lastPositionMap.values())) {
+			if (rtPositionNameSet.contains(lastPosition.getRtPositionName())) {
+				continue;
+			}
+			Position position = new Position();
+			position.setGatewayID(lastPosition.getGatewayID());
+			position.setSymbol(lastPosition.getSymbol());
+			position.setExchange(lastPosition.getExchange());
+			position.setRtSymbol(lastPosition.getRtSymbol());
+			position.setDirection(lastPosition.getDirection());
+			position.setRtPositionName(lastPosition.getRtPositionName());
+			emitPositon(position);
+			lastPositionMap.remove(lastPosition.getRtPositionName());
+		}
+	}
+
+	/**
+	 * 持仓盈亏随行情变化,不作为持仓变化的依据,只在全量刷新时更新
+	 * @param lastPosition
+	 * @param position
+	 * @return
+	 */
+	private static boolean isPositionChanged(Position lastPosition, Position position) {
+		return lastPosition == null || lastPosition.getPosition() != position.getPosition()
+				|| lastPosition.getFrozen() != position.getFrozen()
+				|| lastPosition.getYdPosition() != position.getYdPosition()
+				|| lastPosition.getPrice() != position.getPrice();
+	}
+
 	@Override
 	public void emitAccount(Account account) {
+		// 持仓盈亏随行情变化,不作为查询结果变化的依据
+		Account lastAccount = this.lastAccount;
+		this.lastAccount = account;
+		GatewayQueryScheduler.QueryState queryState = this.queryState;
+		if (queryState != null && (lastAccount == null || lastAccount.getCommission() != account.getCommission()
+				|| lastAccount.getMargin() != account.getMargin()
+				|| lastAccount.getCloseProfit() != account.getCloseProfit()
+				|| lastAccount.getPreBalance() != account.getPreBalance())) {
+			queryState.markAccountChanged();
+		}
 		String event = EventConstant.EVENT_ACCOUNT;
 		EventData eventData = new EventData();
 		eventData.setEvent(event);
@@ -105,6 +226,9 @@ public abstract class GatewayAbstract implements Gateway{
 
 	@Override
 	public void emitContract(Contract contract) {
+		// 首次获取到合约时即创建Tick事件键
+		getTickEventKeys(contract.getRtSymbol());
+
 		String event = EventConstant.EVENT_CONTRACT;
 		EventData eventData = new EventData();
 		eventData.setEvent(event);
@@ -117,30 +241,44 @@ public abstract class GatewayAbstract implements Gateway{
 
 	@Override
 	public void emitTick(Tick tick) {
-		String event = EventConstant.EVENT_TICK+tick.getGatewayID()+tick.getRtSymbol();
-		EventData eventData = new EventData();
-		eventData.setEvent(event);
-		eventData.setEventType(EventConstant.EVENT_TICK);
-		eventData.setEventObj(tick);
-		eventEngine.emit(event, eventData);
-		
-		event = EventConstant.EVENT_TICK+tick.getRtSymbol();
-		eventData = new EventData();
-		eventData.setEvent(event);
-		eventData.setEventType(EventConstant.EVENT_TICK);
-		eventData.setEventObj(tick);
-		eventEngine.emit(event, eventData);
-		
-		event = EventConstant.EVENT_TICK;
-		eventData = new EventData();
-		eventData.setEvent(event);
-		eventData.setEventType(EventConstant.EVENT_TICK);
-		eventData.setEventObj(tick);
-		eventEngine.emit(event, eventData);
+		if (tick.getReceivedNanos() != 0) {
+			gatewayLatency.record(GatewayLatency.STAGE_TICK_EMIT, tick.getReceivedNanos(), System.nanoTime());
+		}
+		EventKey[] tickEventKeys = getTickEventKeys(tick.getRtSymbol());
+		for(EventKey eventKey: tickEventKeys) {
+			EventData eventData = new EventData();
+			eventData.setEvent(eventKey.getEvent());
+			eventData.setEventType(EventConstant.EVENT_TICK);
+			eventData.setEventObj(tick);
+			eventEngine.emit(eventKey, eventData);
+		}
+	}
+
+	/**
+	 * 获取合约对应的Tick三级事件键,不存在时创建
+	 * @param rtSymbol
+	 * @return
+	 */
+	protected EventKey[] getTickEventKeys(String rtSymbol) {
+		EventKey[] tickEventKeys = tickEventKeysMap.get(rtSymbol);
+		if(tickEventKeys == null) {
+			tickEventKeys = new EventKey[] {
+					eventEngine.getEventKey(EventConstant.EVENT_TICK + gatewayID + rtSymbol),
+					eventEngine.getEventKey(EventConstant.EVENT_TICK + rtSymbol),
+					eventEngine.getEventKey(EventConstant.EVENT_TICK) };
+			tickEventKeysMap.put(rtSymbol, tickEventKeys);
+		}
+		return tickEventKeys;
 	}
 
 	@Override
 	public void emitTrade(Trade trade) {
+		// 成交后尽快查询持仓
+		GatewayQueryScheduler.QueryState queryState = this.queryState;
+		if (queryState != null) {
+			queryState.requestPositionQuery();
+		}
+
 		// 发送带委托ID的事件
 		String event = EventConstant.EVENT_TRADE + trade.getRtOrderID();
 		EventData eventData = new EventData();
@@ -160,20 +298,13 @@ public abstract class GatewayAbstract implements Gateway{
 
 	@Override
 	public void emitOrder(Order order) {
-		// 发送带委托ID的事件
-		String event = EventConstant.EVENT_ERROR + order.getRtOrderID();
+		// 策略的委托回报由OrderRouteTable按rtOrderID分发,不再发送带委托ID的事件
+		String event = EventConstant.EVENT_ORDER;
 		EventData eventData = new EventData();
 		eventData.setEvent(event);
 		eventData.setEventType(EventConstant.EVENT_ORDER);
 		eventData.setEventObj(order);
 		eventEngine.emit(event, eventData);
-		
-		event = EventConstant.EVENT_ORDER;
-		eventData = new EventData();
-		eventData.setEvent(event);
-		eventData.setEventType(EventConstant.EVENT_ORDER);
-		eventData.setEventObj(order);
-		eventEngine.emit(event, eventData);
 	}
 
 	@Override
@@ -196,23 +327,4 @@ public abstract class GatewayAbstract implements Gateway{
 		CommonUtil.emitDebugLog(eventEngine, logContent);
 	}
 	
-	class QueryTimerTask extends TimerTask{
-
-	    @Override
-	    public void run() {
-	    	try {
-		    	if(isConnected()) {
-			        queryAccount();
-		    	}
-			    Thread.sleep(1250);
-			    if(isConnected()) {
-				    queryPosition();
-			    }
-			    Thread.sleep(1250);
-	    	}catch (Exception e) {
-				log.error("{} 定时查询发生异常",gatewayLogInfo,e);
-			}
-	    }
-	}
-	
 }
@@ -0,0 +1,205 @@
+package xyz.redtorch.trader.gateway;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import xyz.redtorch.trader.base.BaseConfig;
+import xyz.redtorch.utils.LatencyHistogram;
+
+/**
+ * 接口延迟统计,每个接口按阶段记录延迟直方图
+ *
+ * 行情阶段以行情接口收到行情的时间为起点,记录在行情所属接口下;委托阶段记录在发单接口下。
+ * 委托回报按报单编号在定长数组中匹配,不分配内存,编号相差超过数组长度的旧委托不再统计。
+ * 委托阶段的起点在调用报单请求之前登记,先于请求返回到达的回报也能匹配
+ *
+ * @author sun0x00@gmail.com
+ */
+public class GatewayLatency {
+
+	public final static int STAGE_TICK_EMIT = 0; // 收到行情 -> 发出行情事件
+	public final static int STAGE_TICK_DEQUEUE = 1; // 收到行情 -> 策略从队列取出
+	public final static int STAGE_TICK_TO_SEND = 2; // 收到行情 -> 策略发单到达接口
+	public final static int STAGE_SEND_TO_INSERT = 3; // 发单到达接口 -> 开始调用报单请求
+	public final static int STAGE_INSERT_TO_ORDER = 4; // 开始调用报单请求 -> 收到第一个委托回报
+	public final static int STAGE_INSERT_TO_TRADE = 5; // 开始调用报单请求 -> 收到第一个成交回报
+
+	private final static String[] STAGE_NAMES = { "tickEmit", "tickDequeue", "tickToSend", "sendToInsert",
+			"insertToOrder", "insertToTrade" };
+
+	private final static int ORDER_SLOT_COUNT = 8192; // 必须是2的幂
+	private final static int ORDER_SLOT_MASK = ORDER_SLOT_COUNT - 1;
+
+	private final static boolean enabled = BaseConfig.rtConfig.getBoolean("rt.latency.enabled", true);
+
+	private final static Map<String, GatewayLatency> gatewayLatencyMap = new ConcurrentHashMap<>();
+
+	private final String gatewayID;
+	private final LatencyHistogram[] histograms = new LatencyHistogram[STAGE_NAMES.length];
+
+	private final static long ORDER_RETURNED_FLAG = 1L;
+	private final static long TRADE_RETURNED_FLAG = 2L;
+
+	// 槽位状态为(报单编号 << 2) | 回报标志,写入状态即发布同一槽位的报单请求时间
+	private final AtomicLongArray orderSlotStates = new AtomicLongArray(ORDER_SLOT_COUNT);
+	private final AtomicLongArray insertNanos = new AtomicLongArray(ORDER_SLOT_COUNT);
+
+	private GatewayLatency(String gatewayID) {
+		this.gatewayID = gatewayID;
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * 是否开启延迟统计
+	 *
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 获取接口的延迟统计,不存在时创建
+	 *
+	 * @param gatewayID
+	 * @return
+	 */
+	public static GatewayLatency get(String gatewayID) {
+		GatewayLatency gatewayLatency = gatewayLatencyMap.get(gatewayID);
+		if (gatewayLatency == null) {
+			gatewayLatency = gatewayLatencyMap.computeIfAbsent(gatewayID, GatewayLatency::new);
+		}
+		return gatewayLatency;
+	}
+
+	/**
+	 * 获取所有接口的延迟统计摘要
+	 *
+	 * @return
+	 */
+	public static List<Map<String, Object>> getSummaryList() {
+		List<Map<String, Object>> summaryList = new ArrayList<>();
+		for (GatewayLatency gatewayLatency : gatewayLatencyMap.values()) {
+			summaryList.add(gatewayLatency.getSummary());
+		}
+		return summaryList;
+	}
+
+	/**
+	 * 记录阶段延迟
+	 *
+	 * @param stage
+	 * @param startNanos 起点System.nanoTime(),为0时不记录
+	 * @param endNanos
+	 */
+	public void record(int stage, long startNanos, long endNanos) {
+		if (startNanos != 0) {
+			histograms[stage].record(endNanos - startNanos);
+		}
+	}
+
+	/**
+	 * 即将调用报单请求,须在调用前登记,回报可能先于请求返回到达
+	 *
+	 * @param orderRef 大于0的报单编号
+	 * @param sendNanos 发单到达接口的时间
+	 * @param nanos 开始调用报单请求的时间
+	 */
+	public void orderInserting(int orderRef, long sendNanos, long nanos) {
+		record(STAGE_SEND_TO_INSERT, sendNanos, nanos);
+		int slot = orderRef & ORDER_SLOT_MASK;
+		insertNanos.set(slot, nanos);
+		orderSlotStates.set(slot, (long) orderRef << 2);
+	}
+
+	/**
+	 * 收到本会话的委托回报
+	 *
+	 * @param orderRef
+	 * @param nanos
+	 */
+	public void orderReturned(int orderRef, long nanos) {
+		returned(orderRef, nanos, 0L, ORDER_RETURNED_FLAG, STAGE_INSERT_TO_ORDER);
+	}
+
+	/**
+	 * 收到成交回报,只统计已收到本会话委托回报的委托
+	 *
+	 * @param orderRef
+	 * @param nanos
+	 */
+	public void tradeReturned(int orderRef, long nanos) {
+		returned(orderRef, nanos, ORDER_RETURNED_FLAG, TRADE_RETURNED_FLAG, STAGE_INSERT_TO_TRADE);
+	}
+
+	private void returned(int orderRef, long nanos, long requiredFlag, long flag, int stage) {
+		int slot = orderRef & ORDER_SLOT_MASK;
+		long state = orderSlotStates.get(slot);
+		if ((state >>> 2) != orderRef || (state & requiredFlag) != requiredFlag || (state & flag) != 0) {
+			return;
+		}
+		// 状态被其他线程修改或槽位被新委托占用时放弃,保证每个委托每个阶段只记录一次
+		long startNanos = insertNanos.get(slot);
+		if (orderSlotStates.compareAndSet(slot, state, state | flag)) {
+			record(stage, startNanos, nanos);
+		}
+	}
+
+	/**
+	 * 获取统计摘要,延迟单位为微秒
+	 *
+	 * @return
+	 */
+	public Map<String, Object> getSummary() {
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("gatewayID", gatewayID);
+		for (int i = 0; i < histograms.length; i++) {
+			LatencyHistogram histogram = histograms[i];
+			Map<String, Object> stageSummary = new LinkedHashMap<>();
+			stageSummary.put("count", histogram.getCount());
+			stageSummary.put("mean", histogram.getMean() / 1000);
+			stageSummary.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+			stageSummary.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+			stageSummary.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+			stageSummary.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+			stageSummary.put("max", histogram.getMax() / 1000.0);
+			summary.put(STAGE_NAMES[i], stageSummary);
+		}
+		return summary;
+	}
+
+	/**
+	 * 获取用于日志的统计摘要,延迟单位为微秒
+	 *
+	 * @return
+	 */
+	public String getSummaryString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < histograms.length; i++) {
+			LatencyHistogram histogram = histograms[i];
+			if (histogram.getCount() == 0) {
+				continue;
+			}
+			sb.append(String.format(" %s[count:%d p50:%.1f p99:%.1f p999:%.1f max:%.1f]", STAGE_NAMES[i],
+					histogram.getCount(), histogram.getValueAtPercentile(50) / 1000.0,
+					histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+					histogram.getMax() / 1000.0));
+		}
+		return sb.length() == 0 ? " 无记录" : sb.toString();
+	}
+
+	/**
+	 * 清空统计
+	 */
+	public void reset() {
+		for (LatencyHistogram histogram : histograms) {
+			histogram.reset();
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package xyz.redtorch.trader.gateway;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.redtorch.trader.base.BaseConfig;
+
+/**
+ * 所有接口共用的账户和持仓定时查询线程
+ *
+ * 同一接口两次查询之间至少间隔minInterval毫秒,符合CTP每秒一次查询的限制;账户和持仓交替查询,
+ * 上次查询后结果没有变化时查询间隔加倍,最大为maxInterval毫秒,结果变化后恢复为minInterval。
+ * 收到成交后在满足最小间隔的前提下立即查询一次持仓
+ *
+ * @author sun0x00@gmail.com
+ */
+public class GatewayQueryScheduler implements Runnable {
+
+	private static Logger log = LoggerFactory.getLogger(GatewayQueryScheduler.class);
+
+	private final static GatewayQueryScheduler instance = new GatewayQueryScheduler(
+			BaseConfig.rtConfig.getInt("rt.gateway.query.min.interval", 1000),
+			BaseConfig.rtConfig.getInt("rt.gateway.query.max.interval", 16000));
+
+	/**
+	 * 单个接口的查询状态
+	 */
+	public static class QueryState {
+		private final Gateway gateway;
+
+		private volatile boolean accountChanged = true; // 上次查询账户后结果是否变化
+		private volatile boolean positionChanged = true; // 上次查询持仓后结果是否变化
+		private volatile boolean positionQueryRequested = false; // 收到成交后请求立即查询持仓
+
+		// 以下字段只在查询线程中访问
+		private long lastQueryMillis = 0L;
+		private long accountInterval;
+		private long positionInterval;
+		private long nextAccountMillis = 0L;
+		private long nextPositionMillis = 0L;
+		private boolean connected = false;
+
+		private QueryState(Gateway gateway, long minInterval) {
+			this.gateway = gateway;
+			this.accountInterval = minInterval;
+			this.positionInterval = minInterval;
+		}
+
+		/**
+		 * 账户查询结果发生变化
+		 */
+		public void markAccountChanged() {
+			accountChanged = true;
+		}
+
+		/**
+		 * 持仓查询结果发生变化
+		 */
+		public void markPositionChanged() {
+			positionChanged = true;
+		}
+
+		/**
+		 * 请求尽快查询持仓,之后按最小间隔查询一次账户
+		 */
+		public void requestPositionQuery() {
+			positionQueryRequested = true;
+			instance.wakeUp();
+		}
+	}
+
+	private final long minInterval;
+	private final long maxInterval;
+
+	private final Map<String, QueryState> queryStateMap = new ConcurrentHashMap<>();
+
+	private volatile Thread queryThread;
+
+	private GatewayQueryScheduler(long minInterval, long maxInterval) {
+		this.minInterval = Math.max(1, minInterval);
+		this.maxInterval = Math.max(this.minInterval, maxInterval);
+	}
+
+	public static GatewayQueryScheduler getInstance() {
+		return instance;
+	}
+
+	/**
+	 * 注册接口,首次注册时启动查询线程
+	 *
+	 * @param gateway
+	 * @return 接口的查询状态
+	 */
+	public QueryState register(Gateway gateway) {
+		QueryState queryState = new QueryState(gateway, minInterval);
+		queryStateMap.put(gateway.getGatewayID(), queryState);
+		startIfNecessary();
+		wakeUp();
+		return queryState;
+	}
+
+	/**
+	 * 注销接口,停止查询
+	 *
+	 * 只删除注册时返回的查询状态,同一gatewayID的新接口实例已经注册时不受影响
+	 *
+	 * @param queryState
+	 */
+	public void unregister(QueryState queryState) {
+		queryStateMap.remove(queryState.gateway.getGatewayID(), queryState);
+	}
+
+	private synchronized void startIfNecessary() {
+		if (queryThread == null) {
+			Thread thread = new Thread(this, "GATEWAY-QUERY");
+			thread.setDaemon(true);
+			queryThread = thread;
+			thread.start();
+		}
+	}
+
+	private void wakeUp() {
+		Thread thread = queryThread;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	@Override
+	public void run() {
+		while (!Thread.currentThread().isInterrupted()) {
+			long nowMillis = System.currentTimeMillis();
+			long nextWakeMillis = nowMillis + maxInterval;
+			for (QueryState queryState : queryStateMap.values()) {
+				try {
+					nextWakeMillis = Math.min(nextWakeMillis, query(queryState, nowMillis));
+				} catch (Exception e) {
+					log.error("{} 定时查询发生异常", queryState.gateway.getGatewayLogInfo(), e);
+				}
+			}
+			long parkMillis = nextWakeMillis - System.currentTimeMillis();
+			if (parkMillis > 0) {
+				LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(parkMillis));
+			}
+		}
+	}
+
+	/**
+	 * 按需查询一次
+	 *
+	 * @param queryState
+	 * @param nowMillis
+	 * @return 下次需要检查此接口的时间
+	 */
+	private long query(QueryState queryState, long nowMillis) {
+		if (!queryState.gateway.isConnected()) {
+			if (queryState.connected) {
+				// 断线后重新连接时立即按最小间隔查询
+				queryState.connected = false;
+				queryState.accountInterval = minInterval;
+				queryState.positionInterval = minInterval;
+				queryState.nextAccountMillis = 0L;
+				queryState.nextPositionMillis = 0L;
+			}
+			return nowMillis + minInterval;
+		}
+		queryState.connected = true;
+
+		long earliestMillis = queryState.lastQueryMillis + minInterval;
+		if (nowMillis < earliestMillis) {
+			return earliestMillis;
+		}
+
+		boolean positionDue = queryState.positionQueryRequested || nowMillis >= queryState.nextPositionMillis;
+		boolean accountDue = nowMillis >= queryState.nextAccountMillis;
+		if (positionDue && (queryState.positionQueryRequested || !accountDue
+				|| queryState.nextPositionMillis <= queryState.nextAccountMillis)) {
+			if (queryState.positionQueryRequested) {
+				// 成交同时改变账户资金
+				queryState.positionQueryRequested = false;
+				queryState.accountInterval = minInterval;
+				queryState.nextAccountMillis = Math.min(queryState.nextAccountMillis, nowMillis + minInterval);
+			}
+			queryState.positionInterval = nextInterval(queryState.positionInterval, queryState.positionChanged);
+			queryState.positionChanged = false;
+			queryState.nextPositionMillis = nowMillis + queryState.positionInterval;
+			queryState.lastQueryMillis = nowMillis;
+			queryState.gateway.queryPosition();
+		} else if (accountDue) {
+			queryState.accountInterval = nextInterval(queryState.accountInterval, queryState.accountChanged);
+			queryState.accountChanged = false;
+			queryState.nextAccountMillis = nowMillis + queryState.accountInterval;
+			queryState.lastQueryMillis = nowMillis;
+			queryState.gateway.queryAccount();
+		} else {
+			return Math.min(queryState.nextAccountMillis, queryState.nextPositionMillis);
+		}
+		return nowMillis + minInterval;
+	}
+
+	private long nextInterval(long interval, boolean changed) {
+		if (changed) {
+			return minInterval;
+		}
+		return Math.min(interval * 2, maxInterval);
+	}
+}
@@ -1,7 +1,11 @@
 package xyz.redtorch.trader.gateway.ctp;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,18 +57,33 @@ public class CtpGateway extends GatewayAbstract {
 	public HashMap<String, Integer> getContractSizeMap() {
 		return contractSizeMap;
 	}
-	
+	
 	@Override
 	public void subscribe(SubscribeReq subscribeReq) {
-		subscribedSymbols.add(subscribeReq.getSymbol());
-		if(mdSpi!=null) {
-			mdSpi.subscribe(subscribeReq.getSymbol());
+		subscribe(Collections.singletonList(subscribeReq));
+	}
+
+	@Override
+	public void subscribe(Collection<SubscribeReq> subscribeReqs) {
+		// 只订阅尚未订阅的合约,未连接时只记录,登录后统一订阅
+		List<String> newSymbols = new ArrayList<>();
+		synchronized (subscribedSymbols) {
+			for (SubscribeReq subscribeReq : subscribeReqs) {
+				if (subscribedSymbols.add(subscribeReq.getSymbol())) {
+					newSymbols.add(subscribeReq.getSymbol());
+				}
+			}
+		}
+		if(mdSpi!=null && !newSymbols.isEmpty()) {
+			mdSpi.subscribe(newSymbols);
 		}
 	}
 
 	@Override
 	public void unSubscribe(String rtSymbol) {
-		subscribedSymbols.remove(rtSymbol);
+		synchronized (subscribedSymbols) {
+			subscribedSymbols.remove(rtSymbol);
+		}
 		if(mdSpi!=null) {
 			mdSpi.unSubscribe(rtSymbol);
 		}
@@ -72,6 +91,7 @@ public class CtpGateway extends GatewayAbstract {
 
 	@Override
 	public void connect() {
+		registerQuery();
 		if(tdSpi!=null) {
 			tdSpi.connect();
 		}
@@ -82,12 +102,14 @@ public class CtpGateway extends GatewayAbstract {
 
 	@Override
 	public void close() {
+		unregisterQuery();
 		if(tdSpi!=null) {
 			tdSpi.close();
 		}
 		if(mdSpi!=null) {
 			mdSpi.close();
 		}
+		log.info("{}延迟统计(微秒):{}", gatewayLogInfo, gatewayLatency.getSummaryString());
 
 	}
 
@@ -3,11 +3,14 @@ package xyz.redtorch.trader.gateway.ctp;
 import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,8 +23,8 @@ import xyz.redtorch.api.jctp.md.CThostFtdcRspInfoField;
 import xyz.redtorch.api.jctp.md.CThostFtdcRspUserLoginField;
 import xyz.redtorch.api.jctp.md.CThostFtdcSpecificInstrumentField;
 import xyz.redtorch.api.jctp.md.CThostFtdcUserLogoutField;
-import xyz.redtorch.trader.base.RtConstant;
 import xyz.redtorch.trader.entity.Tick;
+import xyz.redtorch.trader.gateway.GatewayLatency;
 
 /**
  * @author sun0x00@gmail.com
@@ -30,6 +33,9 @@ public class MdSpi extends CThostFtdcMdSpi {
 	
 	Logger log = LoggerFactory.getLogger(MdSpi.class);
 	
+	// 单次SubscribeMarketData调用的合约数量上限
+	private static final int SUBSCRIBE_BATCH_SIZE = 500;
+
 	private CtpGateway ctpGateway;
 	private String mdAddress;
 	//private String tdAddress;
@@ -45,6 +51,7 @@ public class MdSpi extends CThostFtdcMdSpi {
 	private String tradingDay;
 	
 	private HashMap<String, String> contractExchangeMap;
+	private TickTimeDecoder tickTimeDecoder = new TickTimeDecoder(); // 只在行情回调线程中使用
 	//private HashMap<String, Integer> contractSizeMap;
 	
 	MdSpi(CtpGateway ctpGateway){
@@ -147,15 +154,13 @@ public class MdSpi extends CThostFtdcMdSpi {
 	}
 	
 	/**
-	 * 订阅行情
+	 * 批量订阅行情,按SUBSCRIBE_BATCH_SIZE分批调用
 	 * 
-	 * @param rtSymbol
+	 * @param symbols
 	 */
-	public void subscribe(String symbol) {
+	public void subscribe(Collection<String> symbols) {
 		if(isConnected()) {
-			String[] symbolArray = new String[1];
-			symbolArray[0] = symbol;
-			cThostFtdcMdApi.SubscribeMarketData(symbolArray, 1);
+			subscribeMarketData(symbols);
 		}else {
 			String logContent = gatewayLogInfo + "无法订阅行情,行情服务器尚未连接成功";
 			log.warn(logContent);
@@ -178,6 +183,16 @@ public class MdSpi extends CThostFtdcMdSpi {
 		}
 	}
 
+	private void subscribeMarketData(Collection<String> symbols) {
+		List<String> symbolList = new ArrayList<>(symbols);
+		for (int from = 0; from < symbolList.size(); from += SUBSCRIBE_BATCH_SIZE) {
+			int to = Math.min(from + SUBSCRIBE_BATCH_SIZE, symbolList.size());
+			String[] symbolArray = symbolList.subList(from, to).toArray(new String[to - from]);
+			cThostFtdcMdApi.SubscribeMarketData(symbolArray, symbolArray.length);
+		}
+		log.info("{}发送订阅请求,合约数量:{}", gatewayLogInfo, symbolList.size());
+	}
+
 	private void login() {
 		if(StringUtils.isEmpty(brokerID)
 				||StringUtils.isEmpty(userID)
@@ -212,6 +227,8 @@ public class MdSpi extends CThostFtdcMdSpi {
 		log.info(logContent);
 		ctpGateway.emitInfoLog(logContent);
 		this.connectionStatus = false;
+		// 重连登录后会重新订阅,等待新的回报
+		ctpGateway.getConfirmedSubscribedSymbols().clear();
 	}
 
 	// 登录回报
@@ -226,9 +243,12 @@ public class MdSpi extends CThostFtdcMdSpi {
 			tradingDay = pRspUserLogin.getTradingDay();
 			log.info("{}获取到的交易日为{}", gatewayLogInfo,tradingDay);
 			// 重新订阅之前的合约
-			if (!ctpGateway.getSubscribedSymbols().isEmpty()) {
-				String[] subscribedSymbolsArray = ctpGateway.getSubscribedSymbols().toArray(new String[ctpGateway.getSubscribedSymbols().size()]);
-				cThostFtdcMdApi.SubscribeMarketData(subscribedSymbolsArray, subscribedSymbolsArray.length + 1);
+			List<String> subscribedSymbolList;
+			synchronized (ctpGateway.getSubscribedSymbols()) {
+				subscribedSymbolList = new ArrayList<>(ctpGateway.getSubscribedSymbols());
+			}
+			if (!subscribedSymbolList.isEmpty()) {
+				subscribeMarketData(subscribedSymbolList);
 			}
 		} else {
 			log.warn("{}行情接口登录回报错误! ErrorID:{},ErrorMsg:{}", gatewayLogInfo, pRspInfo.getErrorID(),
@@ -269,10 +289,19 @@ public class MdSpi extends CThostFtdcMdSpi {
 	// 订阅合约回报
 	public void OnRspSubMarketData(CThostFtdcSpecificInstrumentField pSpecificInstrument,
 			CThostFtdcRspInfoField pRspInfo, int nRequestID, boolean bIsLast) {
-		if (pRspInfo.getErrorID() != 0) {
+		if (pRspInfo == null || pRspInfo.getErrorID() == 0) {
+			ctpGateway.getConfirmedSubscribedSymbols().add(pSpecificInstrument.getInstrumentID());
 			log.info("{}OnRspSubMarketData! 订阅合约成功:{}", gatewayLogInfo, pSpecificInstrument.getInstrumentID());
 		} else {
-			log.warn("{}OnRspSubMarketData! ErrorID:{},ErrorMsg:{}", gatewayLogInfo, pRspInfo.getErrorID(),
+			// 订阅失败的合约从已订阅集合中移除,之后可以重新订阅
+			if (pSpecificInstrument != null) {
+				HashSet<String> subscribedSymbols = ctpGateway.getSubscribedSymbols();
+				synchronized (subscribedSymbols) {
+					subscribedSymbols.remove(pSpecificInstrument.getInstrumentID());
+				}
+			}
+			log.warn("{}OnRspSubMarketData! 订阅合约失败:{},ErrorID:{},ErrorMsg:{}", gatewayLogInfo,
+					pSpecificInstrument == null ? null : pSpecificInstrument.getInstrumentID(), pRspInfo.getErrorID(),
 					pRspInfo.getErrorMsg());
 		}
 	}
@@ -280,7 +309,8 @@ public class MdSpi extends CThostFtdcMdSpi {
 	// 退订合约回报
 	public void OnRspUnSubMarketData(CThostFtdcSpecificInstrumentField pSpecificInstrument,
 			CThostFtdcRspInfoField pRspInfo, int nRequestID, boolean bIsLast) {
-		if (pRspInfo.getErrorID() != 0) {
+		if (pRspInfo == null || pRspInfo.getErrorID() == 0) {
+			ctpGateway.getConfirmedSubscribedSymbols().remove(pSpecificInstrument.getInstrumentID());
 			log.info("{}OnRspUnSubMarketData! 退订合约成功:{}", gatewayLogInfo, pSpecificInstrument.getInstrumentID());
 		} else {
 			log.warn("{}OnRspUnSubMarketData! ErrorID:{},ErrorMsg:{}", gatewayLogInfo, pRspInfo.getErrorID(),
@@ -292,8 +322,8 @@ public class MdSpi extends CThostFtdcMdSpi {
 	public void OnRtnDepthMarketData(CThostFtdcDepthMarketDataField pDepthMarketData) {
 		if (pDepthMarketData != null) {
 			
-			//T2T Test
-			//System.out.println("T2T-Tick-"+System.nanoTime());
+			// 延迟统计起点
+			long receivedNanos = GatewayLatency.isEnabled() ? System.nanoTime() : 0L;
 			
 			String symbol = pDepthMarketData.getInstrumentID();
 			
@@ -315,37 +345,16 @@ public class MdSpi extends CThostFtdcMdSpi {
 			// 上期所 郑商所正常，大商所错误
 			//TODO 大商所时间修正
 			tick.setActionDay(pDepthMarketData.getActionDay());
-			Long updateTime = Long.valueOf(pDepthMarketData.getUpdateTime().replaceAll(":",""));
-			Long updateMillisec = (long)pDepthMarketData.getUpdateMillisec();
-			Long actionDay = Long.valueOf(tick.getActionDay());
-			
-			String updateDateTimeWithMS = (actionDay*100*100*100*1000+updateTime*1000+updateMillisec)+"";
-			
-//			if(pDepthMarketData.getUpdateMillisec()<10) {
-//				updateDateTimeWithMS = updateDateTimeWithMS+"00"+pDepthMarketData.getUpdateMillisec();
-//			}else if(pDepthMarketData.getUpdateMillisec()<100) {
-//				updateDateTimeWithMS = updateDateTimeWithMS+"0"+pDepthMarketData.getUpdateMillisec();
-//			}else {
-//				updateDateTimeWithMS = updateDateTimeWithMS+""+pDepthMarketData.getUpdateMillisec();
-//			}
-//			
-//			if(updateDateTimeWithMS.length() == 8) {
-//				updateDateTimeWithMS = tick.getActionDay()+"0"+updateDateTimeWithMS;
-//			}else {
-//				updateDateTimeWithMS = tick.getActionDay()+updateDateTimeWithMS;
-//			}
-			
-			
-			DateTime dateTime;
+			// 只计算epoch毫秒,actionTime和DateTime在读取时才生成
+			long actionTimestamp;
 			try {
-				dateTime = RtConstant.DT_FORMAT_WITH_MS_INT_Formatter.parseDateTime(updateDateTimeWithMS);
+				actionTimestamp = tickTimeDecoder.decode(pDepthMarketData.getActionDay(),
+						pDepthMarketData.getUpdateTime(), pDepthMarketData.getUpdateMillisec());
 			}catch(Exception e) {
 				log.error("{}解析日期发生异常",gatewayLogInfo,e);
 				return;
 			}
-			tick.setActionTime(dateTime.toString(RtConstant.T_FORMAT_WITH_MS_INT_Formatter));
-			
-			tick.setDateTime(dateTime);
+			tick.setActionTimestamp(actionTimestamp);
 			
 			tick.setOpenPrice(pDepthMarketData.getOpenPrice());
 			tick.setHighPrice(pDepthMarketData.getHighestPrice());
@@ -361,6 +370,7 @@ public class MdSpi extends CThostFtdcMdSpi {
 			tick.setAskVolume1(pDepthMarketData.getAskVolume1());
 			tick.setBidPrice1(pDepthMarketData.getBidPrice1());
 			tick.setBidVolume1(pDepthMarketData.getBidVolume1());
+			tick.setReceivedNanos(receivedNanos);
 			
 			
 			ctpGateway.emitTick(tick);
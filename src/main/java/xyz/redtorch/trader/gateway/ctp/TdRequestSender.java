@@ -0,0 +1,194 @@
+package xyz.redtorch.trader.gateway.ctp;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 交易接口报单请求发送线程
+ *
+ * 各线程提交的报单、撤单请求进入无锁队列,由一个线程按提交顺序发送,
+ * 发送前经过令牌桶流控(每秒rate个,最多积累burst个),避免突发请求超过期货公司的每秒报单限制被拒绝,
+ * 发送失败或停止时未发送的请求通过onFailed通知提交方
+ *
+ * @author sun0x00@gmail.com
+ */
+class TdRequestSender implements Runnable {
+
+	private static Logger log = LoggerFactory.getLogger(TdRequestSender.class);
+
+	/**
+	 * 报单请求,在发送线程中执行
+	 */
+	interface TdRequest {
+		/**
+		 * @return CTP请求返回值,0为成功
+		 */
+		int send();
+
+		String getDescription();
+
+		/**
+		 * 请求发送失败或停止时被丢弃,在发送线程或停止线程中调用,每个请求最多调用一次
+		 *
+		 * @param reason
+		 */
+		void onFailed(String reason);
+	}
+
+	private final String gatewayLogInfo;
+	private final Queue<TdRequest> requestQueue = new ConcurrentLinkedQueue<>();
+
+	private final double rate; // 每秒令牌数
+	private final double burst; // 令牌桶容量
+	private double tokens;
+	private long lastRefillNanos;
+
+	private volatile Thread senderThread;
+	private volatile boolean stopped = false;
+
+	/**
+	 * @param gatewayLogInfo
+	 * @param rate 每秒最多发送的请求数
+	 * @param burst 最多可连续发送的请求数
+	 */
+	TdRequestSender(String gatewayLogInfo, double rate, int burst) {
+		this.gatewayLogInfo = gatewayLogInfo;
+		this.rate = rate;
+		this.burst = Math.max(1, burst);
+		this.tokens = this.burst;
+		this.lastRefillNanos = System.nanoTime();
+	}
+
+	/**
+	 * 提交请求,不阻塞,已停止时请求立即按失败处理
+	 *
+	 * @param tdRequest
+	 */
+	void submit(TdRequest tdRequest) {
+		requestQueue.offer(tdRequest);
+		if (stopped) {
+			// 与stop并发时由先取到请求的一方处理,不会重复通知
+			failPending();
+			return;
+		}
+		Thread thread = senderThread;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * 启动守护发送线程
+	 *
+	 * @param threadName
+	 */
+	void start(String threadName) {
+		Thread thread = new Thread(this, threadName);
+		thread.setDaemon(true);
+		senderThread = thread;
+		thread.start();
+	}
+
+	@Override
+	public void run() {
+		while (!stopped) {
+			TdRequest tdRequest = requestQueue.poll();
+			if (tdRequest == null) {
+				// 提交时会唤醒,超时只是兜底
+				LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+				continue;
+			}
+			acquireToken();
+			if (stopped) {
+				// 等待令牌期间已停止,不再发送
+				requestQueue.offer(tdRequest);
+				break;
+			}
+			try {
+				int result = tdRequest.send();
+				if (result != 0) {
+					log.error("{}发送请求失败,返回值:{},请求:{}", gatewayLogInfo, result, tdRequest.getDescription());
+					fail(tdRequest, "发送请求失败,返回值:" + result);
+				}
+			} catch (Throwable t) {
+				log.error("{}发送请求发生异常,请求:{}", gatewayLogInfo, tdRequest.getDescription(), t);
+				fail(tdRequest, "发送请求发生异常:" + t.getMessage());
+			}
+		}
+	}
+
+	private void acquireToken() {
+		while (true) {
+			long now = System.nanoTime();
+			tokens = Math.min(burst, tokens + (now - lastRefillNanos) * rate / 1e9);
+			lastRefillNanos = now;
+			if (tokens >= 1) {
+				tokens -= 1;
+				return;
+			}
+			long waitNanos = (long) ((1 - tokens) * 1e9 / rate);
+			LockSupport.parkNanos(this, waitNanos);
+		}
+	}
+
+	/**
+	 * 停止发送线程并等待正在发送的请求返回,未发送的请求按失败处理
+	 *
+	 * @param timeoutMillis 最长等待时间,毫秒
+	 * @return 发送线程已退出返回true
+	 */
+	boolean stop(long timeoutMillis) {
+		stopped = true;
+		Thread thread = senderThread;
+		boolean terminated = true;
+		if (thread != null && thread != Thread.currentThread()) {
+			LockSupport.unpark(thread);
+			try {
+				thread.join(timeoutMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			terminated = !thread.isAlive();
+			if (!terminated) {
+				log.error("{}发送线程在{}毫秒内未退出", gatewayLogInfo, timeoutMillis);
+			}
+		}
+		int failedCount = failPending();
+		if (failedCount > 0) {
+			log.warn("{}发送线程停止,丢弃{}个未发送的请求", gatewayLogInfo, failedCount);
+		}
+		return terminated;
+	}
+
+	private int failPending() {
+		int failedCount = 0;
+		TdRequest tdRequest;
+		while ((tdRequest = requestQueue.poll()) != null) {
+			fail(tdRequest, "发送线程已停止,请求未发送");
+			failedCount++;
+		}
+		return failedCount;
+	}
+
+	private void fail(TdRequest tdRequest, String reason) {
+		try {
+			tdRequest.onFailed(reason);
+		} catch (Throwable t) {
+			log.error("{}处理发送失败的请求发生异常,请求:{}", gatewayLogInfo, tdRequest.getDescription(), t);
+		}
+	}
+
+	/**
+	 * 待发送请求数
+	 *
+	 * @return
+	 */
+	int getPendingCount() {
+		return requestQueue.size();
+	}
+}
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -108,6 +109,7 @@ import xyz.redtorch.api.jctp.trader.CThostFtdcTransferSerialField;
 import xyz.redtorch.api.jctp.trader.CThostFtdcUserLogoutField;
 import xyz.redtorch.api.jctp.trader.CThostFtdcUserPasswordUpdateField;
 import xyz.redtorch.api.jctp.trader.jctptraderapiv6v3v11x64Constants;
+import xyz.redtorch.trader.base.BaseConfig;
 import xyz.redtorch.trader.base.RtConstant;
 import xyz.redtorch.trader.entity.Account;
 import xyz.redtorch.trader.entity.CancelOrderReq;
@@ -116,6 +118,7 @@ import xyz.redtorch.trader.entity.Order;
 import xyz.redtorch.trader.entity.OrderReq;
 import xyz.redtorch.trader.entity.Position;
 import xyz.redtorch.trader.entity.Trade;
+import xyz.redtorch.trader.gateway.GatewayLatency;
 
 /**
  * @author sun0x00@gmail.com
@@ -158,15 +161,19 @@ public class TdSpi extends CThostFtdcTraderSpi {
 
 	}
 
-	private CThostFtdcTraderApi cThostFtdcTraderApi;
+	private volatile CThostFtdcTraderApi cThostFtdcTraderApi;
 
 	private boolean connectProcessStatus = false; // 避免重复调用
 	private boolean connectionStatus = false; // 前置机连接状态
 	private boolean loginStatus = false; // 登陆状态
 	private String tradingDayStr;
 
-	private volatile int reqID = 0; // 操作请求编号
-	private volatile int orderRef = 0; // 订单编号
+	private AtomicInteger reqID = new AtomicInteger(0); // 操作请求编号
+	private AtomicInteger orderRef = new AtomicInteger(0); // 订单编号
+	private final Object orderRefLock = new Object();
+
+	// 报单撤单请求发送线程,连接时启动,关闭时停止
+	private volatile TdRequestSender tdRequestSender;
 
 	private boolean authStatus = false; // 验证状态
 	private boolean loginFailed = false; // 是否已经使用错误的信息尝试登录过
@@ -188,6 +195,8 @@ public class TdSpi extends CThostFtdcTraderSpi {
 			return;
 		}
 		if (cThostFtdcTraderApi != null) {
+			// 释放接口前须确保发送线程不再使用旧接口
+			stopRequestSender();
 			cThostFtdcTraderApi.Release();
 			cThostFtdcTraderApi.delete();
 			connectionStatus = false;
@@ -213,6 +222,23 @@ public class TdSpi extends CThostFtdcTraderSpi {
 		cThostFtdcTraderApi.Init();
 		connectProcessStatus = true;
 
+		if (tdRequestSender == null) {
+			int orderRate = BaseConfig.rtConfig.getInt("rt.gateway.ctp.order.flow.rate", 6);
+			int orderBurst = BaseConfig.rtConfig.getInt("rt.gateway.ctp.order.flow.burst", 6);
+			TdRequestSender newTdRequestSender = new TdRequestSender(gatewayLogInfo, orderRate, orderBurst);
+			newTdRequestSender.start("TD-SENDER-" + gatewayID);
+			tdRequestSender = newTdRequestSender;
+			log.info("{}报单发送线程已启动,每秒{}个请求,最多连续{}个", gatewayLogInfo, orderRate, orderBurst);
+		}
+
+	}
+
+	private void stopRequestSender() {
+		TdRequestSender tdRequestSender = this.tdRequestSender;
+		if (tdRequestSender != null) {
+			this.tdRequestSender = null;
+			tdRequestSender.stop(BaseConfig.rtConfig.getInt("rt.gateway.ctp.sender.stop.timeout", 3000));
+		}
 	}
 
 	/**
@@ -223,6 +249,9 @@ public class TdSpi extends CThostFtdcTraderSpi {
 			return;
 		}
 
+		// 等待发送线程退出后再释放接口,避免本地调用访问已释放的对象
+		stopRequestSender();
+
 		if (cThostFtdcTraderApi != null) {
 			cThostFtdcTraderApi.Release();
 			cThostFtdcTraderApi.delete();
@@ -260,8 +289,7 @@ public class TdSpi extends CThostFtdcTraderSpi {
 			return;
 		}
 		CThostFtdcQryTradingAccountField cThostFtdcQryTradingAccountField = new CThostFtdcQryTradingAccountField();
-		reqID +=1;
-		cThostFtdcTraderApi.ReqQryTradingAccount(cThostFtdcQryTradingAccountField, reqID);	
+		cThostFtdcTraderApi.ReqQryTradingAccount(cThostFtdcQryTradingAccountField, reqID.incrementAndGet());	
 	}
 	/**
 	 * 查询持仓
@@ -271,13 +299,12 @@ public class TdSpi extends CThostFtdcTraderSpi {
 			log.info("{}尚未初始化,无法查询持仓",gatewayLogInfo);
 			return;
 		}
-		reqID +=1;
 		
 		CThostFtdcQryInvestorPositionField cThostFtdcQryInvestorPositionField = new CThostFtdcQryInvestorPositionField();
 		//log.info("查询持仓");
 		cThostFtdcQryInvestorPositionField.setBrokerID(brokerID);
 		cThostFtdcQryInvestorPositionField.setInvestorID(userID);
-		cThostFtdcTraderApi.ReqQryInvestorPosition(cThostFtdcQryInvestorPositionField, reqID);
+		cThostFtdcTraderApi.ReqQryInvestorPosition(cThostFtdcQryInvestorPositionField, reqID.incrementAndGet());
 	}
 	
 	/**
@@ -286,12 +313,16 @@ public class TdSpi extends CThostFtdcTraderSpi {
 	 * @return
 	 */
 	public String sendOrder(OrderReq orderReq) {
-		if(cThostFtdcTraderApi == null) {
+		long sendNanos = GatewayLatency.isEnabled() ? System.nanoTime() : 0L;
+		GatewayLatency gatewayLatency = ctpGateway.getGatewayLatency();
+		gatewayLatency.record(GatewayLatency.STAGE_TICK_TO_SEND, orderReq.getOriginNanos(), sendNanos);
+		TdRequestSender tdRequestSender = this.tdRequestSender;
+		// 请求使用创建时的接口实例,重连后不会使用新接口发送旧请求
+		CThostFtdcTraderApi traderApi = this.cThostFtdcTraderApi;
+		if(traderApi == null || tdRequestSender == null) {
 			log.info("{}尚未初始化，无法发单",gatewayLogInfo);
 			return null;
 		}
-		reqID+=1;
-		orderRef+=1;
 		CThostFtdcInputOrderField cThostFtdcInputOrderField = new CThostFtdcInputOrderField();
 		
 		cThostFtdcInputOrderField.setInstrumentID(orderReq.getSymbol());
@@ -301,7 +332,6 @@ public class TdSpi extends CThostFtdcTraderSpi {
 		cThostFtdcInputOrderField.setOrderPriceType(CtpConstant.priceTypeMap.getOrDefault(orderReq.getPriceType(),Character.valueOf('\0')));
 		cThostFtdcInputOrderField.setDirection(CtpConstant.directionMap.getOrDefault(orderReq.getDirection(),Character.valueOf('\0')));
 		cThostFtdcInputOrderField.setCombOffsetFlag(String.valueOf(CtpConstant.offsetMap.getOrDefault(orderReq.getOffset(),Character.valueOf('\0'))));
-		cThostFtdcInputOrderField.setOrderRef(orderRef+"");
 		cThostFtdcInputOrderField.setInvestorID(userID);
 		cThostFtdcInputOrderField.setUserID(userID);
 		cThostFtdcInputOrderField.setBrokerID(brokerID);
@@ -325,9 +355,34 @@ public class TdSpi extends CThostFtdcTraderSpi {
 			cThostFtdcInputOrderField.setVolumeCondition(jctptraderapiv6v3v11x64Constants.THOST_FTDC_VC_CV);
 		}
 		
-		cThostFtdcTraderApi.ReqOrderInsert(cThostFtdcInputOrderField, reqID);
-		//System.out.println("T2T-Trade-"+System.nanoTime());
-		String rtOrderID = gatewayID+"."+orderRef;
+		// CTP要求同一会话的报单编号递增,分配编号和入队须保持相同顺序
+		String rtOrderID;
+		synchronized (orderRefLock) {
+			int newOrderRefValue = orderRef.incrementAndGet();
+			String newOrderRef = String.valueOf(newOrderRefValue);
+			cThostFtdcInputOrderField.setOrderRef(newOrderRef);
+			rtOrderID = gatewayID + "." + newOrderRef;
+			tdRequestSender.submit(new TdRequestSender.TdRequest() {
+				@Override
+				public int send() {
+					if (sendNanos != 0) {
+						gatewayLatency.orderInserting(newOrderRefValue, sendNanos, System.nanoTime());
+					}
+					return traderApi.ReqOrderInsert(cThostFtdcInputOrderField, reqID.incrementAndGet());
+				}
+
+				@Override
+				public String getDescription() {
+					return "报单" + cThostFtdcInputOrderField.getOrderRef();
+				}
+
+				@Override
+				public void onFailed(String reason) {
+					// 报单未到达柜台,不会再有回报,以拒单通知策略清除活动委托
+					emitRejectedOrder(orderReq, newOrderRef, reason);
+				}
+			});
+		}
 		
 		return rtOrderID;
 	}
@@ -335,11 +390,12 @@ public class TdSpi extends CThostFtdcTraderSpi {
 	// 撤单
 	public void cancelOrder(CancelOrderReq cancelOrderReq) {
 
-		if(cThostFtdcTraderApi == null) {
+		TdRequestSender tdRequestSender = this.tdRequestSender;
+		CThostFtdcTraderApi traderApi = this.cThostFtdcTraderApi;
+		if(traderApi == null || tdRequestSender == null) {
 			log.info("{}尚未初始化,无法撤单",gatewayLogInfo);
 			return;
 		}
-		reqID+=1;
 		CThostFtdcInputOrderActionField cThostFtdcInputOrderActionField = new CThostFtdcInputOrderActionField();
 		
 		cThostFtdcInputOrderActionField.setInstrumentID(cancelOrderReq.getSymbol());
@@ -352,7 +408,51 @@ public class TdSpi extends CThostFtdcTraderSpi {
 		cThostFtdcInputOrderActionField.setBrokerID(brokerID);
 		cThostFtdcInputOrderActionField.setInvestorID(userID);
 		
-		cThostFtdcTraderApi.ReqOrderAction(cThostFtdcInputOrderActionField, reqID);
+		tdRequestSender.submit(new TdRequestSender.TdRequest() {
+			@Override
+			public int send() {
+				return traderApi.ReqOrderAction(cThostFtdcInputOrderActionField, reqID.incrementAndGet());
+			}
+
+			@Override
+			public String getDescription() {
+				return "撤单" + cThostFtdcInputOrderActionField.getOrderRef();
+			}
+
+			@Override
+			public void onFailed(String reason) {
+				String logContent = MessageFormat.format("{0}撤单{1}未发送:{2}", gatewayLogInfo,
+						cThostFtdcInputOrderActionField.getOrderRef(), reason);
+				ctpGateway.emitErrorLog(logContent);
+			}
+		});
+	}
+
+	/**
+	 * 报单未能发送到柜台时发送拒单委托
+	 * 
+	 * @param orderReq
+	 * @param orderRef
+	 * @param reason
+	 */
+	private void emitRejectedOrder(OrderReq orderReq, String orderRef, String reason) {
+		Order order = new Order();
+		order.setGatewayID(gatewayID);
+		order.setSymbol(orderReq.getSymbol());
+		order.setExchange(orderReq.getExchange());
+		order.setRtSymbol(orderReq.getRtSymbol());
+		order.setOrderID(orderRef);
+		order.setRtOrderID(gatewayID + "." + orderRef);
+		order.setDirection(orderReq.getDirection());
+		order.setOffset(orderReq.getOffset());
+		order.setStatus(RtConstant.STATUS_REJECTED);
+		order.setPrice(orderReq.getPrice());
+		order.setTotalVolume(orderReq.getVolume());
+
+		ctpGateway.emitOrder(order);
+		String logContent = MessageFormat.format("{0}报单{1}未发送,按拒单处理:{2}", gatewayLogInfo, orderRef, reason);
+		log.error(logContent);
+		ctpGateway.emitErrorLog(logContent);
 	}
 	
 	private void login() {
@@ -376,8 +476,7 @@ public class TdSpi extends CThostFtdcTraderSpi {
 			authenticateField.setUserID(userID);
 			authenticateField.setBrokerID(brokerID);
 			authenticateField.setUserProductInfo(userProductInfo);
-			reqID += 1;
-			cThostFtdcTraderApi.ReqAuthenticate(authenticateField, reqID);
+			cThostFtdcTraderApi.ReqAuthenticate(authenticateField, reqID.incrementAndGet());
 		} else {
 			// 登录
 			CThostFtdcReqUserLoginField userLoginField = new CThostFtdcReqUserLoginField();
@@ -405,6 +504,7 @@ public class TdSpi extends CThostFtdcTraderSpi {
 		log.info(logContent);
 		ctpGateway.emitInfoLog(logContent);
 		this.connectionStatus = false;
+		log.info("{}延迟统计(微秒):{}", gatewayLogInfo, ctpGateway.getGatewayLatency().getSummaryString());
 	}
 
 	// 登录回报
@@ -417,6 +517,8 @@ public class TdSpi extends CThostFtdcTraderSpi {
 			ctpGateway.emitInfoLog(gatewayLogInfo+"交易接口登录成功");
 			// 修改登录状态为true
 			this.loginStatus = true;
+			this.frontID = pRspUserLogin.getFrontID();
+			this.sessionID = pRspUserLogin.getSessionID();
 			tradingDayStr = pRspUserLogin.getTradingDay();
 			log.info("{}交易接口获取到的交易日为{}", gatewayLogInfo, tradingDayStr);
 
@@ -424,8 +526,7 @@ public class TdSpi extends CThostFtdcTraderSpi {
 			CThostFtdcSettlementInfoConfirmField settlementInfoConfirmField = new CThostFtdcSettlementInfoConfirmField();
 			settlementInfoConfirmField.setBrokerID(brokerID);
 			settlementInfoConfirmField.setInvestorID(userID);
-			reqID += 1;
-			cThostFtdcTraderApi.ReqSettlementInfoConfirm(settlementInfoConfirmField, reqID);
+			cThostFtdcTraderApi.ReqSettlementInfoConfirm(settlementInfoConfirmField, reqID.incrementAndGet());
 
 		}else {
 			log.warn("{}交易接口登录回报错误! ErrorID:{},ErrorMsg:{}", gatewayLogInfo, pRspInfo.getErrorID(),
@@ -561,9 +662,8 @@ public class TdSpi extends CThostFtdcTraderSpi {
 		
 
 		// 查询所有合约
-		reqID += 1;
 		CThostFtdcQryInstrumentField cThostFtdcQryInstrumentField = new CThostFtdcQryInstrumentField();
-		cThostFtdcTraderApi.ReqQryInstrument(cThostFtdcQryInstrumentField, reqID);
+		cThostFtdcTraderApi.ReqQryInstrument(cThostFtdcQryInstrumentField, reqID.incrementAndGet());
 
 	}
 
@@ -623,9 +723,28 @@ public class TdSpi extends CThostFtdcTraderSpi {
 	public void OnRspQryInvestorPosition(CThostFtdcInvestorPositionField pInvestorPosition,
 			CThostFtdcRspInfoField pRspInfo, int nRequestID, boolean bIsLast) {
 		
-		if (pInvestorPosition == null || StringUtils.isEmpty(pInvestorPosition.getInstrumentID())) {
-			return;
+		if (pInvestorPosition != null && !StringUtils.isEmpty(pInvestorPosition.getInstrumentID())) {
+			updatePosition(pInvestorPosition);
 		}
+
+		// 回报结束,没有持仓时也会返回一条空的回报
+		if (bIsLast) {
+			if (pRspInfo != null && pRspInfo.getErrorID() != 0) {
+				// 查询失败时结果不完整,不能据此判断持仓消失
+				log.error("{}持仓查询错误回报!ErrorID:{},ErrorMsg:{}", gatewayLogInfo, pRspInfo.getErrorID(),
+						pRspInfo.getErrorMsg());
+			} else {
+				// 只发送变化的持仓
+				ctpGateway.emitPositions(positionMap.values());
+			}
+
+			// 清空缓存
+			positionMap = new HashMap<>();
+		}
+
+	}
+
+	private void updatePosition(CThostFtdcInvestorPositionField pInvestorPosition) {
 		String symbol = pInvestorPosition.getInstrumentID();
 		String rtSymbol = symbol;
 		if (contractExchangeMap.containsKey(symbol)) {
@@ -670,18 +789,6 @@ public class TdSpi extends CThostFtdcTraderSpi {
 		} else {
 			position.setFrozen(pInvestorPosition.getShortFrozen());
 		}
-
-		// 回报结束
-		if (bIsLast) {
-			for (Position tmpPosition : positionMap.values()) {
-				// 发送持仓事件
-				ctpGateway.emitPositon(tmpPosition);
-			}
-
-			// 清空缓存
-			positionMap = new HashMap<>();
-		}
-
 	}
 
 	// 账户查询回报
@@ -904,10 +1011,16 @@ public class TdSpi extends CThostFtdcTraderSpi {
 
 	// 委托回报
 	public void OnRtnOrder(CThostFtdcOrderField pOrder) {
+		long returnedNanos = GatewayLatency.isEnabled() ? System.nanoTime() : 0L;
 		
-		String newRef = pOrder.getOrderRef();
+		// CTP的OrderRef为定长字段,可能带有空格
+		String newRef = pOrder.getOrderRef().trim();
+		// 只统计本会话发出的委托
+		if (returnedNanos != 0 && pOrder.getFrontID() == frontID && pOrder.getSessionID() == sessionID) {
+			ctpGateway.getGatewayLatency().orderReturned(Integer.valueOf(newRef), returnedNanos);
+		}
 		// 更新最大报单编号
-		orderRef = Math.max(orderRef, Integer.valueOf(newRef));
+		orderRef.accumulateAndGet(Integer.valueOf(newRef), Math::max);
 		
 		Order order = new Order();
 		order.setGatewayID(gatewayID);
@@ -946,6 +1059,13 @@ public class TdSpi extends CThostFtdcTraderSpi {
 
 	//成交回报
 	public void OnRtnTrade(CThostFtdcTradeField pTrade) {
+		if (GatewayLatency.isEnabled()) {
+			try {
+				ctpGateway.getGatewayLatency().tradeReturned(Integer.valueOf(pTrade.getOrderRef().trim()), System.nanoTime());
+			} catch (NumberFormatException e) {
+				log.warn("{}成交回报报单编号{}无法解析,不统计延迟", gatewayLogInfo, pTrade.getOrderRef());
+			}
+		}
 		
 		Trade trade  = new Trade();
 		trade.setGatewayID(gatewayID);
@@ -0,0 +1,93 @@
+package xyz.redtorch.trader.gateway.ctp;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+
+/**
+ * 行情时间解码器,将ActionDay(yyyyMMdd)、UpdateTime(HH:mm:ss)、UpdateMillisec转换为epoch毫秒
+ *
+ * 只做字符运算,不使用正则、字符串拼接和日期格式化;每个业务日的零点时间戳只计算一次并缓存,
+ * 夜盘跨越零点后ActionDay变化,缓存随之更新;按零点偏移直接相加,不处理夏令时切换日
+ *
+ * 非线程安全,每个行情回调线程使用各自的实例
+ *
+ * @author sun0x00@gmail.com
+ */
+public class TickTimeDecoder {
+
+	private final DateTimeZone dateTimeZone;
+
+	private String cachedActionDay; // 缓存对应的业务日
+	private long cachedMidnightMillis; // 缓存的业务日零点时间戳
+
+	public TickTimeDecoder() {
+		this(DateTimeZone.getDefault());
+	}
+
+	public TickTimeDecoder(DateTimeZone dateTimeZone) {
+		this.dateTimeZone = dateTimeZone;
+	}
+
+	/**
+	 * 解码为epoch毫秒
+	 *
+	 * @param actionDay
+	 *            业务日 yyyyMMdd
+	 * @param updateTime
+	 *            时间 HH:mm:ss
+	 * @param updateMillisec
+	 *            毫秒
+	 * @return
+	 */
+	public long decode(String actionDay, String updateTime, int updateMillisec) {
+		if (updateTime == null || updateTime.length() != 8 || updateTime.charAt(2) != ':'
+				|| updateTime.charAt(5) != ':') {
+			throw new IllegalArgumentException("无法解析的UpdateTime:" + updateTime);
+		}
+		int hour = twoDigits(updateTime, 0);
+		int minute = twoDigits(updateTime, 3);
+		int second = twoDigits(updateTime, 6);
+		if (hour > 23 || minute > 59 || second > 59 || updateMillisec < 0 || updateMillisec > 999) {
+			throw new IllegalArgumentException(
+					"无法解析的UpdateTime:" + updateTime + ",UpdateMillisec:" + updateMillisec);
+		}
+		return getMidnightMillis(actionDay) + ((hour * 60 + minute) * 60 + second) * 1000L + updateMillisec;
+	}
+
+	/**
+	 * 获取业务日零点的epoch毫秒,同一业务日直接返回缓存值
+	 *
+	 * @param actionDay
+	 *            业务日 yyyyMMdd
+	 * @return
+	 */
+	public long getMidnightMillis(String actionDay) {
+		if (actionDay != null && actionDay.equals(cachedActionDay)) {
+			return cachedMidnightMillis;
+		}
+		if (actionDay == null || actionDay.length() != 8) {
+			throw new IllegalArgumentException("无法解析的ActionDay:" + actionDay);
+		}
+		int year = twoDigits(actionDay, 0) * 100 + twoDigits(actionDay, 2);
+		int month = twoDigits(actionDay, 4);
+		int day = twoDigits(actionDay, 6);
+		long midnightMillis;
+		try {
+			midnightMillis = new LocalDate(year, month, day).toDateTimeAtStartOfDay(dateTimeZone).getMillis();
+		} catch (Exception e) {
+			throw new IllegalArgumentException("无法解析的ActionDay:" + actionDay, e);
+		}
+		cachedActionDay = actionDay;
+		cachedMidnightMillis = midnightMillis;
+		return midnightMillis;
+	}
+
+	private static int twoDigits(String str, int offset) {
+		int high = str.charAt(offset) - '0';
+		int low = str.charAt(offset + 1) - '0';
+		if (high < 0 || high > 9 || low < 0 || low > 9) {
+			throw new IllegalArgumentException("无法解析的数字:" + str);
+		}
+		return high * 10 + low;
+	}
+}
@@ -0,0 +1,37 @@
+package xyz.redtorch.trader.module.bar;
+
+import xyz.redtorch.trader.engine.event.EventConstant;
+import xyz.redtorch.trader.engine.event.EventListener;
+import xyz.redtorch.trader.module.Module;
+
+/**
+ * 共享Bar引擎,每个合约只合成一次1分钟Bar和X分钟Bar,通过事件 EVENT_BAR + rtSymbol + "|" + xMin 发布
+ *
+ * 发布的Bar由所有订阅者共享,订阅者不能修改其内容
+ *
+ * @author sun0x00@gmail.com
+ */
+public interface BarEngine extends EventListener, Module {
+
+	/**
+	 * 订阅合约的X分钟Bar,xMin为1时只订阅1分钟Bar;1分钟Bar总是会发布
+	 *
+	 * X分钟Bar按合约所在交易所的交易时段划分
+	 *
+	 * @param rtSymbol 代码.交易所
+	 * @param xMin
+	 * @throws IllegalArgumentException 合约所在交易所未配置交易时段
+	 */
+	void subscribe(String rtSymbol, int xMin);
+
+	/**
+	 * 获取Bar事件
+	 *
+	 * @param rtSymbol
+	 * @param xMin
+	 * @return
+	 */
+	static String getBarEvent(String rtSymbol, int xMin) {
+		return EventConstant.EVENT_BAR + rtSymbol + "|" + xMin;
+	}
+}
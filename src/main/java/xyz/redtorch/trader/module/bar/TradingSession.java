@@ -0,0 +1,163 @@
+package xyz.redtorch.trader.module.bar;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.redtorch.trader.base.BaseConfig;
+import xyz.redtorch.trader.base.RtConstant;
+
+/**
+ * 交易所交易时段表
+ *
+ * 交易时段按交易日顺序排列,夜盘属于下一交易日,用于计算某一分钟在交易日内的交易分钟序号,
+ * 使X分钟Bar的划分只取决于交易所的交易时段,与实际收到的行情无关
+ *
+ * 时段可通过配置 module.bar.session.交易所 覆盖,格式为 HH:mm-HH:mm,多个时段以逗号分隔,
+ * 同一交易所不同品种夜盘结束时间不同时,按最晚的结束时间配置即可;既没有默认时段也没有配置的交易所直接报错
+ *
+ * @author sun0x00@gmail.com
+ */
+public class TradingSession {
+
+	private static Logger log = LoggerFactory.getLogger(TradingSession.class);
+
+	private static final int MINUTES_OF_DAY = 1440;
+	private static final int TRADING_DAY_START_MINUTE = 18 * 60; // 交易日的分钟从18:00开始计算,夜盘及跨零点时段均在其后
+
+	// 各交易所默认交易时段
+	private static final Map<String, String> DEFAULT_SESSION_MAP = new ConcurrentHashMap<>();
+	static {
+		DEFAULT_SESSION_MAP.put(RtConstant.EXCHANGE_SHFE, "21:00-02:30,09:00-10:15,10:30-11:30,13:30-15:00");
+		DEFAULT_SESSION_MAP.put(RtConstant.EXCHANGE_INE, "21:00-02:30,09:00-10:15,10:30-11:30,13:30-15:00");
+		DEFAULT_SESSION_MAP.put(RtConstant.EXCHANGE_DCE, "21:00-23:00,09:00-10:15,10:30-11:30,13:30-15:00");
+		DEFAULT_SESSION_MAP.put(RtConstant.EXCHANGE_CZCE, "21:00-23:00,09:00-10:15,10:30-11:30,13:30-15:00");
+		DEFAULT_SESSION_MAP.put(RtConstant.EXCHANGE_CFFEX, "09:30-11:30,13:00-15:00");
+		DEFAULT_SESSION_MAP.put(RtConstant.EXCHANGE_SGE, "20:00-02:30,09:00-11:30,13:30-15:30");
+	}
+	private static final Map<String, TradingSession> tradingSessionMap = new ConcurrentHashMap<>();
+
+	private final String exchange;
+	private final String sessions;
+	// 以18:00为起点的分钟 -> 交易分钟序号,不在交易时段内的分钟归入下一时段的第一分钟,收盘后的分钟归入最后一分钟
+	private final int[] minuteIndexArray = new int[MINUTES_OF_DAY];
+	private final int tradingMinutes;
+
+	/**
+	 * 获取交易所的交易时段表
+	 *
+	 * @param exchange
+	 * @return
+	 * @throws IllegalArgumentException 交易所未配置交易时段
+	 */
+	public static TradingSession getTradingSession(String exchange) {
+		String key = exchange == null ? RtConstant.EXCHANGE_NONE : exchange;
+		TradingSession tradingSession = tradingSessionMap.get(key);
+		if (tradingSession == null) {
+			String sessions = BaseConfig.rtConfig.getString("module.bar.session." + key, DEFAULT_SESSION_MAP.get(key));
+			if (sessions == null || sessions.trim().isEmpty()) {
+				throw new IllegalArgumentException(
+						"交易所" + key + "未配置交易时段,请配置module.bar.session." + key);
+			}
+			log.info("交易所{}交易时段{}", key, sessions);
+			tradingSession = new TradingSession(key, sessions);
+			TradingSession existing = tradingSessionMap.putIfAbsent(key, tradingSession);
+			if (existing != null) {
+				tradingSession = existing;
+			}
+		}
+		return tradingSession;
+	}
+
+	/**
+	 * @param exchange 交易所
+	 * @param sessions 交易时段,按交易日顺序排列,如 21:00-23:00,09:00-10:15,10:30-11:30,13:30-15:00
+	 */
+	public TradingSession(String exchange, String sessions) {
+		this.exchange = exchange;
+		this.sessions = sessions;
+
+		boolean[] tradingMinuteArray = new boolean[MINUTES_OF_DAY];
+		for (String session : sessions.split(",")) {
+			String[] range = session.trim().split("-");
+			if (range.length != 2) {
+				throw new IllegalArgumentException("交易所" + exchange + "交易时段格式错误:" + sessions);
+			}
+			int start = toTradingDayMinute(parseMinute(range[0], sessions));
+			int end = toTradingDayMinute(parseMinute(range[1], sessions));
+			if (end <= start) {
+				throw new IllegalArgumentException("交易所" + exchange + "交易时段顺序错误:" + sessions);
+			}
+			for (int minute = start; minute < end; minute++) {
+				tradingMinuteArray[minute] = true;
+			}
+		}
+
+		int index = 0;
+		int pendingStart = 0; // 尚未确定序号的非交易分钟起点
+		for (int minute = 0; minute < MINUTES_OF_DAY; minute++) {
+			if (tradingMinuteArray[minute]) {
+				for (int pending = pendingStart; pending < minute; pending++) {
+					minuteIndexArray[pending] = index;
+				}
+				minuteIndexArray[minute] = index++;
+				pendingStart = minute + 1;
+			}
+		}
+		if (index == 0) {
+			throw new IllegalArgumentException("交易所" + exchange + "未配置交易时段:" + sessions);
+		}
+		for (int pending = pendingStart; pending < MINUTES_OF_DAY; pending++) {
+			minuteIndexArray[pending] = index - 1;
+		}
+		tradingMinutes = index;
+	}
+
+	public String getExchange() {
+		return exchange;
+	}
+
+	public String getSessions() {
+		return sessions;
+	}
+
+	/**
+	 * 获取每个交易日的交易分钟数
+	 *
+	 * @return
+	 */
+	public int getTradingMinutes() {
+		return tradingMinutes;
+	}
+
+	/**
+	 * 获取某一分钟在交易日内的交易分钟序号,从0开始
+	 *
+	 * @param dateTime 分钟开始时间
+	 * @return
+	 */
+	public int getTradingMinuteIndex(DateTime dateTime) {
+		return minuteIndexArray[toTradingDayMinute(dateTime.getMinuteOfDay())];
+	}
+
+	private static int toTradingDayMinute(int minuteOfDay) {
+		return (minuteOfDay - TRADING_DAY_START_MINUTE + MINUTES_OF_DAY) % MINUTES_OF_DAY;
+	}
+
+	private static int parseMinute(String time, String sessions) {
+		String[] hourMinute = time.trim().split(":");
+		try {
+			int hour = Integer.parseInt(hourMinute[0]);
+			int minute = hourMinute.length > 1 ? Integer.parseInt(hourMinute[1]) : 0;
+			if (hourMinute.length > 2 || hour < 0 || hour > 24 || minute < 0 || minute > 59) {
+				throw new IllegalArgumentException("交易时段格式错误:" + sessions);
+			}
+			return (hour * 60 + minute) % MINUTES_OF_DAY;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("交易时段格式错误:" + sessions, e);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package xyz.redtorch.trader.module.bar.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alibaba.fastjson.JSON;
+
+import xyz.redtorch.trader.engine.event.EventConstant;
+import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.EventKey;
+import xyz.redtorch.trader.engine.event.EventQueue;
+import xyz.redtorch.trader.engine.event.queue.EventQueueFactory;
+import xyz.redtorch.trader.engine.main.MainEngine;
+import xyz.redtorch.trader.entity.Bar;
+import xyz.redtorch.trader.entity.Tick;
+import xyz.redtorch.trader.module.ModuleAbstract;
+import xyz.redtorch.trader.module.bar.BarEngine;
+import xyz.redtorch.trader.module.bar.TradingSession;
+import xyz.redtorch.trader.module.zeus.strategy.StrategyTemplate.BarGenerator;
+
+/**
+ * 共享Bar引擎
+ *
+ * 在自己的线程中消费订阅合约的Tick,每个合约只合成一次1分钟Bar,再按交易所交易时段合成订阅的X分钟Bar,
+ * 多个策略订阅同一合约时不再各自重复合成
+ *
+ * @author sun0x00@gmail.com
+ */
+public class BarEngineImpl extends ModuleAbstract implements BarEngine {
+
+	private Logger log = LoggerFactory.getLogger(BarEngineImpl.class);
+
+	private static final String moduleID = "8d2e4b6a-5f13-4c7e-a0b9-2c6f1e9d3a57";
+	private static final String moduleDisplayName = "共享Bar";
+	private static final String logStr = "Module:" + moduleDisplayName + " ID:" + moduleID;
+
+	EventQueue eventDataQueue = EventQueueFactory.createEventQueue();
+
+	private Map<String, SymbolBar> symbolBarMap = new ConcurrentHashMap<>(); // rtSymbol -> Bar合成状态
+
+	/**
+	 * 单个合约的Bar合成状态,Tick只在引擎线程中处理,X分钟生成器列表可在其他线程订阅时追加
+	 */
+	private class SymbolBar {
+		final BarGenerator barGenerator;
+		final EventKey barEventKey;
+		final List<SessionXMinBarGenerator> xMinBarGeneratorList = new CopyOnWriteArrayList<>();
+
+		SymbolBar(String rtSymbol) {
+			barEventKey = mainEventEngine.getEventKey(BarEngine.getBarEvent(rtSymbol, 1));
+			barGenerator = new BarGenerator(bar -> onBar(this, bar));
+		}
+	}
+
+	public BarEngineImpl(MainEngine mainEngine) {
+		super(mainEngine);
+		log.info("{} 已启动", logStr);
+	}
+
+	@Override
+	public void subscribe(String rtSymbol, int xMin) {
+		SymbolBar symbolBar = symbolBarMap.get(rtSymbol);
+		if (symbolBar == null) {
+			synchronized (symbolBarMap) {
+				symbolBar = symbolBarMap.get(rtSymbol);
+				if (symbolBar == null) {
+					symbolBar = new SymbolBar(rtSymbol);
+					symbolBarMap.put(rtSymbol, symbolBar);
+					mainEventEngine.registerListener(EventConstant.EVENT_TICK + rtSymbol, this);
+					log.info("{} 开始合成合约{}的1分钟Bar", logStr, rtSymbol);
+				}
+			}
+		}
+		if (xMin <= 1) {
+			return;
+		}
+		synchronized (symbolBar) {
+			for (SessionXMinBarGenerator xMinBarGenerator : symbolBar.xMinBarGeneratorList) {
+				if (xMinBarGenerator.getxMin() == xMin) {
+					return;
+				}
+			}
+			// 合约代码格式为 代码.交易所,交易所未配置交易时段时订阅失败
+			TradingSession tradingSession = TradingSession
+					.getTradingSession(rtSymbol.substring(rtSymbol.lastIndexOf('.') + 1));
+			EventKey xMinBarEventKey = mainEventEngine.getEventKey(BarEngine.getBarEvent(rtSymbol, xMin));
+			symbolBar.xMinBarGeneratorList.add(
+					new SessionXMinBarGenerator(xMin, tradingSession, bar -> emitBar(xMinBarEventKey, bar)));
+			log.info("{} 开始合成合约{}的{}分钟Bar", logStr, rtSymbol, xMin);
+		}
+	}
+
+	@Override
+	public void onEvent(EventData eventData) {
+		if (eventData != null) {
+			eventDataQueue.add(eventData);
+		}
+	}
+
+	@Override
+	public void run() {
+		while (!Thread.currentThread().isInterrupted()) {
+			EventData ed = null;
+			try {
+				ed = eventDataQueue.take();
+			} catch (InterruptedException e) {
+				log.error("{} 捕获到线程中断异常，线程停止！！！", logStr, e);
+				break;
+			}
+			if (EventConstant.EVENT_TICK.equals(ed.getEventType())) {
+				try {
+					Tick tick = (Tick) ed.getEventObj();
+					SymbolBar symbolBar = symbolBarMap.get(tick.getRtSymbol());
+					if (symbolBar != null) {
+						symbolBar.barGenerator.updateTick(tick);
+					}
+				} catch (Exception e) {
+					log.error("{} 处理Tick发生异常！！！", logStr, e);
+				}
+			} else if (EventConstant.EVENT_THREAD_STOP.equals(ed.getEventType())) {
+				break;
+			} else {
+				log.warn("{} 未能识别的事件数据类型{}", logStr, JSON.toJSONString(ed));
+			}
+		}
+	}
+
+	private void onBar(SymbolBar symbolBar, Bar bar) {
+		emitBar(symbolBar.barEventKey, bar);
+		for (SessionXMinBarGenerator xMinBarGenerator : symbolBar.xMinBarGeneratorList) {
+			xMinBarGenerator.updateBar(bar);
+		}
+	}
+
+	private void emitBar(EventKey eventKey, Bar bar) {
+		EventData eventData = new EventData();
+		eventData.setEvent(eventKey.getEvent());
+		eventData.setEventType(EventConstant.EVENT_BAR);
+		eventData.setEventObj(bar);
+		mainEventEngine.emit(eventKey, eventData);
+	}
+
+	@Override
+	public void stop() {
+		mainEventEngine.removeListener(null, this);
+		// 通知其他线程
+		EventData eventData = new EventData();
+		eventData.setEvent(EventConstant.EVENT_THREAD_STOP);
+		eventData.setEventType(EventConstant.EVENT_THREAD_STOP);
+		eventDataQueue.add(eventData);
+	}
+
+	@Override
+	public String getModuleID() {
+		return moduleID;
+	}
+
+	@Override
+	public String getModuleDisplayName() {
+		return moduleDisplayName;
+	}
+
+	@Override
+	public String getLogStr() {
+		return logStr;
+	}
+}
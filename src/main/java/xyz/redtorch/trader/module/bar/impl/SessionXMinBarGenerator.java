@@ -0,0 +1,104 @@
+package xyz.redtorch.trader.module.bar.impl;
+
+import xyz.redtorch.trader.entity.Bar;
+import xyz.redtorch.trader.module.bar.TradingSession;
+import xyz.redtorch.trader.module.zeus.strategy.StrategyTemplate.CallBackXMinBar;
+
+/**
+ * 按交易分钟划分的X分钟Bar生成器
+ *
+ * 交易分钟序号由交易所交易时段表计算,序号/xMin相同的1分钟Bar合成一根X分钟Bar,
+ * 因此X分钟Bar不会被午休或小节休息截断,且与从哪一根Bar开始接收无关,实盘与回测的划分一致;
+ * 周期最后一分钟或交易日最后一分钟的Bar到达时立即输出,交易日切换时输出上一交易日未满的Bar
+ *
+ * @author sun0x00@gmail.com
+ */
+public class SessionXMinBarGenerator {
+
+	private final int xMin;
+	private final CallBackXMinBar callBackXMinBar;
+
+	private final TradingSession tradingSession;
+	private String tradingDay;
+	private long lastBarMinute; // 上一根1分钟Bar的分钟数(自1970年起)
+	private int lastTradingMinuteIndex; // 上一根1分钟Bar的交易分钟序号
+	private Bar xMinBar = null;
+
+	/**
+	 * @param xMin 分钟数
+	 * @param tradingSession 合约所在交易所的交易时段
+	 * @param callBackXMinBar
+	 */
+	public SessionXMinBarGenerator(int xMin, TradingSession tradingSession, CallBackXMinBar callBackXMinBar) {
+		this.xMin = xMin;
+		this.tradingSession = tradingSession;
+		this.callBackXMinBar = callBackXMinBar;
+	}
+
+	public int getxMin() {
+		return xMin;
+	}
+
+	/**
+	 * 更新1分钟Bar,Bar的dateTime须为分钟开始时间
+	 *
+	 * @param bar
+	 */
+	public void updateBar(Bar bar) {
+		long barMinute = bar.getDateTime().getMillis() / 60000;
+		int tradingMinuteIndex = tradingSession.getTradingMinuteIndex(bar.getDateTime());
+		if (tradingDay == null || !tradingDay.equals(bar.getTradingDay())) {
+			// 新交易日
+			emit();
+			tradingDay = bar.getTradingDay();
+		} else {
+			if (barMinute <= lastBarMinute) {
+				// 重复或乱序
+				return;
+			}
+			// 进入新的周期(中间可能有无成交的分钟或休市)
+			if (tradingMinuteIndex / xMin != lastTradingMinuteIndex / xMin) {
+				emit();
+			}
+		}
+		lastBarMinute = barMinute;
+		lastTradingMinuteIndex = tradingMinuteIndex;
+
+		if (xMinBar == null) {
+			xMinBar = new Bar();
+			xMinBar.setGatewayID(bar.getGatewayID());
+			xMinBar.setExchange(bar.getExchange());
+			xMinBar.setRtSymbol(bar.getRtSymbol());
+			xMinBar.setSymbol(bar.getSymbol());
+
+			xMinBar.setTradingDay(bar.getTradingDay());
+			xMinBar.setActionDay(bar.getActionDay());
+			xMinBar.setDateTime(bar.getDateTime());
+			xMinBar.setActionTime(bar.getActionTime());
+
+			xMinBar.setOpen(bar.getOpen());
+			xMinBar.setHigh(bar.getHigh());
+			xMinBar.setLow(bar.getLow());
+			xMinBar.setVolume(bar.getVolume());
+		} else {
+			xMinBar.setHigh(Math.max(xMinBar.getHigh(), bar.getHigh()));
+			xMinBar.setLow(Math.min(xMinBar.getLow(), bar.getLow()));
+			xMinBar.setVolume(xMinBar.getVolume() + bar.getVolume());
+		}
+		xMinBar.setClose(bar.getClose());
+		xMinBar.setOpenInterest(bar.getOpenInterest());
+
+		// 当前Bar是本周期或本交易日最后一分钟时立即输出,不等待下一根
+		if ((tradingMinuteIndex + 1) % xMin == 0 || tradingMinuteIndex + 1 == tradingSession.getTradingMinutes()) {
+			emit();
+		}
+	}
+
+	private void emit() {
+		if (xMinBar != null) {
+			Bar bar = xMinBar;
+			xMinBar = null;
+			callBackXMinBar.call(bar);
+		}
+	}
+}
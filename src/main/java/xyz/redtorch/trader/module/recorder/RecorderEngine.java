@@ -0,0 +1,47 @@
+package xyz.redtorch.trader.module.recorder;
+
+import xyz.redtorch.trader.engine.event.EventListener;
+import xyz.redtorch.trader.module.Module;
+
+/**
+ * 行情记录引擎,将实时Tick和1分钟Bar写入历史行情数据库
+ *
+ * @author sun0x00@gmail.com
+ */
+public interface RecorderEngine extends EventListener, Module {
+
+	/**
+	 * 待写入数量
+	 *
+	 * @return
+	 */
+	int getPendingCount();
+
+	/**
+	 * 因写入队列已满被丢弃的数量
+	 *
+	 * @return
+	 */
+	long getDroppedCount();
+
+	/**
+	 * 已写入数量
+	 *
+	 * @return
+	 */
+	long getWrittenCount();
+
+	/**
+	 * 最近一次写入延迟,毫秒
+	 *
+	 * @return
+	 */
+	long getWriteLag();
+
+	/**
+	 * 最大写入延迟,毫秒
+	 *
+	 * @return
+	 */
+	long getMaxWriteLag();
+}
@@ -0,0 +1,231 @@
+package xyz.redtorch.trader.module.recorder.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alibaba.fastjson.JSON;
+
+import xyz.redtorch.trader.base.BaseConfig;
+import xyz.redtorch.trader.engine.data.DataEngine;
+import xyz.redtorch.trader.engine.event.EventConstant;
+import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.EventQueue;
+import xyz.redtorch.trader.engine.event.queue.EventQueueFactory;
+import xyz.redtorch.trader.engine.main.MainEngine;
+import xyz.redtorch.trader.entity.Bar;
+import xyz.redtorch.trader.entity.Tick;
+import xyz.redtorch.trader.module.ModuleAbstract;
+import xyz.redtorch.trader.module.recorder.RecorderEngine;
+import xyz.redtorch.trader.module.zeus.strategy.StrategyTemplate.BarGenerator;
+import xyz.redtorch.utils.MongoDBBatchWriter;
+import xyz.redtorch.utils.MongoDBUtil;
+
+/**
+ * 行情记录引擎
+ *
+ * 在自己的线程中消费Tick,同一合约去掉多个接口推送的重复Tick后写入Tick库,并合成1分钟Bar写入分钟库;
+ * 数据库写入由MongoDBBatchWriter异步批量完成,写入缓慢时丢弃数据并计数,不会阻塞行情回调线程。
+ * 停止时先处理完队列中的Tick并写入未完成的Bar,再停止写入线程
+ *
+ * @author sun0x00@gmail.com
+ */
+public class RecorderEngineImpl extends ModuleAbstract implements RecorderEngine {
+
+	private Logger log = LoggerFactory.getLogger(RecorderEngineImpl.class);
+
+	private static final String moduleID = "3c1a7f52-0b6e-4d8a-9f3e-6e2d5b7c8a41";
+	private static final String moduleDisplayName = "行情记录";
+	private static final String logStr = "Module:" + moduleDisplayName + " ID:" + moduleID;
+
+	EventQueue eventDataQueue = EventQueueFactory.createEventQueue();
+
+	ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	private MongoDBBatchWriter mongoDBBatchWriter;
+
+	private Map<String, Tick> lastTickMap = new HashMap<>(); // rtSymbol -> 最近记录的Tick
+	private Map<String, BarGenerator> barGeneratorMap = new HashMap<>(); // rtSymbol -> 1分钟Bar生成器
+
+	private final CountDownLatch runFinishedLatch = new CountDownLatch(1); // 记录线程退出
+	private final long stopTimeout = BaseConfig.rtConfig.getInt("module.recorder.stop.timeout", 10000);
+
+	public RecorderEngineImpl(MainEngine mainEngine) {
+		super(mainEngine);
+		int batchSize = BaseConfig.rtConfig.getInt("module.recorder.batch.size", 1000);
+		long flushInterval = BaseConfig.rtConfig.getInt("module.recorder.flush.interval", 500);
+		int capacity = BaseConfig.rtConfig.getInt("module.recorder.queue.capacity", 100000);
+		mongoDBBatchWriter = new MongoDBBatchWriter(mainEngine.getDataEngine().getMdDBClient(), batchSize,
+				flushInterval, capacity);
+		executor.execute(mongoDBBatchWriter);
+		mainEventEngine.registerListener(EventConstant.EVENT_TICK, this);
+		log.info("{} 已启动,批量大小{},最长等待{}ms,队列容量{}", logStr, batchSize, flushInterval, capacity);
+	}
+
+	@Override
+	public void onEvent(EventData eventData) {
+		if (eventData != null) {
+			eventDataQueue.add(eventData);
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			consume();
+			// 队列已处理完,写入各合约未完成的Bar
+			for (BarGenerator barGenerator : barGeneratorMap.values()) {
+				barGenerator.flush();
+			}
+		} finally {
+			runFinishedLatch.countDown();
+		}
+	}
+
+	private void consume() {
+		while (!Thread.currentThread().isInterrupted()) {
+			EventData ed = null;
+			try {
+				ed = eventDataQueue.take();
+			} catch (InterruptedException e) {
+				log.error("{} 捕获到线程中断异常，线程停止！！！", logStr, e);
+				break;
+			}
+			if (EventConstant.EVENT_TICK.equals(ed.getEventType())) {
+				try {
+					Tick tick = (Tick) ed.getEventObj();
+					onTick(tick);
+				} catch (Exception e) {
+					log.error("{} onTick发生异常！！！", logStr, e);
+				}
+			} else if (EventConstant.EVENT_THREAD_STOP.equals(ed.getEventType())) {
+				break;
+			} else {
+				log.warn("{} 未能识别的事件数据类型{}", logStr, JSON.toJSONString(ed));
+			}
+		}
+	}
+
+	private void onTick(Tick tick) throws Exception {
+		String rtSymbol = tick.getRtSymbol();
+		// 多个接口订阅同一合约时会收到重复的Tick
+		Tick lastTick = lastTickMap.get(rtSymbol);
+		if (lastTick != null && isDuplicate(lastTick, tick)) {
+			return;
+		}
+		lastTickMap.put(rtSymbol, tick);
+
+		mongoDBBatchWriter.offer(DataEngine.tickDBName, rtSymbol, MongoDBUtil.beanToDocument(tick));
+
+		BarGenerator barGenerator = barGeneratorMap.get(rtSymbol);
+		if (barGenerator == null) {
+			// 已通过isDuplicate按内容去重,同一时间戳的不同Tick须计入Bar
+			barGenerator = new BarGenerator(this::onBar, true);
+			barGeneratorMap.put(rtSymbol, barGenerator);
+		}
+		barGenerator.updateTick(tick);
+	}
+
+	/**
+	 * 郑商所等交易所的毫秒为0,同一时间戳会有多个不同的Tick,须比较行情内容判断是否重复
+	 * 
+	 * @param lastTick
+	 * @param tick
+	 * @return 早于上一个Tick或与上一个Tick内容相同时返回true
+	 */
+	private static boolean isDuplicate(Tick lastTick, Tick tick) {
+		long actionTimestamp = tick.getActionTimestamp();
+		long lastActionTimestamp = lastTick.getActionTimestamp();
+		if (actionTimestamp != lastActionTimestamp) {
+			// 较慢的接口推送的旧Tick
+			return actionTimestamp < lastActionTimestamp;
+		}
+		return tick.getVolume() == lastTick.getVolume() && tick.getLastPrice() == lastTick.getLastPrice()
+				&& tick.getOpenInterest() == lastTick.getOpenInterest()
+				&& tick.getBidPrice1() == lastTick.getBidPrice1() && tick.getAskPrice1() == lastTick.getAskPrice1()
+				&& tick.getBidVolume1() == lastTick.getBidVolume1() && tick.getAskVolume1() == lastTick.getAskVolume1();
+	}
+
+	private void onBar(Bar bar) {
+		try {
+			mongoDBBatchWriter.offer(DataEngine.minuteDBName, bar.getRtSymbol(), MongoDBUtil.beanToDocument(bar));
+		} catch (Exception e) {
+			log.error("{} 转换Bar发生异常,rtSymbol:{}", logStr, bar.getRtSymbol(), e);
+		}
+	}
+
+	@Override
+	public void stop() {
+		mainEventEngine.removeListener(EventConstant.EVENT_TICK, this);
+		// 通知其他线程
+		EventData eventData = new EventData();
+		eventData.setEvent(EventConstant.EVENT_THREAD_STOP);
+		eventData.setEventType(EventConstant.EVENT_THREAD_STOP);
+		eventDataQueue.add(eventData);
+		// 等待记录线程处理完队列中的Tick并写入未完成的Bar
+		try {
+			if (!runFinishedLatch.await(stopTimeout, TimeUnit.MILLISECONDS)) {
+				log.error("{} 记录线程在{}毫秒内未退出,剩余{}条数据未处理", logStr, stopTimeout, eventDataQueue.size());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// 写入线程会先写完剩余数据再退出
+		mongoDBBatchWriter.stop();
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(stopTimeout, TimeUnit.MILLISECONDS)) {
+				log.error("{} 写入线程在{}毫秒内未退出,剩余{}条数据未写入", logStr, stopTimeout,
+						mongoDBBatchWriter.getPendingCount());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public String getModuleID() {
+		return moduleID;
+	}
+
+	@Override
+	public String getModuleDisplayName() {
+		return moduleDisplayName;
+	}
+
+	@Override
+	public String getLogStr() {
+		return logStr;
+	}
+
+	@Override
+	public int getPendingCount() {
+		return mongoDBBatchWriter.getPendingCount() + eventDataQueue.size();
+	}
+
+	@Override
+	public long getDroppedCount() {
+		return mongoDBBatchWriter.getDroppedCount();
+	}
+
+	@Override
+	public long getWrittenCount() {
+		return mongoDBBatchWriter.getWrittenCount();
+	}
+
+	@Override
+	public long getWriteLag() {
+		return mongoDBBatchWriter.getLastWriteLag();
+	}
+
+	@Override
+	public long getMaxWriteLag() {
+		return mongoDBBatchWriter.getMaxWriteLag();
+	}
+}
@@ -3,6 +3,8 @@ package xyz.redtorch.trader.module.zeus;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -52,6 +54,42 @@ public interface BacktestingEngine extends ZeusEngine{
 	 */
 	List<Tick> loadBacktestingTickDataList(String startDate, String endDate, List<String> subscribeRtSymbolList);
 
+	/**
+	 * 按时间顺序流式读取回测Bar数据,每个合约每次只加载一天
+	 * @param startDate
+	 * @param endDate
+	 * @param subscribeRtSymbolList
+	 * @return
+	 */
+	Iterator<Bar> loadBacktestingBarDataIterator(String startDate, String endDate, List<String> subscribeRtSymbolList);
+
+	/**
+	 * 按时间顺序流式读取回测Tick数据,每个合约每次只加载一天
+	 * @param startDate
+	 * @param endDate
+	 * @param subscribeRtSymbolList
+	 * @return
+	 */
+	Iterator<Tick> loadBacktestingTickDataIterator(String startDate, String endDate, List<String> subscribeRtSymbolList);
+
+	/**
+	 * 获取回测交易结果,rtSymbol -> gatewayID -> 结果
+	 * @return
+	 */
+	Map<String, Map<String, BacktestingResult>> getBacktestingResultMap();
+
+	/**
+	 * 获取按日回测结果,rtSymbol -> gatewayID -> 日期 -> 结果
+	 * @return
+	 */
+	Map<String, Map<String, Map<String, DailyResult>>> getDailyResultMap();
+
+	/**
+	 * 是否将回测结果写入CSV文件,默认写入
+	 * @param writeResultFile
+	 */
+	void setWriteResultFile(boolean writeResultFile);
+
 	/**
 	 * 优化设置
 	 * @author sun0x00@gmail.com
@@ -59,7 +97,7 @@ public interface BacktestingEngine extends ZeusEngine{
 	 */
 	static class OptimizationSetting{
 		static Logger log = LoggerFactory.getLogger(BacktestingEngine.class);
-		private Map<String,List<String>> paramMap;
+		private Map<String,List<String>> paramMap = new LinkedHashMap<>();
 		public void addStrParameter(String parameterName, Set<String> parameterSet) {
 	        paramMap.put(parameterName, new ArrayList<String>(parameterSet));
 		}
@@ -575,6 +613,77 @@ public interface BacktestingEngine extends ZeusEngine{
 	}
 
 	
+	/**
+	 * 参数优化结果,按日汇总所有合约和接口的净盈亏后计算
+	 * @author sun0x00@gmail.com
+	 *
+	 */
+	static class OptimizationResult {
+		private Map<String, String> paramMap; // 参数组合
+		private double capital; // 总净盈亏
+		private double maxDrawdown; // 最大回撤,不大于0
+		private double sharpeRatio; // 夏普比率,按日净盈亏计算
+		private int tradingDayCount; // 交易日数量
+		private long costTime; // 耗时,毫秒
+		private String errorMsg; // 回测发生异常时的信息
+
+		public Map<String, String> getParamMap() {
+			return paramMap;
+		}
+
+		public void setParamMap(Map<String, String> paramMap) {
+			this.paramMap = paramMap;
+		}
+
+		public double getCapital() {
+			return capital;
+		}
+
+		public void setCapital(double capital) {
+			this.capital = capital;
+		}
+
+		public double getMaxDrawdown() {
+			return maxDrawdown;
+		}
+
+		public void setMaxDrawdown(double maxDrawdown) {
+			this.maxDrawdown = maxDrawdown;
+		}
+
+		public double getSharpeRatio() {
+			return sharpeRatio;
+		}
+
+		public void setSharpeRatio(double sharpeRatio) {
+			this.sharpeRatio = sharpeRatio;
+		}
+
+		public int getTradingDayCount() {
+			return tradingDayCount;
+		}
+
+		public void setTradingDayCount(int tradingDayCount) {
+			this.tradingDayCount = tradingDayCount;
+		}
+
+		public long getCostTime() {
+			return costTime;
+		}
+
+		public void setCostTime(long costTime) {
+			this.costTime = costTime;
+		}
+
+		public String getErrorMsg() {
+			return errorMsg;
+		}
+
+		public void setErrorMsg(String errorMsg) {
+			this.errorMsg = errorMsg;
+		}
+	}
+
 }
 
 
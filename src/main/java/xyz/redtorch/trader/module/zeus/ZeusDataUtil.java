@@ -8,6 +8,7 @@ import org.joda.time.DateTime;
 import xyz.redtorch.trader.entity.Bar;
 import xyz.redtorch.trader.entity.Tick;
 import xyz.redtorch.trader.module.zeus.entity.PositionDetail;
+import xyz.redtorch.utils.CloseableIterator;
 
 /**
  * @author sun0x00@gmail.com
@@ -17,6 +18,12 @@ public interface ZeusDataUtil {
 	List<Bar> loadBarDataList(DateTime startDateTime, DateTime endDateTime, String rtSymbol);
 
 	List<Tick> loadTickDataList(DateTime startDateTime, DateTime endDateTime, String rtSymbol);
+
+	CloseableIterator<Bar> openBarIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList);
+
+	CloseableIterator<Tick> openTickIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList);
 	
 	Map<String, String> loadStrategySyncVarMap(String strategyID);
 
@@ -25,4 +32,14 @@ public interface ZeusDataUtil {
 	List<PositionDetail> loadStrategyPositionDetails(String tradingDay, String strategyID, String strategyName);
 
 	void saveStrategyPositionDetail(PositionDetail positionDetail);
+
+	/**
+	 * 批量保存持仓,按(策略ID,交易日,合约,接口)覆盖,写入失败时抛出RuntimeException
+	 */
+	void saveStrategyPositionDetailList(List<PositionDetail> positionDetailList);
+
+	/**
+	 * 批量保存变量,按策略ID整体替换,写入失败时抛出RuntimeException
+	 */
+	void saveStrategySyncVarMapList(List<Map<String, String>> syncVarMapWithNameAndIDList);
 }
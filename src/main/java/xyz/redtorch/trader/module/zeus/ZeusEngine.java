@@ -8,10 +8,8 @@ import org.joda.time.DateTime;
 import xyz.redtorch.trader.engine.event.EventListener;
 import xyz.redtorch.trader.entity.Bar;
 import xyz.redtorch.trader.entity.Contract;
-import xyz.redtorch.trader.entity.Order;
 import xyz.redtorch.trader.entity.OrderReq;
 import xyz.redtorch.trader.entity.Tick;
-import xyz.redtorch.trader.entity.Trade;
 import xyz.redtorch.trader.module.Module;
 import xyz.redtorch.trader.module.zeus.entity.PositionDetail;
 import xyz.redtorch.trader.module.zeus.strategy.Strategy;
@@ -49,19 +47,6 @@ public interface ZeusEngine extends EventListener,Module {
 	 */
 	void onTick(Tick tick);
 
-	/**
-	 * 委托回报
-	 * 
-	 * @param order
-	 */
-	void onOrder(Order order);
-
-	/**
-	 * 成交回报
-	 * 
-	 * @param trade
-	 */
-	void onTrade(Trade trade);
 	
 	/**
 	 * 扫描策略列表并加载
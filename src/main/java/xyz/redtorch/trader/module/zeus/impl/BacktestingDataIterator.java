@@ -0,0 +1,137 @@
+package xyz.redtorch.trader.module.zeus.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.redtorch.utils.CloseableIterator;
+
+/**
+ * 回测数据流式迭代器
+ *
+ * 每个合约一个数据流,按天分段打开游标,当前分段读完后关闭游标再打开下一天;多个合约的数据流使用最小堆按时间归并,
+ * 时间相同时按合约在列表中的顺序输出,与全部加载后稳定排序的结果一致。
+ * 内存中只保留每个合约游标当前一批的数据,占用与回测区间长度无关
+ *
+ * @author sun0x00@gmail.com
+ */
+public class BacktestingDataIterator<T> implements Iterator<T> {
+
+	private static Logger log = LoggerFactory.getLogger(BacktestingDataIterator.class);
+
+	/**
+	 * 分段数据加载
+	 */
+	public interface DataLoader<T> {
+		/**
+		 * 流式读取[startDateTime,endDateTime]区间内按时间升序排列的数据
+		 */
+		CloseableIterator<T> load(DateTime startDateTime, DateTime endDateTime, String rtSymbol);
+	}
+
+	private final PriorityQueue<SymbolDataStream> streamQueue;
+
+	/**
+	 * @param startDateTime 开始时间(包含)
+	 * @param endDateTime 结束时间(包含)
+	 * @param rtSymbolList 合约列表
+	 * @param dataLoader 分段数据加载
+	 * @param timestampFunction 数据时间戳,毫秒
+	 */
+	public BacktestingDataIterator(DateTime startDateTime, DateTime endDateTime, List<String> rtSymbolList,
+			DataLoader<T> dataLoader, ToLongFunction<T> timestampFunction) {
+		streamQueue = new PriorityQueue<>(Math.max(1, rtSymbolList.size()), (s1, s2) -> {
+			int result = Long.compare(s1.headTimestamp, s2.headTimestamp);
+			return result != 0 ? result : Integer.compare(s1.index, s2.index);
+		});
+		for (int i = 0; i < rtSymbolList.size(); i++) {
+			SymbolDataStream stream = new SymbolDataStream(i, rtSymbolList.get(i), startDateTime, endDateTime,
+					dataLoader, timestampFunction);
+			if (stream.advance()) {
+				streamQueue.add(stream);
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !streamQueue.isEmpty();
+	}
+
+	@Override
+	public T next() {
+		SymbolDataStream stream = streamQueue.poll();
+		if (stream == null) {
+			throw new NoSuchElementException();
+		}
+		T data = stream.head;
+		if (stream.advance()) {
+			streamQueue.add(stream);
+		}
+		return data;
+	}
+
+	/**
+	 * 单个合约的数据流
+	 */
+	private class SymbolDataStream {
+		final int index;
+		final String rtSymbol;
+		final DateTime endDateTime;
+		final DataLoader<T> dataLoader;
+		final ToLongFunction<T> timestampFunction;
+
+		DateTime segmentStartDateTime; // 下一个分段的开始时间
+		CloseableIterator<T> segmentIterator = null;
+		long count = 0;
+
+		T head;
+		long headTimestamp;
+
+		SymbolDataStream(int index, String rtSymbol, DateTime startDateTime, DateTime endDateTime,
+				DataLoader<T> dataLoader, ToLongFunction<T> timestampFunction) {
+			this.index = index;
+			this.rtSymbol = rtSymbol;
+			this.segmentStartDateTime = startDateTime;
+			this.endDateTime = endDateTime;
+			this.dataLoader = dataLoader;
+			this.timestampFunction = timestampFunction;
+		}
+
+		/**
+		 * 读取下一条数据到head,数据流结束时返回false
+		 */
+		boolean advance() {
+			while (segmentIterator == null || !segmentIterator.hasNext()) {
+				if (segmentIterator != null) {
+					segmentIterator.close();
+					segmentIterator = null;
+				}
+				if (segmentStartDateTime == null || segmentStartDateTime.isAfter(endDateTime)) {
+					head = null;
+					if (count == 0) {
+						log.error("回测数据为空{}", rtSymbol);
+					}
+					return false;
+				}
+				DateTime nextSegmentStartDateTime = segmentStartDateTime.plusDays(1);
+				DateTime segmentEndDateTime = nextSegmentStartDateTime.minusMillis(1);
+				if (segmentEndDateTime.isAfter(endDateTime)) {
+					segmentEndDateTime = endDateTime;
+				}
+				segmentIterator = dataLoader.load(segmentStartDateTime, segmentEndDateTime, rtSymbol);
+				segmentStartDateTime = nextSegmentStartDateTime;
+			}
+			head = segmentIterator.next();
+			headTimestamp = timestampFunction.applyAsLong(head);
+			count++;
+			return true;
+		}
+	}
+}
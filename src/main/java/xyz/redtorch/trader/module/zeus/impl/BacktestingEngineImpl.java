@@ -46,6 +46,7 @@ import xyz.redtorch.trader.module.zeus.strategy.StrategySetting;
 import xyz.redtorch.trader.module.zeus.strategy.StrategySetting.ContractTradeGatewaySetting;
 import xyz.redtorch.trader.module.zeus.strategy.StrategySetting.TradeContractSetting;
 import xyz.redtorch.trader.module.zeus.strategy.StrategySetting.TradeGatewaySetting;
+import xyz.redtorch.utils.BeanCodec;
 import xyz.redtorch.utils.CommonUtil;
 
 /**
@@ -105,6 +106,7 @@ public class BacktestingEngineImpl implements BacktestingEngine {
 	private List<BacktestingSection> backestingSectionList;
 	private int backtestingDataMode = 0;
 	private Boolean reloadStrategyEveryday;
+	private boolean writeResultFile = true;
 
 	public BacktestingEngineImpl(DataEngine dataEngine, String strategyClassName, StrategySetting strategySetting,
 			List<BacktestingSection> backestingSectionList, int backtestingDataMode, Boolean reloadStrategyEveryday) {
@@ -195,8 +197,8 @@ public class BacktestingEngineImpl implements BacktestingEngine {
 
 	@Override
 	public void asyncSaveSyncVarMap(String strategyID, String strategyName, Map<String, String> syncVarMap) {
-		// 实现深度复制，避免引用被修改
-		Map<String, String> saveSyncVarMap = SerializationUtils.clone(new HashMap<>(syncVarMap));
+		// 复制快照,避免引用被修改(键值都是不可变的String,浅复制即可)
+		Map<String, String> saveSyncVarMap = new HashMap<>(syncVarMap);
 		// 模拟存入数据库
 		syncVarSimulationDBMap.put(strategyID, saveSyncVarMap);
 
@@ -206,8 +208,8 @@ public class BacktestingEngineImpl implements BacktestingEngine {
 	public void asyncSavePositionDetail(List<PositionDetail> positionDetailList) {
 		for (PositionDetail positionDetail : positionDetailList) {
 
-			// 深度复制
-			PositionDetail savePositionDetail = SerializationUtils.clone(positionDetail);
+			// 复制快照,只复制需要存储的字段
+			PositionDetail savePositionDetail = BeanCodec.of(PositionDetail.class).copy(positionDetail);
 			// 模拟存入数据库
 
 			// 使用策略ID和交易日确定第一层Map
@@ -264,6 +266,28 @@ public class BacktestingEngineImpl implements BacktestingEngine {
 		return tickList;
 	}
 
+	@Override
+	public Iterator<Bar> loadBacktestingBarDataIterator(String startDate, String endDate,
+			List<String> subscribeRtSymbolList) {
+		log.info("流式加载Bar回测数据，合约{}，开始日期{}，结束日期{}", JSON.toJSONString(subscribeRtSymbolList), startDate, endDate);
+		DateTime startDateTime = RtConstant.D_FORMAT_INT_Formatter.parseDateTime(startDate);
+		DateTime endDateTime = RtConstant.D_FORMAT_INT_Formatter.parseDateTime(endDate);
+		return new BacktestingDataIterator<>(startDateTime, endDateTime, subscribeRtSymbolList,
+				(start, end, rtSymbol) -> zeusDataUtil.openBarIterator(start, end, rtSymbol, null),
+				bar -> bar.getDateTime().getMillis());
+	}
+
+	@Override
+	public Iterator<Tick> loadBacktestingTickDataIterator(String startDate, String endDate,
+			List<String> subscribeRtSymbolList) {
+		log.info("流式加载Tick回测数据，合约{}，开始日期{}，结束日期{}", JSON.toJSONString(subscribeRtSymbolList), startDate, endDate);
+		DateTime startDateTime = RtConstant.D_FORMAT_INT_Formatter.parseDateTime(startDate);
+		DateTime endDateTime = RtConstant.D_FORMAT_INT_Formatter.parseDateTime(endDate);
+		return new BacktestingDataIterator<>(startDateTime, endDateTime, subscribeRtSymbolList,
+				(start, end, rtSymbol) -> zeusDataUtil.openTickIterator(start, end, rtSymbol, null),
+				tick -> tick.getDateTime().getMillis());
+	}
+
 	@Override
 	public void runBacktesting() {
 		log.info("回测开始");
@@ -338,8 +362,10 @@ public class BacktestingEngineImpl implements BacktestingEngine {
 			String lastDay = null;
 			if (DATA_MODE_TICK == backtestingDataMode) {
 
-				List<Tick> tickDataList = loadBacktestingTickDataList(startDate, endDate, subscribeRtSymbolList);
-				for (Tick tick : tickDataList) {
+				Iterator<Tick> tickDataIterator = loadBacktestingTickDataIterator(startDate, endDate,
+						subscribeRtSymbolList);
+				while (tickDataIterator.hasNext()) {
+					Tick tick = tickDataIterator.next();
 					String tradingDay = tick.getTradingDay();
 					if (strategy == null) {
 						// 第一次初始化策略
@@ -390,13 +416,10 @@ public class BacktestingEngineImpl implements BacktestingEngine {
 
 				}
 			} else {
-				List<Bar> barDataList = loadBacktestingBarDataList(startDate, endDate, subscribeRtSymbolList);
-
-				// for (Bar bar : barDataList) {
-				// System.out.println(bar.getDateTime().toString(RtConstant.DT_FORMAT_WITH_MS_Formatter)
-				// + "===" + bar.getRtSymbol());
-				// }
-				for (Bar bar : barDataList) {
+				Iterator<Bar> barDataIterator = loadBacktestingBarDataIterator(startDate, endDate,
+						subscribeRtSymbolList);
+				while (barDataIterator.hasNext()) {
+					Bar bar = barDataIterator.next();
 					String tradingDay = bar.getTradingDay();
 					if (strategy == null) {
 						strategySetting.setTradingDay(tradingDay);
@@ -1074,6 +1097,9 @@ public class BacktestingEngineImpl implements BacktestingEngine {
 				lines.add(header);
 				lines.add(line);
 
+				if (!writeResultFile) {
+					continue;
+				}
 				String filePath = backtestingOutputDir + File.separator + "BacktestingResult" + File.separator
 						+ "SN__" + strategy.getName() + File.separator + "SID__" + strategy.getID() + File.separator
 						+ "GID__" + gatewayID + "__C__" + rtSymbol + ".csv";
@@ -1173,6 +1199,9 @@ public class BacktestingEngineImpl implements BacktestingEngine {
 
 				}
 
+				if (!writeResultFile) {
+					continue;
+				}
 				String filePath = backtestingOutputDir + File.separator + "DailyResult" + File.separator + "SN__"
 						+ strategy.getName() + File.separator + "SID__" + strategy.getID() + File.separator + "GID__"
 						+ gatewayID + "__C__" + rtSymbol + ".csv";
@@ -1191,6 +1220,21 @@ public class BacktestingEngineImpl implements BacktestingEngine {
 		}
 	}
 
+	@Override
+	public Map<String, Map<String, BacktestingResult>> getBacktestingResultMap() {
+		return rtSymbolResultMap;
+	}
+
+	@Override
+	public Map<String, Map<String, Map<String, DailyResult>>> getDailyResultMap() {
+		return rtSymbolDailyResultMap;
+	}
+
+	@Override
+	public void setWriteResultFile(boolean writeResultFile) {
+		this.writeResultFile = writeResultFile;
+	}
+
 	///////////////////////////// ↓↓↓↓↓↓↓回测不需要实现的方法↓↓↓↓↓↓↓////////////////////////////
 	@Override
 	public void onEvent(EventData eventData) {
@@ -1224,14 +1268,6 @@ public class BacktestingEngineImpl implements BacktestingEngine {
 	public void onTick(Tick tick) {
 	}
 
-	@Override
-	public void onOrder(Order order) {
-	}
-
-	@Override
-	public void onTrade(Trade trade) {
-	}
-
 	@Override
 	public void scanAndLoadStartegy(String strategyID) {
 	}
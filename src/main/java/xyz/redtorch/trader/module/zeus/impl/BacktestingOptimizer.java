@@ -0,0 +1,269 @@
+package xyz.redtorch.trader.module.zeus.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.alibaba.fastjson.JSON;
+
+import xyz.redtorch.trader.base.BaseConfig;
+import xyz.redtorch.trader.engine.data.DataEngine;
+import xyz.redtorch.trader.engine.data.impl.CachedDataEngineImpl;
+import xyz.redtorch.trader.module.zeus.BacktestingEngine;
+import xyz.redtorch.trader.module.zeus.BacktestingEngine.BacktestingSection;
+import xyz.redtorch.trader.module.zeus.BacktestingEngine.DailyResult;
+import xyz.redtorch.trader.module.zeus.BacktestingEngine.OptimizationResult;
+import xyz.redtorch.trader.module.zeus.BacktestingEngine.OptimizationSetting;
+import xyz.redtorch.trader.module.zeus.strategy.StrategySetting;
+import xyz.redtorch.utils.CommonUtil;
+
+/**
+ * 参数优化,每组参数使用独立的回测引擎和策略配置副本,在ForkJoin线程池中并行回测
+ *
+ * 所有回测共享同一个只读行情缓存,相同的行情查询只访问一次数据库
+ *
+ * @author sun0x00@gmail.com
+ */
+public class BacktestingOptimizer {
+
+	private static Logger log = LoggerFactory.getLogger(BacktestingOptimizer.class);
+
+	private static final int ANNUAL_TRADING_DAYS = 240; // 年化交易日数量
+
+	/**
+	 * 优化目标
+	 */
+	public enum OptimizationTarget {
+		/**
+		 * 总净盈亏
+		 */
+		CAPITAL,
+		/**
+		 * 最大回撤
+		 */
+		DRAWDOWN,
+		/**
+		 * 夏普比率
+		 */
+		SHARPE
+	}
+
+	private String backtestingOutputDir = BaseConfig.rtConfig.getString("module.zeus.backtesting.output.dir");
+
+	private CachedDataEngineImpl cachedDataEngine;
+	private String strategyClassName;
+	private StrategySetting strategySetting;
+	private List<BacktestingSection> backestingSectionList;
+	private int backtestingDataMode;
+	private Boolean reloadStrategyEveryday;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	public BacktestingOptimizer(DataEngine dataEngine, String strategyClassName, StrategySetting strategySetting,
+			List<BacktestingSection> backestingSectionList, int backtestingDataMode, Boolean reloadStrategyEveryday) {
+		this.cachedDataEngine = new CachedDataEngineImpl(dataEngine);
+		this.strategyClassName = strategyClassName;
+		this.strategySetting = strategySetting;
+		this.backestingSectionList = backestingSectionList;
+		this.backtestingDataMode = backtestingDataMode;
+		this.reloadStrategyEveryday = reloadStrategyEveryday;
+	}
+
+	/**
+	 * 运行参数优化
+	 *
+	 * @param optimizationSetting
+	 * @param optimizationTarget
+	 * @return 按优化目标从优到劣排序的结果
+	 */
+	public List<OptimizationResult> runOptimization(OptimizationSetting optimizationSetting,
+			OptimizationTarget optimizationTarget) {
+		List<Map<String, String>> settingList = optimizationSetting.generateSetting();
+		int total = settingList.size();
+		log.info("参数优化开始，共{}组参数，并行度{}，优化目标{}", total, parallelism, optimizationTarget);
+
+		long startTime = System.currentTimeMillis();
+		AtomicInteger finishedCount = new AtomicInteger(0);
+		List<ForkJoinTask<OptimizationResult>> taskList = new ArrayList<>(total);
+		ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+		try {
+			for (Map<String, String> paramMap : settingList) {
+				taskList.add(forkJoinPool.submit(() -> {
+					OptimizationResult optimizationResult = runBacktesting(paramMap);
+					int finished = finishedCount.incrementAndGet();
+					log.info("参数优化进度{}/{}，参数{}，耗时{}ms", finished, total, JSON.toJSONString(paramMap),
+							optimizationResult.getCostTime());
+					return optimizationResult;
+				}));
+			}
+
+			List<OptimizationResult> resultList = new ArrayList<>(total);
+			for (ForkJoinTask<OptimizationResult> task : taskList) {
+				resultList.add(task.join());
+			}
+			resultList.sort(getComparator(optimizationTarget));
+
+			long costTime = System.currentTimeMillis() - startTime;
+			double throughput = costTime > 0 ? total * 60000.0 / costTime : total;
+			log.info("参数优化结束，共{}组参数，耗时{}ms，吞吐量{}次回测/分钟", total, costTime, String.format("%.2f", throughput));
+
+			writeResultFile(resultList, optimizationTarget);
+			return resultList;
+		} finally {
+			forkJoinPool.shutdown();
+			cachedDataEngine.clear();
+		}
+	}
+
+	private OptimizationResult runBacktesting(Map<String, String> paramMap) {
+		long startTime = System.currentTimeMillis();
+		OptimizationResult optimizationResult = new OptimizationResult();
+		optimizationResult.setParamMap(paramMap);
+		try {
+			// 回测过程会修改配置,每组参数使用独立的副本
+			StrategySetting copyStrategySetting = JSON.parseObject(JSON.toJSONString(strategySetting),
+					StrategySetting.class);
+			if (copyStrategySetting.getParamMap() == null) {
+				copyStrategySetting.setParamMap(new HashMap<>());
+			}
+			copyStrategySetting.getParamMap().putAll(paramMap);
+
+			BacktestingEngine backtestingEngine = new BacktestingEngineImpl(cachedDataEngine, strategyClassName,
+					copyStrategySetting, backestingSectionList, backtestingDataMode, reloadStrategyEveryday);
+			backtestingEngine.setWriteResultFile(false);
+			backtestingEngine.runBacktesting();
+
+			calculateOptimizationResult(optimizationResult, backtestingEngine.getDailyResultMap());
+		} catch (Exception e) {
+			log.error("参数组合{}回测发生异常", JSON.toJSONString(paramMap), e);
+			optimizationResult.setErrorMsg(e.toString());
+		}
+		optimizationResult.setCostTime(System.currentTimeMillis() - startTime);
+		return optimizationResult;
+	}
+
+	/**
+	 * 按日汇总所有合约和接口的净盈亏,计算总盈亏、最大回撤和夏普比率
+	 */
+	private void calculateOptimizationResult(OptimizationResult optimizationResult,
+			Map<String, Map<String, Map<String, DailyResult>>> rtSymbolDailyResultMap) {
+		Map<String, Double> dateNetPnlMap = new TreeMap<>();
+		for (Map<String, Map<String, DailyResult>> gatewayDailyResultMap : rtSymbolDailyResultMap.values()) {
+			for (Map<String, DailyResult> dateDailyResultMap : gatewayDailyResultMap.values()) {
+				for (Entry<String, DailyResult> entry : dateDailyResultMap.entrySet()) {
+					dateNetPnlMap.merge(entry.getKey(), entry.getValue().getNetPnl(), Double::sum);
+				}
+			}
+		}
+
+		double capital = 0;
+		double maxCapital = 0;
+		double maxDrawdown = 0;
+		double sum = 0;
+		double sumOfSquares = 0;
+		for (double netPnl : dateNetPnlMap.values()) {
+			capital += netPnl;
+			maxCapital = Math.max(capital, maxCapital);
+			maxDrawdown = Math.min(capital - maxCapital, maxDrawdown);
+			sum += netPnl;
+			sumOfSquares += netPnl * netPnl;
+		}
+
+		int count = dateNetPnlMap.size();
+		double sharpeRatio = 0;
+		if (count > 1) {
+			double mean = sum / count;
+			double variance = (sumOfSquares - count * mean * mean) / (count - 1);
+			if (variance > 0) {
+				sharpeRatio = mean / Math.sqrt(variance) * Math.sqrt(ANNUAL_TRADING_DAYS);
+			}
+		}
+
+		optimizationResult.setCapital(capital);
+		optimizationResult.setMaxDrawdown(maxDrawdown);
+		optimizationResult.setSharpeRatio(sharpeRatio);
+		optimizationResult.setTradingDayCount(count);
+	}
+
+	private Comparator<OptimizationResult> getComparator(OptimizationTarget optimizationTarget) {
+		Comparator<OptimizationResult> comparator;
+		if (optimizationTarget == OptimizationTarget.DRAWDOWN) {
+			comparator = Comparator.comparingDouble(OptimizationResult::getMaxDrawdown);
+		} else if (optimizationTarget == OptimizationTarget.SHARPE) {
+			comparator = Comparator.comparingDouble(OptimizationResult::getSharpeRatio);
+		} else {
+			comparator = Comparator.comparingDouble(OptimizationResult::getCapital);
+		}
+		// 发生异常的结果排在最后
+		return Comparator.comparing((OptimizationResult result) -> result.getErrorMsg() != null)
+				.thenComparing(comparator.reversed());
+	}
+
+	private void writeResultFile(List<OptimizationResult> resultList, OptimizationTarget optimizationTarget) {
+		List<Object> lines = new ArrayList<>();
+		List<Object> header = new ArrayList<>();
+		header.add("rank");
+		header.add("paramMap");
+		header.add("capital");
+		header.add("maxDrawdown");
+		header.add("sharpeRatio");
+		header.add("tradingDayCount");
+		header.add("costTime");
+		header.add("errorMsg");
+		lines.add(header);
+		int rank = 0;
+		for (OptimizationResult result : resultList) {
+			List<Object> line = new ArrayList<>();
+			line.add(++rank);
+			line.add(JSON.toJSONString(result.getParamMap()));
+			line.add(result.getCapital());
+			line.add(result.getMaxDrawdown());
+			line.add(result.getSharpeRatio());
+			line.add(result.getTradingDayCount());
+			line.add(result.getCostTime());
+			line.add(result.getErrorMsg());
+			lines.add(line);
+		}
+
+		String filePath = backtestingOutputDir + File.separator + "OptimizationResult" + File.separator + "SN__"
+				+ strategySetting.getName() + File.separator + optimizationTarget + "__" + System.currentTimeMillis()
+				+ ".csv";
+		try {
+			FileUtils.forceMkdirParent(new File(filePath));
+		} catch (IOException ioe) {
+			log.error("创建文件夹发生错误", ioe);
+		}
+		log.info("写入优化结果到文件{}", filePath);
+		try (CSVPrinter printer = CommonUtil.getCSVPrinter(filePath)) {
+			printer.printRecords(lines);
+		} catch (Exception e) {
+			log.error("写入优化结果到CSV发生错误", e);
+		}
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * 并行度,默认为CPU核数
+	 *
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+}
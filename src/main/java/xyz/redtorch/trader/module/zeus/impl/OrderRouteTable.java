@@ -0,0 +1,177 @@
+package xyz.redtorch.trader.module.zeus.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.redtorch.trader.base.RtConstant;
+import xyz.redtorch.trader.engine.event.EventConstant;
+import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.entity.Order;
+import xyz.redtorch.trader.entity.Trade;
+import xyz.redtorch.trader.module.zeus.strategy.Strategy;
+
+/**
+ * 委托路由表,rtOrderID -> 发单策略,将委托和成交回报直接放入策略的事件队列
+ *
+ * 委托进入完成状态且收到的成交数量达到委托的成交数量后删除路由,路由表大小只与在途委托数量有关。
+ * 接口可能在发单返回rtOrderID之前推送回报,此时回报暂存,路由注册时按顺序补发;
+ * 暂存只保留最近的unroutedCapacity个委托,非策略发出的委托(如手动下单)的回报也会进入暂存并被逐渐淘汰
+ *
+ * @author sun0x00@gmail.com
+ */
+public class OrderRouteTable {
+
+	private static Logger log = LoggerFactory.getLogger(OrderRouteTable.class);
+
+	private static class OrderRoute {
+		final Strategy strategy;
+		boolean finished = false;
+		int finishedTradedVolume = 0; // 委托完成时的成交数量
+		int routedTradedVolume = 0; // 已路由的成交数量
+		Set<String> rtTradeIDSet; // 过滤重复成交,只在有成交时创建
+
+		OrderRoute(Strategy strategy) {
+			this.strategy = strategy;
+		}
+	}
+
+	private final Map<String, OrderRoute> routeMap = new ConcurrentHashMap<>();
+
+	private final Object unroutedLock = new Object();
+	private final Map<String, List<EventData>> unroutedEventDataMap;
+
+	/**
+	 * @param unroutedCapacity 暂存回报的最大委托数量
+	 */
+	public OrderRouteTable(int unroutedCapacity) {
+		unroutedEventDataMap = new LinkedHashMap<String, List<EventData>>() {
+			private static final long serialVersionUID = 3316245907411398217L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, List<EventData>> eldest) {
+				return size() > unroutedCapacity;
+			}
+		};
+	}
+
+	/**
+	 * 注册路由,补发已暂存的回报
+	 *
+	 * @param rtOrderID
+	 * @param strategy
+	 */
+	public void register(String rtOrderID, Strategy strategy) {
+		if (rtOrderID == null) {
+			return;
+		}
+		synchronized (unroutedLock) {
+			OrderRoute orderRoute = new OrderRoute(strategy);
+			List<EventData> eventDataList = unroutedEventDataMap.remove(rtOrderID);
+			// 先补发暂存的回报再放入路由表,期间到达的回报会在锁上等待,保持顺序
+			if (eventDataList != null) {
+				for (EventData eventData : eventDataList) {
+					deliver(rtOrderID, orderRoute, eventData);
+				}
+			}
+			if (!isDone(orderRoute)) {
+				routeMap.put(rtOrderID, orderRoute);
+			}
+		}
+	}
+
+	/**
+	 * 路由委托或成交回报
+	 *
+	 * @param eventData
+	 */
+	public void route(EventData eventData) {
+		String rtOrderID = getRtOrderID(eventData);
+		if (rtOrderID == null) {
+			return;
+		}
+		OrderRoute orderRoute = routeMap.get(rtOrderID);
+		if (orderRoute == null) {
+			synchronized (unroutedLock) {
+				orderRoute = routeMap.get(rtOrderID);
+				if (orderRoute == null) {
+					unroutedEventDataMap.computeIfAbsent(rtOrderID, k -> new ArrayList<>()).add(eventData);
+					return;
+				}
+			}
+		}
+		deliver(rtOrderID, orderRoute, eventData);
+		if (isDone(orderRoute)) {
+			routeMap.remove(rtOrderID, orderRoute);
+		}
+	}
+
+	private void deliver(String rtOrderID, OrderRoute orderRoute, EventData eventData) {
+		synchronized (orderRoute) {
+			Object eventObj = eventData.getEventObj();
+			if (eventObj instanceof Order) {
+				Order order = (Order) eventObj;
+				if (RtConstant.STATUS_FINISHED.contains(order.getStatus())) {
+					orderRoute.finished = true;
+					orderRoute.finishedTradedVolume = order.getTradedVolume();
+				}
+			} else if (eventObj instanceof Trade) {
+				Trade trade = (Trade) eventObj;
+				if (orderRoute.rtTradeIDSet == null) {
+					orderRoute.rtTradeIDSet = new HashSet<>();
+				}
+				if (orderRoute.rtTradeIDSet.add(trade.getRtTradeID())) {
+					orderRoute.routedTradedVolume += trade.getVolume();
+				}
+			}
+		}
+		try {
+			orderRoute.strategy.onEvent(eventData);
+		} catch (Exception e) {
+			log.error("委托{}的回报放入策略{}队列发生异常", rtOrderID, orderRoute.strategy.getLogStr(), e);
+		}
+	}
+
+	private static boolean isDone(OrderRoute orderRoute) {
+		synchronized (orderRoute) {
+			// 委托完成后可能还有成交回报未到达
+			return orderRoute.finished && orderRoute.routedTradedVolume >= orderRoute.finishedTradedVolume;
+		}
+	}
+
+	private static String getRtOrderID(EventData eventData) {
+		if (EventConstant.EVENT_ORDER.equals(eventData.getEventType())) {
+			return ((Order) eventData.getEventObj()).getRtOrderID();
+		} else if (EventConstant.EVENT_TRADE.equals(eventData.getEventType())) {
+			return ((Trade) eventData.getEventObj()).getRtOrderID();
+		}
+		return null;
+	}
+
+	/**
+	 * 在途委托数量
+	 *
+	 * @return
+	 */
+	public int size() {
+		return routeMap.size();
+	}
+
+	/**
+	 * 暂存回报的委托数量
+	 *
+	 * @return
+	 */
+	public int getUnroutedCount() {
+		synchronized (unroutedLock) {
+			return unroutedEventDataMap.size();
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package xyz.redtorch.trader.module.zeus.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.redtorch.trader.module.zeus.ZeusDataUtil;
+import xyz.redtorch.trader.module.zeus.entity.PositionDetail;
+
+/**
+ * 策略持仓和变量的合并延迟写入,在独立线程中运行
+ *
+ * 持仓按(策略ID,交易日,合约,接口)、变量按策略ID只保留最新快照,重复提交只覆盖内存中的快照;
+ * 每隔flushInterval毫秒或待写入数量达到flushThreshold时批量写入数据库,停止时同步写入剩余数据。
+ * 写入失败的快照在没有更新的快照时放回,下次重试
+ *
+ * @author sun0x00@gmail.com
+ */
+public class StrategyWriteBehindStore implements Runnable {
+
+	private static Logger log = LoggerFactory.getLogger(StrategyWriteBehindStore.class);
+
+	private final ZeusDataUtil zeusDataUtil;
+	private final long flushInterval;
+	private final int flushThreshold;
+
+	private final Map<String, PositionDetail> dirtyPositionDetailMap = new ConcurrentHashMap<>();
+	private final Map<String, Map<String, String>> dirtySyncVarMap = new ConcurrentHashMap<>();
+
+	private final Object signal = new Object();
+	private final Object flushLock = new Object();
+
+	private volatile boolean stopped = false;
+
+	private final AtomicLong submittedCount = new AtomicLong(0L); // 提交次数,多个策略线程并发提交
+	private volatile long writtenCount = 0L; // 实际写入条数
+
+	/**
+	 * @param zeusDataUtil
+	 * @param flushInterval 写入间隔,毫秒
+	 * @param flushThreshold 待写入数量达到此值时立即写入
+	 */
+	public StrategyWriteBehindStore(ZeusDataUtil zeusDataUtil, long flushInterval, int flushThreshold) {
+		this.zeusDataUtil = zeusDataUtil;
+		this.flushInterval = flushInterval;
+		this.flushThreshold = flushThreshold;
+	}
+
+	/**
+	 * 提交持仓快照,调用方需保证快照之后不再被修改
+	 *
+	 * @param positionDetail
+	 */
+	public void putPositionDetail(PositionDetail positionDetail) {
+		String key = positionDetail.getStrategyID() + "|" + positionDetail.getTradingDay() + "|"
+				+ positionDetail.getRtSymbol() + "|" + positionDetail.getGatewayID();
+		dirtyPositionDetailMap.put(key, positionDetail);
+		submittedCount.incrementAndGet();
+		signalIfThresholdReached();
+	}
+
+	/**
+	 * 提交变量快照,Map中须包含strategyID,调用方需保证快照之后不再被修改
+	 *
+	 * @param syncVarMapWithNameAndID
+	 */
+	public void putSyncVarMap(Map<String, String> syncVarMapWithNameAndID) {
+		dirtySyncVarMap.put(syncVarMapWithNameAndID.get("strategyID"), syncVarMapWithNameAndID);
+		submittedCount.incrementAndGet();
+		signalIfThresholdReached();
+	}
+
+	private void signalIfThresholdReached() {
+		if (getDirtyCount() >= flushThreshold) {
+			synchronized (signal) {
+				signal.notifyAll();
+			}
+		}
+	}
+
+	@Override
+	public void run() {
+		boolean lastFlushSucceeded = true;
+		while (!stopped) {
+			try {
+				synchronized (signal) {
+					// 上次写入失败时等待一个间隔再重试,避免数据库不可用时空转
+					if (!stopped && (getDirtyCount() < flushThreshold || !lastFlushSucceeded)) {
+						signal.wait(flushInterval);
+					}
+				}
+			} catch (InterruptedException e) {
+				log.warn("合并写入线程捕获到中断异常,线程停止", e);
+				break;
+			}
+			lastFlushSucceeded = flush();
+		}
+	}
+
+	/**
+	 * 写入全部待写入的快照
+	 *
+	 * @return 全部写入成功返回true
+	 */
+	public boolean flush() {
+		boolean succeeded = true;
+		synchronized (flushLock) {
+			if (!dirtyPositionDetailMap.isEmpty()) {
+				Map<String, PositionDetail> positionDetailMap = drain(dirtyPositionDetailMap);
+				try {
+					zeusDataUtil.saveStrategyPositionDetailList(new ArrayList<>(positionDetailMap.values()));
+					writtenCount += positionDetailMap.size();
+				} catch (Exception e) {
+					log.error("批量保存持仓发生异常,共{}条,下次重试", positionDetailMap.size(), e);
+					positionDetailMap.forEach(dirtyPositionDetailMap::putIfAbsent);
+					succeeded = false;
+				}
+			}
+
+			if (!dirtySyncVarMap.isEmpty()) {
+				Map<String, Map<String, String>> syncVarMapMap = drain(dirtySyncVarMap);
+				try {
+					List<Map<String, String>> syncVarMapList = new ArrayList<>(syncVarMapMap.values());
+					zeusDataUtil.saveStrategySyncVarMapList(syncVarMapList);
+					writtenCount += syncVarMapMap.size();
+				} catch (Exception e) {
+					log.error("批量保存变量发生异常,共{}条,下次重试", syncVarMapMap.size(), e);
+					syncVarMapMap.forEach(dirtySyncVarMap::putIfAbsent);
+					succeeded = false;
+				}
+			}
+		}
+		return succeeded;
+	}
+
+	private static <V> Map<String, V> drain(Map<String, V> dirtyMap) {
+		Map<String, V> drainedMap = new HashMap<>();
+		for (String key : dirtyMap.keySet()) {
+			// 取出后再提交的快照留到下一次写入
+			V value = dirtyMap.remove(key);
+			if (value != null) {
+				drainedMap.put(key, value);
+			}
+		}
+		return drainedMap;
+	}
+
+	/**
+	 * 停止写入线程,并在当前线程中写入剩余数据
+	 */
+	public void stop() {
+		stopped = true;
+		synchronized (signal) {
+			signal.notifyAll();
+		}
+		flush();
+		log.info("合并写入停止,共提交{}次,实际写入{}条", submittedCount.get(), writtenCount);
+	}
+
+	public int getDirtyCount() {
+		return dirtyPositionDetailMap.size() + dirtySyncVarMap.size();
+	}
+
+	public long getSubmittedCount() {
+		return submittedCount.get();
+	}
+
+	public long getWrittenCount() {
+		return writtenCount;
+	}
+}
@@ -12,9 +12,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 
-import org.apache.commons.lang3.SerializationUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
@@ -22,9 +20,12 @@ import org.slf4j.LoggerFactory;
 
 import com.alibaba.fastjson.JSON;
 
+import xyz.redtorch.trader.base.BaseConfig;
 import xyz.redtorch.trader.base.RtConstant;
 import xyz.redtorch.trader.engine.event.EventConstant;
 import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.EventQueue;
+import xyz.redtorch.trader.engine.event.queue.EventQueueFactory;
 import xyz.redtorch.trader.engine.main.MainEngine;
 import xyz.redtorch.trader.entity.Bar;
 import xyz.redtorch.trader.entity.CancelOrderReq;
@@ -33,8 +34,8 @@ import xyz.redtorch.trader.entity.Order;
 import xyz.redtorch.trader.entity.OrderReq;
 import xyz.redtorch.trader.entity.SubscribeReq;
 import xyz.redtorch.trader.entity.Tick;
-import xyz.redtorch.trader.entity.Trade;
 import xyz.redtorch.trader.module.ModuleAbstract;
+import xyz.redtorch.trader.module.bar.BarEngine;
 import xyz.redtorch.trader.module.zeus.ZeusConstant;
 import xyz.redtorch.trader.module.zeus.ZeusEngine;
 import xyz.redtorch.trader.module.zeus.ZeusDataUtil;
@@ -43,6 +44,7 @@ import xyz.redtorch.trader.module.zeus.entity.ContractPositionDetail;
 import xyz.redtorch.trader.module.zeus.entity.PositionDetail;
 import xyz.redtorch.trader.module.zeus.strategy.Strategy;
 import xyz.redtorch.trader.module.zeus.strategy.StrategySetting;
+import xyz.redtorch.utils.BeanCodec;
 import xyz.redtorch.utils.CommonUtil;
 
 /**
@@ -52,7 +54,7 @@ public class TradingEngineImpl extends ModuleAbstract implements ZeusEngine {
 
 	private Logger log = LoggerFactory.getLogger(TradingEngineImpl.class);
 
-	LinkedBlockingQueue<EventData> eventDataQueue = new LinkedBlockingQueue<>();
+	EventQueue eventDataQueue = EventQueueFactory.createEventQueue();
 
 	private static final String moduleID = "9ee63ae1-7924-44d2-8705-53500afe6135";
 	private static final String moduleDisplayName = "Zeus实盘引擎";
@@ -65,15 +67,27 @@ public class TradingEngineImpl extends ModuleAbstract implements ZeusEngine {
 
 	Map<String, Strategy> strategyMap = new ConcurrentHashMap<>(); // 策略Map
 
-	// 用于异步存储变量的队列(减少策略的IO等待时间，主要用于节省回测时间)
-	LinkedBlockingQueue<Map<String, String>> syncVarMapSaveQueue = new LinkedBlockingQueue<>();
-	LinkedBlockingQueue<PositionDetail> positionDetailSaveQueue = new LinkedBlockingQueue<>();
+	// 合并延迟写入持仓和变量(减少策略的IO等待时间，同一持仓或变量在一个写入间隔内只写入最新快照)
+	private StrategyWriteBehindStore writeBehindStore;
+
+	// 委托路由表,委托和成交回报在事件引擎线程中直接放入发单策略的队列
+	private OrderRouteTable orderRouteTable;
+
+	// 共享Bar引擎,配置了sharedBar的策略通过它获取Bar
+	private BarEngine barEngine;
 	
-	public TradingEngineImpl(MainEngine mainEngine) {
+	public TradingEngineImpl(MainEngine mainEngine, BarEngine barEngine) {
 		super(mainEngine);
+		this.barEngine = barEngine;
 		zeusDataUtil = new ZeusDataUtilImpl(mainEngine.getDataEngine());
-		executor.execute(new SaveSyncVarMapTask());
-		executor.execute(new SavePositionTask());
+		long flushInterval = BaseConfig.rtConfig.getInt("module.zeus.persist.flush.interval", 1000);
+		int flushThreshold = BaseConfig.rtConfig.getInt("module.zeus.persist.flush.threshold", 100);
+		writeBehindStore = new StrategyWriteBehindStore(zeusDataUtil, flushInterval, flushThreshold);
+		executor.execute(writeBehindStore);
+		orderRouteTable = new OrderRouteTable(
+				BaseConfig.rtConfig.getInt("module.zeus.order.route.unrouted.capacity", 1000));
+		mainEventEngine.registerListener(EventConstant.EVENT_ORDER, this);
+		mainEventEngine.registerListener(EventConstant.EVENT_TRADE, this);
 	}
 
 	@Override
@@ -85,6 +99,11 @@ public class TradingEngineImpl extends ModuleAbstract implements ZeusEngine {
 	@Override
 	public void onEvent(EventData eventData) {
 		if (eventData != null) {
+			if (EventConstant.EVENT_ORDER.equals(eventData.getEventType())
+					|| EventConstant.EVENT_TRADE.equals(eventData.getEventType())) {
+				orderRouteTable.route(eventData);
+				return;
+			}
 			eventDataQueue.add(eventData);
 		}
 	}
@@ -106,20 +125,6 @@ public class TradingEngineImpl extends ModuleAbstract implements ZeusEngine {
 				} catch (Exception e) {
 					log.error("{} onTick发生异常！！！", logStr, e);
 				}
-			} else if (EventConstant.EVENT_TRADE.equals(ed.getEventType())) {
-				try {
-					Trade trade = (Trade) ed.getEventObj();
-					onTrade(trade);
-				} catch (Exception e) {
-					log.error("{} onTrade发生异常！！！", logStr, e);
-				}
-			} else if (EventConstant.EVENT_ORDER.equals(ed.getEventType())) {
-				try {
-					Order order = (Order) ed.getEventObj();
-					onOrder(order);
-				} catch (Exception e) {
-					log.error("{} onOrder发生异常！！！", logStr, e);
-				}
 			} else if(EventConstant.EVENT_THREAD_STOP.equals(ed.getEventType())){
 				// 弃用
 				//Thread.currentThread().interrupt();
@@ -147,7 +152,10 @@ public class TradingEngineImpl extends ModuleAbstract implements ZeusEngine {
 
 	@Override
 	public void stop() {
+		mainEventEngine.removeListener(null, this);
 		stopAllStrategy();
+		// 写入剩余的持仓和变量
+		writeBehindStore.stop();
 		executor.shutdownNow();
 		// 通知其他线程
 		EventData eventData = new EventData();
@@ -159,8 +167,7 @@ public class TradingEngineImpl extends ModuleAbstract implements ZeusEngine {
 	@Override
 	public String sendOrder(OrderReq orderReq,Strategy strategy) {
 		String rtOrderID = mainEngine.sendOrder(orderReq);
-		mainEventEngine.registerListener(EventConstant.EVENT_ORDER + rtOrderID, strategy);
-		mainEventEngine.registerListener(EventConstant.EVENT_ORDER + rtOrderID, this);
+		orderRouteTable.register(rtOrderID, strategy);
 		return rtOrderID;
 	}
 	
@@ -191,14 +198,6 @@ public class TradingEngineImpl extends ModuleAbstract implements ZeusEngine {
 	public void onTick(Tick tick) {
 	}
 
-	@Override
-	public void onOrder(Order order) {
-
-	}
-
-	@Override
-	public void onTrade(Trade trade) {
-	}
 	
 	@Override
 	public void loadStartegy() {
@@ -490,15 +489,32 @@ public class TradingEngineImpl extends ModuleAbstract implements ZeusEngine {
 
 			/************************ 订阅合约注册事件 *******************/
 			// 通过配置订阅合约注册事件
-			for (StrategySetting.TradeGatewaySetting tradeGatewaySetting : strategy.getStrategySetting()
-					.getGateways()) {
+			boolean sharedBar = strategySetting.isSharedBar();
+			Set<String> barRtSymbolSet = new HashSet<>();
+			for (StrategySetting.TradeGatewaySetting tradeGatewaySetting : strategySetting.getGateways()) {
 				String gatewayID = tradeGatewaySetting.getGatewayID();
 
 				for (String rtSymbol : tradeGatewaySetting.getSubscribeRtSymbols()) {
-					// 为策略注册Tick数据监听事件
-					String event = EventConstant.EVENT_TICK + gatewayID + rtSymbol;
-					mainEventEngine.registerListener(event, strategy);
-					log.info("{}注册事件监听{}", strategy.getLogStr(), event);
+					// 同一合约的Bar只注册一次,不区分接口
+					if (sharedBar && barRtSymbolSet.add(rtSymbol)) {
+						int xMin = strategySetting.getxMin();
+						String barEvent = BarEngine.getBarEvent(rtSymbol, 1);
+						mainEventEngine.registerListener(barEvent, strategy);
+						log.info("{}注册事件监听{}", strategy.getLogStr(), barEvent);
+						if (xMin > 1) {
+							String xMinBarEvent = BarEngine.getBarEvent(rtSymbol, xMin);
+							mainEventEngine.registerListener(xMinBarEvent, strategy);
+							log.info("{}注册事件监听{}", strategy.getLogStr(), xMinBarEvent);
+						}
+						barEngine.subscribe(rtSymbol, xMin);
+					}
+
+					// 为策略注册Tick数据监听事件,只使用Bar的策略可以不订阅Tick
+					if (strategySetting.isSubscribeTick()) {
+						String event = EventConstant.EVENT_TICK + gatewayID + rtSymbol;
+						mainEventEngine.registerListener(event, strategy);
+						log.info("{}注册事件监听{}", strategy.getLogStr(), event);
+					}
 
 					// 订阅合约
 					SubscribeReq subscribeReq = new SubscribeReq();
@@ -588,52 +604,22 @@ public class TradingEngineImpl extends ModuleAbstract implements ZeusEngine {
 
 	@Override
 	public void asyncSaveSyncVarMap(String strategyID, String strategyName, Map<String, String> syncVarMap) {
-		// 实现深度复制，避免引用被修改
-		Map<String,String> saveSyncVarMap = SerializationUtils.clone(new HashMap<>(syncVarMap));
+		// 复制快照,避免引用被修改(键值都是不可变的String,浅复制即可)
+		Map<String,String> saveSyncVarMap = new HashMap<>(syncVarMap);
 		saveSyncVarMap.put("strategyID", strategyID);
 		saveSyncVarMap.put("strategyName", strategyName);
-		syncVarMapSaveQueue.add(saveSyncVarMap);
+		writeBehindStore.putSyncVarMap(saveSyncVarMap);
 	}
 
 	@Override
 	public void asyncSavePositionDetail(List<PositionDetail> positionDetailList) {
-		
-		List<PositionDetail> savePositionDetailList = new ArrayList<>();
+		BeanCodec<PositionDetail> beanCodec = BeanCodec.of(PositionDetail.class);
 		for(PositionDetail positionDetail:positionDetailList) {
-			// 深度复制
-			PositionDetail savePositionDetail = SerializationUtils.clone(positionDetail);
-			savePositionDetailList.add(savePositionDetail);
+			// 复制快照,只复制需要存储的字段
+			writeBehindStore.putPositionDetail(beanCodec.copy(positionDetail));
 		}
-		positionDetailSaveQueue.addAll(savePositionDetailList);
-
 	}
 	
-	private class SavePositionTask implements Runnable{
-		@Override
-		public void run() {
-			while(!Thread.currentThread().isInterrupted()) {
-				try {
-					PositionDetail positionDetail = positionDetailSaveQueue.take();
-					zeusDataUtil.saveStrategyPositionDetail(positionDetail);
-				} catch (InterruptedException e) {
-					log.error("{} 保存持仓任务捕获到线程中断异常，线程停止！！！", logStr, e);
-				}
-			}
-		}
-		
-	}
-	private class SaveSyncVarMapTask implements Runnable{
-		@Override
-		public void run() {
-			try {
-				Map<String,String> syncVarMapWithNameAndID = syncVarMapSaveQueue.take();
-				zeusDataUtil.saveStrategySyncVarMap(syncVarMapWithNameAndID);
-			} catch (InterruptedException e) {
-				log.error("{} 保存变量任务捕获到线程中断异常，线程停止！！！", logStr, e);
-			}
-		}
-		
-	}
 	@Override
 	public List<Strategy> getStragetyList() {
 		return new ArrayList<Strategy>(strategyMap.values());
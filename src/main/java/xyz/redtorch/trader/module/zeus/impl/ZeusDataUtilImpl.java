@@ -1,6 +1,5 @@
 package xyz.redtorch.trader.module.zeus.impl;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -12,13 +11,19 @@ import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+
 import xyz.redtorch.trader.engine.data.DataEngine;
 import xyz.redtorch.trader.entity.Bar;
 import xyz.redtorch.trader.entity.Tick;
 import xyz.redtorch.trader.module.zeus.ZeusDataUtil;
 import xyz.redtorch.trader.module.zeus.entity.PositionDetail;
+import xyz.redtorch.utils.BeanCodec;
+import xyz.redtorch.utils.CloseableIterator;
 import xyz.redtorch.utils.MongoDBClient;
-import xyz.redtorch.utils.MongoDBUtil;
 
 /**
  * @author sun0x00@gmail.com
@@ -82,35 +87,69 @@ public class ZeusDataUtilImpl implements ZeusDataUtil {
 		filter.put("strategyID", strategyID);
 		filter.put("tradingDay", tradingDay);
 		
-		List<Document> documentList = defaultDBClient.find(defaultDBName, positionCollection+strategyName, filter);
 		List<PositionDetail> positionDetailList = new ArrayList<>();
-		for(Document document :documentList) {
-			PositionDetail positionDetail = new PositionDetail();
-			try {
-				MongoDBUtil.documentToBean(document, positionDetail);
-				positionDetailList.add(positionDetail);
-			} catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-				log.error("查询持仓数据转换发生错误,Document-",document.toJson(),e);
+		try (MongoCursor<PositionDetail> cursor = defaultDBClient.findCursor(defaultDBName,
+				positionCollection + strategyName, filter, null, null, null, 0, BeanCodec.of(PositionDetail.class))) {
+			while (cursor.hasNext()) {
+				positionDetailList.add(cursor.next());
 			}
+		} catch (RuntimeException e) {
+			log.error("查询持仓数据发生错误,策略ID-{}", strategyID, e);
 		}
 		return positionDetailList;
 	}
 
 	@Override
 	public void saveStrategyPositionDetail(PositionDetail positionDetail) {
-		Document filter = new Document();
-		filter.put("strategyID", positionDetail.getStrategyID());
-		filter.put("tradingDay", positionDetail.getTradingDay());
-		
-		Document document;
-		try {
-			document = MongoDBUtil.beanToDocument(positionDetail);
-			String strategyName = positionDetail.getStrategyName();
-			defaultDBClient.upsert(defaultDBName, positionCollection+strategyName,document, filter);
-		} catch (IllegalArgumentException | IllegalAccessException e) {
-			log.error("保持持仓数据转换发生错误",e);
+		List<PositionDetail> positionDetailList = new ArrayList<>();
+		positionDetailList.add(positionDetail);
+		saveStrategyPositionDetailList(positionDetailList);
+	}
+
+	@Override
+	public void saveStrategyPositionDetailList(List<PositionDetail> positionDetailList) {
+		BeanCodec<PositionDetail> beanCodec = BeanCodec.of(PositionDetail.class);
+		UpdateOptions updateOptions = new UpdateOptions().upsert(true);
+		// 每个策略一个集合
+		Map<String, List<WriteModel<Document>>> writeModelListMap = new HashMap<>();
+		for (PositionDetail positionDetail : positionDetailList) {
+			Document filter = new Document();
+			filter.put("strategyID", positionDetail.getStrategyID());
+			filter.put("tradingDay", positionDetail.getTradingDay());
+			filter.put("rtSymbol", positionDetail.getRtSymbol());
+			filter.put("gatewayID", positionDetail.getGatewayID());
+			String collectionName = positionCollection + positionDetail.getStrategyName();
+			writeModelListMap.computeIfAbsent(collectionName, k -> new ArrayList<>())
+					.add(new ReplaceOneModel<>(filter, beanCodec.toDocument(positionDetail), updateOptions));
+		}
+		int failedCollectionCount = 0;
+		for (Entry<String, List<WriteModel<Document>>> entry : writeModelListMap.entrySet()) {
+			if (!defaultDBClient.bulkWrite(defaultDBName, entry.getKey(), entry.getValue())) {
+				failedCollectionCount++;
+			}
+		}
+		// 重复写入按条件覆盖,调用方可以整体重试
+		if (failedCollectionCount > 0) {
+			throw new RuntimeException("批量保存持仓失败,共" + failedCollectionCount + "个集合写入失败");
+		}
+	}
+
+	@Override
+	public void saveStrategySyncVarMapList(List<Map<String, String>> syncVarMapWithNameAndIDList) {
+		UpdateOptions updateOptions = new UpdateOptions().upsert(true);
+		List<WriteModel<Document>> writeModelList = new ArrayList<>();
+		for (Map<String, String> syncVarMapWithNameAndID : syncVarMapWithNameAndIDList) {
+			Document document = new Document();
+			document.putAll(syncVarMapWithNameAndID);
+			Document filter = new Document();
+			filter.put("strategyID", syncVarMapWithNameAndID.get("strategyID"));
+			// 整体替换,策略删除的变量不会残留在数据库中
+			writeModelList.add(new ReplaceOneModel<>(filter, document, updateOptions));
+		}
+		if (!writeModelList.isEmpty()
+				&& !defaultDBClient.bulkWrite(defaultDBName, strategySyncVarCollection, writeModelList)) {
+			throw new RuntimeException("批量保存变量失败");
 		}
-		
 	}
 
 
@@ -124,4 +163,18 @@ public class ZeusDataUtilImpl implements ZeusDataUtil {
 	public List<Tick> loadTickDataList(DateTime startDateTime, DateTime endDateTime, String rtSymbol) {
 		return dataEngine.loadTickDataList(startDateTime, endDateTime, rtSymbol);
 	}
+
+
+	@Override
+	public CloseableIterator<Bar> openBarIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList) {
+		return dataEngine.openBarIterator(startDateTime, endDateTime, rtSymbol, fieldList);
+	}
+
+
+	@Override
+	public CloseableIterator<Tick> openTickIterator(DateTime startDateTime, DateTime endDateTime, String rtSymbol,
+			List<String> fieldList) {
+		return dataEngine.openTickIterator(startDateTime, endDateTime, rtSymbol, fieldList);
+	}
 }
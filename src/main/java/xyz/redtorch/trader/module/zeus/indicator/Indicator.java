@@ -0,0 +1,46 @@
+package xyz.redtorch.trader.module.zeus.indicator;
+
+import xyz.redtorch.trader.entity.Bar;
+
+/**
+ * 增量指标,每根Bar更新一次,更新的时间复杂度为O(1)且不分配内存
+ *
+ * 非线程安全,只在策略线程中使用
+ *
+ * @author sun0x00@gmail.com
+ */
+public interface Indicator {
+
+	/**
+	 * 使用Bar更新指标
+	 *
+	 * @param bar
+	 */
+	void update(Bar bar);
+
+	/**
+	 * 数据量是否已满足周期,未满足时getValue的值没有意义
+	 *
+	 * @return
+	 */
+	boolean isReady();
+
+	/**
+	 * 指标的主值
+	 *
+	 * @return
+	 */
+	double getValue();
+
+	/**
+	 * 已更新的次数
+	 *
+	 * @return
+	 */
+	long getCount();
+
+	/**
+	 * 清空状态
+	 */
+	void reset();
+}
@@ -0,0 +1,64 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+import xyz.redtorch.trader.entity.Bar;
+
+/**
+ * 平均真实波幅,真实波幅使用Wilder平滑;第一根Bar的真实波幅为最高价减最低价
+ *
+ * @author sun0x00@gmail.com
+ */
+public class ATR extends AbstractIndicator {
+
+	private final EMA trEMA;
+	private double lastClose = Double.NaN;
+
+	public ATR(int period) {
+		super(period);
+		trEMA = new EMA(period, 1.0 / period);
+	}
+
+	@Override
+	public void update(Bar bar) {
+		update(bar.getHigh(), bar.getLow(), bar.getClose());
+	}
+
+	/**
+	 * 使用最高价、最低价和收盘价更新
+	 *
+	 * @param high
+	 * @param low
+	 * @param close
+	 */
+	public void update(double high, double low, double close) {
+		count++;
+		updateTrueRange(high, low, close);
+	}
+
+	/**
+	 * 只有收盘价时高低价都取收盘价
+	 */
+	@Override
+	protected void onUpdate(double value) {
+		updateTrueRange(value, value, value);
+	}
+
+	private void updateTrueRange(double high, double low, double close) {
+		double trueRange = high - low;
+		if (!Double.isNaN(lastClose)) {
+			trueRange = Math.max(trueRange, Math.max(Math.abs(high - lastClose), Math.abs(low - lastClose)));
+		}
+		trEMA.update(trueRange);
+		lastClose = close;
+	}
+
+	@Override
+	public double getValue() {
+		return trEMA.getValue();
+	}
+
+	@Override
+	protected void onReset() {
+		trEMA.reset();
+		lastClose = Double.NaN;
+	}
+}
@@ -0,0 +1,61 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+import xyz.redtorch.trader.entity.Bar;
+import xyz.redtorch.trader.module.zeus.indicator.Indicator;
+
+/**
+ * 基于单一序列的指标,默认使用Bar的收盘价
+ *
+ * @author sun0x00@gmail.com
+ */
+public abstract class AbstractIndicator implements Indicator {
+
+	protected final int period;
+	protected long count = 0;
+
+	protected AbstractIndicator(int period) {
+		if (period <= 0) {
+			throw new IllegalArgumentException("周期必须大于0");
+		}
+		this.period = period;
+	}
+
+	@Override
+	public void update(Bar bar) {
+		update(bar.getClose());
+	}
+
+	/**
+	 * 使用序列的新值更新指标
+	 *
+	 * @param value
+	 */
+	public void update(double value) {
+		count++;
+		onUpdate(value);
+	}
+
+	protected abstract void onUpdate(double value);
+
+	@Override
+	public boolean isReady() {
+		return count >= period;
+	}
+
+	@Override
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public void reset() {
+		count = 0;
+		onReset();
+	}
+
+	protected abstract void onReset();
+
+	public int getPeriod() {
+		return period;
+	}
+}
@@ -0,0 +1,45 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+/**
+ * 布林带,中轨为简单移动平均,上下轨为中轨加减k倍总体标准差;主值为中轨
+ *
+ * @author sun0x00@gmail.com
+ */
+public class BollingerBands extends AbstractIndicator {
+
+	private final double k;
+	private final RollingStd rollingStd;
+
+	public BollingerBands(int period, double k) {
+		super(period);
+		this.k = k;
+		rollingStd = new RollingStd(period);
+	}
+
+	@Override
+	protected void onUpdate(double value) {
+		rollingStd.update(value);
+	}
+
+	@Override
+	public double getValue() {
+		return getMiddle();
+	}
+
+	public double getMiddle() {
+		return rollingStd.getMean();
+	}
+
+	public double getUpper() {
+		return rollingStd.getMean() + k * rollingStd.getValue();
+	}
+
+	public double getLower() {
+		return rollingStd.getMean() - k * rollingStd.getValue();
+	}
+
+	@Override
+	protected void onReset() {
+		rollingStd.reset();
+	}
+}
@@ -0,0 +1,67 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+/**
+ * 定长double环形缓冲区,写满后覆盖最早的值
+ *
+ * @author sun0x00@gmail.com
+ */
+public class DoubleRingBuffer {
+
+	private final double[] values;
+	private int head = 0; // 下一个写入位置
+	private int size = 0;
+
+	public DoubleRingBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("容量必须大于0");
+		}
+		values = new double[capacity];
+	}
+
+	/**
+	 * 写入一个值
+	 *
+	 * @param value
+	 * @return 被覆盖的最早的值,未写满时返回NaN
+	 */
+	public double add(double value) {
+		double evicted = size == values.length ? values[head] : Double.NaN;
+		values[head] = value;
+		head = head + 1 == values.length ? 0 : head + 1;
+		if (size < values.length) {
+			size++;
+		}
+		return evicted;
+	}
+
+	/**
+	 * 获取往前第ago个值,0为最新值
+	 *
+	 * @param ago
+	 * @return
+	 */
+	public double get(int ago) {
+		if (ago < 0 || ago >= size) {
+			throw new IndexOutOfBoundsException("ago:" + ago + " size:" + size);
+		}
+		int index = head - 1 - ago;
+		return values[index < 0 ? index + values.length : index];
+	}
+
+	public boolean isFull() {
+		return size == values.length;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return values.length;
+	}
+
+	public void clear() {
+		head = 0;
+		size = 0;
+	}
+}
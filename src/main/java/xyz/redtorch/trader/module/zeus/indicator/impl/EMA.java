@@ -0,0 +1,47 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+/**
+ * 指数移动平均,平滑系数为2/(period+1),前period个值使用简单平均作为初始值
+ *
+ * @author sun0x00@gmail.com
+ */
+public class EMA extends AbstractIndicator {
+
+	private final double alpha;
+	private double value = Double.NaN;
+	private double seedSum = 0;
+
+	public EMA(int period) {
+		this(period, 2.0 / (period + 1));
+	}
+
+	/**
+	 * @param period
+	 * @param alpha 平滑系数,如RSI、ATR使用的Wilder平滑为1/period
+	 */
+	public EMA(int period, double alpha) {
+		super(period);
+		this.alpha = alpha;
+	}
+
+	@Override
+	protected void onUpdate(double value) {
+		if (count <= period) {
+			seedSum += value;
+			this.value = seedSum / count;
+		} else {
+			this.value += alpha * (value - this.value);
+		}
+	}
+
+	@Override
+	public double getValue() {
+		return value;
+	}
+
+	@Override
+	protected void onReset() {
+		value = Double.NaN;
+		seedSum = 0;
+	}
+}
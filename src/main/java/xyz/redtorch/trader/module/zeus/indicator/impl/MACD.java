@@ -0,0 +1,50 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+/**
+ * MACD,主值为快线EMA与慢线EMA之差,信号线为主值的EMA,柱为主值与信号线之差
+ *
+ * @author sun0x00@gmail.com
+ */
+public class MACD extends AbstractIndicator {
+
+	private final EMA fastEMA;
+	private final EMA slowEMA;
+	private final EMA signalEMA;
+
+	public MACD(int fastPeriod, int slowPeriod, int signalPeriod) {
+		super(Math.max(fastPeriod, slowPeriod) + signalPeriod - 1);
+		fastEMA = new EMA(fastPeriod);
+		slowEMA = new EMA(slowPeriod);
+		signalEMA = new EMA(signalPeriod);
+	}
+
+	@Override
+	protected void onUpdate(double value) {
+		fastEMA.update(value);
+		slowEMA.update(value);
+		// 慢线就绪后才开始计算信号线
+		if (fastEMA.isReady() && slowEMA.isReady()) {
+			signalEMA.update(getValue());
+		}
+	}
+
+	@Override
+	public double getValue() {
+		return fastEMA.getValue() - slowEMA.getValue();
+	}
+
+	public double getSignal() {
+		return signalEMA.getValue();
+	}
+
+	public double getHistogram() {
+		return getValue() - signalEMA.getValue();
+	}
+
+	@Override
+	protected void onReset() {
+		fastEMA.reset();
+		slowEMA.reset();
+		signalEMA.reset();
+	}
+}
@@ -0,0 +1,49 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+/**
+ * 相对强弱指标,涨跌幅使用Wilder平滑,第一个值只作为基准
+ *
+ * @author sun0x00@gmail.com
+ */
+public class RSI extends AbstractIndicator {
+
+	private final EMA gainEMA;
+	private final EMA lossEMA;
+	private double lastValue = Double.NaN;
+
+	public RSI(int period) {
+		super(period + 1);
+		gainEMA = new EMA(period, 1.0 / period);
+		lossEMA = new EMA(period, 1.0 / period);
+	}
+
+	@Override
+	protected void onUpdate(double value) {
+		if (!Double.isNaN(lastValue)) {
+			double change = value - lastValue;
+			gainEMA.update(change > 0 ? change : 0);
+			lossEMA.update(change < 0 ? -change : 0);
+		}
+		lastValue = value;
+	}
+
+	@Override
+	public double getValue() {
+		double gain = gainEMA.getValue();
+		double loss = lossEMA.getValue();
+		if (Double.isNaN(gain)) {
+			return Double.NaN;
+		}
+		if (loss == 0) {
+			return gain == 0 ? 50 : 100;
+		}
+		return 100 - 100 / (1 + gain / loss);
+	}
+
+	@Override
+	protected void onReset() {
+		gainEMA.reset();
+		lossEMA.reset();
+		lastValue = Double.NaN;
+	}
+}
@@ -0,0 +1,68 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+/**
+ * 滚动最大值/最小值,使用单调队列,每个值最多入队出队各一次,均摊O(1)
+ *
+ * 队列用两个定长数组实现,保存值和序号,不装箱
+ *
+ * @author sun0x00@gmail.com
+ */
+abstract class RollingExtreme extends AbstractIndicator {
+
+	private final double[] dequeValues;
+	private final long[] dequeIndexes;
+	private int dequeHead = 0;
+	private int dequeSize = 0;
+
+	protected RollingExtreme(int period) {
+		super(period);
+		dequeValues = new double[period];
+		dequeIndexes = new long[period];
+	}
+
+	/**
+	 * 新值进入时,队尾的值是否会被淘汰
+	 *
+	 * @param value
+	 * @param tailValue
+	 * @return
+	 */
+	protected abstract boolean dominates(double value, double tailValue);
+
+	@Override
+	protected void onUpdate(double value) {
+		long index = count - 1;
+		// 移出窗口外的值
+		if (dequeSize > 0 && dequeIndexes[dequeHead] <= index - period) {
+			dequeHead = next(dequeHead);
+			dequeSize--;
+		}
+		// 淘汰不可能成为极值的值
+		while (dequeSize > 0 && dominates(value, dequeValues[tail()])) {
+			dequeSize--;
+		}
+		int position = (dequeHead + dequeSize) % period;
+		dequeValues[position] = value;
+		dequeIndexes[position] = index;
+		dequeSize++;
+	}
+
+	@Override
+	public double getValue() {
+		return dequeSize == 0 ? Double.NaN : dequeValues[dequeHead];
+	}
+
+	@Override
+	protected void onReset() {
+		dequeHead = 0;
+		dequeSize = 0;
+	}
+
+	private int tail() {
+		return (dequeHead + dequeSize - 1) % period;
+	}
+
+	private int next(int position) {
+		return position + 1 == period ? 0 : position + 1;
+	}
+}
@@ -0,0 +1,25 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+import xyz.redtorch.trader.entity.Bar;
+
+/**
+ * 滚动最大值,使用Bar更新时取最高价
+ *
+ * @author sun0x00@gmail.com
+ */
+public class RollingMax extends RollingExtreme {
+
+	public RollingMax(int period) {
+		super(period);
+	}
+
+	@Override
+	public void update(Bar bar) {
+		update(bar.getHigh());
+	}
+
+	@Override
+	protected boolean dominates(double value, double tailValue) {
+		return value >= tailValue;
+	}
+}
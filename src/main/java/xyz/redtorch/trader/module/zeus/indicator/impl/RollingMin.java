@@ -0,0 +1,25 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+import xyz.redtorch.trader.entity.Bar;
+
+/**
+ * 滚动最小值,使用Bar更新时取最低价
+ *
+ * @author sun0x00@gmail.com
+ */
+public class RollingMin extends RollingExtreme {
+
+	public RollingMin(int period) {
+		super(period);
+	}
+
+	@Override
+	public void update(Bar bar) {
+		update(bar.getLow());
+	}
+
+	@Override
+	protected boolean dominates(double value, double tailValue) {
+		return value <= tailValue;
+	}
+}
@@ -0,0 +1,89 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+/**
+ * 滚动标准差(总体),使用滑动窗口版本的Welford算法增量更新均值和离差平方和
+ *
+ * 价格水平远大于波动时,直接累加会因舍入误差逐渐漂移,因此以shift为原点计算,
+ * 并且每period次更新按窗口重新计算一次均值和离差平方和并把原点移到均值,均摊仍为O(1)
+ *
+ * @author sun0x00@gmail.com
+ */
+public class RollingStd extends AbstractIndicator {
+
+	private final DoubleRingBuffer window;
+	private double shift = 0; // 计算原点
+	private double mean = 0; // 相对于shift的均值
+	private double m2 = 0; // 离差平方和
+	private int updatesSinceRecompute = 0;
+
+	public RollingStd(int period) {
+		super(period);
+		window = new DoubleRingBuffer(period);
+	}
+
+	@Override
+	protected void onUpdate(double value) {
+		if (window.size() == 0) {
+			shift = value;
+		}
+		double evicted = window.add(value);
+		double shiftedValue = value - shift;
+		if (Double.isNaN(evicted)) {
+			double delta = shiftedValue - mean;
+			mean += delta / window.size();
+			m2 += delta * (shiftedValue - mean);
+		} else {
+			double shiftedEvicted = evicted - shift;
+			double lastMean = mean;
+			mean += (shiftedValue - shiftedEvicted) / period;
+			m2 += (shiftedValue - shiftedEvicted) * (shiftedValue - mean + shiftedEvicted - lastMean);
+		}
+		if (++updatesSinceRecompute >= period) {
+			recompute();
+		}
+		// 浮点误差可能使其略小于0
+		if (m2 < 0) {
+			m2 = 0;
+		}
+	}
+
+	/**
+	 * 按窗口两遍计算,消除累积误差
+	 */
+	private void recompute() {
+		int size = window.size();
+		double sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += window.get(i);
+		}
+		shift = sum / size;
+		double shiftedSum = 0;
+		double squareSum = 0;
+		for (int i = 0; i < size; i++) {
+			double shiftedValue = window.get(i) - shift;
+			shiftedSum += shiftedValue;
+			squareSum += shiftedValue * shiftedValue;
+		}
+		mean = shiftedSum / size;
+		m2 = squareSum - shiftedSum * mean;
+		updatesSinceRecompute = 0;
+	}
+
+	@Override
+	public double getValue() {
+		return window.size() == 0 ? Double.NaN : Math.sqrt(m2 / window.size());
+	}
+
+	public double getMean() {
+		return window.size() == 0 ? Double.NaN : shift + mean;
+	}
+
+	@Override
+	protected void onReset() {
+		window.clear();
+		shift = 0;
+		mean = 0;
+		m2 = 0;
+		updatesSinceRecompute = 0;
+	}
+}
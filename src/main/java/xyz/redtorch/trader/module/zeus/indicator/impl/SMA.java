@@ -0,0 +1,37 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+/**
+ * 简单移动平均,维护窗口内的累加和
+ *
+ * @author sun0x00@gmail.com
+ */
+public class SMA extends AbstractIndicator {
+
+	private final DoubleRingBuffer window;
+	private double sum = 0;
+
+	public SMA(int period) {
+		super(period);
+		window = new DoubleRingBuffer(period);
+	}
+
+	@Override
+	protected void onUpdate(double value) {
+		double evicted = window.add(value);
+		sum += value;
+		if (!Double.isNaN(evicted)) {
+			sum -= evicted;
+		}
+	}
+
+	@Override
+	public double getValue() {
+		return window.size() == 0 ? Double.NaN : sum / window.size();
+	}
+
+	@Override
+	protected void onReset() {
+		window.clear();
+		sum = 0;
+	}
+}
@@ -0,0 +1,101 @@
+package xyz.redtorch.trader.module.zeus.strategy;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import xyz.redtorch.trader.base.RtConstant;
+import xyz.redtorch.trader.module.zeus.entity.StopOrder;
+
+/**
+ * 单个合约的本地停止单触发簿
+ *
+ * 多头停止单按价格升序排列,最新价不低于价格时触发;空头停止单按价格降序排列,最新价不高于价格时触发;
+ * 同一价格按提交顺序触发。每个Tick只需检查两侧的第一个价格档位,只有被触发的停止单会被访问
+ *
+ * 非线程安全,只在策略线程中使用
+ *
+ * @author sun0x00@gmail.com
+ */
+class StopOrderBook {
+
+	private final TreeMap<Double, ArrayDeque<StopOrder>> longStopOrderMap = new TreeMap<>();
+	private final TreeMap<Double, ArrayDeque<StopOrder>> shortStopOrderMap = new TreeMap<>(
+			Collections.reverseOrder());
+
+	/**
+	 * 添加停止单
+	 *
+	 * @param stopOrder
+	 */
+	void add(StopOrder stopOrder) {
+		TreeMap<Double, ArrayDeque<StopOrder>> sideMap = getSideMap(stopOrder);
+		if (sideMap != null) {
+			sideMap.computeIfAbsent(stopOrder.getPrice(), k -> new ArrayDeque<>()).addLast(stopOrder);
+		}
+	}
+
+	/**
+	 * 删除停止单
+	 *
+	 * @param stopOrder
+	 * @return 停止单不在触发簿中时返回false
+	 */
+	boolean remove(StopOrder stopOrder) {
+		TreeMap<Double, ArrayDeque<StopOrder>> sideMap = getSideMap(stopOrder);
+		if (sideMap == null) {
+			return false;
+		}
+		ArrayDeque<StopOrder> stopOrderQueue = sideMap.get(stopOrder.getPrice());
+		if (stopOrderQueue == null || !stopOrderQueue.remove(stopOrder)) {
+			return false;
+		}
+		if (stopOrderQueue.isEmpty()) {
+			sideMap.remove(stopOrder.getPrice());
+		}
+		return true;
+	}
+
+	/**
+	 * 取出一个在最新价下被触发的停止单,多头优先
+	 *
+	 * @param lastPrice 最新价
+	 * @return 没有被触发的停止单时返回null
+	 */
+	StopOrder pollTriggered(double lastPrice) {
+		Entry<Double, ArrayDeque<StopOrder>> entry = longStopOrderMap.firstEntry();
+		if (entry != null && lastPrice >= entry.getKey()) {
+			return pollFirst(longStopOrderMap, entry);
+		}
+		entry = shortStopOrderMap.firstEntry();
+		if (entry != null && lastPrice <= entry.getKey()) {
+			return pollFirst(shortStopOrderMap, entry);
+		}
+		return null;
+	}
+
+	boolean isEmpty() {
+		return longStopOrderMap.isEmpty() && shortStopOrderMap.isEmpty();
+	}
+
+	private static StopOrder pollFirst(TreeMap<Double, ArrayDeque<StopOrder>> sideMap,
+			Entry<Double, ArrayDeque<StopOrder>> entry) {
+		ArrayDeque<StopOrder> stopOrderQueue = entry.getValue();
+		StopOrder stopOrder = stopOrderQueue.pollFirst();
+		if (stopOrderQueue.isEmpty()) {
+			sideMap.remove(entry.getKey());
+		}
+		return stopOrder;
+	}
+
+	private TreeMap<Double, ArrayDeque<StopOrder>> getSideMap(StopOrder stopOrder) {
+		if (RtConstant.DIRECTION_LONG.equals(stopOrder.getDirection())) {
+			return longStopOrderMap;
+		} else if (RtConstant.DIRECTION_SHORT.equals(stopOrder.getDirection())) {
+			return shortStopOrderMap;
+		}
+		// 方向未知的停止单不会被触发
+		return null;
+	}
+}
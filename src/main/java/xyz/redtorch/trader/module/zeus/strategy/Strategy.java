@@ -165,6 +165,12 @@ public interface Strategy extends EventListener {
 	 * @return
 	 */
 	Map<String, String> getVarMap();
+
+	/**
+	 * 获取事件队列状态,包括队列深度、最高深度、被合并和被丢弃的Tick数量
+	 * @return
+	 */
+	Map<String, Object> getEventQueueStatus();
 	
 	/**
 	 * 获取未完成的停止单字典
@@ -238,6 +244,8 @@ public interface Strategy extends EventListener {
 
 	void processBar(Bar bar);
 
+	void processXMinBar(Bar bar);
+
 	
 	
 
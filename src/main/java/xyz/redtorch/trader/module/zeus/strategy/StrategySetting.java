@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import xyz.redtorch.trader.engine.event.queue.BoundedEventQueue.OverflowPolicy;
+
 /**
  * @author sun0x00@gmail.com
  */
@@ -15,6 +17,11 @@ public class StrategySetting {
 	private String tradingDay; //交易日
 	private String preTradingDay; //前一个交易日
 	private boolean lastTradingDay; //最后一个交易日
+	private int eventQueueCapacity = 0; //策略事件队列容量,0表示不限制
+	private OverflowPolicy eventQueueOverflowPolicy = OverflowPolicy.CONFLATE; //策略事件队列溢出策略
+	private long eventQueueBlockTimeout = 1000; //BLOCK策略下生产者最长等待时间,毫秒
+	private boolean sharedBar = false; //实盘时使用共享Bar引擎合成的Bar,不再自行合成;回测时按交易所交易时段合成X分钟Bar
+	private boolean subscribeTick = true; //是否订阅Tick,不订阅时本地停止单不会触发
 	
 	private Map<String,String> paramMap; // 运行时不可变参数列表
 	private Map<String,String> varMap; //运行时可变参数字典
@@ -133,6 +140,46 @@ public class StrategySetting {
 		this.lastTradingDay = lastTradingDay;
 	}
 
+	public int getEventQueueCapacity() {
+		return eventQueueCapacity;
+	}
+
+	public void setEventQueueCapacity(int eventQueueCapacity) {
+		this.eventQueueCapacity = eventQueueCapacity;
+	}
+
+	public OverflowPolicy getEventQueueOverflowPolicy() {
+		return eventQueueOverflowPolicy;
+	}
+
+	public void setEventQueueOverflowPolicy(OverflowPolicy eventQueueOverflowPolicy) {
+		this.eventQueueOverflowPolicy = eventQueueOverflowPolicy;
+	}
+
+	public long getEventQueueBlockTimeout() {
+		return eventQueueBlockTimeout;
+	}
+
+	public void setEventQueueBlockTimeout(long eventQueueBlockTimeout) {
+		this.eventQueueBlockTimeout = eventQueueBlockTimeout;
+	}
+
+	public boolean isSharedBar() {
+		return sharedBar;
+	}
+
+	public void setSharedBar(boolean sharedBar) {
+		this.sharedBar = sharedBar;
+	}
+
+	public boolean isSubscribeTick() {
+		return subscribeTick;
+	}
+
+	public void setSubscribeTick(boolean subscribeTick) {
+		this.subscribeTick = subscribeTick;
+	}
+
 	public Map<String, String> getParamMap() {
 		return paramMap;
 	}
@@ -6,7 +6,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -17,17 +17,24 @@ import com.alibaba.fastjson.JSON;
 import xyz.redtorch.trader.base.RtConstant;
 import xyz.redtorch.trader.engine.event.EventConstant;
 import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.EventQueue;
+import xyz.redtorch.trader.engine.event.queue.BoundedEventQueue;
+import xyz.redtorch.trader.engine.event.queue.EventQueueFactory;
 import xyz.redtorch.trader.entity.Bar;
 import xyz.redtorch.trader.entity.Contract;
 import xyz.redtorch.trader.entity.Order;
 import xyz.redtorch.trader.entity.OrderReq;
 import xyz.redtorch.trader.entity.Tick;
 import xyz.redtorch.trader.entity.Trade;
+import xyz.redtorch.trader.gateway.GatewayLatency;
+import xyz.redtorch.trader.module.bar.TradingSession;
+import xyz.redtorch.trader.module.bar.impl.SessionXMinBarGenerator;
 import xyz.redtorch.trader.module.zeus.ZeusConstant;
 import xyz.redtorch.trader.module.zeus.ZeusEngine;
 import xyz.redtorch.trader.module.zeus.entity.ContractPositionDetail;
 import xyz.redtorch.trader.module.zeus.entity.PositionDetail;
 import xyz.redtorch.trader.module.zeus.entity.StopOrder;
+import xyz.redtorch.trader.module.zeus.indicator.Indicator;
 import xyz.redtorch.trader.module.zeus.strategy.StrategySetting.ContractTradeGatewaySetting;
 import xyz.redtorch.trader.module.zeus.strategy.StrategySetting.TradeContractSetting;
 import xyz.redtorch.utils.CommonUtil;
@@ -42,7 +49,7 @@ public abstract class StrategyTemplate implements Strategy {
 
 	private static final Logger log = LoggerFactory.getLogger(StrategyTemplate.class);
 
-	LinkedBlockingQueue<EventData> eventDataQueue = new LinkedBlockingQueue<>();
+	EventQueue eventDataQueue;
 
 	private String id; // 策略ID
 	private String name; // 策略名称
@@ -64,15 +71,25 @@ public abstract class StrategyTemplate implements Strategy {
 
 	Map<String, StopOrder> workingStopOrderMap = new HashMap<>(); // 本地停止单,停止单撤销后会被删除
 
+	Map<String, StopOrderBook> stopOrderBookMap = new HashMap<>(); // 按合约分组的停止单触发簿,与workingStopOrderMap同步维护
+
 	Map<String, Order> workingOrderMap = new HashMap<>(); // 委托单
 
 	long stopOrderCount = 0L; // 停止单计数器
 
+	private long triggerTickNanos = 0L; // 当前处理的Tick的接收时间,用于延迟统计
+
 	HashSet<String> rtTradeIDSet = new HashSet<String>(); // 用于过滤可能重复的Trade推送
 
-	// X分钟Bar生成器，由构造方法xMin参数决定是否实例化生效
-	private Map<String, XMinBarGenerator> xMinBarGeneratorMap = new HashMap<>();
+	// X分钟Bar生成器，由构造方法xMin参数决定是否实例化生效;配置共享Bar的策略(如回测时)按交易所交易时段合成
+	private Map<String, Consumer<Bar>> xMinBarGeneratorMap = new HashMap<>();
 	private Map<String, BarGenerator> barGeneratorMap = new HashMap<>();
+	// 实盘使用共享Bar引擎时,Bar通过EVENT_BAR事件推送,不再自行合成;共享的Bar不能修改
+	private final boolean useSharedBar;
+
+	// 合约 -> 增量指标,在onBar、onXMinBar之前更新
+	private Map<String, List<Indicator>> barIndicatorMap = new HashMap<>();
+	private Map<String, List<Indicator>> xMinBarIndicatorMap = new HashMap<>();
 
 	/**
 	 * 强制使用有参构造方法
@@ -97,6 +114,15 @@ public abstract class StrategyTemplate implements Strategy {
 		this.logStr = "Strategy:" + name + " ID:" + id;
 
 		this.zeusEngine = zeusEngine;
+		this.useSharedBar = strategySetting.isSharedBar()
+				&& zeusEngine.getEngineType() == ZeusConstant.ENGINE_TYPE_TRADING;
+
+		if (strategySetting.getEventQueueCapacity() > 0) {
+			this.eventDataQueue = new BoundedEventQueue(strategySetting.getEventQueueCapacity(),
+					strategySetting.getEventQueueOverflowPolicy(), strategySetting.getEventQueueBlockTimeout());
+		} else {
+			this.eventDataQueue = EventQueueFactory.createEventQueue();
+		}
 
 		/**
 		 * 初始化基本的持仓数据结构
@@ -148,8 +174,19 @@ public abstract class StrategyTemplate implements Strategy {
 			// 判断消息类型
 			if (EventConstant.EVENT_TICK.equals(ed.getEventType())) {
 				Tick tick = (Tick) ed.getEventObj();
+				if (tick.getReceivedNanos() != 0) {
+					GatewayLatency.get(tick.getGatewayID()).record(GatewayLatency.STAGE_TICK_DEQUEUE,
+							tick.getReceivedNanos(), System.nanoTime());
+				}
 				processTick(tick);
 
+			} else if (EventConstant.EVENT_BAR.equals(ed.getEventType())) {
+				Bar bar = (Bar) ed.getEventObj();
+				if (ed.getEvent().endsWith("|1")) {
+					processBar(bar);
+				} else {
+					processXMinBar(bar);
+				}
 			} else if (EventConstant.EVENT_TRADE.equals(ed.getEventType())) {
 				Trade trade = (Trade) ed.getEventObj();
 				processTrade(trade);
@@ -235,6 +272,21 @@ public abstract class StrategyTemplate implements Strategy {
 		return varMap;
 	}
 
+	@Override
+	public Map<String, Object> getEventQueueStatus() {
+		Map<String, Object> eventQueueStatus = new HashMap<>();
+		eventQueueStatus.put("depth", eventDataQueue.size());
+		if (eventDataQueue instanceof BoundedEventQueue) {
+			BoundedEventQueue boundedEventQueue = (BoundedEventQueue) eventDataQueue;
+			eventQueueStatus.put("capacity", boundedEventQueue.getCapacity());
+			eventQueueStatus.put("overflowPolicy", boundedEventQueue.getOverflowPolicy().name());
+			eventQueueStatus.put("highWaterMark", boundedEventQueue.getHighWaterMark());
+			eventQueueStatus.put("conflatedTickCount", boundedEventQueue.getConflatedTickCount());
+			eventQueueStatus.put("droppedTickCount", boundedEventQueue.getDroppedTickCount());
+		}
+		return eventQueueStatus;
+	}
+
 	@Override
 	public Map<String, String> getParamMap() {
 		return paramMap;
@@ -319,19 +371,22 @@ public abstract class StrategyTemplate implements Strategy {
 	public void savePosition() {
 		List<PositionDetail> positionDetailList = new ArrayList<>();
 		for (ContractPositionDetail contractPositionDetail : contractPositionMap.values()) {
-			positionDetailList.addAll(new ArrayList<>(contractPositionDetail.getPositionDetailMap().values()));
-			zeusEngine.asyncSavePositionDetail(positionDetailList);
+			positionDetailList.addAll(contractPositionDetail.getPositionDetailMap().values());
 		}
+		zeusEngine.asyncSavePositionDetail(positionDetailList);
 	}
 
 	@Override
 	public void resetStrategy(StrategySetting strategySetting) {
 		this.varMap.clear();
 		this.workingStopOrderMap.clear();
+		this.stopOrderBookMap.clear();
 		this.rtTradeIDSet.clear();
 		this.paramMap.clear();
 		this.contractPositionMap.clear();
 		this.syncVarList.clear();
+		resetIndicators(barIndicatorMap);
+		resetIndicators(xMinBarIndicatorMap);
 
 		strategySetting.fixSetting();
 		this.strategySetting = strategySetting;
@@ -376,6 +431,7 @@ public abstract class StrategyTemplate implements Strategy {
 		orderReq.setPrice(CommonUtil.rountToPriceTick(priceTick, price));
 		orderReq.setVolume(volume);
 		orderReq.setGatewayID(gatewayID);
+		orderReq.setOriginNanos(triggerTickNanos);
 
 		orderReq.setPriceType(priceType);
 
@@ -431,6 +487,7 @@ public abstract class StrategyTemplate implements Strategy {
 	public String sendStopOrder(String rtSymbol, String orderType, String priceType, double price, int volume,
 			String gatewayID, Strategy strategy) {
 
+		stopOrderCount++;
 		String stopOrderID = ZeusConstant.STOPORDERPREFIX + stopOrderCount + "." + id + "." + gatewayID;
 
 		StopOrder stopOrder = new StopOrder();
@@ -492,6 +549,7 @@ public abstract class StrategyTemplate implements Strategy {
 		}
 
 		workingStopOrderMap.put(stopOrderID, stopOrder);
+		stopOrderBookMap.computeIfAbsent(rtSymbol, k -> new StopOrderBook()).add(stopOrder);
 
 		return stopOrderID;
 	}
@@ -513,6 +571,10 @@ public abstract class StrategyTemplate implements Strategy {
 			stopOrder.setStatus(ZeusConstant.STOPORDER_CANCELLED);
 
 			workingStopOrderMap.remove(stopOrderID);
+			StopOrderBook stopOrderBook = stopOrderBookMap.get(stopOrder.getRtSymbol());
+			if (stopOrderBook != null) {
+				stopOrderBook.remove(stopOrder);
+			}
 
 			try {
 				onStopOrder(stopOrder);
@@ -535,7 +597,8 @@ public abstract class StrategyTemplate implements Strategy {
 
 		}
 
-		for (Entry<String, StopOrder> entry : workingStopOrderMap.entrySet()) {
+		// 撤销停止单会修改workingStopOrderMap,遍历副本
+		for (Entry<String, StopOrder> entry : new ArrayList<>(workingStopOrderMap.entrySet())) {
 			String stopOrderID = entry.getKey();
 			StopOrder stopOrder = entry.getValue();
 			if (!ZeusConstant.STOPORDER_CANCELLED.equals(stopOrder.getStatus())) {
@@ -555,41 +618,38 @@ public abstract class StrategyTemplate implements Strategy {
 			return;
 		}
 		String rtSymbol = tick.getRtSymbol();
+		StopOrderBook stopOrderBook = stopOrderBookMap.get(rtSymbol);
+		if (stopOrderBook == null || stopOrderBook.isEmpty()) {
+			return;
+		}
 
-		for (StopOrder stopOrder : workingStopOrderMap.values()) {
-
-			if (stopOrder.getRtSymbol().equals(rtSymbol)) {
-				// 多头停止单触发
-				boolean longTriggered = RtConstant.DIRECTION_LONG.equals(stopOrder.getDirection())
-						&& tick.getLastPrice() >= stopOrder.getPrice();
-				// 空头停止单触发
-				boolean shortTriggered = RtConstant.DIRECTION_SHORT.equals(stopOrder.getDirection())
-						&& tick.getLastPrice() <= stopOrder.getPrice();
-
-				if (longTriggered || shortTriggered) {
-					double price = 0;
-					// 涨跌停价格报单
-					if (RtConstant.DIRECTION_LONG.equals(stopOrder.getDirection())) {
-						price = tick.getUpperLimit();
-					} else {
-						price = tick.getLowerLimit();
-					}
-
-					sendOrder(rtSymbol, stopOrder.getOrderType(), stopOrder.getPriceType(), price,
-							stopOrder.getVolume(), stopOrder.getGatewayID());
+		double lastPrice = tick.getLastPrice();
+		StopOrder stopOrder;
+		// 逐个取出被触发的停止单,回调中新增或撤销停止单不影响触发簿的遍历
+		while (trading && (stopOrder = stopOrderBook.pollTriggered(lastPrice)) != null) {
+			if (workingStopOrderMap.remove(stopOrder.getStopOrderID()) == null) {
+				// 已经通过workingStopOrderMap移除
+				continue;
+			}
 
-					stopOrder.setStatus(ZeusConstant.STOPORDER_TRIGGERED);
+			double price = 0;
+			// 涨跌停价格报单
+			if (RtConstant.DIRECTION_LONG.equals(stopOrder.getDirection())) {
+				price = tick.getUpperLimit();
+			} else {
+				price = tick.getLowerLimit();
+			}
 
-					workingStopOrderMap.remove(stopOrder.getStopOrderID());
+			sendOrder(rtSymbol, stopOrder.getOrderType(), stopOrder.getPriceType(), price, stopOrder.getVolume(),
+					stopOrder.getGatewayID());
 
-					try {
-						onStopOrder(stopOrder);
-					} catch (Exception e) {
-						log.error("{} 通知策略StopOrder发生异常！！！", logStr, e);
-						stopTrading(true);
-					}
-				}
+			stopOrder.setStatus(ZeusConstant.STOPORDER_TRIGGERED);
 
+			try {
+				onStopOrder(stopOrder);
+			} catch (Exception e) {
+				log.error("{} 通知策略StopOrder发生异常！！！", logStr, e);
+				stopTrading(true);
 			}
 		}
 
@@ -966,10 +1026,14 @@ public abstract class StrategyTemplate implements Strategy {
 
 	@Override
 	public void processTick(Tick tick) {
+		triggerTickNanos = tick.getReceivedNanos();
 		try {
 			// 处理停止单
 			processStopOrder(tick);
 			onTick(tick);
+			if (useSharedBar) {
+				return;
+			}
 			// 基于合约的onBar和onMinBar
 			String bgKey = tick.getRtSymbol();
 			// 基于合约+接口的onBar和onMinBar，使用这个key会多次触发同一策略下同一品种的相同时间bar的事件
@@ -992,6 +1056,8 @@ public abstract class StrategyTemplate implements Strategy {
 		} catch (Exception e) {
 			stopTrading(true);
 			log.error("{} 调用onTick发生异常,停止策略！！！", logStr, e);
+		} finally {
+			triggerTickNanos = 0L;
 		}
 	}
 
@@ -1036,33 +1102,92 @@ public abstract class StrategyTemplate implements Strategy {
 		String bgKey = bar.getRtSymbol();
 		// 调用onBar方法，此方法会在onTick->bg.updateTick执行之后再执行
 		try {
+			updateIndicators(barIndicatorMap, bar);
 			onBar(bar);
 		} catch (Exception e) {
 			stopTrading(true);
 			log.error("{} 调用onBar发生异常,停止策略！！！", logStr, e);
 		}
 		// 判断是否需要调用xMinBarGenerate,设置xMin大于1分钟xMinBarGenerate会生效
-		if (strategySetting.getxMin() > 1) {
-			XMinBarGenerator xMinBarGenerator;
+		if (!useSharedBar && strategySetting.getxMin() > 1) {
+			Consumer<Bar> xMinBarGenerator;
 			if (xMinBarGeneratorMap.containsKey(bgKey)) {
 				xMinBarGenerator = xMinBarGeneratorMap.get(bgKey);
 			} else {
-				xMinBarGenerator = new XMinBarGenerator(strategySetting.getxMin(), new CallBackXMinBar() {
+				CallBackXMinBar callBackXMinBar = new CallBackXMinBar() {
 					@Override
 					public void call(Bar bar) {
-						try {
-							// 调用onXMinBar方法
-							// 此方法会在onTick->bg.updateTick->onBar->xbg.updateBar执行之后再执行
-							onXMinBar(bar);
-						} catch (Exception e) {
-							stopTrading(true);
-							log.error("{} 调用onXMinBar发生异常,停止策略！！！", logStr, e);
-						}
+						// 此方法会在onTick->bg.updateTick->onBar->xbg.updateBar执行之后再执行
+						processXMinBar(bar);
 					}
-				});
+				};
+				if (strategySetting.isSharedBar()) {
+					// 与共享Bar引擎使用相同的生成器,回测与实盘的X分钟Bar一致
+					TradingSession tradingSession;
+					try {
+						tradingSession = TradingSession.getTradingSession(bar.getExchange());
+					} catch (IllegalArgumentException e) {
+						stopTrading(true);
+						log.error("{} 合约{}无法合成X分钟Bar,停止策略！！！", logStr, bgKey, e);
+						return;
+					}
+					xMinBarGenerator = new SessionXMinBarGenerator(strategySetting.getxMin(), tradingSession,
+							callBackXMinBar)::updateBar;
+				} else {
+					xMinBarGenerator = new XMinBarGenerator(strategySetting.getxMin(), callBackXMinBar)::updateBar;
+				}
 				xMinBarGeneratorMap.put(bgKey, xMinBarGenerator);
 			}
-			xMinBarGenerator.updateBar(bar);
+			xMinBarGenerator.accept(bar);
+		}
+	}
+
+	@Override
+	public void processXMinBar(Bar bar) {
+		try {
+			// 调用onXMinBar方法
+			updateIndicators(xMinBarIndicatorMap, bar);
+			onXMinBar(bar);
+		} catch (Exception e) {
+			stopTrading(true);
+			log.error("{} 调用onXMinBar发生异常,停止策略！！！", logStr, e);
+		}
+	}
+
+	/**
+	 * 注册合约的1分钟Bar指标,在onBar之前更新
+	 * 
+	 * @param rtSymbol
+	 * @param indicator
+	 */
+	protected void registerBarIndicator(String rtSymbol, Indicator indicator) {
+		barIndicatorMap.computeIfAbsent(rtSymbol, k -> new ArrayList<>()).add(indicator);
+	}
+
+	/**
+	 * 注册合约的X分钟Bar指标,在onXMinBar之前更新
+	 * 
+	 * @param rtSymbol
+	 * @param indicator
+	 */
+	protected void registerXMinBarIndicator(String rtSymbol, Indicator indicator) {
+		xMinBarIndicatorMap.computeIfAbsent(rtSymbol, k -> new ArrayList<>()).add(indicator);
+	}
+
+	private static void updateIndicators(Map<String, List<Indicator>> indicatorMap, Bar bar) {
+		List<Indicator> indicatorList = indicatorMap.get(bar.getRtSymbol());
+		if (indicatorList != null) {
+			for (int i = 0; i < indicatorList.size(); i++) {
+				indicatorList.get(i).update(bar);
+			}
+		}
+	}
+
+	private static void resetIndicators(Map<String, List<Indicator>> indicatorMap) {
+		for (List<Indicator> indicatorList : indicatorMap.values()) {
+			for (Indicator indicator : indicatorList) {
+				indicator.reset();
+			}
 		}
 	}
 
@@ -1083,9 +1208,20 @@ public abstract class StrategyTemplate implements Strategy {
 		private Bar bar = null;
 		private Tick lastTick = null;
 		CallBackXMinBar callBackXMinBar;
+		private final boolean acceptSameTimestamp;
+
+		public BarGenerator(CallBackXMinBar callBackXMinBar) {
+			this(callBackXMinBar, false);
+		}
 
-		BarGenerator(CallBackXMinBar callBackXMinBar) {
+		/**
+		 * @param callBackXMinBar
+		 * @param acceptSameTimestamp 是否接受与上一个Tick时间戳相同的Tick,调用方已自行过滤重复Tick时使用,
+		 *            如郑商所同一时间戳会有多个不同的Tick
+		 */
+		public BarGenerator(CallBackXMinBar callBackXMinBar, boolean acceptSameTimestamp) {
 			this.callBackXMinBar = callBackXMinBar;
+			this.acceptSameTimestamp = acceptSameTimestamp;
 		}
 
 		/**
@@ -1099,7 +1235,9 @@ public abstract class StrategyTemplate implements Strategy {
 
 			if (lastTick != null) {
 				// 此处过滤用于一个策略在多个接口订阅了同一个合约的情况下,Tick到达顺序和实际产生顺序不一致或者重复的情况
-				if (tick.getDateTime().getMillis() <= lastTick.getDateTime().getMillis()) {
+				long millis = tick.getDateTime().getMillis();
+				long lastMillis = lastTick.getDateTime().getMillis();
+				if (millis < lastMillis || (millis == lastMillis && !acceptSameTimestamp)) {
 					return;
 				}
 			}
@@ -1147,6 +1285,19 @@ public abstract class StrategyTemplate implements Strategy {
 
 			lastTick = tick;
 		}
+
+		/**
+		 * 立即回调尚未完成的Bar,用于停止前保存,之后的Tick开始新的Bar
+		 */
+		public void flush() {
+			if (bar == null) {
+				return;
+			}
+			bar.setDateTime(bar.getDateTime().withSecondOfMinute(0).withMillisOfSecond(0));
+			bar.setActionTime(bar.getDateTime().toString(RtConstant.T_FORMAT_WITH_MS_Formatter));
+			callBackXMinBar.call(bar);
+			bar = null;
+		}
 	}
 
 	/**
@@ -5,6 +5,7 @@ import java.util.List;
 
 import xyz.redtorch.trader.engine.data.DataEngine;
 import xyz.redtorch.trader.engine.data.impl.DataEngineImpl;
+import xyz.redtorch.trader.engine.data.impl.LocalDataEngineImpl;
 import xyz.redtorch.trader.module.zeus.BacktestingEngine;
 import xyz.redtorch.trader.module.zeus.BacktestingEngine.BacktestingSection;
 import xyz.redtorch.trader.module.zeus.BacktestingUtil;
@@ -39,7 +40,7 @@ public class RunBacktestingForStrategyBT {
 //		backtestingSection.addPrefixSuffix("IH", "1804");
 //		backestingSectionList.add(backtestingSection);
 		
-		DataEngine dataEngine = new DataEngineImpl();
+		DataEngine dataEngine = LocalDataEngineImpl.wrapIfConfigured(new DataEngineImpl());
 		
 		BacktestingEngine backtestingEngine = new BacktestingEngineImpl(dataEngine, strategyClassName, strategySetting, backestingSectionList, backtestingDataMode, reloadStrategyEveryday);
 		backtestingEngine.runBacktesting();
@@ -0,0 +1,399 @@
+package xyz.redtorch.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 实体Bean与MongoDB文档之间的编解码器,每个类只解析一次字段和访问方法并缓存
+ *
+ * 支持String、int/Integer、long/Long、double/Double、float/Float、boolean/Boolean、Date、DateTime类型的非静态、非transient字段,
+ * 其他类型的字段忽略;读取字段值为null时调用getter(如Tick中延迟生成的actionTime、dateTime),写入时调用setter。
+ * 作为Codec注册到驱动后可以直接从BsonReader解码为Bean,不创建中间的Document
+ *
+ * @author sun0x00@gmail.com
+ */
+public class BeanCodec<T> implements Codec<T> {
+
+	private static Logger log = LoggerFactory.getLogger(BeanCodec.class);
+
+	private static final Map<Class<?>, BeanCodec<?>> beanCodecMap = new ConcurrentHashMap<>();
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private enum Kind {
+		STRING, INT, LONG, DOUBLE, FLOAT, BOOLEAN, DATE, DATETIME
+	}
+
+	private static class Property {
+		final String name;
+		final Kind kind;
+		final MethodHandle fieldGetter; // (Object)Object
+		final MethodHandle getter; // (Object)Object,可能为null
+		final MethodHandle setter; // (Object,Object)void,可能为null
+
+		Property(String name, Kind kind, MethodHandle fieldGetter, MethodHandle getter, MethodHandle setter) {
+			this.name = name;
+			this.kind = kind;
+			this.fieldGetter = fieldGetter;
+			this.getter = getter;
+			this.setter = setter;
+		}
+	}
+
+	private final Class<T> clazz;
+	private final MethodHandle constructor; // ()Object
+	private final Property[] properties;
+	private final Map<String, Property> propertyMap = new HashMap<>();
+
+	/**
+	 * 获取类对应的编解码器,首次获取时创建
+	 *
+	 * @param clazz
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> BeanCodec<T> of(Class<T> clazz) {
+		BeanCodec<?> beanCodec = beanCodecMap.get(clazz);
+		if (beanCodec == null) {
+			beanCodec = beanCodecMap.computeIfAbsent(clazz, k -> new BeanCodec<>(k));
+		}
+		return (BeanCodec<T>) beanCodec;
+	}
+
+	private BeanCodec(Class<T> clazz) {
+		this.clazz = clazz;
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+		MethodHandle constructor = null;
+		try {
+			constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class))
+					.asType(MethodType.methodType(Object.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			log.debug("Class-{}没有公共无参构造方法", clazz.getName());
+		}
+		this.constructor = constructor;
+
+		List<Property> propertyList = new ArrayList<>();
+		for (Field field : clazz.getDeclaredFields()) {
+			// 静态常量(如serialVersionUID)和transient字段不属于Bean属性
+			if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+				continue;
+			}
+			Kind kind = getKind(field.getType());
+			if (kind == null) {
+				continue;
+			}
+			String name = field.getName();
+			String upperCaseName = name.substring(0, 1).toUpperCase() + name.substring(1);
+			try {
+				field.setAccessible(true);
+				MethodHandle fieldGetter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+				MethodHandle getter = null;
+				try {
+					Method getterMethod = clazz.getMethod("get" + upperCaseName);
+					getter = lookup.unreflect(getterMethod).asType(GETTER_TYPE);
+				} catch (NoSuchMethodException e) {
+					// 没有getter时只读取字段
+				}
+				MethodHandle setter = null;
+				try {
+					Method setterMethod = clazz.getMethod("set" + upperCaseName, field.getType());
+					setter = lookup.unreflect(setterMethod).asType(SETTER_TYPE);
+				} catch (NoSuchMethodException e) {
+					log.debug("Class-{}中成员变量{}没有setter,解码时忽略", clazz.getName(), name);
+				}
+				Property property = new Property(name, kind, fieldGetter, getter, setter);
+				propertyList.add(property);
+				propertyMap.put(name, property);
+			} catch (IllegalAccessException | SecurityException e) {
+				log.error("Class-{}中成员变量{}无法访问,忽略", clazz.getName(), name, e);
+			}
+		}
+		this.properties = propertyList.toArray(new Property[0]);
+	}
+
+	private static Kind getKind(Class<?> type) {
+		if (type == String.class) {
+			return Kind.STRING;
+		} else if (type == int.class || type == Integer.class) {
+			return Kind.INT;
+		} else if (type == long.class || type == Long.class) {
+			return Kind.LONG;
+		} else if (type == double.class || type == Double.class) {
+			return Kind.DOUBLE;
+		} else if (type == float.class || type == Float.class) {
+			return Kind.FLOAT;
+		} else if (type == boolean.class || type == Boolean.class) {
+			return Kind.BOOLEAN;
+		} else if (type == Date.class) {
+			return Kind.DATE;
+		} else if (type == DateTime.class) {
+			return Kind.DATETIME;
+		}
+		return null;
+	}
+
+	/**
+	 * 创建新实例
+	 *
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public T newInstance() {
+		if (constructor == null) {
+			throw new IllegalStateException("Class-" + clazz.getName() + "没有公共无参构造方法");
+		}
+		try {
+			return (T) constructor.invokeExact();
+		} catch (Throwable t) {
+			throw new IllegalStateException("Class-" + clazz.getName() + "创建实例发生异常", t);
+		}
+	}
+
+	/**
+	 * 复制Bean,只复制编解码器支持的成员变量,不使用序列化
+	 *
+	 * @param bean
+	 * @return
+	 */
+	public T copy(T bean) {
+		T copiedBean = newInstance();
+		for (Property property : properties) {
+			if (property.setter == null) {
+				continue;
+			}
+			Object value = getValue(property, bean);
+			if (value != null) {
+				try {
+					property.setter.invokeExact((Object) copiedBean, value);
+				} catch (Throwable t) {
+					throw new RuntimeException("Class-" + clazz.getName() + "中成员变量" + property.name + "赋值发生异常", t);
+				}
+			}
+		}
+		return copiedBean;
+	}
+
+	/**
+	 * 转换为Document
+	 *
+	 * @param bean
+	 * @return
+	 */
+	public Document toDocument(T bean) {
+		Document document = new Document();
+		for (Property property : properties) {
+			Object value = getValue(property, bean);
+			if (value == null) {
+				continue;
+			}
+			if (property.kind == Kind.DATETIME) {
+				value = ((DateTime) value).toDate();
+			}
+			document.put(property.name, value);
+		}
+		return document;
+	}
+
+	/**
+	 * 将Document中的值写入bean
+	 *
+	 * @param document
+	 * @param bean
+	 * @return
+	 */
+	public T fromDocument(Document document, T bean) {
+		for (Property property : properties) {
+			Object value = document.get(property.name);
+			if (value != null) {
+				setValue(property, bean, value);
+			}
+		}
+		return bean;
+	}
+
+	@Override
+	public T decode(BsonReader reader, DecoderContext decoderContext) {
+		T bean = newInstance();
+		reader.readStartDocument();
+		while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+			Property property = propertyMap.get(reader.readName());
+			if (property == null) {
+				reader.skipValue();
+				continue;
+			}
+			Object value;
+			switch (reader.getCurrentBsonType()) {
+			case DOUBLE:
+				value = reader.readDouble();
+				break;
+			case INT32:
+				value = reader.readInt32();
+				break;
+			case INT64:
+				value = reader.readInt64();
+				break;
+			case STRING:
+				value = reader.readString();
+				break;
+			case BOOLEAN:
+				value = reader.readBoolean();
+				break;
+			case DATE_TIME:
+				value = new Date(reader.readDateTime());
+				break;
+			default:
+				reader.skipValue();
+				value = null;
+			}
+			if (value != null) {
+				setValue(property, bean, value);
+			}
+		}
+		reader.readEndDocument();
+		return bean;
+	}
+
+	@Override
+	public void encode(BsonWriter writer, T bean, EncoderContext encoderContext) {
+		writer.writeStartDocument();
+		for (Property property : properties) {
+			Object value = getValue(property, bean);
+			if (value == null) {
+				continue;
+			}
+			writer.writeName(property.name);
+			switch (property.kind) {
+			case STRING:
+				writer.writeString((String) value);
+				break;
+			case INT:
+				writer.writeInt32((Integer) value);
+				break;
+			case LONG:
+				writer.writeInt64((Long) value);
+				break;
+			case DOUBLE:
+				writer.writeDouble((Double) value);
+				break;
+			case FLOAT:
+				writer.writeDouble((Float) value);
+				break;
+			case BOOLEAN:
+				writer.writeBoolean((Boolean) value);
+				break;
+			case DATE:
+				writer.writeDateTime(((Date) value).getTime());
+				break;
+			case DATETIME:
+				writer.writeDateTime(((DateTime) value).getMillis());
+				break;
+			}
+		}
+		writer.writeEndDocument();
+	}
+
+	@Override
+	public Class<T> getEncoderClass() {
+		return clazz;
+	}
+
+	private Object getValue(Property property, T bean) {
+		try {
+			Object value = property.fieldGetter.invokeExact((Object) bean);
+			if (value == null && property.getter != null) {
+				// 延迟生成的属性需要通过getter读取
+				value = property.getter.invokeExact((Object) bean);
+			}
+			return value;
+		} catch (Throwable t) {
+			log.error("Class-{}读取成员变量{}发生异常", clazz.getName(), property.name, t);
+			return null;
+		}
+	}
+
+	private void setValue(Property property, T bean, Object value) {
+		if (property.setter == null) {
+			return;
+		}
+		Object convertedValue = convert(property, value);
+		if (convertedValue == null) {
+			return;
+		}
+		try {
+			property.setter.invokeExact((Object) bean, convertedValue);
+		} catch (Throwable t) {
+			throw new RuntimeException("Class-" + clazz.getName() + "中成员变量" + property.name + "赋值发生异常", t);
+		}
+	}
+
+	private Object convert(Property property, Object value) {
+		try {
+			switch (property.kind) {
+			case STRING:
+				return value instanceof String ? value : value.toString();
+			case INT:
+				if (value instanceof Integer) {
+					return value;
+				}
+				return value instanceof Number ? ((Number) value).intValue() : Integer.valueOf(value.toString());
+			case LONG:
+				if (value instanceof Long) {
+					return value;
+				}
+				return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(value.toString());
+			case DOUBLE:
+				if (value instanceof Double) {
+					return value;
+				}
+				return value instanceof Number ? ((Number) value).doubleValue() : Double.valueOf(value.toString());
+			case FLOAT:
+				if (value instanceof Float) {
+					return value;
+				}
+				return value instanceof Number ? ((Number) value).floatValue() : Float.valueOf(value.toString());
+			case BOOLEAN:
+				return value instanceof Boolean ? value : Boolean.valueOf(value.toString());
+			case DATE:
+				if (value instanceof Date) {
+					return value;
+				}
+				break;
+			case DATETIME:
+				if (value instanceof Date) {
+					return new DateTime(((Date) value).getTime());
+				} else if (value instanceof Long) {
+					return new DateTime((Long) value);
+				}
+				break;
+			}
+		} catch (Exception e) {
+			// 在下方统一记录
+		}
+		log.error("Class-{}中成员变量{}的类型{}与当前值的类型{}不匹配,不可赋值", clazz.getName(), property.name, property.kind,
+				value.getClass().getName());
+		return null;
+	}
+}
@@ -0,0 +1,69 @@
+package xyz.redtorch.utils;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import com.mongodb.client.MongoCursor;
+
+/**
+ * 需要关闭的迭代器,用于流式读取数据库游标等资源,读取完毕或放弃读取时必须调用close
+ *
+ * @author sun0x00@gmail.com
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+	@Override
+	void close();
+
+	/**
+	 * 包装MongoDB游标
+	 *
+	 * @param mongoCursor
+	 * @return
+	 */
+	static <T> CloseableIterator<T> of(MongoCursor<T> mongoCursor) {
+		return new CloseableIterator<T>() {
+			@Override
+			public boolean hasNext() {
+				return mongoCursor.hasNext();
+			}
+
+			@Override
+			public T next() {
+				return mongoCursor.next();
+			}
+
+			@Override
+			public void close() {
+				mongoCursor.close();
+			}
+		};
+	}
+
+	/**
+	 * 包装已加载的列表,close无操作
+	 *
+	 * @param list
+	 * @return
+	 */
+	static <T> CloseableIterator<T> of(List<T> list) {
+		Iterator<T> iterator = list == null ? Collections.emptyIterator() : list.iterator();
+		return new CloseableIterator<T>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public T next() {
+				return iterator.next();
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+}
@@ -0,0 +1,109 @@
+package xyz.redtorch.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 延迟直方图,纳秒
+ *
+ * 按HDR方式分桶:小于16的值每个值一个桶,之后每个2的幂区间再等分为16个桶,相对误差不超过1/16;
+ * 最大记录约2^40纳秒(约18分钟),超出部分计入最后一个桶。记录只做原子自增,不加锁也不分配内存,可多线程并发记录
+ *
+ * @author sun0x00@gmail.com
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 39;
+	private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+	private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong totalCount = new AtomicLong(0);
+	private final AtomicLong totalValue = new AtomicLong(0);
+	private final AtomicLong maxValue = new AtomicLong(0);
+
+	/**
+	 * 记录一个值,小于0的值忽略
+	 *
+	 * @param value 纳秒
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			return;
+		}
+		counts.incrementAndGet(getBucketIndex(Math.min(value, MAX_VALUE)));
+		totalCount.incrementAndGet();
+		totalValue.addAndGet(value);
+		long max = maxValue.get();
+		while (value > max && !maxValue.compareAndSet(max, value)) {
+			max = maxValue.get();
+		}
+	}
+
+	/**
+	 * 获取百分位数
+	 *
+	 * @param percentile 范围[0,100]
+	 * @return 该百分位所在桶的上界,没有记录时返回0
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long count = totalCount.get();
+		if (count == 0) {
+			return 0;
+		}
+		long targetCount = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long cumulativeCount = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			cumulativeCount += counts.get(i);
+			if (cumulativeCount >= targetCount) {
+				return Math.min(getBucketUpperBound(i), maxValue.get());
+			}
+		}
+		return maxValue.get();
+	}
+
+	public long getCount() {
+		return totalCount.get();
+	}
+
+	public long getMax() {
+		return maxValue.get();
+	}
+
+	public double getMean() {
+		long count = totalCount.get();
+		return count == 0 ? 0 : (double) totalValue.get() / count;
+	}
+
+	/**
+	 * 清空,与并发的记录之间不保证原子性
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts.set(i, 0);
+		}
+		totalCount.set(0);
+		totalValue.set(0);
+		maxValue.set(0);
+	}
+
+	private static int getBucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+		return SUB_BUCKET_COUNT + (exponent - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	private static long getBucketUpperBound(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+		int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+		return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,188 @@
+package xyz.redtorch.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MongoDB异步批量写入器,在独立线程中运行
+ *
+ * 写入请求先放入有界队列,放入操作不阻塞,队列已满时丢弃并计数;
+ * 写入线程攒够batchSize条或者最早一条等待超过flushInterval毫秒时,按库和集合分组调用insertMany
+ *
+ * @author sun0x00@gmail.com
+ */
+public class MongoDBBatchWriter implements Runnable {
+
+	private static Logger log = LoggerFactory.getLogger(MongoDBBatchWriter.class);
+
+	private static final long REPORT_INTERVAL = 60 * 1000L; // 写入状态日志间隔
+
+	private final MongoDBClient mongoDBClient;
+	private final int batchSize;
+	private final long flushInterval;
+	private final ArrayBlockingQueue<WriteItem> writeItemQueue;
+
+	private final AtomicLong droppedCount = new AtomicLong(0L); // 队列已满被丢弃的数量
+	private volatile long writtenCount = 0L; // 已写入数量
+	private volatile long lastWriteLag = 0L; // 最近一批中最早一条从放入到写入完成的耗时,毫秒
+	private volatile long maxWriteLag = 0L; // 最大写入延迟,毫秒
+
+	private volatile boolean stopped = false;
+
+	/**
+	 * @param mongoDBClient
+	 * @param batchSize 每批最大条数
+	 * @param flushInterval 最长等待时间,毫秒
+	 * @param capacity 队列容量
+	 */
+	public MongoDBBatchWriter(MongoDBClient mongoDBClient, int batchSize, long flushInterval, int capacity) {
+		this.mongoDBClient = mongoDBClient;
+		this.batchSize = batchSize;
+		this.flushInterval = flushInterval;
+		this.writeItemQueue = new ArrayBlockingQueue<>(capacity);
+	}
+
+	/**
+	 * 放入写入请求,不阻塞
+	 * @param dbName
+	 * @param collectionName
+	 * @param document
+	 * @return 队列已满或写入器已停止时返回false
+	 */
+	public boolean offer(String dbName, String collectionName, Document document) {
+		if (stopped || !writeItemQueue.offer(new WriteItem(dbName, collectionName, document))) {
+			droppedCount.incrementAndGet();
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void run() {
+		List<WriteItem> batch = new ArrayList<>(batchSize);
+		long lastReportTime = System.currentTimeMillis();
+		while (true) {
+			try {
+				WriteItem firstWriteItem = writeItemQueue.poll(flushInterval, TimeUnit.MILLISECONDS);
+				if (firstWriteItem != null) {
+					batch.add(firstWriteItem);
+					// 等待凑够一批,最多等到最早一条放入后flushInterval毫秒
+					long deadline = firstWriteItem.enqueueTime + flushInterval;
+					while (batch.size() < batchSize) {
+						writeItemQueue.drainTo(batch, batchSize - batch.size());
+						long waitTime = deadline - System.currentTimeMillis();
+						if (batch.size() >= batchSize || waitTime <= 0 || stopped) {
+							break;
+						}
+						WriteItem writeItem = writeItemQueue.poll(waitTime, TimeUnit.MILLISECONDS);
+						if (writeItem == null) {
+							break;
+						}
+						batch.add(writeItem);
+					}
+					write(batch);
+					batch.clear();
+				} else if (stopped) {
+					break;
+				}
+			} catch (InterruptedException e) {
+				log.error("批量写入线程捕获到中断异常,写入剩余数据后停止", e);
+				stopped = true;
+			} catch (Exception e) {
+				log.error("批量写入发生异常,丢弃{}条数据", batch.size(), e);
+				batch.clear();
+			}
+
+			if (System.currentTimeMillis() - lastReportTime >= REPORT_INTERVAL) {
+				lastReportTime = System.currentTimeMillis();
+				log.info("批量写入状态,已写入{}条,待写入{}条,丢弃{}条,最近延迟{}ms,最大延迟{}ms", writtenCount,
+						writeItemQueue.size(), droppedCount.get(), lastWriteLag, maxWriteLag);
+			}
+		}
+
+		// 停止后写入剩余数据
+		while (!writeItemQueue.isEmpty()) {
+			writeItemQueue.drainTo(batch, batchSize);
+			write(batch);
+			batch.clear();
+		}
+		log.info("批量写入线程结束,共写入{}条,丢弃{}条", writtenCount, droppedCount.get());
+	}
+
+	private void write(List<WriteItem> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		Map<String, List<Document>> documentListMap = new LinkedHashMap<>();
+		Map<String, WriteItem> firstWriteItemMap = new LinkedHashMap<>();
+		for (WriteItem writeItem : batch) {
+			String key = writeItem.dbName + "|" + writeItem.collectionName;
+			List<Document> documentList = documentListMap.get(key);
+			if (documentList == null) {
+				documentList = new ArrayList<>();
+				documentListMap.put(key, documentList);
+				firstWriteItemMap.put(key, writeItem);
+			}
+			documentList.add(writeItem.document);
+		}
+		for (Map.Entry<String, List<Document>> entry : documentListMap.entrySet()) {
+			WriteItem firstWriteItem = firstWriteItemMap.get(entry.getKey());
+			mongoDBClient.insertManyUnordered(firstWriteItem.dbName, firstWriteItem.collectionName, entry.getValue());
+		}
+		writtenCount += batch.size();
+		long writeLag = System.currentTimeMillis() - batch.get(0).enqueueTime;
+		lastWriteLag = writeLag;
+		if (writeLag > maxWriteLag) {
+			maxWriteLag = writeLag;
+		}
+	}
+
+	/**
+	 * 停止写入,写入线程会先写完队列中剩余的数据
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	public int getPendingCount() {
+		return writeItemQueue.size();
+	}
+
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	public long getWrittenCount() {
+		return writtenCount;
+	}
+
+	public long getLastWriteLag() {
+		return lastWriteLag;
+	}
+
+	public long getMaxWriteLag() {
+		return maxWriteLag;
+	}
+
+	private static class WriteItem {
+		final String dbName;
+		final String collectionName;
+		final Document document;
+		final long enqueueTime = System.currentTimeMillis();
+
+		WriteItem(String dbName, String collectionName, Document document) {
+			this.dbName = dbName;
+			this.collectionName = collectionName;
+			this.document = document;
+		}
+	}
+}
@@ -5,6 +5,8 @@ import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -12,6 +14,7 @@ import org.slf4j.LoggerFactory;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.Block;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientOptions;
 import com.mongodb.MongoCredential;
@@ -20,10 +23,14 @@ import com.mongodb.ServerAddress;
 import com.mongodb.WriteConcern;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
 import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 
@@ -185,6 +192,52 @@ public class MongoDBClient {
 		return false;
 	}
 
+	/**
+	 * 无序插入数据集合,单条数据失败(例如重复键)不影响其他数据写入,用于批量写入行情
+	 * 
+	 * @param dbName
+	 * @param collectionName
+	 * @param documentList
+	 * @return 全部写入成功返回true
+	 */
+	public boolean insertManyUnordered(String dbName, String collectionName, List<Document> documentList) {
+		if (documentList != null && !documentList.isEmpty()) {
+			try {
+				mongoClient.getDatabase(dbName).getCollection(collectionName).insertMany(documentList,
+						new InsertManyOptions().ordered(false));
+			} catch (MongoBulkWriteException e) {
+				log.warn("MongoDB无序插入{}共{}条,其中{}条失败", collectionName, documentList.size(),
+						e.getWriteErrors().size());
+				return false;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 无序批量写入,单条失败不影响其他操作
+	 * 
+	 * @param dbName
+	 * @param collectionName
+	 * @param writeModelList
+	 * @return 全部写入成功返回true
+	 */
+	public boolean bulkWrite(String dbName, String collectionName, List<WriteModel<Document>> writeModelList) {
+		if (writeModelList != null && !writeModelList.isEmpty()) {
+			try {
+				mongoClient.getDatabase(dbName).getCollection(collectionName).bulkWrite(writeModelList,
+						new BulkWriteOptions().ordered(false));
+			} catch (MongoBulkWriteException e) {
+				log.warn("MongoDB批量写入{}共{}条,其中{}条失败", collectionName, writeModelList.size(),
+						e.getWriteErrors().size());
+				return false;
+			}
+			return true;
+		}
+		return false;
+	}
+
 	/**
 	 * 通过_id删除数据
 	 * 
@@ -326,6 +379,92 @@ public class MongoDBClient {
 		return resultList;
 	}
 
+	/**
+	 * 通过过滤条件查询数据并排序,使用BeanCodec直接解码为Bean,不创建中间的Document
+	 * 
+	 * @param dbName
+	 * @param collectionName
+	 * @param filter
+	 * @param sort
+	 * @param beanCodec
+	 * @return
+	 */
+	public <T> List<T> find(String dbName, String collectionName, Bson filter, BasicDBObject sort,
+			BeanCodec<T> beanCodec) {
+		List<T> resultList = new ArrayList<T>();
+		if (filter != null) {
+			FindIterable<T> beans = getCollection(dbName, collectionName, beanCodec).find(filter);
+			if (sort != null) {
+				beans = beans.sort(sort);
+			}
+			beans.into(resultList);
+		}
+		return resultList;
+	}
+
+	/**
+	 * 通过过滤条件打开游标流式查询,每次从服务器读取batchSize条,不一次性加载全部结果,使用完毕必须关闭游标
+	 * 
+	 * @param dbName
+	 * @param collectionName
+	 * @param filter
+	 * @param sort 可为null
+	 * @param projection 返回的字段,为null时返回全部字段
+	 * @param hint 指定使用的索引,为null时由数据库选择
+	 * @param batchSize 每批条数,不大于0时使用数据库默认值
+	 * @return
+	 */
+	public MongoCursor<Document> findCursor(String dbName, String collectionName, Bson filter, Bson sort,
+			Bson projection, Bson hint, int batchSize) {
+		return openCursor(mongoClient.getDatabase(dbName).getCollection(collectionName).find(filter), sort,
+				projection, hint, batchSize);
+	}
+
+	/**
+	 * 通过过滤条件打开游标流式查询,使用BeanCodec直接解码为Bean,使用完毕必须关闭游标
+	 * 
+	 * 使用projection时未返回的字段保持Bean的默认值
+	 * 
+	 * @param dbName
+	 * @param collectionName
+	 * @param filter
+	 * @param sort 可为null
+	 * @param projection 返回的字段,为null时返回全部字段
+	 * @param hint 指定使用的索引,为null时由数据库选择
+	 * @param batchSize 每批条数,不大于0时使用数据库默认值
+	 * @param beanCodec
+	 * @return
+	 */
+	public <T> MongoCursor<T> findCursor(String dbName, String collectionName, Bson filter, Bson sort,
+			Bson projection, Bson hint, int batchSize, BeanCodec<T> beanCodec) {
+		return openCursor(getCollection(dbName, collectionName, beanCodec).find(filter), sort, projection, hint,
+				batchSize);
+	}
+
+	private <T> MongoCursor<T> openCursor(FindIterable<T> findIterable, Bson sort, Bson projection, Bson hint,
+			int batchSize) {
+		if (sort != null) {
+			findIterable = findIterable.sort(sort);
+		}
+		if (projection != null) {
+			findIterable = findIterable.projection(projection);
+		}
+		if (hint != null) {
+			findIterable = findIterable.hint(hint);
+		}
+		if (batchSize > 0) {
+			findIterable = findIterable.batchSize(batchSize);
+		}
+		return findIterable.iterator();
+	}
+
+	private <T> MongoCollection<T> getCollection(String dbName, String collectionName, BeanCodec<T> beanCodec) {
+		CodecRegistry codecRegistry = CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(beanCodec),
+				MongoClient.getDefaultCodecRegistry());
+		return mongoClient.getDatabase(dbName).getCollection(collectionName, beanCodec.getEncoderClass())
+				.withCodecRegistry(codecRegistry);
+	}
+
 	/**
 	 * 通过_id查找
 	 * 
@@ -425,6 +564,18 @@ public class MongoDBClient {
 		return getDatabase(dbName).getCollection(collectionName).count();
 	}
 
+	/**
+	 * 统计符合条件的数据条数
+	 * 
+	 * @param dbName
+	 * @param collectionName
+	 * @param filter
+	 * @return
+	 */
+	public long count(String dbName, String collectionName, Bson filter) {
+		return getDatabase(dbName).getCollection(collectionName).count(filter);
+	}
+
 	/**
 	 * 查询dbName下的所有表名
 	 * 
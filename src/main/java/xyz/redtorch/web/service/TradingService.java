@@ -3,6 +3,7 @@ package xyz.redtorch.web.service;
 import java.util.List;
 import java.util.Map;
 
+import xyz.redtorch.trader.engine.main.VersionedStateStore.StateChanges;
 import xyz.redtorch.trader.entity.Account;
 import xyz.redtorch.trader.entity.Contract;
 import xyz.redtorch.trader.entity.LocalPositionDetail;
@@ -20,14 +21,22 @@ public interface TradingService {
 
 	List<Trade> getTrades();
 
+	StateChanges<Trade> getTradeChanges(long version);
+
 	List<Order> getOrders();
 
+	StateChanges<Order> getOrderChanges(long version);
+
 	List<LocalPositionDetail> getLocalPositionDetails();
 	
 	List<Position> getPositions();
 
+	StateChanges<Position> getPositionChanges(long version);
+
 	List<Account> getAccounts();
 
+	StateChanges<Account> getAccountChanges(long version);
+
 	List<Contract> getContracts();
 	
 	List<GatewaySetting> getGatewaySettings();
@@ -58,6 +67,8 @@ public interface TradingService {
 
 	List<LogData> getLogDatas();
 
+	List<Map<String, Object>> getLatencies();
+
 	String sendOrder(String gatewayID, String rtSymbol, double price, int volume, String priceType, String direction,
 			String offset);
 
@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -16,12 +15,16 @@ import org.springframework.stereotype.Service;
 
 import com.alibaba.fastjson.JSON;
 
+import xyz.redtorch.trader.base.BaseConfig;
 import xyz.redtorch.trader.base.RtConstant;
 import xyz.redtorch.trader.engine.event.EventConstant;
 import xyz.redtorch.trader.engine.event.EventData;
 import xyz.redtorch.trader.engine.event.EventEngine;
 import xyz.redtorch.trader.engine.event.EventListener;
+import xyz.redtorch.trader.engine.event.EventQueue;
+import xyz.redtorch.trader.engine.event.queue.EventQueueFactory;
 import xyz.redtorch.trader.engine.main.MainEngine;
+import xyz.redtorch.trader.engine.main.VersionedStateStore.StateChanges;
 import xyz.redtorch.trader.engine.main.impl.MainEngineImpl;
 import xyz.redtorch.trader.entity.Account;
 import xyz.redtorch.trader.entity.CancelOrderReq;
@@ -35,7 +38,12 @@ import xyz.redtorch.trader.entity.SubscribeReq;
 import xyz.redtorch.trader.entity.Tick;
 import xyz.redtorch.trader.entity.Trade;
 import xyz.redtorch.trader.gateway.Gateway;
+import xyz.redtorch.trader.gateway.GatewayLatency;
 import xyz.redtorch.trader.gateway.GatewaySetting;
+import xyz.redtorch.trader.module.bar.BarEngine;
+import xyz.redtorch.trader.module.bar.impl.BarEngineImpl;
+import xyz.redtorch.trader.module.recorder.RecorderEngine;
+import xyz.redtorch.trader.module.recorder.impl.RecorderEngineImpl;
 import xyz.redtorch.trader.module.zeus.ZeusEngine;
 import xyz.redtorch.trader.module.zeus.impl.TradingEngineImpl;
 import xyz.redtorch.trader.module.zeus.strategy.Strategy;
@@ -54,13 +62,17 @@ public class TradingServiceImpl implements TradingService{
 	@Autowired
 	private SocketIOMessageEventHandler socketIOMessageEventHandler;
 	
-	LinkedBlockingQueue<EventData> eventDataQueue = new LinkedBlockingQueue<>();
+	// 界面只需要最新行情,可以配置为只转发最新的Tick
+	EventQueue eventDataQueue = EventQueueFactory
+			.createEventQueue(BaseConfig.rtConfig.getBoolean("rt.socketio.tick.conflate", false));
 	
 	// 使用无大小限制的线程池,线程空闲60s会被释放
 	ExecutorService executor = Executors.newCachedThreadPool();
 	
 	private MainEngine mainEngine = new MainEngineImpl();
-	private ZeusEngine zeusEngine  =new TradingEngineImpl(mainEngine);
+	// 多个策略订阅同一合约时共享Bar合成
+	private BarEngine barEngine = new BarEngineImpl(mainEngine);
+	private ZeusEngine zeusEngine  =new TradingEngineImpl(mainEngine, barEngine);
 	
 	public TradingServiceImpl() {
 		EventTransferTask eventTransferTask = new EventTransferTask();
@@ -77,10 +89,18 @@ public class TradingServiceImpl implements TradingService{
 
 		// 这一步暂时没有实际意义，预留
 		mainEngine.addModel(zeusEngine);
+		mainEngine.addModel(barEngine);
 
 		executor.execute(mainEngine);
+		executor.execute(barEngine);
 		executor.execute(zeusEngine);
 		executor.execute(eventTransferTask);
+
+		if (BaseConfig.rtConfig.getBoolean("module.recorder.enabled", false)) {
+			RecorderEngine recorderEngine = new RecorderEngineImpl(mainEngine);
+			mainEngine.addModel(recorderEngine);
+			executor.execute(recorderEngine);
+		}
 	}
 	
 	@Override
@@ -173,11 +193,21 @@ public class TradingServiceImpl implements TradingService{
 		return mainEngine.getTrades();
 	}
 
+	@Override
+	public StateChanges<Trade> getTradeChanges(long version){
+		return mainEngine.getTradeChanges(version);
+	}
+
 	@Override
 	public  List<Order> getOrders(){
 		return mainEngine.getOrders();
 	}
 
+	@Override
+	public StateChanges<Order> getOrderChanges(long version){
+		return mainEngine.getOrderChanges(version);
+	}
+
 	@Override
 	public  List<LocalPositionDetail> getLocalPositionDetails(){
 		return mainEngine.getLocalPositionDetails();
@@ -187,9 +217,17 @@ public class TradingServiceImpl implements TradingService{
 		return mainEngine.getPositions();
 	}
 	@Override
+	public StateChanges<Position> getPositionChanges(long version) {
+		return mainEngine.getPositionChanges(version);
+	}
+	@Override
 	public  List<Account> getAccounts(){
 		return mainEngine.getAccounts();
 	}
+	@Override
+	public StateChanges<Account> getAccountChanges(long version){
+		return mainEngine.getAccountChanges(version);
+	}
 
 	@Override
 	public List<Contract> getContracts(){
@@ -261,6 +299,7 @@ public class TradingServiceImpl implements TradingService{
 			
 			strategyInfo.put("paramMap", strategy.getParamMap());
 			strategyInfo.put("varMap", strategy.getVarMap());
+			strategyInfo.put("eventQueueStatus", strategy.getEventQueueStatus());
 			strategyInfos.add(strategyInfo);
 		}
 		return strategyInfos;
@@ -309,6 +348,11 @@ public class TradingServiceImpl implements TradingService{
 	public List<LogData> getLogDatas() {
 		return mainEngine.getLogDatas();
 	}
+
+	@Override
+	public List<Map<String, Object>> getLatencies() {
+		return GatewayLatency.getSummaryList();
+	}
 	
 	class EventTransferTask implements EventListener{
 
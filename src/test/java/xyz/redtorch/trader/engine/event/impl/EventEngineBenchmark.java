@@ -0,0 +1,101 @@
+package xyz.redtorch.trader.engine.event.impl;
+
+import xyz.redtorch.trader.engine.event.EventConstant;
+import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.EventKey;
+import xyz.redtorch.trader.engine.event.EventListener;
+
+/**
+ * 事件引擎emit耗时简单测试,不作为单元测试运行,需要时直接执行main方法
+ *
+ * 预先注册数千个委托事件键,另一线程持续注册和删除委托监听,观察emit耗时是否随注册表大小和并发修改变化
+ *
+ * @author sun0x00@gmail.com
+ */
+public class EventEngineBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int ROUNDS = 10;
+	private static final int EMITS_PER_ROUND = 5000000;
+	private static final int[] ORDER_KEY_COUNTS = { 0, 1000, 10000 };
+
+	private static class CountingListener implements EventListener {
+		long count = 0;
+
+		@Override
+		public void run() {
+		}
+
+		@Override
+		public void onEvent(EventData eventData) {
+			count++;
+		}
+
+		@Override
+		public void stop() {
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (int orderKeyCount : ORDER_KEY_COUNTS) {
+			for (boolean churn : new boolean[] { false, true }) {
+				run(orderKeyCount, churn);
+			}
+		}
+	}
+
+	private static void run(int orderKeyCount, boolean churn) throws Exception {
+		EventEngineImpl eventEngine = new EventEngineImpl();
+		String tickEvent = EventConstant.EVENT_TICK + "rb1805.SHFE";
+		CountingListener[] tickListeners = new CountingListener[4];
+		for (int i = 0; i < tickListeners.length; i++) {
+			tickListeners[i] = new CountingListener();
+			eventEngine.registerListener(tickEvent, tickListeners[i]);
+		}
+		CountingListener orderListener = new CountingListener();
+		for (int i = 0; i < orderKeyCount; i++) {
+			eventEngine.registerListener(EventConstant.EVENT_ORDER + "CTP." + i, orderListener);
+		}
+
+		// 模拟策略发单时注册、委托结束后删除监听
+		Thread churnThread = new Thread(() -> {
+			long orderRef = orderKeyCount;
+			while (!Thread.currentThread().isInterrupted()) {
+				String event = EventConstant.EVENT_ORDER + "CTP." + orderRef++;
+				eventEngine.registerListener(event, orderListener);
+				eventEngine.removeListener(event, orderListener);
+			}
+		});
+		churnThread.setDaemon(true);
+		if (churn) {
+			churnThread.start();
+		}
+
+		EventKey tickEventKey = eventEngine.getEventKey(tickEvent);
+		EventData eventData = new EventData();
+		eventData.setEvent(tickEvent);
+		eventData.setEventType(EventConstant.EVENT_TICK);
+		for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+			long startNanos = System.nanoTime();
+			for (int i = 0; i < EMITS_PER_ROUND; i++) {
+				eventEngine.emit(tickEvent, eventData);
+			}
+			long stringNanos = System.nanoTime() - startNanos;
+
+			startNanos = System.nanoTime();
+			for (int i = 0; i < EMITS_PER_ROUND; i++) {
+				eventEngine.emit(tickEventKey, eventData);
+			}
+			long keyNanos = System.nanoTime() - startNanos;
+
+			if (round >= WARMUP_ROUNDS) {
+				System.out.println(String.format("order keys %5d churn %-5s round %d emit(String) %.1f ns emit(EventKey) %.1f ns",
+						orderKeyCount, churn, round - WARMUP_ROUNDS, (double) stringNanos / EMITS_PER_ROUND,
+						(double) keyNanos / EMITS_PER_ROUND));
+			}
+		}
+		churnThread.interrupt();
+		churnThread.join();
+		System.out.println("blackhole " + tickListeners[0].count);
+	}
+}
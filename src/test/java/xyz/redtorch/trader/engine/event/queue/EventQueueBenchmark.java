@@ -0,0 +1,72 @@
+package xyz.redtorch.trader.engine.event.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.EventQueue;
+import xyz.redtorch.trader.engine.event.queue.RingBufferEventQueue.WaitStrategy;
+
+/**
+ * 链表队列与环形缓冲区队列在1个和多个生产者下的吞吐量与平均延迟简单对比,不作为单元测试运行,需要时直接执行main方法
+ *
+ * 生产者全速写入,平均延迟包含排队时间
+ *
+ * @author sun0x00@gmail.com
+ */
+public class EventQueueBenchmark {
+
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int ROUNDS = 5;
+	private static final int EVENTS_PER_ROUND = 2000000;
+	private static final int BUFFER_SIZE = 65536;
+	private static final int[] PRODUCER_COUNTS = { 1, 4 };
+
+	public static void main(String[] args) throws Exception {
+		for (int producers : PRODUCER_COUNTS) {
+			for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+				boolean print = round >= WARMUP_ROUNDS;
+				run("linked", new LinkedEventQueue(), producers, print);
+				for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+					run("ring-" + waitStrategy, new RingBufferEventQueue(BUFFER_SIZE, waitStrategy), producers, print);
+				}
+			}
+		}
+	}
+
+	private static void run(String name, EventQueue eventQueue, int producers, boolean print) throws Exception {
+		int eventsPerProducer = EVENTS_PER_ROUND / producers;
+		List<Thread> producerList = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < eventsPerProducer; i++) {
+					EventData eventData = new EventData();
+					// 发送时间,用于统计平均延迟
+					eventData.setEventObj(System.nanoTime());
+					eventQueue.add(eventData);
+				}
+			});
+			thread.setDaemon(true);
+			producerList.add(thread);
+		}
+
+		long startNanos = System.nanoTime();
+		for (Thread thread : producerList) {
+			thread.start();
+		}
+		long latencySum = 0;
+		int total = eventsPerProducer * producers;
+		for (int i = 0; i < total; i++) {
+			EventData eventData = eventQueue.take();
+			latencySum += System.nanoTime() - (Long) eventData.getEventObj();
+		}
+		long elapsedNanos = System.nanoTime() - startNanos;
+		for (Thread thread : producerList) {
+			thread.join();
+		}
+		if (print) {
+			System.out.println(String.format("%-16s producers %d %.2f M events/s avg latency %.1f us", name, producers,
+					total * 1e3 / elapsedNanos, latencySum / 1e3 / total));
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package xyz.redtorch.trader.engine.event.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import xyz.redtorch.trader.engine.event.EventData;
+import xyz.redtorch.trader.engine.event.queue.RingBufferEventQueue.WaitStrategy;
+
+/**
+ * 多生产者并发写入环形缓冲区,检查不丢失、不重复且每个生产者内部保持顺序
+ *
+ * @author sun0x00@gmail.com
+ */
+public class RingBufferEventQueueTest {
+
+	private static final int PRODUCERS = 4;
+	private static final int EVENTS_PER_PRODUCER = 200000;
+
+	@Test(timeout = 60000)
+	public void testMultiProducerBusySpin() throws Exception {
+		assertMultiProducer(new RingBufferEventQueue(64, WaitStrategy.BUSY_SPIN), EVENTS_PER_PRODUCER);
+	}
+
+	@Test(timeout = 60000)
+	public void testMultiProducerYield() throws Exception {
+		assertMultiProducer(new RingBufferEventQueue(64, WaitStrategy.YIELD), EVENTS_PER_PRODUCER);
+	}
+
+	@Test(timeout = 60000)
+	public void testMultiProducerPark() throws Exception {
+		assertMultiProducer(new RingBufferEventQueue(1024, WaitStrategy.PARK), EVENTS_PER_PRODUCER);
+	}
+
+	/**
+	 * 只有一个槽位时每次写入都要等待消费者,生产者等待较慢,减少事件数
+	 */
+	@Test(timeout = 60000)
+	public void testSingleSlot() throws Exception {
+		assertMultiProducer(new RingBufferEventQueue(1, WaitStrategy.YIELD), 5000);
+	}
+
+	@Test
+	public void testWrapAround() throws Exception {
+		RingBufferEventQueue queue = new RingBufferEventQueue(4, WaitStrategy.BUSY_SPIN);
+		for (int round = 0; round < 10; round++) {
+			for (int i = 0; i < 4; i++) {
+				queue.add(event(0, round * 4 + i));
+			}
+			assertEquals(4, queue.size());
+			for (int i = 0; i < 4; i++) {
+				assertEquals(round * 4 + i, ((long[]) queue.take().getEventObj())[1]);
+			}
+			assertEquals(0, queue.size());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBufferSizeNotPowerOfTwo() {
+		new RingBufferEventQueue(1000, WaitStrategy.PARK);
+	}
+
+	private static void assertMultiProducer(RingBufferEventQueue queue, int eventsPerProducer) throws Exception {
+		CountDownLatch startLatch = new CountDownLatch(1);
+		List<Thread> producerList = new ArrayList<>();
+		for (int p = 0; p < PRODUCERS; p++) {
+			final int producer = p;
+			Thread thread = new Thread(() -> {
+				try {
+					startLatch.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < eventsPerProducer; i++) {
+					queue.add(event(producer, i));
+				}
+			}, "PRODUCER-" + p);
+			thread.setDaemon(true);
+			producerList.add(thread);
+			thread.start();
+		}
+		startLatch.countDown();
+
+		long[] nextSequences = new long[PRODUCERS];
+		for (int i = 0; i < PRODUCERS * eventsPerProducer; i++) {
+			long[] payload = (long[]) queue.take().getEventObj();
+			int producer = (int) payload[0];
+			// 同一生产者的事件必须按顺序到达,序号不连续即为丢失或重复
+			assertEquals("生产者" + producer, nextSequences[producer], payload[1]);
+			nextSequences[producer]++;
+		}
+		for (Thread thread : producerList) {
+			thread.join();
+		}
+		for (int p = 0; p < PRODUCERS; p++) {
+			assertEquals(eventsPerProducer, nextSequences[p]);
+		}
+		assertEquals(0, queue.size());
+		// 全部取出后不应再有可读的槽位
+		Thread consumer = Thread.currentThread();
+		Thread interrupter = new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				return;
+			}
+			consumer.interrupt();
+		});
+		interrupter.start();
+		EventData extra = null;
+		try {
+			extra = queue.take();
+		} catch (InterruptedException e) {
+			// 预期
+		}
+		interrupter.join();
+		assertNull(extra);
+	}
+
+	static EventData event(int producer, long sequence) {
+		EventData eventData = new EventData();
+		eventData.setEventObj(new long[] { producer, sequence });
+		return eventData;
+	}
+}
@@ -0,0 +1,101 @@
+package xyz.redtorch.trader.engine.main.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import xyz.redtorch.trader.entity.LocalPositionDetail;
+
+/**
+ * 主引擎onTick更新持仓盈亏简单测试,不作为单元测试运行,需要时直接执行main方法
+ *
+ * 主引擎构造时会连接数据库,这里按MainEngineImpl的数据结构分别复现两种更新方式:
+ * 原方式复制全部持仓详细并逐个比较rtSymbol,现方式按rtSymbol索引取数组直接更新
+ *
+ * @author sun0x00@gmail.com
+ */
+public class LocalPositionIndexBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int ROUNDS = 5;
+	private static final int TICKS_PER_ROUND = 200000;
+	private static final int[] POSITION_COUNTS = { 10, 100, 1000, 10000 };
+	// 每个合约在几个接口上有持仓
+	private static final int GATEWAY_COUNT = 2;
+
+	public static void main(String[] args) {
+		for (int positionCount : POSITION_COUNTS) {
+			run(positionCount);
+		}
+	}
+
+	private static void run(int positionCount) {
+		Map<String, LocalPositionDetail> localPositionDetailMap = new ConcurrentHashMap<>();
+		Map<String, LocalPositionDetail[]> rtSymbolLocalPositionDetailsMap = new ConcurrentHashMap<>();
+		int symbolCount = positionCount / GATEWAY_COUNT;
+		String[] rtSymbols = new String[symbolCount];
+		for (int i = 0; i < symbolCount; i++) {
+			rtSymbols[i] = "rb" + i + ".SHFE";
+			for (int g = 0; g < GATEWAY_COUNT; g++) {
+				String gatewayID = "CTP" + g;
+				LocalPositionDetail localPositionDetail = new LocalPositionDetail(gatewayID, gatewayID, "SHFE",
+						rtSymbols[i], "rb" + i, "rb" + i, 10);
+				localPositionDetailMap.put(rtSymbols[i] + "." + gatewayID, localPositionDetail);
+				addToRtSymbolIndex(rtSymbolLocalPositionDetailsMap, localPositionDetail);
+			}
+		}
+
+		// tick按合约轮转,rtSymbol使用新字符串,与网关每次创建的Tick一致
+		String[] tickRtSymbols = new String[TICKS_PER_ROUND];
+		for (int i = 0; i < TICKS_PER_ROUND; i++) {
+			tickRtSymbols[i] = new String(rtSymbols[i % symbolCount]);
+		}
+
+		// 原方式在万级持仓时过慢,按比例减少tick数量
+		int scanTicks = Math.max(1000, TICKS_PER_ROUND / Math.max(1, positionCount / 100));
+		for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+			long startNanos = System.nanoTime();
+			for (int i = 0; i < scanTicks; i++) {
+				double lastPrice = 3000 + (i & 63);
+				for (LocalPositionDetail localPositionDetail : new ArrayList<>(localPositionDetailMap.values())) {
+					if (localPositionDetail.getRtSymbol().equals(tickRtSymbols[i])) {
+						localPositionDetail.updateLastPrice(lastPrice);
+					}
+				}
+			}
+			long scanNanos = System.nanoTime() - startNanos;
+
+			startNanos = System.nanoTime();
+			for (int i = 0; i < TICKS_PER_ROUND; i++) {
+				double lastPrice = 3000 + (i & 63);
+				LocalPositionDetail[] localPositionDetails = rtSymbolLocalPositionDetailsMap.get(tickRtSymbols[i]);
+				if (localPositionDetails != null) {
+					for (int j = 0; j < localPositionDetails.length; j++) {
+						localPositionDetails[j].updateLastPrice(lastPrice);
+					}
+				}
+			}
+			long indexNanos = System.nanoTime() - startNanos;
+
+			if (round >= WARMUP_ROUNDS) {
+				System.out.println(String.format("positions %5d round %d scan %.1f ns/tick index %.1f ns/tick",
+						positionCount, round - WARMUP_ROUNDS, (double) scanNanos / scanTicks,
+						(double) indexNanos / TICKS_PER_ROUND));
+			}
+		}
+	}
+
+	// 与MainEngineImpl.addToRtSymbolIndex相同
+	private static void addToRtSymbolIndex(Map<String, LocalPositionDetail[]> rtSymbolLocalPositionDetailsMap,
+			LocalPositionDetail localPositionDetail) {
+		LocalPositionDetail[] localPositionDetails = rtSymbolLocalPositionDetailsMap.get(localPositionDetail.getRtSymbol());
+		if (localPositionDetails == null) {
+			localPositionDetails = new LocalPositionDetail[] { localPositionDetail };
+		} else {
+			localPositionDetails = Arrays.copyOf(localPositionDetails, localPositionDetails.length + 1);
+			localPositionDetails[localPositionDetails.length - 1] = localPositionDetail;
+		}
+		rtSymbolLocalPositionDetailsMap.put(localPositionDetail.getRtSymbol(), localPositionDetails);
+	}
+}
@@ -0,0 +1,121 @@
+package xyz.redtorch.trader.entity;
+
+import java.lang.management.ManagementFactory;
+
+import org.joda.time.DateTime;
+
+/**
+ * Tick按MdSpi方式创建和填充时每个Tick的内存分配量与耗时,与原先装箱字段的布局对比,
+ * 不作为单元测试运行,需要时直接执行main方法
+ *
+ * 字符串和DateTime在两种布局中相同,预先创建,不计入对比;分配量通过com.sun.management.ThreadMXBean统计
+ *
+ * @author sun0x00@gmail.com
+ */
+public class TickAllocationBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int ROUNDS = 10;
+	private static final int TICKS_PER_ROUND = 1000000;
+
+	/**
+	 * 原先Tick的数值字段布局,使用包装类型且带默认值
+	 */
+	@SuppressWarnings("unused")
+	private static class BoxedTick {
+		Integer status;
+		Double lastPrice = 0d;
+		Integer lastVolume = 0;
+		Integer volume = 0;
+		Double openInterest = 0d;
+		Long preOpenInterest = 0L;
+		Double preClosePrice = 0d;
+		Double preSettlePrice = 0d;
+		Double openPrice = 0d;
+		Double highPrice = 0d;
+		Double lowPrice = 0d;
+		Double upperLimit = 0d;
+		Double lowerLimit = 0d;
+		Double bidPrice1 = 0d, bidPrice2 = 0d, bidPrice3 = 0d, bidPrice4 = 0d, bidPrice5 = 0d;
+		Double bidPrice6 = 0d, bidPrice7 = 0d, bidPrice8 = 0d, bidPrice9 = 0d, bidPrice10 = 0d;
+		Double askPrice1 = 0d, askPrice2 = 0d, askPrice3 = 0d, askPrice4 = 0d, askPrice5 = 0d;
+		Double askPrice6 = 0d, askPrice7 = 0d, askPrice8 = 0d, askPrice9 = 0d, askPrice10 = 0d;
+		Integer bidVolume1 = 0, bidVolume2 = 0, bidVolume3 = 0, bidVolume4 = 0, bidVolume5 = 0;
+		Integer bidVolume6 = 0, bidVolume7 = 0, bidVolume8 = 0, bidVolume9 = 0, bidVolume10 = 0;
+		Integer askVolume1 = 0, askVolume2 = 0, askVolume3 = 0, askVolume4 = 0, askVolume5 = 0;
+		Integer askVolume6 = 0, askVolume7 = 0, askVolume8 = 0, askVolume9 = 0, askVolume10 = 0;
+	}
+
+	public static void main(String[] args) {
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		DateTime dateTime = new DateTime();
+
+		double blackhole = 0;
+		for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+			long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+			long startNanos = System.nanoTime();
+			for (int i = 0; i < TICKS_PER_ROUND; i++) {
+				Tick tick = new Tick();
+				tick.setTradingDay("20180103");
+				tick.setGatewayID("CTP");
+				tick.setSymbol("rb1805");
+				tick.setExchange("SHFE");
+				tick.setRtSymbol("rb1805.SHFE");
+				tick.setActionDay("20180103");
+				tick.setDateTime(dateTime);
+				tick.setActionTimestamp(i);
+				tick.setLastPrice(3800 + (i & 63));
+				tick.setVolume(i);
+				tick.setOpenInterest(100000 + i);
+				tick.setOpenPrice(3790.0 + (i & 7));
+				tick.setHighPrice(3850.0 + (i & 7));
+				tick.setLowPrice(3750.0 + (i & 7));
+				tick.setPreClosePrice(3795.0 + (i & 7));
+				tick.setUpperLimit(4100.0 + (i & 7));
+				tick.setLowerLimit(3500.0 + (i & 7));
+				tick.setPreSettlePrice(3796.0 + (i & 7));
+				tick.setAskPrice1(3801.0 + (i & 63));
+				tick.setAskVolume1(i & 1023);
+				tick.setBidPrice1(3799.0 + (i & 63));
+				tick.setBidVolume1(i & 511);
+				// BarGenerator和停止单读取的字段
+				blackhole += tick.getLastPrice() + tick.getVolume() + tick.getAskPrice1() + tick.getBidPrice1();
+			}
+			long tickNanos = System.nanoTime() - startNanos;
+			long tickBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+			startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+			startNanos = System.nanoTime();
+			for (int i = 0; i < TICKS_PER_ROUND; i++) {
+				BoxedTick tick = new BoxedTick();
+				tick.lastPrice = 3800.0 + (i & 63);
+				tick.volume = i;
+				tick.openInterest = 100000.0 + i;
+				tick.openPrice = 3790.0 + (i & 7);
+				tick.highPrice = 3850.0 + (i & 7);
+				tick.lowPrice = 3750.0 + (i & 7);
+				tick.preClosePrice = 3795.0 + (i & 7);
+				tick.upperLimit = 4100.0 + (i & 7);
+				tick.lowerLimit = 3500.0 + (i & 7);
+				tick.preSettlePrice = 3796.0 + (i & 7);
+				tick.askPrice1 = 3801.0 + (i & 63);
+				tick.askVolume1 = i & 1023;
+				tick.bidPrice1 = 3799.0 + (i & 63);
+				tick.bidVolume1 = i & 511;
+				blackhole += tick.lastPrice + tick.volume + tick.askPrice1 + tick.bidPrice1;
+			}
+			long boxedNanos = System.nanoTime() - startNanos;
+			long boxedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+			if (round >= WARMUP_ROUNDS) {
+				System.out.println(String.format("round %d Tick %.1f bytes %.1f ns/tick boxed %.1f bytes %.1f ns/tick",
+						round - WARMUP_ROUNDS, (double) tickBytes / TICKS_PER_ROUND,
+						(double) tickNanos / TICKS_PER_ROUND, (double) boxedBytes / TICKS_PER_ROUND,
+						(double) boxedNanos / TICKS_PER_ROUND));
+			}
+		}
+		System.out.println("blackhole " + blackhole);
+	}
+}
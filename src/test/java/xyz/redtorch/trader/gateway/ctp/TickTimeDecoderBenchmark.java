@@ -0,0 +1,47 @@
+package xyz.redtorch.trader.gateway.ctp;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * TickTimeDecoder与原先Joda格式化解析方式的简单耗时对比,不作为单元测试运行,需要时直接执行main方法
+ *
+ * @author sun0x00@gmail.com
+ */
+public class TickTimeDecoderBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int ROUNDS = 10;
+	private static final int TICKS_PER_ROUND = 1000000;
+
+	public static void main(String[] args) {
+		DateTimeZone dateTimeZone = DateTimeZone.forID("Asia/Shanghai");
+		String[] updateTimes = new String[3600];
+		for (int i = 0; i < updateTimes.length; i++) {
+			updateTimes[i] = String.format("21:%02d:%02d", i / 60, i % 60);
+		}
+
+		long blackhole = 0;
+		for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+			TickTimeDecoder tickTimeDecoder = new TickTimeDecoder(dateTimeZone);
+			long startNanos = System.nanoTime();
+			for (int i = 0; i < TICKS_PER_ROUND; i++) {
+				blackhole += tickTimeDecoder.decode("20180102", updateTimes[i % updateTimes.length], i % 1000);
+			}
+			long decoderNanos = System.nanoTime() - startNanos;
+
+			startNanos = System.nanoTime();
+			for (int i = 0; i < TICKS_PER_ROUND; i++) {
+				blackhole += TickTimeDecoderTest.formatterDecode(dateTimeZone, "20180102",
+						updateTimes[i % updateTimes.length], String.valueOf(i % 1000));
+			}
+			long formatterNanos = System.nanoTime() - startNanos;
+
+			if (round >= WARMUP_ROUNDS) {
+				System.out.println(String.format("round %d decoder %.1f ns/tick formatter %.1f ns/tick",
+						round - WARMUP_ROUNDS, (double) decoderNanos / TICKS_PER_ROUND,
+						(double) formatterNanos / TICKS_PER_ROUND));
+			}
+		}
+		System.out.println("blackhole " + blackhole);
+	}
+}
@@ -0,0 +1,104 @@
+package xyz.redtorch.trader.gateway.ctp;
+
+import static org.junit.Assert.assertEquals;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.Test;
+
+import xyz.redtorch.trader.base.RtConstant;
+
+/**
+ * 与原先使用Joda格式化解析的结果对比,覆盖夜盘、零点切换和日盘时间
+ *
+ * @author sun0x00@gmail.com
+ */
+public class TickTimeDecoderTest {
+
+	private static final String[][] CASES = {
+			// 夜盘开盘
+			{ "20180102", "21:00:00", "0" },
+			{ "20180102", "21:00:00", "500" },
+			// 零点前后,ActionDay随之切换
+			{ "20180102", "23:59:59", "999" },
+			{ "20180103", "00:00:00", "0" },
+			{ "20180103", "02:30:00", "0" },
+			// 日盘
+			{ "20180103", "09:00:00", "0" },
+			{ "20180103", "10:15:00", "500" },
+			{ "20180103", "13:30:00", "0" },
+			{ "20180103", "14:59:59", "500" },
+			{ "20180103", "15:00:00", "0" },
+			// 跨年
+			{ "20181231", "23:59:59", "999" },
+			{ "20190101", "00:00:00", "0" } };
+
+	@Test
+	public void testDecodeMatchesFormatterUTC() {
+		assertDecodeMatchesFormatter(DateTimeZone.UTC);
+	}
+
+	@Test
+	public void testDecodeMatchesFormatterShanghai() {
+		assertDecodeMatchesFormatter(DateTimeZone.forID("Asia/Shanghai"));
+	}
+
+	@Test
+	public void testDefaultTimeZone() {
+		// 默认构造方法使用默认时区,与DataEngineImpl设置的默认时区一致
+		DateTimeZone defaultDateTimeZone = DateTimeZone.getDefault();
+		try {
+			DateTimeZone.setDefault(DateTimeZone.forID("Asia/Shanghai"));
+			assertEquals(new TickTimeDecoder(DateTimeZone.forID("Asia/Shanghai")).decode("20180102", "21:00:00", 0),
+					new TickTimeDecoder().decode("20180102", "21:00:00", 0));
+		} finally {
+			DateTimeZone.setDefault(defaultDateTimeZone);
+		}
+	}
+
+	@Test
+	public void testMidnightRollover() {
+		TickTimeDecoder tickTimeDecoder = new TickTimeDecoder(DateTimeZone.UTC);
+		long beforeMidnight = tickTimeDecoder.decode("20180102", "23:59:59", 999);
+		long midnight = tickTimeDecoder.decode("20180103", "00:00:00", 0);
+		assertEquals(1L, midnight - beforeMidnight);
+		// 切换后再次使用前一天的ActionDay也能正确计算
+		assertEquals(beforeMidnight, tickTimeDecoder.decode("20180102", "23:59:59", 999));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidUpdateTime() {
+		new TickTimeDecoder(DateTimeZone.UTC).decode("20180102", "9:00:00", 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidActionDay() {
+		new TickTimeDecoder(DateTimeZone.UTC).decode("2018012", "21:00:00", 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidMillisec() {
+		new TickTimeDecoder(DateTimeZone.UTC).decode("20180102", "21:00:00", 1000);
+	}
+
+	private static void assertDecodeMatchesFormatter(DateTimeZone dateTimeZone) {
+		TickTimeDecoder tickTimeDecoder = new TickTimeDecoder(dateTimeZone);
+		for (String[] c : CASES) {
+			assertEquals(c[0] + " " + c[1] + "." + c[2], formatterDecode(dateTimeZone, c[0], c[1], c[2]),
+					tickTimeDecoder.decode(c[0], c[1], Integer.parseInt(c[2])));
+		}
+	}
+
+	/**
+	 * 原先MdSpi中的解析方式
+	 */
+	static long formatterDecode(DateTimeZone dateTimeZone, String actionDay, String updateTime,
+			String updateMillisec) {
+		DateTimeFormatter formatter = RtConstant.DT_FORMAT_WITH_MS_INT_Formatter.withZone(dateTimeZone);
+		Long updateTimeLong = Long.valueOf(updateTime.replaceAll(":", ""));
+		Long actionDayLong = Long.valueOf(actionDay);
+		String updateDateTimeWithMS = (actionDayLong * 100 * 100 * 100 * 1000 + updateTimeLong * 1000
+				+ Long.valueOf(updateMillisec)) + "";
+		return formatter.parseDateTime(updateDateTimeWithMS).getMillis();
+	}
+}
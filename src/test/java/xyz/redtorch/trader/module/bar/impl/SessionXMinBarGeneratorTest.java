@@ -0,0 +1,126 @@
+package xyz.redtorch.trader.module.bar.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import xyz.redtorch.trader.base.RtConstant;
+import xyz.redtorch.trader.entity.Bar;
+import xyz.redtorch.trader.module.bar.TradingSession;
+
+/**
+ * 按交易所交易时段划分X分钟Bar,划分结果与开始接收的Bar无关
+ *
+ * @author sun0x00@gmail.com
+ */
+public class SessionXMinBarGeneratorTest {
+
+	private static final DateTimeZone ZONE = DateTimeZone.forID("Asia/Shanghai");
+
+	private static final TradingSession SHFE = new TradingSession(RtConstant.EXCHANGE_SHFE,
+			"21:00-02:30,09:00-10:15,10:30-11:30,13:30-15:00");
+
+	@Test
+	public void testTradingMinuteIndex() {
+		assertEquals(0, SHFE.getTradingMinuteIndex(time(2018, 1, 2, 21, 0)));
+		assertEquals(179, SHFE.getTradingMinuteIndex(time(2018, 1, 2, 23, 59)));
+		assertEquals(180, SHFE.getTradingMinuteIndex(time(2018, 1, 3, 0, 0)));
+		assertEquals(330, SHFE.getTradingMinuteIndex(time(2018, 1, 3, 9, 0)));
+		assertEquals(404, SHFE.getTradingMinuteIndex(time(2018, 1, 3, 10, 14)));
+		// 休市中的分钟归入下一时段第一分钟
+		assertEquals(405, SHFE.getTradingMinuteIndex(time(2018, 1, 3, 10, 20)));
+		assertEquals(405, SHFE.getTradingMinuteIndex(time(2018, 1, 3, 10, 30)));
+		assertEquals(0, SHFE.getTradingMinuteIndex(time(2018, 1, 2, 20, 59)));
+		// 收盘后归入最后一分钟
+		assertEquals(SHFE.getTradingMinutes() - 1, SHFE.getTradingMinuteIndex(time(2018, 1, 3, 14, 59)));
+		assertEquals(SHFE.getTradingMinutes() - 1, SHFE.getTradingMinuteIndex(time(2018, 1, 3, 15, 5)));
+		assertEquals(555, SHFE.getTradingMinutes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnconfiguredExchange() {
+		TradingSession.getTradingSession(RtConstant.EXCHANGE_UNKNOWN);
+	}
+
+	@Test
+	public void testPeriodSpansSessionBreak() {
+		List<Bar> xMinBarList = new ArrayList<>();
+		SessionXMinBarGenerator generator = new SessionXMinBarGenerator(30, SHFE, xMinBarList::add);
+		for (DateTime dateTime = time(2018, 1, 3, 10, 0); dateTime.isBefore(time(2018, 1, 3, 11, 0)); dateTime = dateTime
+				.plusMinutes(1)) {
+			if (dateTime.getMinuteOfDay() >= 10 * 60 + 15 && dateTime.getMinuteOfDay() < 10 * 60 + 30) {
+				continue;
+			}
+			generator.updateBar(bar("20180103", dateTime));
+		}
+		// 10:00-10:14与10:30-10:44合成一根,10:45开始的Bar尚未满30分钟
+		assertEquals(1, xMinBarList.size());
+		assertEquals(time(2018, 1, 3, 10, 0), xMinBarList.get(0).getDateTime());
+		assertEquals(30, xMinBarList.get(0).getVolume().intValue());
+	}
+
+	@Test
+	public void testIndependentOfFirstBar() {
+		List<Bar> fromOpenList = new ArrayList<>();
+		List<Bar> fromMiddleList = new ArrayList<>();
+		SessionXMinBarGenerator fromOpen = new SessionXMinBarGenerator(15, SHFE, fromOpenList::add);
+		SessionXMinBarGenerator fromMiddle = new SessionXMinBarGenerator(15, SHFE, fromMiddleList::add);
+		for (DateTime dateTime = time(2018, 1, 3, 9, 0); dateTime.isBefore(time(2018, 1, 3, 10, 0)); dateTime = dateTime
+				.plusMinutes(1)) {
+			fromOpen.updateBar(bar("20180103", dateTime));
+			if (!dateTime.isBefore(time(2018, 1, 3, 9, 7))) {
+				fromMiddle.updateBar(bar("20180103", dateTime));
+			}
+		}
+		assertEquals(4, fromOpenList.size());
+		assertEquals(4, fromMiddleList.size());
+		assertEquals(time(2018, 1, 3, 9, 7), fromMiddleList.get(0).getDateTime());
+		assertEquals(8, fromMiddleList.get(0).getVolume().intValue());
+		for (int i = 1; i < 4; i++) {
+			assertEquals(fromOpenList.get(i).getDateTime(), fromMiddleList.get(i).getDateTime());
+			assertEquals(fromOpenList.get(i).getVolume(), fromMiddleList.get(i).getVolume());
+		}
+	}
+
+	@Test
+	public void testTradingDayClose() {
+		List<Bar> xMinBarList = new ArrayList<>();
+		SessionXMinBarGenerator generator = new SessionXMinBarGenerator(60, SHFE, xMinBarList::add);
+		// 收盘前最后一分钟到达时立即输出未满的Bar
+		generator.updateBar(bar("20180103", time(2018, 1, 3, 14, 45)));
+		generator.updateBar(bar("20180103", time(2018, 1, 3, 14, 59)));
+		assertEquals(1, xMinBarList.size());
+		assertEquals(2, xMinBarList.get(0).getVolume().intValue());
+		// 重复的Bar被忽略
+		generator.updateBar(bar("20180103", time(2018, 1, 3, 14, 59)));
+		assertEquals(1, xMinBarList.size());
+		// 交易日切换时输出上一交易日未满的Bar
+		generator.updateBar(bar("20180104", time(2018, 1, 3, 21, 0)));
+		generator.updateBar(bar("20180105", time(2018, 1, 4, 21, 0)));
+		assertEquals(2, xMinBarList.size());
+		assertEquals("20180104", xMinBarList.get(1).getTradingDay());
+	}
+
+	private static DateTime time(int year, int month, int day, int hour, int minute) {
+		return new DateTime(year, month, day, hour, minute, ZONE);
+	}
+
+	private static Bar bar(String tradingDay, DateTime dateTime) {
+		Bar bar = new Bar();
+		bar.setExchange(RtConstant.EXCHANGE_SHFE);
+		bar.setRtSymbol("rb1805.SHFE");
+		bar.setTradingDay(tradingDay);
+		bar.setDateTime(dateTime);
+		bar.setOpen(1.0);
+		bar.setHigh(1.0);
+		bar.setLow(1.0);
+		bar.setClose(1.0);
+		bar.setVolume(1);
+		return bar;
+	}
+}
@@ -0,0 +1,75 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+/**
+ * 增量指标与每根Bar按窗口重新计算的简单耗时对比,不作为单元测试运行,需要时直接执行main方法
+ *
+ * @author sun0x00@gmail.com
+ */
+public class IndicatorBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int ROUNDS = 10;
+	private static final int BARS_PER_ROUND = 200000;
+	private static final int[] PERIODS = { 20, 120 };
+
+	public static void main(String[] args) {
+		double[] prices = IndicatorTest.prices(1, BARS_PER_ROUND);
+
+		double blackhole = 0;
+		for (int period : PERIODS) {
+			for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+				SMA sma = new SMA(period);
+				long startNanos = System.nanoTime();
+				for (int i = 0; i < prices.length; i++) {
+					sma.update(prices[i]);
+					blackhole += sma.getValue();
+				}
+				long smaNanos = System.nanoTime() - startNanos;
+
+				RollingStd rollingStd = new RollingStd(period);
+				startNanos = System.nanoTime();
+				for (int i = 0; i < prices.length; i++) {
+					rollingStd.update(prices[i]);
+					blackhole += rollingStd.getValue();
+				}
+				long stdNanos = System.nanoTime() - startNanos;
+
+				RollingMax rollingMax = new RollingMax(period);
+				startNanos = System.nanoTime();
+				for (int i = 0; i < prices.length; i++) {
+					rollingMax.update(prices[i]);
+					blackhole += rollingMax.getValue();
+				}
+				long maxNanos = System.nanoTime() - startNanos;
+
+				startNanos = System.nanoTime();
+				for (int i = 0; i < prices.length; i++) {
+					blackhole += IndicatorTest.naiveMean(prices, i + 1, period);
+				}
+				long naiveSmaNanos = System.nanoTime() - startNanos;
+
+				startNanos = System.nanoTime();
+				for (int i = 0; i < prices.length; i++) {
+					blackhole += IndicatorTest.naiveStd(prices, i + 1, period);
+				}
+				long naiveStdNanos = System.nanoTime() - startNanos;
+
+				startNanos = System.nanoTime();
+				for (int i = 0; i < prices.length; i++) {
+					blackhole += IndicatorTest.naiveMax(prices, i + 1, period);
+				}
+				long naiveMaxNanos = System.nanoTime() - startNanos;
+
+				if (round >= WARMUP_ROUNDS) {
+					System.out.println(String.format(
+							"period %d round %d ns/bar SMA %.1f/%.1f RollingStd %.1f/%.1f RollingMax %.1f/%.1f (增量/重新计算)",
+							period, round - WARMUP_ROUNDS, (double) smaNanos / BARS_PER_ROUND,
+							(double) naiveSmaNanos / BARS_PER_ROUND, (double) stdNanos / BARS_PER_ROUND,
+							(double) naiveStdNanos / BARS_PER_ROUND, (double) maxNanos / BARS_PER_ROUND,
+							(double) naiveMaxNanos / BARS_PER_ROUND));
+				}
+			}
+		}
+		System.out.println("blackhole " + blackhole);
+	}
+}
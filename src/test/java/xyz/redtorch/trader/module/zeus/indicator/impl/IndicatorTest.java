@@ -0,0 +1,322 @@
+package xyz.redtorch.trader.module.zeus.indicator.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 增量指标与每次按窗口或全部历史重新计算的结果对比
+ *
+ * @author sun0x00@gmail.com
+ */
+public class IndicatorTest {
+
+	private static final int[] PERIODS = { 1, 2, 5, 20, 120 };
+	private static final int LENGTH = 3000;
+
+	/**
+	 * 随机游走,包含连续相同的价格,价格水平较高以检验浮点误差
+	 *
+	 * @param seed
+	 * @param length
+	 * @return
+	 */
+	static double[] prices(long seed, int length) {
+		Random random = new Random(seed);
+		double[] prices = new double[length];
+		double price = 100000;
+		for (int i = 0; i < length; i++) {
+			if (random.nextInt(5) != 0) {
+				price += Math.round(random.nextGaussian() * 10) * 0.5;
+			}
+			prices[i] = price;
+		}
+		return prices;
+	}
+
+	@Test
+	public void testSMA() {
+		double[] prices = prices(1, LENGTH);
+		for (int period : PERIODS) {
+			SMA sma = new SMA(period);
+			for (int i = 0; i < prices.length; i++) {
+				sma.update(prices[i]);
+				assertClose("SMA" + period + "@" + i, naiveMean(prices, i + 1, period), sma.getValue());
+				assertEquals(i + 1 >= period, sma.isReady());
+			}
+		}
+	}
+
+	@Test
+	public void testRollingStd() {
+		double[] prices = prices(2, LENGTH);
+		for (int period : PERIODS) {
+			RollingStd rollingStd = new RollingStd(period);
+			for (int i = 0; i < prices.length; i++) {
+				rollingStd.update(prices[i]);
+				assertClose("Mean" + period + "@" + i, naiveMean(prices, i + 1, period), rollingStd.getMean());
+				assertStdClose("Std" + period + "@" + i, naiveStd(prices, i + 1, period), rollingStd.getValue());
+			}
+		}
+	}
+
+	/**
+	 * 价格水平远大于波动时长时间运行不漂移
+	 */
+	@Test
+	public void testRollingStdLongRun() {
+		double[] prices = prices(10, 200000);
+		RollingStd rollingStd = new RollingStd(20);
+		for (int i = 0; i < prices.length; i++) {
+			rollingStd.update(prices[i]);
+		}
+		assertStdClose("Std", naiveStd(prices, prices.length, 20), rollingStd.getValue());
+		assertClose("Mean", naiveMean(prices, prices.length, 20), rollingStd.getMean());
+	}
+
+	@Test
+	public void testBollingerBands() {
+		double[] prices = prices(3, LENGTH);
+		BollingerBands bollingerBands = new BollingerBands(20, 2);
+		for (int i = 0; i < prices.length; i++) {
+			bollingerBands.update(prices[i]);
+			double mean = naiveMean(prices, i + 1, 20);
+			double std = naiveStd(prices, i + 1, 20);
+			assertClose("Middle@" + i, mean, bollingerBands.getMiddle());
+			assertStdClose("Upper@" + i, mean + 2 * std, bollingerBands.getUpper());
+			assertStdClose("Lower@" + i, mean - 2 * std, bollingerBands.getLower());
+		}
+	}
+
+	@Test
+	public void testRollingExtreme() {
+		double[][] seriesArray = { prices(4, LENGTH), monotonic(LENGTH, 1), monotonic(LENGTH, -1),
+				constant(LENGTH) };
+		for (double[] series : seriesArray) {
+			for (int period : PERIODS) {
+				RollingMax rollingMax = new RollingMax(period);
+				RollingMin rollingMin = new RollingMin(period);
+				for (int i = 0; i < series.length; i++) {
+					rollingMax.update(series[i]);
+					rollingMin.update(series[i]);
+					assertEquals("Max" + period + "@" + i, naiveMax(series, i + 1, period), rollingMax.getValue(), 0);
+					assertEquals("Min" + period + "@" + i, naiveMin(series, i + 1, period), rollingMin.getValue(), 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testEMA() {
+		double[] prices = prices(5, LENGTH);
+		for (int period : PERIODS) {
+			EMA ema = new EMA(period);
+			for (int i = 0; i < prices.length; i++) {
+				ema.update(prices[i]);
+				assertClose("EMA" + period + "@" + i, naiveEMA(prices, i + 1, period, 2.0 / (period + 1)),
+						ema.getValue());
+			}
+		}
+	}
+
+	@Test
+	public void testRSI() {
+		double[] prices = prices(6, LENGTH);
+		for (int period : new int[] { 2, 6, 14 }) {
+			RSI rsi = new RSI(period);
+			assertTrue(Double.isNaN(rsi.getValue()));
+			for (int i = 0; i < prices.length; i++) {
+				rsi.update(prices[i]);
+				assertClose("RSI" + period + "@" + i, naiveRSI(prices, i + 1, period), rsi.getValue());
+				assertEquals(i + 1 > period, rsi.isReady());
+			}
+		}
+	}
+
+	@Test
+	public void testATR() {
+		double[] closes = prices(7, LENGTH);
+		Random random = new Random(7);
+		double[] highs = new double[LENGTH];
+		double[] lows = new double[LENGTH];
+		for (int i = 0; i < LENGTH; i++) {
+			highs[i] = closes[i] + random.nextInt(20) * 0.5;
+			lows[i] = closes[i] - random.nextInt(20) * 0.5;
+		}
+		for (int period : new int[] { 1, 14, 20 }) {
+			ATR atr = new ATR(period);
+			for (int i = 0; i < LENGTH; i++) {
+				atr.update(highs[i], lows[i], closes[i]);
+				double[] trueRanges = new double[i + 1];
+				for (int j = 0; j <= i; j++) {
+					trueRanges[j] = highs[j] - lows[j];
+					if (j > 0) {
+						trueRanges[j] = Math.max(trueRanges[j],
+								Math.max(Math.abs(highs[j] - closes[j - 1]), Math.abs(lows[j] - closes[j - 1])));
+					}
+				}
+				assertClose("ATR" + period + "@" + i, naiveEMA(trueRanges, i + 1, period, 1.0 / period),
+						atr.getValue());
+			}
+		}
+	}
+
+	@Test
+	public void testMACD() {
+		double[] prices = prices(8, LENGTH);
+		int fastPeriod = 12;
+		int slowPeriod = 26;
+		int signalPeriod = 9;
+		MACD macd = new MACD(fastPeriod, slowPeriod, signalPeriod);
+		double[] macdValues = new double[LENGTH];
+		for (int i = 0; i < LENGTH; i++) {
+			macd.update(prices[i]);
+			double fast = naiveEMA(prices, i + 1, fastPeriod, 2.0 / (fastPeriod + 1));
+			double slow = naiveEMA(prices, i + 1, slowPeriod, 2.0 / (slowPeriod + 1));
+			macdValues[i] = fast - slow;
+			assertClose("MACD@" + i, macdValues[i], macd.getValue());
+			// 信号线从慢线就绪的那根开始计算
+			int signalStart = slowPeriod - 1;
+			if (i < signalStart) {
+				assertTrue(Double.isNaN(macd.getSignal()));
+			} else {
+				double[] signalInput = new double[i - signalStart + 1];
+				System.arraycopy(macdValues, signalStart, signalInput, 0, signalInput.length);
+				double signal = naiveEMA(signalInput, signalInput.length, signalPeriod, 2.0 / (signalPeriod + 1));
+				assertClose("Signal@" + i, signal, macd.getSignal());
+				assertClose("Histogram@" + i, macdValues[i] - signal, macd.getHistogram());
+			}
+			assertEquals(i + 1 >= slowPeriod + signalPeriod - 1, macd.isReady());
+		}
+	}
+
+	@Test
+	public void testReset() {
+		double[] prices = prices(9, 200);
+		RollingStd rollingStd = new RollingStd(20);
+		RollingMax rollingMax = new RollingMax(20);
+		for (double price : prices) {
+			rollingStd.update(price);
+			rollingMax.update(price);
+		}
+		rollingStd.reset();
+		rollingMax.reset();
+		assertFalse(rollingStd.isReady());
+		assertTrue(Double.isNaN(rollingStd.getValue()));
+		assertTrue(Double.isNaN(rollingMax.getValue()));
+		for (int i = 0; i < 50; i++) {
+			rollingStd.update(prices[i]);
+			rollingMax.update(prices[i]);
+			assertStdClose("Std@" + i, naiveStd(prices, i + 1, 20), rollingStd.getValue());
+			assertEquals(naiveMax(prices, i + 1, 20), rollingMax.getValue(), 0);
+		}
+	}
+
+	/**
+	 * 前n个值中最后period个值(不足时为全部)的均值
+	 */
+	static double naiveMean(double[] values, int n, int period) {
+		int from = Math.max(0, n - period);
+		double sum = 0;
+		for (int i = from; i < n; i++) {
+			sum += values[i];
+		}
+		return sum / (n - from);
+	}
+
+	/**
+	 * 前n个值中最后period个值(不足时为全部)的总体标准差,两遍计算
+	 */
+	static double naiveStd(double[] values, int n, int period) {
+		int from = Math.max(0, n - period);
+		double mean = naiveMean(values, n, period);
+		double sum = 0;
+		for (int i = from; i < n; i++) {
+			sum += (values[i] - mean) * (values[i] - mean);
+		}
+		return Math.sqrt(sum / (n - from));
+	}
+
+	static double naiveMax(double[] values, int n, int period) {
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = Math.max(0, n - period); i < n; i++) {
+			max = Math.max(max, values[i]);
+		}
+		return max;
+	}
+
+	static double naiveMin(double[] values, int n, int period) {
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = Math.max(0, n - period); i < n; i++) {
+			min = Math.min(min, values[i]);
+		}
+		return min;
+	}
+
+	/**
+	 * 从头计算前n个值的EMA,前period个值使用简单平均
+	 */
+	static double naiveEMA(double[] values, int n, int period, double alpha) {
+		if (n == 0) {
+			return Double.NaN;
+		}
+		double ema = naiveMean(values, Math.min(n, period), period);
+		for (int i = period; i < n; i++) {
+			ema += alpha * (values[i] - ema);
+		}
+		return ema;
+	}
+
+	/**
+	 * 从头计算前n个值的RSI,涨跌幅使用Wilder平滑
+	 */
+	static double naiveRSI(double[] values, int n, int period) {
+		if (n < 2) {
+			return Double.NaN;
+		}
+		double[] gains = new double[n - 1];
+		double[] losses = new double[n - 1];
+		for (int i = 1; i < n; i++) {
+			double change = values[i] - values[i - 1];
+			gains[i - 1] = Math.max(change, 0);
+			losses[i - 1] = Math.max(-change, 0);
+		}
+		double gain = naiveEMA(gains, n - 1, period, 1.0 / period);
+		double loss = naiveEMA(losses, n - 1, period, 1.0 / period);
+		if (loss == 0) {
+			return gain == 0 ? 50 : 100;
+		}
+		return 100 - 100 / (1 + gain / loss);
+	}
+
+	private static double[] monotonic(int length, int direction) {
+		double[] values = new double[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = direction * i;
+		}
+		return values;
+	}
+
+	private static double[] constant(int length) {
+		double[] values = new double[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = 42;
+		}
+		return values;
+	}
+
+	private static void assertClose(String message, double expected, double actual) {
+		assertEquals(message, expected, actual, 1e-9 * Math.max(1, Math.abs(expected)));
+	}
+
+	/**
+	 * 标准差接近0时开方会放大方差的舍入误差,使用绝对误差
+	 */
+	private static void assertStdClose(String message, double expected, double actual) {
+		assertEquals(message, expected, actual, 1e-6);
+	}
+}
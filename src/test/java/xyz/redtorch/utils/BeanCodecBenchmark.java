@@ -0,0 +1,194 @@
+package xyz.redtorch.utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Date;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.joda.time.DateTime;
+
+import xyz.redtorch.trader.entity.Tick;
+
+/**
+ * BeanCodec与逐次反射的Tick编解码简单测试,不作为单元测试运行,需要时直接执行main方法
+ *
+ * 逐次反射参照原MongoDBUtil的实现:每次转换都重新获取字段、getter和setter。
+ * 反射方式过慢,只转换十分之一的文档,结果按单个文档耗时比较
+ *
+ * @author sun0x00@gmail.com
+ */
+public class BeanCodecBenchmark {
+
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int ROUNDS = 5;
+	private static final int DOCUMENTS = 1000000;
+	private static final int REFLECTIVE_DOCUMENTS = DOCUMENTS / 10;
+	// 不同的文档数量,循环使用,避免整批文档占用过多内存
+	private static final int DISTINCT_DOCUMENTS = 1000;
+
+	public static void main(String[] args) throws Exception {
+		BeanCodec<Tick> beanCodec = BeanCodec.of(Tick.class);
+		Tick[] ticks = new Tick[DISTINCT_DOCUMENTS];
+		Document[] documents = new Document[DISTINCT_DOCUMENTS];
+		RawBsonDocument[] rawBsonDocuments = new RawBsonDocument[DISTINCT_DOCUMENTS];
+		for (int i = 0; i < DISTINCT_DOCUMENTS; i++) {
+			ticks[i] = createTick(i);
+			documents[i] = beanCodec.toDocument(ticks[i]);
+			rawBsonDocuments[i] = new RawBsonDocument(ticks[i], beanCodec);
+		}
+
+		// 两种方式解码结果应一致
+		for (int i = 0; i < DISTINCT_DOCUMENTS; i++) {
+			Document expected = beanCodec.toDocument(beanCodec.fromDocument(documents[i], new Tick()));
+			Document actual = Reflective.beanToDocument(Reflective.documentToBean(documents[i], new Tick()));
+			if (!expected.equals(actual)) {
+				throw new IllegalStateException("解码结果不一致 " + expected + " " + actual);
+			}
+		}
+
+		DocumentCodec documentCodec = new DocumentCodec();
+		long blackhole = 0;
+		for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+			long startNanos = System.nanoTime();
+			for (int i = 0; i < REFLECTIVE_DOCUMENTS; i++) {
+				blackhole += Reflective.beanToDocument(ticks[i % DISTINCT_DOCUMENTS]).size();
+			}
+			long reflectiveEncodeNanos = System.nanoTime() - startNanos;
+
+			startNanos = System.nanoTime();
+			for (int i = 0; i < DOCUMENTS; i++) {
+				blackhole += beanCodec.toDocument(ticks[i % DISTINCT_DOCUMENTS]).size();
+			}
+			long codecEncodeNanos = System.nanoTime() - startNanos;
+
+			startNanos = System.nanoTime();
+			for (int i = 0; i < REFLECTIVE_DOCUMENTS; i++) {
+				blackhole += Reflective.documentToBean(documents[i % DISTINCT_DOCUMENTS], new Tick()).getVolume();
+			}
+			long reflectiveDecodeNanos = System.nanoTime() - startNanos;
+
+			startNanos = System.nanoTime();
+			for (int i = 0; i < DOCUMENTS; i++) {
+				blackhole += beanCodec.fromDocument(documents[i % DISTINCT_DOCUMENTS], new Tick()).getVolume();
+			}
+			long codecDecodeNanos = System.nanoTime() - startNanos;
+
+			// 从数据库读取时的路径:原方式BSON->Document->Bean,现方式BSON直接解码为Bean
+			startNanos = System.nanoTime();
+			for (int i = 0; i < REFLECTIVE_DOCUMENTS; i++) {
+				Document document = rawBsonDocuments[i % DISTINCT_DOCUMENTS].decode(documentCodec);
+				blackhole += Reflective.documentToBean(document, new Tick()).getVolume();
+			}
+			long reflectiveBsonNanos = System.nanoTime() - startNanos;
+
+			startNanos = System.nanoTime();
+			for (int i = 0; i < DOCUMENTS; i++) {
+				blackhole += rawBsonDocuments[i % DISTINCT_DOCUMENTS].decode(beanCodec).getVolume();
+			}
+			long codecBsonNanos = System.nanoTime() - startNanos;
+
+			if (round >= WARMUP_ROUNDS) {
+				System.out.println(String.format(
+						"round %d bean->document reflective %.0f ns codec %.0f ns | document->bean reflective %.0f ns codec %.0f ns | bson->bean reflective %.0f ns codec %.0f ns",
+						round - WARMUP_ROUNDS, (double) reflectiveEncodeNanos / REFLECTIVE_DOCUMENTS,
+						(double) codecEncodeNanos / DOCUMENTS, (double) reflectiveDecodeNanos / REFLECTIVE_DOCUMENTS,
+						(double) codecDecodeNanos / DOCUMENTS, (double) reflectiveBsonNanos / REFLECTIVE_DOCUMENTS,
+						(double) codecBsonNanos / DOCUMENTS));
+			}
+		}
+		System.out.println("blackhole " + blackhole);
+	}
+
+	private static Tick createTick(int i) {
+		Tick tick = new Tick();
+		tick.setGatewayID("CTP");
+		tick.setSymbol("rb1805");
+		tick.setExchange("SHFE");
+		tick.setRtSymbol("rb1805.SHFE");
+		tick.setTradingDay("20180105");
+		tick.setActionDay("20180105");
+		tick.setDateTime(new DateTime(1515114000000L + i * 500L));
+		tick.setActionTimestamp(1515114000000L + i * 500L);
+		tick.setLastPrice(3900 + i % 50);
+		tick.setLastVolume(i % 20);
+		tick.setVolume(100000 + i);
+		tick.setOpenInterest(2000000 + i);
+		tick.setPreOpenInterest(2000000);
+		tick.setPreClosePrice(3890);
+		tick.setPreSettlePrice(3888);
+		tick.setOpenPrice(3895);
+		tick.setHighPrice(3950);
+		tick.setLowPrice(3880);
+		tick.setUpperLimit(4200);
+		tick.setLowerLimit(3600);
+		tick.setBidPrice1(3899 + i % 50);
+		tick.setAskPrice1(3900 + i % 50);
+		tick.setBidVolume1(10 + i % 7);
+		tick.setAskVolume1(12 + i % 5);
+		return tick;
+	}
+
+	/**
+	 * 原MongoDBUtil的逐次反射实现,省略了类型不匹配时的转换和日志
+	 */
+	private static class Reflective {
+
+		static Document beanToDocument(Object bean) throws Exception {
+			Document document = new Document();
+			for (Field field : bean.getClass().getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+					continue;
+				}
+				String varName = field.getName();
+				field.setAccessible(true);
+				Object param = field.get(bean);
+				if (param == null) {
+					// 延迟生成的属性需要通过getter读取
+					String upperCaseVarName = varName.substring(0, 1).toUpperCase() + varName.substring(1);
+					try {
+						param = bean.getClass().getMethod("get" + upperCaseVarName).invoke(bean);
+					} catch (NoSuchMethodException e) {
+						param = null;
+					}
+				}
+				if (param instanceof DateTime) {
+					document.put(varName, ((DateTime) param).toDate());
+				} else if (param != null) {
+					document.put(varName, param);
+				}
+			}
+			return document;
+		}
+
+		static <T> T documentToBean(Document document, T bean) throws Exception {
+			for (Field field : bean.getClass().getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+					continue;
+				}
+				String varName = field.getName();
+				Object object = document.get(varName);
+				if (object != null) {
+					setProperty(bean, varName, object);
+				}
+			}
+			return bean;
+		}
+
+		static void setProperty(Object bean, String varName, Object object) throws Exception {
+			String upperCaseVarName = varName.substring(0, 1).toUpperCase() + varName.substring(1);
+			Class<?> fieldType = bean.getClass().getDeclaredField(varName).getType();
+			String type = ClassUtils.primitiveToWrapper(fieldType).getName();
+			if (type.equals("org.joda.time.DateTime")) {
+				Method m = bean.getClass().getMethod("set" + upperCaseVarName, DateTime.class);
+				m.invoke(bean, new DateTime(((Date) object).getTime()));
+			} else {
+				Method m = bean.getClass().getMethod("set" + upperCaseVarName, fieldType);
+				m.invoke(bean, object);
+			}
+		}
+	}
+}